@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.fixtures.event.batch.AsyncBatchEvent;
+import org.seedstack.business.fixtures.event.batch.AsyncBatchHandler;
+import org.seedstack.business.fixtures.event.batch.BatchEvent;
+import org.seedstack.business.fixtures.event.batch.BatchService;
+import org.seedstack.business.fixtures.event.batch.SyncBatchHandler;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(SeedITRunner.class)
+public class BatchEventHandlerIT {
+    @Inject
+    private EventService eventService;
+    @Inject
+    private BatchService batchService;
+
+    @Before
+    public void setUp() {
+        SyncBatchHandler.batches.clear();
+        AsyncBatchHandler.batches.clear();
+        AsyncBatchHandler.threads.clear();
+    }
+
+    @Test
+    public void events_are_delivered_immediately_without_unit_of_work() {
+        eventService.fire(new BatchEvent(1));
+        eventService.fire(new BatchEvent(2));
+
+        assertThat(SyncBatchHandler.batches).containsExactly(list(1), list(2));
+    }
+
+    @Test
+    public void events_are_batched_until_the_end_of_the_unit_of_work() {
+        int deliveredDuringUnitOfWork = batchService.fire(7);
+
+        assertThat(deliveredDuringUnitOfWork).isEqualTo(2);
+        assertThat(SyncBatchHandler.batches).containsExactly(list(1, 2, 3), list(4, 5, 6), list(7));
+    }
+
+    @Test
+    public void subclass_events_share_the_batches_of_the_registered_event_class() {
+        batchService.fireMixed(4);
+
+        assertThat(SyncBatchHandler.batches).containsExactly(list(1, 2, 3), list(4));
+    }
+
+    @Test
+    public void pending_events_are_discarded_when_the_unit_of_work_fails() {
+        try {
+            batchService.fireThenFail(4);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("failure");
+        }
+
+        assertThat(SyncBatchHandler.batches).containsExactly(list(1, 2, 3));
+    }
+
+    @Test
+    public void async_events_are_delivered_on_a_background_thread() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            eventService.fire(new AsyncBatchEvent(i));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (AsyncBatchHandler.batches.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(AsyncBatchHandler.batches).containsExactly(list(1, 2), list(3, 4), list(5));
+        assertThat(AsyncBatchHandler.threads).containsOnly("business-batch-events");
+    }
+
+    private static List<Integer> list(Integer... values) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.domain.Factory;
+import org.seedstack.business.fixtures.identity.deferred.DeferredAggregate;
+import org.seedstack.business.fixtures.identity.deferred.DeferredIdentityService;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SeedITRunner.class)
+public class DeferredIdentityIT {
+    @Inject
+    private DeferredIdentityService deferredIdentityService;
+    @Inject
+    private Factory<DeferredAggregate> factory;
+
+    @Test
+    public void identity_is_not_generated_for_discarded_aggregates() {
+        assertThat(deferredIdentityService.createOnly().getEntityId()).isNull();
+    }
+
+    @Test
+    public void all_pending_aggregates_are_identified_on_first_persist() {
+        List<DeferredAggregate> aggregates = deferredIdentityService.createThenPersistFirst();
+
+        assertThat(aggregates.get(0).getEntityId()).isNotNull();
+        assertThat(aggregates.get(1).getEntityId()).isNotNull();
+    }
+
+    @Test
+    public void pending_aggregates_are_identified_on_explicit_flush() {
+        List<DeferredAggregate> aggregates = deferredIdentityService.createThenFlush();
+
+        assertThat(aggregates.get(0).getEntityId()).isNotNull();
+        assertThat(aggregates.get(1).getEntityId()).isNotNull();
+    }
+
+    @Test
+    public void identity_is_generated_immediately_outside_of_a_unit_of_work() {
+        assertThat(factory.create().getEntityId()).isNotNull();
+    }
+}
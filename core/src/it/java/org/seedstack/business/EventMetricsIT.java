@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.fixtures.event.MyEvent;
+import org.seedstack.business.fixtures.event.MyEvent2;
+import org.seedstack.business.fixtures.event.MyEventHandler;
+import org.seedstack.business.fixtures.event.MyEventHandlerFailed;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.business.metrics.EventHandlerMetrics;
+import org.seedstack.business.metrics.InMemoryEventMetrics;
+import org.seedstack.business.spi.EventMetricsSink;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(SeedITRunner.class)
+public class EventMetricsIT {
+    @Inject
+    private EventService eventService;
+    @Inject
+    private InMemoryEventMetrics eventMetrics;
+    @Inject
+    private EventMetricsSink eventMetricsSink;
+    @Inject
+    private EventDeliveryMetrics eventDeliveryMetrics;
+
+    @Before
+    public void setUp() {
+        eventMetrics.reset();
+        eventDeliveryMetrics.reset();
+    }
+
+    @Test
+    public void configured_sink_is_a_singleton() {
+        assertThat(eventMetricsSink).isSameAs(eventMetrics);
+    }
+
+    @Test
+    public void handler_invocations_are_recorded() {
+        eventService.fire(new MyEvent());
+        eventService.fire(new MyEvent());
+
+        EventHandlerMetrics metrics = eventMetrics.getMetrics(MyEvent.class, MyEventHandler.class);
+        assertThat(metrics).isNotNull();
+        assertThat(metrics.getInvocationCount()).isEqualTo(2);
+        assertThat(metrics.getFailureCount()).isEqualTo(0);
+        assertThat(metrics.getLatency().getCount()).isEqualTo(2);
+        assertThat(metrics.getDepth().getMax()).isEqualTo(1);
+    }
+
+    @Test
+    public void handler_deliveries_are_counted() {
+        eventService.fire(new MyEvent());
+
+        assertThat(eventDeliveryMetrics.getMetrics(MyEvent.class, MyEventHandler.class).getDeliveryCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void handler_failures_are_recorded() {
+        try {
+            eventService.fire(new MyEvent2());
+            fail();
+        } catch (Exception e) {
+            assertThat(e).isNotNull();
+        }
+
+        EventHandlerMetrics metrics = eventMetrics.getMetrics(MyEvent2.class, MyEventHandlerFailed.class);
+        assertThat(metrics.getInvocationCount()).isEqualTo(1);
+        assertThat(metrics.getFailureCount()).isEqualTo(1);
+    }
+}
@@ -17,6 +17,7 @@ import org.seedstack.business.domain.Factory;
 import org.seedstack.business.fixtures.identity.MyAggregate;
 import org.seedstack.business.fixtures.identity.MyAggregateFactory;
 import org.seedstack.business.fixtures.identity.MyEntity;
+import org.seedstack.business.fixtures.identity.snowflake.SnowflakeAggregate;
 import org.seedstack.seed.it.SeedITRunner;
 
 import javax.inject.Inject;
@@ -30,6 +31,9 @@ public class IdentityHandlerIT {
 
     @Inject
     private Factory<MyAggregate> factory;
+
+    @Inject
+    private Factory<SnowflakeAggregate> snowflakeFactory;
 	
 	@Test
 	public void testCustomFactory(){
@@ -47,4 +51,12 @@ public class IdentityHandlerIT {
         Assertions.assertThat(myAggregate.getEntityId()).isNotNull();
     }
 
+    @Test
+    public void testSnowflakeIdentities() {
+        Long first = snowflakeFactory.create().getEntityId();
+        Long second = snowflakeFactory.create().getEntityId();
+        Assertions.assertThat(first).isNotNull();
+        Assertions.assertThat(second).isGreaterThan(first);
+        Assertions.assertThat((second >> 12) & 1023).isEqualTo(42);
+    }
 }
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.fixtures.identitymap.MappedAggregate;
+import org.seedstack.business.fixtures.identitymap.MappedAggregateRepository;
+import org.seedstack.business.fixtures.identitymap.MappedLoadsService;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SeedITRunner.class)
+public class IdentityMapIT {
+    @Inject
+    private MappedLoadsService mappedLoadsService;
+    @Inject
+    private MappedAggregateRepository repository;
+
+    @Before
+    public void setUp() {
+        repository.clear();
+        repository.persist(new MappedAggregate("1"));
+    }
+
+    @Test
+    public void repeated_loads_of_a_unit_of_work_return_the_same_instance() {
+        int storeLoads = repository.getStoreLoadCount();
+
+        List<MappedAggregate> loaded = mappedLoadsService.loadTwice("1");
+        assertThat(loaded.get(1)).isSameAs(loaded.get(0));
+        assertThat(repository.getStoreLoadCount()).isEqualTo(storeLoads + 1);
+    }
+
+    @Test
+    public void identity_map_is_released_at_the_end_of_the_unit_of_work() {
+        MappedAggregate first = mappedLoadsService.loadTwice("1").get(0);
+        MappedAggregate second = mappedLoadsService.loadTwice("1").get(0);
+
+        assertThat(second).isNotSameAs(first);
+    }
+
+    @Test
+    public void deleted_aggregates_are_unmapped() {
+        List<MappedAggregate> loaded = mappedLoadsService.loadDeleteLoad("1");
+
+        assertThat(loaded.get(0)).isNotNull();
+        assertThat(loaded.get(1)).isNull();
+    }
+
+    @Test
+    public void loads_outside_of_a_unit_of_work_are_not_mapped() {
+        assertThat(repository.load("1")).isNotSameAs(repository.load("1"));
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.domain.InMemory;
+import org.seedstack.business.domain.IndexedRepository;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.domain.VersionConflictException;
+import org.seedstack.business.fixtures.inmemory.Sample;
+import org.seedstack.business.internal.repository.DefaultInMemoryRepository;
+import org.seedstack.seed.SeedException;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SeedITRunner.class)
+public class InMemoryRepositoryIT {
+    @Inject
+    private Repository<Sample, Long> repository;
+    @Inject
+    @InMemory
+    private Repository<Sample, Long> qualifiedRepository;
+
+    @Before
+    public void setUp() {
+        repository.clear();
+    }
+
+    @Test
+    public void in_memory_repository_is_selected_by_configuration() {
+        assertThat(repository).isInstanceOf(DefaultInMemoryRepository.class);
+    }
+
+    @Test
+    public void aggregates_are_shared_by_all_instances() {
+        Sample sample = new Sample(1L, "first");
+        repository.persist(sample);
+
+        assertThat(qualifiedRepository.load(1L).getLabel()).isEqualTo("first");
+        assertThat(qualifiedRepository.exists(1L)).isTrue();
+        qualifiedRepository.delete(1L);
+        assertThat(repository.exists(1L)).isFalse();
+    }
+
+    @Test
+    public void loaded_aggregates_are_not_shared() {
+        repository.persist(new Sample(1L, "first"));
+
+        assertThat(repository.load(1L)).isNotSameAs(repository.load(1L));
+    }
+
+    @Test(expected = VersionConflictException.class)
+    public void concurrently_loaded_aggregates_conflict_when_saved() {
+        repository.persist(new Sample(1L, "first"));
+        Sample first = repository.load(1L);
+        Sample second = repository.load(1L);
+
+        repository.save(first);
+        repository.save(second);
+    }
+
+    @Test(expected = SeedException.class)
+    public void existing_aggregates_cannot_be_persisted_again() {
+        repository.persist(new Sample(1L, "first"));
+        repository.persist(new Sample(1L, "second"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void aggregates_can_be_found_by_indexed_fields() {
+        repository.persist(new Sample(1L, "b"));
+        repository.persist(new Sample(2L, "a"));
+        repository.persist(new Sample(3L, "c"));
+        IndexedRepository<Sample, Long> indexedRepository = (IndexedRepository<Sample, Long>) repository;
+
+        assertThat(indexedRepository.find("label", "c")).extracting("entityId").containsExactly(3L);
+        assertThat(indexedRepository.findRange("label", "a", "c")).extracting("entityId").containsExactly(2L, 1L);
+        assertThat(indexedRepository.find(Collections.singletonMap("label", "a"))).extracting("entityId").containsExactly(2L);
+    }
+
+    @Test
+    public void concurrent_writes_are_all_stored() throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long offset = t * 1000L;
+                futures.add(executorService.submit(() -> {
+                    for (long i = 0; i < 1000; i++) {
+                        repository.persist(new Sample(offset + i, "sample"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        assertThat(repository.count()).isEqualTo(8000);
+        assertThat(((DefaultInMemoryRepository<Sample, Long>) repository).snapshot()).hasSize(8000);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.domain.OffHeap;
+import org.seedstack.business.domain.OptimisticRetry;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.domain.VersionConflictException;
+import org.seedstack.business.fixtures.offheap.Counter;
+import org.seedstack.business.fixtures.offheap.ReferenceData;
+import org.seedstack.business.internal.repository.DefaultOffHeapRepository;
+import org.seedstack.seed.SeedException;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SeedITRunner.class)
+public class OffHeapRepositoryIT {
+    @Inject
+    private Repository<ReferenceData, String> repository;
+    @Inject
+    @OffHeap
+    private Repository<ReferenceData, String> qualifiedRepository;
+    @Inject
+    private Repository<Counter, String> counterRepository;
+
+    @Before
+    public void setUp() {
+        repository.clear();
+        counterRepository.clear();
+    }
+
+    @Test
+    public void off_heap_repository_is_selected_by_configuration() {
+        assertThat(repository).isInstanceOf(DefaultOffHeapRepository.class);
+    }
+
+    @Test
+    public void loaded_aggregates_are_copies() {
+        ReferenceData referenceData = new ReferenceData("FR", "France");
+        repository.persist(referenceData);
+        referenceData.setLabel("changed");
+
+        ReferenceData loaded = qualifiedRepository.load("FR");
+        assertThat(loaded).isNotSameAs(referenceData);
+        assertThat(loaded.getLabel()).isEqualTo("France");
+        loaded.setLabel("République française");
+        qualifiedRepository.save(loaded);
+        assertThat(repository.load("FR").getLabel()).isEqualTo("République française");
+    }
+
+    @Test
+    public void aggregates_are_deleted() {
+        repository.persist(new ReferenceData("FR", "France"));
+        repository.persist(new ReferenceData("DE", "Germany"));
+
+        repository.delete("FR");
+
+        assertThat(repository.exists("FR")).isFalse();
+        assertThat(repository.exists("DE")).isTrue();
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test(expected = SeedException.class)
+    public void existing_aggregates_cannot_be_persisted_again() {
+        repository.persist(new ReferenceData("FR", "France"));
+        repository.persist(new ReferenceData("FR", "France"));
+    }
+
+    @Test(expected = VersionConflictException.class)
+    public void concurrent_modifications_are_detected() {
+        counterRepository.persist(new Counter("hits"));
+        Counter first = counterRepository.load("hits");
+        Counter second = counterRepository.load("hits");
+        first.increment();
+        counterRepository.save(first);
+        second.increment();
+        counterRepository.save(second);
+    }
+
+    @Test
+    public void conflicting_updates_are_retried() throws Exception {
+        counterRepository.persist(new Counter("hits"));
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        OptimisticRetry.run(100, () -> {
+                            Counter counter = counterRepository.load("hits");
+                            counter.increment();
+                            counterRepository.save(counter);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+
+        Counter counter = counterRepository.load("hits");
+        assertThat(counter.getValue()).isEqualTo(200);
+        assertThat(counter.getAggregateVersion()).isEqualTo(201);
+    }
+
+    @Test
+    public void compaction_keeps_stored_aggregates() {
+        for (int i = 0; i < 1000; i++) {
+            repository.save(new ReferenceData("C" + (i % 10), "label" + i));
+        }
+
+        ((DefaultOffHeapRepository<ReferenceData, String>) repository).compact();
+
+        assertThat(repository.count()).isEqualTo(10);
+        assertThat(repository.load("C9").getLabel()).isEqualTo("label999");
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.fixtures.partitioned.FirstPartitionRepository;
+import org.seedstack.business.fixtures.partitioned.Reading;
+import org.seedstack.business.fixtures.partitioned.ReadingImportService;
+import org.seedstack.business.fixtures.partitioned.ReadingMapRepository;
+import org.seedstack.business.fixtures.partitioned.SecondPartitionRepository;
+import org.seedstack.business.fixtures.partitioned.ThirdPartitionRepository;
+import org.seedstack.business.internal.repository.DefaultPartitionedRepository;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SeedITRunner.class)
+public class PartitionedRepositoryIT {
+    @Inject
+    private Repository<Reading, Long> repository;
+    @Inject
+    @Named("partition1")
+    private Repository<Reading, Long> firstPartition;
+    @Inject
+    @Named("partition2")
+    private Repository<Reading, Long> secondPartition;
+    @Inject
+    @Named("partition3")
+    private Repository<Reading, Long> thirdPartition;
+    @Inject
+    private ReadingImportService readingImportService;
+
+    @Before
+    public void setUp() {
+        repository.clear();
+        ReadingMapRepository.getBulkThreads().clear();
+    }
+
+    @Test
+    public void partitioned_repository_is_selected_by_configuration() {
+        assertThat(repository).isInstanceOf(DefaultPartitionedRepository.class);
+        assertThat(((DefaultPartitionedRepository<Reading, Long>) repository).partitionOf(150L)).isInstanceOf(SecondPartitionRepository.class);
+    }
+
+    @Test
+    public void aggregates_are_routed_by_key_range() {
+        repository.persist(new Reading(5L, 1));
+        repository.persist(new Reading(100L, 2));
+        repository.persist(new Reading(250L, 3));
+
+        assertThat(firstPartition.exists(5L)).isTrue();
+        assertThat(secondPartition.exists(100L)).isTrue();
+        assertThat(thirdPartition.exists(250L)).isTrue();
+        assertThat(repository.load(100L).getValue()).isEqualTo(2);
+        repository.delete(250L);
+        assertThat(thirdPartition.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void count_and_clear_involve_all_partitions() {
+        repository.persist(new Reading(1L, 1));
+        repository.persist(new Reading(101L, 2));
+        repository.persist(new Reading(201L, 3));
+        repository.persist(new Reading(202L, 4));
+
+        assertThat(repository.count()).isEqualTo(4);
+        repository.clear();
+        assertThat(firstPartition.count() + secondPartition.count() + thirdPartition.count()).isEqualTo(0);
+    }
+
+    @Test
+    public void bulk_operations_are_grouped_by_partition() {
+        List<Reading> readings = new ArrayList<>();
+        for (long i = 0; i < 300; i++) {
+            readings.add(new Reading(i, i));
+        }
+
+        repository.persistAll(readings);
+
+        assertThat(firstPartition.count()).isEqualTo(100);
+        assertThat(secondPartition.count()).isEqualTo(100);
+        assertThat(thirdPartition.count()).isEqualTo(100);
+        assertThat(ReadingMapRepository.getBulkThreads()).isNotEmpty().allMatch(name -> name.startsWith("business-partition-"));
+        Map<Long, Reading> loaded = repository.loadAll(Arrays.asList(250L, 5L, 1000L, 150L));
+        assertThat(loaded.keySet()).containsExactly(250L, 5L, 150L);
+        repository.deleteAll(Arrays.asList(5L, 150L, 250L));
+        assertThat(repository.count()).isEqualTo(297);
+    }
+
+    @Test
+    public void partitions_are_processed_on_the_calling_thread_within_a_transaction() {
+        List<Reading> readings = new ArrayList<>();
+        for (long i = 0; i < 300; i++) {
+            readings.add(new Reading(i, i));
+        }
+
+        readingImportService.importInTransaction(readings);
+
+        assertThat(repository.count()).isEqualTo(300);
+        assertThat(ReadingMapRepository.getBulkThreads()).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void partition_repositories_are_bound_with_their_qualifier() {
+        assertThat(firstPartition).isInstanceOf(FirstPartitionRepository.class);
+        assertThat(thirdPartition).isInstanceOf(ThirdPartitionRepository.class);
+    }
+}
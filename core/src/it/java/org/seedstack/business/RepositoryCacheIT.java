@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.fixtures.cache.CachedAggregate;
+import org.seedstack.business.fixtures.cache.CachedAggregateRepository;
+import org.seedstack.business.fixtures.cache.CachedAggregateService;
+import org.seedstack.business.metrics.AggregateCacheMetrics;
+import org.seedstack.business.metrics.RepositoryCacheMetrics;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SeedITRunner.class)
+public class RepositoryCacheIT {
+    @Inject
+    private CachedAggregateRepository repository;
+    @Inject
+    private CachedAggregateService cachedAggregateService;
+    @Inject
+    private RepositoryCacheMetrics repositoryCacheMetrics;
+
+    @Before
+    public void setUp() {
+        repository.clear();
+        repositoryCacheMetrics.reset();
+    }
+
+    @Test
+    public void loaded_aggregates_are_cached() {
+        repository.persist(new CachedAggregate("1", "first"));
+        int storeLoads = repository.getStoreLoadCount();
+
+        CachedAggregate loaded = repository.load("1");
+        CachedAggregate cached = repository.load("1");
+        assertThat(cached).isNotSameAs(loaded);
+        assertThat(cached.getName()).isEqualTo("first");
+        assertThat(repository.getStoreLoadCount()).isEqualTo(storeLoads + 1);
+        assertThat(metrics().getHitCount()).isEqualTo(1);
+        assertThat(metrics().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void cache_is_invalidated_on_save_and_delete() {
+        repository.persist(new CachedAggregate("1", "first"));
+        repository.load("1");
+
+        repository.save(new CachedAggregate("1", "updated"));
+        assertThat(repository.load("1").getName()).isEqualTo("updated");
+
+        repository.delete("1");
+        assertThat(repository.load("1")).isNull();
+        assertThat(metrics().getInvalidationCount()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void aggregates_written_in_a_transaction_bypass_the_cache_until_it_is_over() {
+        repository.persist(new CachedAggregate("1", "first"));
+        repository.load("1");
+        int storeLoads = repository.getStoreLoadCount();
+        long invalidations = metrics().getInvalidationCount();
+
+        assertThat(cachedAggregateService.saveThenLoad(new CachedAggregate("1", "updated")).getName()).isEqualTo("updated");
+
+        assertThat(repository.getStoreLoadCount()).isEqualTo(storeLoads + 1);
+        assertThat(metrics().getInvalidationCount()).isEqualTo(invalidations + 2);
+        assertThat(metrics().getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void missing_aggregates_are_not_cached() {
+        int storeLoads = repository.getStoreLoadCount();
+
+        assertThat(repository.load("unknown")).isNull();
+        assertThat(repository.load("unknown")).isNull();
+        assertThat(repository.getStoreLoadCount()).isEqualTo(storeLoads + 2);
+    }
+
+    @Test
+    public void cache_size_is_bounded() {
+        for (int i = 0; i < 5; i++) {
+            repository.persist(new CachedAggregate(String.valueOf(i), "aggregate" + i));
+            repository.load(String.valueOf(i));
+        }
+
+        assertThat(metrics().getSize()).isLessThanOrEqualTo(2);
+        assertThat(metrics().getEvictionCount()).isGreaterThanOrEqualTo(3);
+    }
+
+    private AggregateCacheMetrics metrics() {
+        return repositoryCacheMetrics.getMetrics(CachedAggregate.class);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.fixtures.domain.product.Product;
+import org.seedstack.business.fixtures.domain.product.ProductFactory;
+import org.seedstack.business.fixtures.domain.product.ProductId;
+import org.seedstack.business.fixtures.domain.product.ProductRepository;
+import org.seedstack.business.metrics.RepositoryMetrics;
+import org.seedstack.business.metrics.RepositoryOperation;
+import org.seedstack.business.metrics.RepositoryOperationMetrics;
+import org.seedstack.seed.it.SeedITRunner;
+import org.seedstack.seed.persistence.inmemory.Store;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Store("ProductInMemoryRepository")
+@RunWith(SeedITRunner.class)
+public class RepositoryMetricsIT {
+    @Inject
+    private ProductRepository productRepository;
+    @Inject
+    private ProductFactory productFactory;
+    @Inject
+    private RepositoryMetrics repositoryMetrics;
+
+    @Before
+    public void setUp() {
+        repositoryMetrics.reset();
+    }
+
+    @Test
+    public void repository_operations_are_recorded() {
+        Product product = productFactory.createProduct((short) 12, (short) 34);
+        productRepository.persist(product);
+        productRepository.load(product.getEntityId());
+        productRepository.load(product.getEntityId());
+        productRepository.delete(product.getEntityId());
+
+        assertThat(metricsOf(RepositoryOperation.PERSIST).getCallCount()).isEqualTo(1);
+        assertThat(metricsOf(RepositoryOperation.READ).getCallCount()).isEqualTo(2);
+        assertThat(metricsOf(RepositoryOperation.READ).getLatency().getCount()).isEqualTo(2);
+        assertThat(metricsOf(RepositoryOperation.DELETE).getCallCount()).isEqualTo(1);
+        assertThat(metricsOf(RepositoryOperation.DELETE).getFailureCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void bulk_operations_are_recorded_once_per_aggregate() {
+        Product first = productFactory.createProduct((short) 13, (short) 35);
+        Product second = productFactory.createProduct((short) 14, (short) 36);
+        productRepository.persistAll(Arrays.asList(first, second));
+        productRepository.loadAll(Arrays.asList(first.getEntityId(), second.getEntityId()));
+        productRepository.deleteAll(Arrays.asList(first.getEntityId(), second.getEntityId()));
+
+        assertThat(metricsOf(RepositoryOperation.PERSIST).getCallCount()).isEqualTo(2);
+        assertThat(metricsOf(RepositoryOperation.READ).getCallCount()).isEqualTo(2);
+        assertThat(metricsOf(RepositoryOperation.DELETE).getCallCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void all_metrics_can_be_listed() {
+        productRepository.load(new ProductId((short) 1, "unknown"));
+
+        assertThat(repositoryMetrics.getAllMetrics()).extracting("aggregateRootClass").contains(Product.class);
+    }
+
+    private RepositoryOperationMetrics metricsOf(RepositoryOperation operation) {
+        return repositoryMetrics.getMetrics(Product.class, operation);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.seedstack.business.fixtures.writebehind.BufferedAggregate;
+import org.seedstack.business.fixtures.writebehind.BufferedAggregateMapRepository;
+import org.seedstack.business.fixtures.writebehind.BufferedAggregateRepository;
+import org.seedstack.business.fixtures.writebehind.BufferedWritesService;
+import org.seedstack.business.fixtures.writebehind.PersistedBatchHandler;
+import org.seedstack.seed.it.SeedITRunner;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+@RunWith(SeedITRunner.class)
+public class WriteBehindIT {
+    @Inject
+    private BufferedWritesService bufferedWritesService;
+    @Inject
+    private BufferedAggregateRepository repository;
+
+    @Before
+    public void setUp() {
+        repository.clear();
+        PersistedBatchHandler.batches.clear();
+        BufferedAggregateMapRepository.transactionalWrites.clear();
+    }
+
+    @Test
+    public void writes_are_buffered_and_collapsed_until_the_end_of_the_unit_of_work() {
+        assertThat(bufferedWritesService.writeThenReadBack()).containsExactly("load:1:3", "exists:2:false");
+        assertThat(repository.getStoreWrites()).containsExactly("persist:1:3");
+    }
+
+    @Test
+    public void other_reads_observe_buffered_writes() {
+        assertThat(bufferedWritesService.writeThenCount()).isEqualTo(1);
+        assertThat(repository.getStoreWrites()).containsExactly("persist:3:1");
+    }
+
+    @Test
+    public void writes_of_a_failed_unit_of_work_are_discarded() {
+        try {
+            bufferedWritesService.writeThenFail();
+            fail("should have failed");
+        } catch (IllegalStateException e) {
+            assertThat(repository.getStoreWrites()).isEmpty();
+            assertThat(repository.exists("4")).isFalse();
+        }
+    }
+
+    @Test
+    public void writes_outside_of_a_unit_of_work_are_immediate() {
+        repository.persist(new BufferedAggregate("5", 1));
+        assertThat(repository.getStoreWrites()).containsExactly("persist:5:1");
+    }
+
+    @Test
+    public void repository_events_of_flushed_writes_are_delivered_to_batch_handlers() {
+        bufferedWritesService.writeSeveral();
+        assertThat(repository.getStoreWrites()).containsExactly("persist:6:1", "persist:7:1");
+        assertThat(PersistedBatchHandler.batches).containsExactly(Arrays.asList("6", "7"));
+    }
+
+    @Test
+    public void duplicate_persist_is_reported_to_the_caller() {
+        try {
+            bufferedWritesService.persistTwice();
+            fail("should have failed");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("Aggregate 8 already exists");
+            assertThat(repository.getStoreWrites()).containsExactly("persist:8:1");
+        }
+    }
+
+    @Test
+    public void writes_are_executed_before_the_transaction_commits() {
+        bufferedWritesService.writeInTransaction();
+        assertThat(repository.getStoreWrites()).containsExactly("persist:9:1");
+        assertThat(BufferedAggregateMapRepository.transactionalWrites).containsExactly("9");
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.cache;
+
+import org.seedstack.business.domain.BaseRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachedAggregateMapRepository extends BaseRepository<CachedAggregate, String> implements CachedAggregateRepository {
+    private static final Map<String, CachedAggregate> store = new ConcurrentHashMap<>();
+    private static final AtomicInteger storeLoadCount = new AtomicInteger();
+
+    @Override
+    public int getStoreLoadCount() {
+        return storeLoadCount.get();
+    }
+
+    @Override
+    public CachedAggregate load(String id) {
+        storeLoadCount.incrementAndGet();
+        return store.get(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public void delete(String id) {
+        store.remove(id);
+    }
+
+    @Override
+    public void delete(CachedAggregate aggregate) {
+        store.remove(aggregate.getEntityId());
+    }
+
+    @Override
+    public void persist(CachedAggregate aggregate) {
+        store.put(aggregate.getEntityId(), aggregate);
+    }
+
+    @Override
+    public CachedAggregate save(CachedAggregate aggregate) {
+        store.put(aggregate.getEntityId(), aggregate);
+        return aggregate;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.event.batch;
+
+import org.seedstack.business.BatchEventHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class AsyncBatchHandler implements BatchEventHandler<AsyncBatchEvent> {
+    public static final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    public static final List<String> threads = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void handle(List<AsyncBatchEvent> events) {
+        List<Integer> values = new ArrayList<>();
+        for (AsyncBatchEvent event : events) {
+            values.add(event.getValue());
+        }
+        batches.add(values);
+        threads.add(Thread.currentThread().getName());
+    }
+}
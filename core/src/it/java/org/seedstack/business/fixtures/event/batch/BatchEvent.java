@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.event.batch;
+
+import org.seedstack.business.Event;
+
+public class BatchEvent implements Event {
+    private final int value;
+
+    public BatchEvent(int value) {
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+}
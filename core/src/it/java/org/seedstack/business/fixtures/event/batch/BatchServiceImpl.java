@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.event.batch;
+
+import org.seedstack.business.EventService;
+import org.seedstack.business.UnitOfWork;
+
+import javax.inject.Inject;
+
+public class BatchServiceImpl implements BatchService {
+    @Inject
+    private EventService eventService;
+
+    @Override
+    @UnitOfWork
+    public int fire(int count) {
+        for (int i = 1; i <= count; i++) {
+            eventService.fire(new BatchEvent(i));
+        }
+        return SyncBatchHandler.batches.size();
+    }
+
+    @Override
+    @UnitOfWork
+    public void fireMixed(int count) {
+        for (int i = 1; i <= count; i++) {
+            eventService.fire(i % 2 == 0 ? new DerivedBatchEvent(i) : new BatchEvent(i));
+        }
+    }
+
+    @Override
+    @UnitOfWork
+    public void fireThenFail(int count) {
+        fire(count);
+        throw new IllegalStateException("failure");
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.event.batch;
+
+import org.seedstack.business.BatchEventHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class SyncBatchHandler implements BatchEventHandler<BatchEvent> {
+    public static final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void handle(List<BatchEvent> events) {
+        List<Integer> values = new ArrayList<>();
+        for (BatchEvent event : events) {
+            if (!(event instanceof AsyncBatchEvent)) {
+                values.add(event.getValue());
+            }
+        }
+        if (!values.isEmpty()) {
+            batches.add(values);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.identity.deferred;
+
+import org.seedstack.business.UnitOfWork;
+import org.seedstack.business.domain.Factory;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.domain.identity.IdentityService;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class DeferredIdentityServiceImpl implements DeferredIdentityService {
+    @Inject
+    private Factory<DeferredAggregate> factory;
+    @Inject
+    @Named("DefaultRepo")
+    private Repository<DeferredAggregate, UUID> repository;
+    @Inject
+    private IdentityService identityService;
+
+    @Override
+    @UnitOfWork
+    public DeferredAggregate createOnly() {
+        return factory.create();
+    }
+
+    @Override
+    @UnitOfWork
+    public List<DeferredAggregate> createThenPersistFirst() {
+        DeferredAggregate first = factory.create();
+        DeferredAggregate second = factory.create();
+        if (first.getEntityId() != null || second.getEntityId() != null) {
+            throw new IllegalStateException("Identities should have been deferred");
+        }
+        repository.persist(first);
+        return Arrays.asList(first, second);
+    }
+
+    @Override
+    @UnitOfWork
+    public List<DeferredAggregate> createThenFlush() {
+        List<DeferredAggregate> aggregates = Arrays.asList(factory.create(), factory.create());
+        identityService.flush();
+        return aggregates;
+    }
+}
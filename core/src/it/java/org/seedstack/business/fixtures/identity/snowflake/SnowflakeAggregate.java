@@ -0,0 +1,22 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.identity.snowflake;
+
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.Identity;
+import org.seedstack.business.domain.identity.SequenceHandler;
+
+public class SnowflakeAggregate extends BaseAggregateRoot<Long> {
+    @Identity(handler = SequenceHandler.class)
+    private Long id;
+
+    @Override
+    public Long getEntityId() {
+        return id;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.identitymap;
+
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+public class MappedAggregate extends BaseAggregateRoot<String> {
+    private String id;
+
+    public MappedAggregate(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getEntityId() {
+        return id;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.identitymap;
+
+import org.seedstack.business.domain.BaseRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores copies of the aggregates, so that each load from the store returns a new instance.
+ */
+public class MappedAggregateMapRepository extends BaseRepository<MappedAggregate, String> implements MappedAggregateRepository {
+    private static final Map<String, String> store = new ConcurrentHashMap<>();
+    private static final AtomicInteger storeLoadCount = new AtomicInteger();
+
+    @Override
+    public int getStoreLoadCount() {
+        return storeLoadCount.get();
+    }
+
+    @Override
+    public MappedAggregate load(String id) {
+        storeLoadCount.incrementAndGet();
+        return store.containsKey(id) ? new MappedAggregate(id) : null;
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public void delete(String id) {
+        store.remove(id);
+    }
+
+    @Override
+    public void delete(MappedAggregate aggregate) {
+        store.remove(aggregate.getEntityId());
+    }
+
+    @Override
+    public void persist(MappedAggregate aggregate) {
+        store.put(aggregate.getEntityId(), aggregate.getEntityId());
+    }
+
+    @Override
+    public MappedAggregate save(MappedAggregate aggregate) {
+        persist(aggregate);
+        return aggregate;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.identitymap;
+
+import org.seedstack.business.UnitOfWork;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+
+public class MappedLoadsServiceImpl implements MappedLoadsService {
+    @Inject
+    private MappedAggregateRepository repository;
+
+    @Override
+    @UnitOfWork
+    public List<MappedAggregate> loadTwice(String id) {
+        return Arrays.asList(repository.load(id), repository.load(id));
+    }
+
+    @Override
+    @UnitOfWork
+    public List<MappedAggregate> loadDeleteLoad(String id) {
+        MappedAggregate loaded = repository.load(id);
+        repository.delete(id);
+        return Arrays.asList(loaded, repository.load(id));
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.inmemory;
+
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.Indexed;
+
+public class Sample extends BaseAggregateRoot<Long> {
+    private Long id;
+    @Indexed(sorted = true)
+    private String label;
+
+    public Sample(Long id, String label) {
+        this.id = id;
+        this.label = label;
+    }
+
+    @Override
+    public Long getEntityId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.offheap;
+
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+import java.io.Serializable;
+
+public class Counter extends BaseAggregateRoot<String> implements Serializable {
+    private String name;
+    private long value;
+
+    public Counter(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getEntityId() {
+        return name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void increment() {
+        value++;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.partitioned;
+
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+public class Reading extends BaseAggregateRoot<Long> {
+    private Long id;
+    private double value;
+
+    public Reading(Long id, double value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    @Override
+    public Long getEntityId() {
+        return id;
+    }
+
+    public double getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.partitioned;
+
+import org.seedstack.business.domain.Repository;
+import org.seedstack.seed.persistence.inmemory.Store;
+
+import javax.inject.Inject;
+import java.util.Collection;
+
+public class ReadingImportServiceImpl implements ReadingImportService {
+    @Inject
+    private Repository<Reading, Long> repository;
+
+    @Override
+    @Store("partitioned")
+    public void importInTransaction(Collection<Reading> readings) {
+        repository.persistAll(readings);
+    }
+}
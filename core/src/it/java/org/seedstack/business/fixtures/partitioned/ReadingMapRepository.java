@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.partitioned;
+
+import org.seedstack.business.domain.BaseRepository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public abstract class ReadingMapRepository extends BaseRepository<Reading, Long> {
+    private static final Set<String> bulkThreads = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Reading> store;
+
+    protected ReadingMapRepository(Map<Long, Reading> store) {
+        this.store = store;
+    }
+
+    public static Set<String> getBulkThreads() {
+        return bulkThreads;
+    }
+
+    @Override
+    public Reading load(Long id) {
+        return store.get(id);
+    }
+
+    @Override
+    public boolean exists(Long id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public void delete(Long id) {
+        store.remove(id);
+    }
+
+    @Override
+    public void delete(Reading aggregate) {
+        store.remove(aggregate.getEntityId());
+    }
+
+    @Override
+    public void persist(Reading aggregate) {
+        store.put(aggregate.getEntityId(), aggregate);
+    }
+
+    @Override
+    public Reading save(Reading aggregate) {
+        store.put(aggregate.getEntityId(), aggregate);
+        return aggregate;
+    }
+
+    @Override
+    public void persistAll(Collection<Reading> aggregates) {
+        bulkThreads.add(Thread.currentThread().getName());
+        super.persistAll(aggregates);
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.writebehind;
+
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+public class BufferedAggregate extends BaseAggregateRoot<String> {
+    private String id;
+    private int version;
+
+    public BufferedAggregate(String id, int version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    @Override
+    public String getEntityId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.writebehind;
+
+import org.seedstack.business.domain.BaseRepository;
+import org.seedstack.business.internal.unitofwork.TransactionBoundary;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class BufferedAggregateMapRepository extends BaseRepository<BufferedAggregate, String> implements BufferedAggregateRepository {
+    public static final List<String> transactionalWrites = new CopyOnWriteArrayList<>();
+    private static final Map<String, BufferedAggregate> store = new ConcurrentHashMap<>();
+    private static final List<String> storeWrites = new CopyOnWriteArrayList<>();
+
+    @Override
+    public List<String> getStoreWrites() {
+        return storeWrites;
+    }
+
+    @Override
+    public BufferedAggregate load(String id) {
+        return store.get(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return store.containsKey(id);
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        storeWrites.clear();
+    }
+
+    @Override
+    public void delete(String id) {
+        storeWrites.add("delete:" + id);
+        store.remove(id);
+    }
+
+    @Override
+    public void delete(BufferedAggregate aggregate) {
+        delete(aggregate.getEntityId());
+    }
+
+    @Override
+    public void persist(BufferedAggregate aggregate) {
+        if (store.containsKey(aggregate.getEntityId())) {
+            throw new IllegalStateException("Aggregate " + aggregate.getEntityId() + " already exists");
+        }
+        if (TransactionBoundary.isActive()) {
+            transactionalWrites.add(aggregate.getEntityId());
+        }
+        storeWrites.add("persist:" + aggregate.getEntityId() + ":" + aggregate.getVersion());
+        store.put(aggregate.getEntityId(), aggregate);
+    }
+
+    @Override
+    public BufferedAggregate save(BufferedAggregate aggregate) {
+        storeWrites.add("save:" + aggregate.getEntityId() + ":" + aggregate.getVersion());
+        store.put(aggregate.getEntityId(), aggregate);
+        return aggregate;
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.writebehind;
+
+import org.seedstack.business.UnitOfWork;
+import org.seedstack.seed.persistence.inmemory.Store;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BufferedWritesServiceImpl implements BufferedWritesService {
+    @Inject
+    private BufferedAggregateRepository repository;
+
+    @Override
+    @UnitOfWork
+    public List<String> writeThenReadBack() {
+        repository.persist(new BufferedAggregate("1", 1));
+        repository.save(new BufferedAggregate("1", 2));
+        repository.save(new BufferedAggregate("1", 3));
+        repository.persist(new BufferedAggregate("2", 1));
+        repository.delete("2");
+        List<String> observed = new ArrayList<>(repository.getStoreWrites());
+        observed.add("load:1:" + repository.load("1").getVersion());
+        observed.add("exists:2:" + repository.exists("2"));
+        return observed;
+    }
+
+    @Override
+    @UnitOfWork
+    public long writeThenCount() {
+        repository.persist(new BufferedAggregate("3", 1));
+        return repository.count();
+    }
+
+    @Override
+    @UnitOfWork
+    public void writeThenFail() {
+        repository.persist(new BufferedAggregate("4", 1));
+        throw new IllegalStateException("failure");
+    }
+
+    @Override
+    @UnitOfWork
+    public void writeSeveral() {
+        repository.persist(new BufferedAggregate("6", 1));
+        repository.persist(new BufferedAggregate("7", 1));
+    }
+
+    @Override
+    @UnitOfWork
+    public void persistTwice() {
+        repository.persist(new BufferedAggregate("8", 1));
+        repository.persist(new BufferedAggregate("8", 2));
+    }
+
+    @Override
+    @UnitOfWork
+    @Store("writeBehind")
+    public void writeInTransaction() {
+        repository.persist(new BufferedAggregate("9", 1));
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.fixtures.writebehind;
+
+import org.seedstack.business.BatchEventHandler;
+import org.seedstack.business.domain.events.AggregatePersistedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class PersistedBatchHandler implements BatchEventHandler<AggregatePersistedEvent> {
+    public static final List<List<Object>> batches = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void handle(List<AggregatePersistedEvent> events) {
+        List<Object> ids = new ArrayList<>();
+        for (AggregatePersistedEvent event : events) {
+            if (event.getAggregateRoot() == BufferedAggregate.class) {
+                ids.add(event.getAggregateId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            batches.add(ids);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the bytes written by a {@link BinaryOutput}.
+ */
+class BinaryInput {
+    private final byte[] buffer;
+    private int position;
+
+    BinaryInput(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    byte[] readBytes() {
+        return readRawBytes(readLength());
+    }
+
+    byte[] readRawBytes(int length) {
+        require(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer at position " + position);
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    long readFixedLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    int readFixedInt() {
+        require(4);
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    String readNullableString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        return utf8(length - 1);
+    }
+
+    String readString() {
+        return utf8(readLength());
+    }
+
+    int readLength() {
+        int length = readVarInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length at position " + position);
+        }
+        return length;
+    }
+
+    int remaining() {
+        return buffer.length - position;
+    }
+
+    private String utf8(int length) {
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void require(int length) {
+        if (length < 0 || position + length > buffer.length) {
+            throw new IllegalArgumentException("Truncated input: " + length + " bytes expected at position " + position);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer with variable-length encoding of integers.
+ */
+class BinaryOutput {
+    private byte[] buffer;
+    private int position;
+
+    BinaryOutput(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        writeRawBytes(bytes);
+    }
+
+    void writeRawBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buffer[position++] = (byte) v;
+    }
+
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeFixedLong(long value) {
+        ensureCapacity(8);
+        for (int i = 56; i >= 0; i -= 8) {
+            buffer[position++] = (byte) (value >>> i);
+        }
+    }
+
+    void writeFixedInt(int value) {
+        ensureCapacity(4);
+        for (int i = 24; i >= 0; i -= 8) {
+            buffer[position++] = (byte) (value >>> i);
+        }
+    }
+
+    /**
+     * Writes a string which can be null.
+     */
+    void writeNullableString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+        } else {
+            byte[] bytes = utf8(value);
+            writeVarInt(bytes.length + 1);
+            writeRawBytes(bytes);
+        }
+    }
+
+    void writeString(String value) {
+        writeBytes(utf8(value));
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+}
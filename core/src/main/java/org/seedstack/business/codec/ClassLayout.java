@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+import org.seedstack.business.domain.BaseValueObject;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The binary layout of a value object class, resolved once per class. Fields are ordered from the root of the class
+ * hierarchy down to the class itself and by name within each class. The fingerprint of the layout is derived from the
+ * names and kinds of its fields, so it changes each time the class evolves. Instances are created with the no-arg
+ * constructor of the class, which can be private, before their fields are set.
+ */
+final class ClassLayout {
+    private static final ClassValue<ClassLayout> LAYOUTS = new ClassValue<ClassLayout>() {
+        @Override
+        protected ClassLayout computeValue(Class<?> type) {
+            return new ClassLayout(type);
+        }
+    };
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    final Class<?> type;
+    final String[] names;
+    final byte[] kinds;
+    final Class<?>[] fieldTypes;
+    final MethodHandle[] getters;
+    final MethodHandle[] setters;
+    final long fingerprint;
+    private final Constructor<?> constructor;
+    private final Map<String, Integer> indexByName = new HashMap<>();
+    private final int[] identityMapping;
+    private final ConcurrentMap<Long, int[]> mappings = new ConcurrentHashMap<>();
+
+    static ClassLayout of(Class<?> type) {
+        if (!BaseValueObject.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Class " + type.getName() + " is not a value object extending BaseValueObject");
+        }
+        return LAYOUTS.get(type);
+    }
+
+    private ClassLayout(Class<?> type) {
+        this.type = type;
+        List<Field> fields = new ArrayList<>();
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.push(current);
+        }
+        for (Class<?> current : hierarchy) {
+            List<Field> declaredFields = new ArrayList<>();
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && field.getName().indexOf('$') == -1) {
+                    declaredFields.add(field);
+                }
+            }
+            declaredFields.sort(Comparator.comparing(Field::getName));
+            fields.addAll(declaredFields);
+        }
+        int count = fields.size();
+        this.names = new String[count];
+        this.kinds = new byte[count];
+        this.fieldTypes = new Class<?>[count];
+        this.getters = new MethodHandle[count];
+        this.setters = new MethodHandle[count];
+        this.identityMapping = new int[count];
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < count; i++) {
+            Field field = fields.get(i);
+            field.setAccessible(true);
+            names[i] = field.getName();
+            kinds[i] = Tags.kindOf(field.getType());
+            fieldTypes[i] = field.getType();
+            identityMapping[i] = i;
+            try {
+                getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to access field " + field.getName() + " of value object " + type.getName(), e);
+            }
+            // the first field of a name wins when a subclass hides a field of its superclass
+            indexByName.putIfAbsent(names[i], i);
+            hash = fnv(hash, names[i].getBytes(StandardCharsets.UTF_8));
+            hash = fnv(hash, new byte[]{kinds[i]});
+        }
+        this.fingerprint = hash;
+        this.constructor = resolveConstructor(type);
+    }
+
+    Object newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to instantiate value object " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Returns, for each field of an encoded layout, the index of the matching field of this layout or -1 if the field
+     * no longer exists or has changed of kind.
+     *
+     * @param remoteFingerprint the fingerprint of the encoded layout.
+     * @param remoteNames       the field names of the encoded layout.
+     * @param remoteKinds       the field kinds of the encoded layout.
+     * @return the field mapping.
+     */
+    int[] mappingOf(long remoteFingerprint, String[] remoteNames, byte[] remoteKinds) {
+        if (remoteFingerprint == fingerprint && Arrays.equals(remoteNames, names) && Arrays.equals(remoteKinds, kinds)) {
+            return identityMapping;
+        }
+        int[] mapping = mappings.get(remoteFingerprint);
+        if (mapping == null || mapping.length != remoteNames.length) {
+            mapping = new int[remoteNames.length];
+            for (int i = 0; i < remoteNames.length; i++) {
+                Integer index = indexByName.get(remoteNames[i]);
+                mapping[i] = index != null && kinds[index] == remoteKinds[i] ? index : -1;
+            }
+            mappings.put(remoteFingerprint, mapping);
+        }
+        return mapping;
+    }
+
+    private static Constructor<?> resolveConstructor(Class<?> type) {
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.VALUE_OBJECT_WITHOUT_NO_ARG_CONSTRUCTOR).put("valueObject", type.getName());
+        }
+        constructor.setAccessible(true);
+        return constructor;
+    }
+
+    private static long fnv(long hash, byte[] bytes) {
+        long h = hash;
+        for (byte b : bytes) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
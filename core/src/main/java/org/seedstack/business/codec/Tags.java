@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+/**
+ * Tags identifying the type of encoded values and the kind of value object fields.
+ */
+final class Tags {
+    static final byte NULL = 0;
+    static final byte TRUE = 1;
+    static final byte FALSE = 2;
+    static final byte BYTE = 3;
+    static final byte SHORT = 4;
+    static final byte CHAR = 5;
+    static final byte INT = 6;
+    static final byte LONG = 7;
+    static final byte FLOAT = 8;
+    static final byte DOUBLE = 9;
+    static final byte STRING = 10;
+    static final byte VALUE_OBJECT = 11;
+    static final byte ENUM = 12;
+    static final byte LIST = 13;
+    static final byte SET = 14;
+    static final byte MAP = 15;
+    static final byte BYTES = 16;
+    static final byte BIG_DECIMAL = 17;
+    static final byte BIG_INTEGER = 18;
+    static final byte DATE = 19;
+    static final byte UUID = 20;
+    static final byte INSTANT = 21;
+    static final byte LOCAL_DATE = 22;
+    static final byte LOCAL_DATE_TIME = 23;
+    static final byte SERIALIZED = 24;
+    /**
+     * Kind of boolean fields, encoded as a single byte.
+     */
+    static final byte BOOLEAN_FIELD = 32;
+    /**
+     * Kind of fields whose values are encoded with their tag.
+     */
+    static final byte ANY_FIELD = 33;
+
+    private Tags() {
+        // no instantiation allowed
+    }
+
+    static byte kindOf(Class<?> fieldType) {
+        if (fieldType == boolean.class) {
+            return BOOLEAN_FIELD;
+        } else if (fieldType == byte.class) {
+            return BYTE;
+        } else if (fieldType == short.class) {
+            return SHORT;
+        } else if (fieldType == char.class) {
+            return CHAR;
+        } else if (fieldType == int.class) {
+            return INT;
+        } else if (fieldType == long.class) {
+            return LONG;
+        } else if (fieldType == float.class) {
+            return FLOAT;
+        } else if (fieldType == double.class) {
+            return DOUBLE;
+        } else if (fieldType == String.class) {
+            return STRING;
+        } else {
+            return ANY_FIELD;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+import org.seedstack.business.domain.BaseValueObject;
+import org.seedstack.shed.ClassLoaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Encodes {@link BaseValueObject}s, including domain events extending {@code BaseDomainEvent}, in a compact binary
+ * format. The layout of each value object class is derived once from its non-transient fields, which are then read and
+ * written through method handles. Value objects are instantiated with their no-arg constructor, which can be private,
+ * and their fields are then set from the decoded values.
+ * <p>
+ * Each encoded value starts with a descriptor of its class, holding the class name, a fingerprint of its layout and
+ * the names and kinds of its fields. A value encoded with a previous version of a class can still be decoded: fields
+ * matched by name and kind are restored, fields that no longer exist are skipped and new fields keep their default
+ * value. Each descriptor is written only once per encoded value, nested occurrences refer to it by index.
+ * </p>
+ * <p>
+ * Fields can hold primitives, strings, nested value objects, enums, lists, sets, maps, byte arrays, big numbers, dates,
+ * UUIDs, instants and local dates. Lists, sets and maps are decoded as {@code ArrayList}, {@code LinkedHashSet} and
+ * {@code LinkedHashMap}, unless the declared type of the field does not accept them. Other serializable values are
+ * encoded with Java serialization.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+public class ValueObjectCodec {
+    private static final int FORMAT_VERSION = 1;
+    private static final ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<>();
+
+    /**
+     * Encodes a value object.
+     *
+     * @param valueObject the value object.
+     * @return the encoded value object.
+     */
+    public byte[] encode(BaseValueObject valueObject) {
+        BinaryOutput out = new BinaryOutput(128);
+        out.writeByte(FORMAT_VERSION);
+        new Encoder(out).writeValueObject(valueObject);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a value object.
+     *
+     * @param type  the expected class of the value object.
+     * @param bytes the encoded value object.
+     * @param <T>   the type of the value object.
+     * @return the decoded value object.
+     * @throws IllegalArgumentException if the bytes cannot be decoded or hold a value object of another class.
+     */
+    public <T extends BaseValueObject> T decode(Class<T> type, byte[] bytes) {
+        BinaryInput in = new BinaryInput(bytes);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported value object format version " + version);
+        }
+        Object value = new Decoder(in).readValueObject();
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("Decoded value object of " + value.getClass().getName() + " is not of expected " + type.getName());
+        }
+        return type.cast(value);
+    }
+
+    private static Object read(MethodHandle getter, Object valueObject) {
+        try {
+            return (Object) getter.invokeExact(valueObject);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to read value object field", t);
+        }
+    }
+
+    private static void write(MethodHandle setter, Object valueObject, Object value) {
+        try {
+            setter.invokeExact(valueObject, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to write value object field", t);
+        }
+    }
+
+    private static Class<?> classForName(String name) {
+        Class<?> type = classes.get(name);
+        if (type == null) {
+            try {
+                type = Class.forName(name, false, ClassLoaders.findMostCompleteClassLoader(ValueObjectCodec.class));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unknown class " + name, e);
+            }
+            classes.put(name, type);
+        }
+        return type;
+    }
+
+    private static class Encoder {
+        private final BinaryOutput out;
+        private final Map<Class<?>, Integer> classRefs = new IdentityHashMap<>();
+
+        private Encoder(BinaryOutput out) {
+            this.out = out;
+        }
+
+        private void writeValueObject(Object valueObject) {
+            ClassLayout layout = ClassLayout.of(valueObject.getClass());
+            if (writeClassRef(layout.type)) {
+                out.writeFixedLong(layout.fingerprint);
+                out.writeVarInt(layout.names.length);
+                for (int i = 0; i < layout.names.length; i++) {
+                    out.writeString(layout.names[i]);
+                    out.writeByte(layout.kinds[i]);
+                }
+            }
+            for (int i = 0; i < layout.getters.length; i++) {
+                writeField(layout.kinds[i], layout.fieldTypes[i], read(layout.getters[i], valueObject));
+            }
+        }
+
+        /**
+         * Writes a reference to a class, followed by its name the first time.
+         *
+         * @return true if the class is written for the first time.
+         */
+        private boolean writeClassRef(Class<?> type) {
+            Integer ref = classRefs.get(type);
+            if (ref != null) {
+                out.writeVarInt(ref);
+                return false;
+            }
+            int newRef = classRefs.size();
+            classRefs.put(type, newRef);
+            out.writeVarInt(newRef);
+            out.writeString(type.getName());
+            return true;
+        }
+
+        private void writeField(byte kind, Class<?> fieldType, Object value) {
+            switch (kind) {
+                case Tags.BOOLEAN_FIELD:
+                    out.writeByte((Boolean) value ? 1 : 0);
+                    break;
+                case Tags.BYTE:
+                    out.writeByte((Byte) value);
+                    break;
+                case Tags.SHORT:
+                case Tags.INT:
+                case Tags.LONG:
+                    out.writeSignedVarLong(((Number) value).longValue());
+                    break;
+                case Tags.CHAR:
+                    out.writeVarInt((Character) value);
+                    break;
+                case Tags.FLOAT:
+                    out.writeFixedInt(Float.floatToRawIntBits((Float) value));
+                    break;
+                case Tags.DOUBLE:
+                    out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+                    break;
+                case Tags.STRING:
+                    out.writeNullableString((String) value);
+                    break;
+                default:
+                    writeValue(value, fieldType);
+            }
+        }
+
+        private void writeValue(Object value, Class<?> declaredType) {
+            if (value == null) {
+                out.writeByte(Tags.NULL);
+            } else if (value instanceof String) {
+                out.writeByte(Tags.STRING);
+                out.writeString((String) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(Tags.INT);
+                out.writeSignedVarLong((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(Tags.LONG);
+                out.writeSignedVarLong((Long) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? Tags.TRUE : Tags.FALSE);
+            } else if (value instanceof BaseValueObject) {
+                out.writeByte(Tags.VALUE_OBJECT);
+                writeValueObject(value);
+            } else if (value instanceof Enum) {
+                out.writeByte(Tags.ENUM);
+                writeClassRef(((Enum<?>) value).getDeclaringClass());
+                out.writeString(((Enum<?>) value).name());
+            } else if (value instanceof Double) {
+                out.writeByte(Tags.DOUBLE);
+                out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof Float) {
+                out.writeByte(Tags.FLOAT);
+                out.writeFixedInt(Float.floatToRawIntBits((Float) value));
+            } else if (value instanceof Short) {
+                out.writeByte(Tags.SHORT);
+                out.writeSignedVarLong((Short) value);
+            } else if (value instanceof Byte) {
+                out.writeByte(Tags.BYTE);
+                out.writeByte((Byte) value);
+            } else if (value instanceof Character) {
+                out.writeByte(Tags.CHAR);
+                out.writeVarInt((Character) value);
+            } else if (value instanceof List && declaredType.isAssignableFrom(ArrayList.class)) {
+                out.writeByte(Tags.LIST);
+                writeElements((Collection<?>) value);
+            } else if (value instanceof Set && declaredType.isAssignableFrom(LinkedHashSet.class)) {
+                out.writeByte(Tags.SET);
+                writeElements((Collection<?>) value);
+            } else if (value instanceof Map && declaredType.isAssignableFrom(LinkedHashMap.class)) {
+                out.writeByte(Tags.MAP);
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.writeVarInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey(), Object.class);
+                    writeValue(entry.getValue(), Object.class);
+                }
+            } else if (value instanceof byte[]) {
+                out.writeByte(Tags.BYTES);
+                out.writeBytes((byte[]) value);
+            } else if (value.getClass() == BigDecimal.class) {
+                out.writeByte(Tags.BIG_DECIMAL);
+                out.writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+                out.writeSignedVarLong(((BigDecimal) value).scale());
+            } else if (value.getClass() == BigInteger.class) {
+                out.writeByte(Tags.BIG_INTEGER);
+                out.writeBytes(((BigInteger) value).toByteArray());
+            } else if (value.getClass() == Date.class) {
+                out.writeByte(Tags.DATE);
+                out.writeSignedVarLong(((Date) value).getTime());
+            } else if (value instanceof UUID) {
+                out.writeByte(Tags.UUID);
+                out.writeFixedLong(((UUID) value).getMostSignificantBits());
+                out.writeFixedLong(((UUID) value).getLeastSignificantBits());
+            } else if (value instanceof Instant) {
+                out.writeByte(Tags.INSTANT);
+                out.writeSignedVarLong(((Instant) value).getEpochSecond());
+                out.writeVarInt(((Instant) value).getNano());
+            } else if (value instanceof LocalDate) {
+                out.writeByte(Tags.LOCAL_DATE);
+                out.writeSignedVarLong(((LocalDate) value).toEpochDay());
+            } else if (value instanceof LocalDateTime) {
+                out.writeByte(Tags.LOCAL_DATE_TIME);
+                out.writeSignedVarLong(((LocalDateTime) value).toLocalDate().toEpochDay());
+                out.writeVarLong(((LocalDateTime) value).toLocalTime().toNanoOfDay());
+            } else if (value instanceof Serializable) {
+                out.writeByte(Tags.SERIALIZED);
+                out.writeBytes(serialize(value));
+            } else {
+                throw new IllegalArgumentException("Unable to encode value of " + value.getClass().getName());
+            }
+        }
+
+        private void writeElements(Collection<?> collection) {
+            out.writeVarInt(collection.size());
+            for (Object element : collection) {
+                writeValue(element, Object.class);
+            }
+        }
+
+        private static byte[] serialize(Object value) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bytes)) {
+                objectOutputStream.writeObject(value);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to serialize value of " + value.getClass().getName(), e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static class Decoder {
+        private final BinaryInput in;
+        private final List<Object> classRefs = new ArrayList<>();
+
+        private Decoder(BinaryInput in) {
+            this.in = in;
+        }
+
+        private Object readValueObject() {
+            int ref = in.readVarInt();
+            Descriptor descriptor;
+            if (ref == classRefs.size()) {
+                ClassLayout layout = ClassLayout.of(classForName(in.readString()));
+                long fingerprint = in.readFixedLong();
+                int count = in.readLength();
+                if (count > in.remaining()) {
+                    throw new IllegalArgumentException("Invalid field count for value object " + layout.type.getName());
+                }
+                String[] names = new String[count];
+                byte[] kinds = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    names[i] = in.readString();
+                    kinds[i] = (byte) in.readByte();
+                }
+                descriptor = new Descriptor(layout, kinds, layout.mappingOf(fingerprint, names, kinds));
+                classRefs.add(descriptor);
+            } else {
+                Object classRef = classRef(ref);
+                if (!(classRef instanceof Descriptor)) {
+                    throw new IllegalArgumentException("Invalid value object reference " + ref);
+                }
+                descriptor = (Descriptor) classRef;
+            }
+            ClassLayout layout = descriptor.layout;
+            Object valueObject = layout.newInstance();
+            for (int i = 0; i < descriptor.kinds.length; i++) {
+                Object value = readField(descriptor.kinds[i]);
+                int index = descriptor.mapping[i];
+                if (index >= 0 && (value != null || !layout.fieldTypes[index].isPrimitive())
+                        && (value == null || layout.fieldTypes[index].isPrimitive() || layout.fieldTypes[index].isInstance(value))) {
+                    write(layout.setters[index], valueObject, value);
+                }
+            }
+            return valueObject;
+        }
+
+        private Class<?> readClassRef() {
+            int ref = in.readVarInt();
+            if (ref == classRefs.size()) {
+                Class<?> type = classForName(in.readString());
+                classRefs.add(type);
+                return type;
+            }
+            Object classRef = classRef(ref);
+            if (!(classRef instanceof Class)) {
+                throw new IllegalArgumentException("Invalid class reference " + ref);
+            }
+            return (Class<?>) classRef;
+        }
+
+        private Object classRef(int ref) {
+            if (ref < 0 || ref >= classRefs.size()) {
+                throw new IllegalArgumentException("Invalid class reference " + ref);
+            }
+            return classRefs.get(ref);
+        }
+
+        private Object readField(byte kind) {
+            switch (kind) {
+                case Tags.BOOLEAN_FIELD:
+                    return in.readByte() != 0;
+                case Tags.BYTE:
+                    return (byte) in.readByte();
+                case Tags.SHORT:
+                    return (short) in.readSignedVarLong();
+                case Tags.INT:
+                    return (int) in.readSignedVarLong();
+                case Tags.LONG:
+                    return in.readSignedVarLong();
+                case Tags.CHAR:
+                    return (char) in.readVarInt();
+                case Tags.FLOAT:
+                    return Float.intBitsToFloat(in.readFixedInt());
+                case Tags.DOUBLE:
+                    return Double.longBitsToDouble(in.readFixedLong());
+                case Tags.STRING:
+                    return in.readNullableString();
+                case Tags.ANY_FIELD:
+                    return readValue();
+                default:
+                    throw new IllegalArgumentException("Unknown field kind " + kind);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readValue() {
+            byte tag = (byte) in.readByte();
+            switch (tag) {
+                case Tags.NULL:
+                    return null;
+                case Tags.TRUE:
+                    return Boolean.TRUE;
+                case Tags.FALSE:
+                    return Boolean.FALSE;
+                case Tags.BYTE:
+                    return (byte) in.readByte();
+                case Tags.SHORT:
+                    return (short) in.readSignedVarLong();
+                case Tags.CHAR:
+                    return (char) in.readVarInt();
+                case Tags.INT:
+                    return (int) in.readSignedVarLong();
+                case Tags.LONG:
+                    return in.readSignedVarLong();
+                case Tags.FLOAT:
+                    return Float.intBitsToFloat(in.readFixedInt());
+                case Tags.DOUBLE:
+                    return Double.longBitsToDouble(in.readFixedLong());
+                case Tags.STRING:
+                    return in.readString();
+                case Tags.VALUE_OBJECT:
+                    return readValueObject();
+                case Tags.ENUM:
+                    Class<?> enumClass = readClassRef();
+                    if (!enumClass.isEnum()) {
+                        throw new IllegalArgumentException("Class " + enumClass.getName() + " is not an enum");
+                    }
+                    return Enum.valueOf((Class<Enum>) enumClass, in.readString());
+                case Tags.LIST:
+                    return readElements(new ArrayList<>());
+                case Tags.SET:
+                    return readElements(new LinkedHashSet<>());
+                case Tags.MAP:
+                    int size = in.readLength();
+                    Map<Object, Object> map = new LinkedHashMap<>();
+                    for (int i = 0; i < size; i++) {
+                        map.put(readValue(), readValue());
+                    }
+                    return map;
+                case Tags.BYTES:
+                    return in.readBytes();
+                case Tags.BIG_DECIMAL:
+                    return new BigDecimal(new BigInteger(in.readBytes()), (int) in.readSignedVarLong());
+                case Tags.BIG_INTEGER:
+                    return new BigInteger(in.readBytes());
+                case Tags.DATE:
+                    return new Date(in.readSignedVarLong());
+                case Tags.UUID:
+                    return new UUID(in.readFixedLong(), in.readFixedLong());
+                case Tags.INSTANT:
+                    return Instant.ofEpochSecond(in.readSignedVarLong(), in.readVarInt());
+                case Tags.LOCAL_DATE:
+                    return LocalDate.ofEpochDay(in.readSignedVarLong());
+                case Tags.LOCAL_DATE_TIME:
+                    return LocalDateTime.of(LocalDate.ofEpochDay(in.readSignedVarLong()), LocalTime.ofNanoOfDay(in.readVarLong()));
+                case Tags.SERIALIZED:
+                    return deserialize(in.readBytes());
+                default:
+                    throw new IllegalArgumentException("Unknown value tag " + tag);
+            }
+        }
+
+        private Collection<Object> readElements(Collection<Object> collection) {
+            int size = in.readLength();
+            for (int i = 0; i < size; i++) {
+                collection.add(readValue());
+            }
+            return collection;
+        }
+
+        private static Object deserialize(byte[] bytes) {
+            try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return objectInputStream.readObject();
+            } catch (IOException | ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unable to deserialize value", e);
+            }
+        }
+    }
+
+    private static class Descriptor {
+        private final ClassLayout layout;
+        private final byte[] kinds;
+        private final int[] mapping;
+
+        private Descriptor(ClassLayout layout, byte[] kinds, int[] mapping) {
+            this.layout = layout;
+            this.kinds = kinds;
+            this.mapping = mapping;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.context;
+
+import org.seedstack.business.spi.ContextCarrier;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+/**
+ * Entry point to the contextual state of the business framework. It creates context slots with the configured
+ * {@link ContextCarrier}, binds values to them for the duration of a task and propagates the value of propagated slots
+ * to tasks handed over to other threads:
+ * <pre>
+ * BusinessContext.where(slot, value).run(task);
+ * executor.execute(BusinessContext.wrap(() -&gt; eventService.fire(event)));
+ * </pre>
+ */
+public final class BusinessContext {
+    private static final ContextCarrier carrier = loadCarrier();
+    private static volatile PropagatedSlot[] propagatedSlots = new PropagatedSlot[0];
+
+    private BusinessContext() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Creates a slot which is not propagated to other threads.
+     *
+     * @param <T> the type of the slot value.
+     * @return the slot.
+     */
+    public static <T> ContextSlot<T> newSlot() {
+        return carrier.createSlot();
+    }
+
+    /**
+     * Creates a slot which is propagated to other threads when capturing the context. The propagator is called with the
+     * current value of the slot when the context is captured and with the captured value each time it is installed. It
+     * can either return the same instance if it is thread-safe or a copy of it.
+     *
+     * @param propagator the function returning the value to propagate.
+     * @param <T>        the type of the slot value.
+     * @return the slot.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ContextSlot<T> newSlot(UnaryOperator<T> propagator) {
+        ContextSlot<T> slot = carrier.createSlot();
+        synchronized (BusinessContext.class) {
+            PropagatedSlot[] newPropagatedSlots = Arrays.copyOf(propagatedSlots, propagatedSlots.length + 1);
+            newPropagatedSlots[propagatedSlots.length] = new PropagatedSlot((ContextSlot<Object>) slot, (UnaryOperator<Object>) propagator);
+            propagatedSlots = newPropagatedSlots;
+        }
+        return slot;
+    }
+
+    /**
+     * Binds a value to a slot. More values can be bound with {@link ContextBinding#where(ContextSlot, Object)} before
+     * running the task.
+     *
+     * @param slot  the slot.
+     * @param value the value.
+     * @param <T>   the type of the slot value.
+     * @return the bindings to run the task with.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ContextBinding where(ContextSlot<T> slot, T value) {
+        return new ContextBinding(new ContextSlot[]{slot}, new Object[]{value});
+    }
+
+    /**
+     * Captures the current value of the propagated slots. Slots without value are ignored.
+     *
+     * @return the snapshot of the context.
+     */
+    @SuppressWarnings("unchecked")
+    public static ContextSnapshot capture() {
+        PropagatedSlot[] all = propagatedSlots;
+        ContextSlot<Object>[] slots = new ContextSlot[all.length];
+        UnaryOperator<Object>[] propagators = new UnaryOperator[all.length];
+        Object[] values = new Object[all.length];
+        int count = 0;
+        for (PropagatedSlot propagatedSlot : all) {
+            Object value = propagatedSlot.slot.get();
+            if (value != null) {
+                slots[count] = propagatedSlot.slot;
+                propagators[count] = propagatedSlot.propagator;
+                values[count++] = propagatedSlot.propagator.apply(value);
+            }
+        }
+        if (count < all.length) {
+            slots = Arrays.copyOf(slots, count);
+            propagators = Arrays.copyOf(propagators, count);
+            values = Arrays.copyOf(values, count);
+        }
+        return new ContextSnapshot(slots, propagators, values);
+    }
+
+    /**
+     * Wraps a task so it runs with the context captured at wrapping time.
+     *
+     * @param runnable the task.
+     * @return the wrapped task.
+     */
+    public static Runnable wrap(Runnable runnable) {
+        ContextSnapshot snapshot = capture();
+        return () -> snapshot.run(runnable);
+    }
+
+    /**
+     * Wraps a task so it runs with the context captured at wrapping time.
+     *
+     * @param callable the task.
+     * @param <V>      the type of the task result.
+     * @return the wrapped task.
+     */
+    public static <V> Callable<V> wrap(Callable<V> callable) {
+        ContextSnapshot snapshot = capture();
+        return () -> snapshot.call(callable);
+    }
+
+    /**
+     * Wraps an executor so each submitted task runs with the context captured at submission time.
+     *
+     * @param executor the executor.
+     * @return the wrapped executor.
+     */
+    public static Executor wrap(Executor executor) {
+        return runnable -> executor.execute(wrap(runnable));
+    }
+
+    private static ContextCarrier loadCarrier() {
+        Iterator<ContextCarrier> iterator = ServiceLoader.load(ContextCarrier.class, BusinessContext.class.getClassLoader()).iterator();
+        if (iterator.hasNext()) {
+            return iterator.next();
+        } else {
+            return new ThreadLocalContextCarrier();
+        }
+    }
+
+    private static class PropagatedSlot {
+        private final ContextSlot<Object> slot;
+        private final UnaryOperator<Object> propagator;
+
+        private PropagatedSlot(ContextSlot<Object> slot, UnaryOperator<Object> propagator) {
+            this.slot = slot;
+            this.propagator = propagator;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.context;
+
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * Values bound to context slots for the duration of a task, as created by
+ * {@link BusinessContext#where(ContextSlot, Object)}:
+ * <pre>
+ * BusinessContext.where(slot, value).where(otherSlot, otherValue).run(task);
+ * </pre>
+ * Bindings are immutable, so they can be run several times, even concurrently. The values bound before are bound
+ * again when the task returns.
+ */
+public class ContextBinding {
+    private final ContextSlot<Object>[] slots;
+    private final Object[] values;
+
+    ContextBinding(ContextSlot<Object>[] slots, Object[] values) {
+        this.slots = slots;
+        this.values = values;
+    }
+
+    /**
+     * Returns new bindings with the specified value bound to the specified slot in addition to these bindings.
+     *
+     * @param slot  the slot.
+     * @param value the value.
+     * @param <T>   the type of the slot value.
+     * @return the new bindings.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ContextBinding where(ContextSlot<T> slot, T value) {
+        ContextSlot<Object>[] newSlots = Arrays.copyOf(slots, slots.length + 1);
+        Object[] newValues = Arrays.copyOf(values, values.length + 1);
+        newSlots[slots.length] = (ContextSlot<Object>) slot;
+        newValues[values.length] = value;
+        return new ContextBinding(newSlots, newValues);
+    }
+
+    /**
+     * Runs a task with the bound values.
+     *
+     * @param runnable the task.
+     */
+    public void run(Runnable runnable) {
+        run(0, runnable);
+    }
+
+    /**
+     * Calls a task with the bound values.
+     *
+     * @param callable the task.
+     * @param <V>      the type of the task result.
+     * @return the task result.
+     * @throws Exception if the task throws an exception.
+     */
+    public <V> V call(Callable<V> callable) throws Exception {
+        return call(0, callable);
+    }
+
+    private void run(int index, Runnable runnable) {
+        if (index == slots.length) {
+            runnable.run();
+        } else {
+            slots[index].run(values[index], () -> run(index + 1, runnable));
+        }
+    }
+
+    private <V> V call(int index, Callable<V> callable) throws Exception {
+        if (index == slots.length) {
+            return callable.call();
+        } else {
+            return slots[index].call(values[index], () -> call(index + 1, callable));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.context;
+
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.concurrent.Callable;
+import java.util.function.UnaryOperator;
+
+/**
+ * The values of the propagated context slots captured on a thread, which can be bound on another thread for the
+ * duration of a task. Each run binds its own propagated copy of the captured values, so a snapshot can be run several
+ * times, even concurrently. Once the task is done, the previous values of the slots are bound again.
+ *
+ * @see BusinessContext#capture()
+ */
+public class ContextSnapshot {
+    private final ContextSlot<Object>[] slots;
+    private final UnaryOperator<Object>[] propagators;
+    private final Object[] values;
+
+    ContextSnapshot(ContextSlot<Object>[] slots, UnaryOperator<Object>[] propagators, Object[] values) {
+        this.slots = slots;
+        this.propagators = propagators;
+        this.values = values;
+    }
+
+    /**
+     * Runs a task with the captured context.
+     *
+     * @param runnable the task.
+     */
+    public void run(Runnable runnable) {
+        bind().run(runnable);
+    }
+
+    /**
+     * Calls a task with the captured context.
+     *
+     * @param callable the task.
+     * @param <V>      the type of the task result.
+     * @return the task result.
+     * @throws Exception if the task throws an exception.
+     */
+    public <V> V call(Callable<V> callable) throws Exception {
+        return bind().call(callable);
+    }
+
+    private ContextBinding bind() {
+        Object[] propagatedValues = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            propagatedValues[i] = propagators[i].apply(values[i]);
+        }
+        return new ContextBinding(slots, propagatedValues);
+    }
+}
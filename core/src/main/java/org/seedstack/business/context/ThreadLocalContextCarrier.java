@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.context;
+
+import org.seedstack.business.spi.ContextCarrier;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Default context carrier storing each slot in a {@link ThreadLocal}. The thread local is removed when the outermost
+ * binding ends, so idle threads hold no context.
+ */
+class ThreadLocalContextCarrier implements ContextCarrier {
+    @Override
+    public <T> ContextSlot<T> createSlot() {
+        return new ThreadLocalContextSlot<>();
+    }
+
+    private static class ThreadLocalContextSlot<T> implements ContextSlot<T> {
+        private final ThreadLocal<T> threadLocal = new ThreadLocal<>();
+
+        @Override
+        public T get() {
+            return threadLocal.get();
+        }
+
+        @Override
+        public void run(T value, Runnable task) {
+            T previous = threadLocal.get();
+            threadLocal.set(value);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        }
+
+        @Override
+        public <V> V call(T value, Callable<V> task) throws Exception {
+            T previous = threadLocal.get();
+            threadLocal.set(value);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        }
+
+        private void restore(T previous) {
+            if (previous == null) {
+                threadLocal.remove();
+            } else {
+                threadLocal.set(previous);
+            }
+        }
+    }
+}
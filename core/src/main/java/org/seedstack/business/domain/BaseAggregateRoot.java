@@ -8,13 +8,19 @@
 package org.seedstack.business.domain;
 
 /**
- * This abstract class is the base class of all AggregateRoot in Seed Business Framework.
+ * This abstract class is the base class of all AggregateRoot in Seed Business Framework. It holds the version of the
+ * aggregate, which is set by versioning repositories when the aggregate is loaded or stored.
  *
  * @param <ID> the entityId Type of the aggregate root.
  */
 public abstract class BaseAggregateRoot<ID> extends BaseEntity<ID> implements AggregateRoot<ID> {
+    private long aggregateVersion;
 
     protected BaseAggregateRoot() {
     }
 
+    @Override
+    public long getAggregateVersion() {
+        return aggregateVersion;
+    }
 }
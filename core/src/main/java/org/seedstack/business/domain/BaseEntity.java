@@ -7,15 +7,31 @@
  */
 package org.seedstack.business.domain;
 
+import java.io.Serializable;
+
 /**
  * This abstract class is the base class for all Entities in Seed Business Framework.
  *
  * It provides an {@code equals()} method based on the entity identity. This also enforce
  * the entity to valid, i.e. not null. Otherwise a SeedException will be thrown.
  *
+ * If the entity class is annotated with {@link ImmutableIdentity}, the hash code of its identity is computed once
+ * and cached afterwards.
+ *
+ * Entities are serializable, so that aggregates can be stored by repositories keeping them outside of the Java heap,
+ * provided that the fields of their subclasses are serializable too.
+ *
  * @param <ID> The type of the entityId of the Entity.
  */
-public abstract class BaseEntity<ID> implements Entity<ID> {
+public abstract class BaseEntity<ID> implements Entity<ID>, Serializable {
+    private static final ClassValue<Boolean> IMMUTABLE_IDENTITY = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(ImmutableIdentity.class);
+        }
+    };
+    private transient int cachedHashCode;
+
     @Override
     public abstract ID getEntityId();
 
@@ -28,6 +44,14 @@ public abstract class BaseEntity<ID> implements Entity<ID> {
      */
     @Override
     public int hashCode() {
+        if (IMMUTABLE_IDENTITY.get(getClass())) {
+            int h = cachedHashCode;
+            if (h == 0) {
+                h = getIdentity().hashCode();
+                cachedHashCode = h;
+            }
+            return h;
+        }
         return getIdentity().hashCode();
     }
 
@@ -47,7 +71,13 @@ public abstract class BaseEntity<ID> implements Entity<ID> {
         if (other == null || getClass() != other.getClass()) {
             return false;
         }
-        return entityId.equals(this.getClass().cast(other).getEntityId());
+        BaseEntity<?> otherEntity = (BaseEntity<?>) other;
+        int h1 = cachedHashCode;
+        int h2 = otherEntity.cachedHashCode;
+        if (h1 != 0 && h2 != 0 && h1 != h2) {
+            return false;
+        }
+        return entityId.equals(otherEntity.getEntityId());
     }
 
     @Override
@@ -7,36 +7,61 @@
  */
 package org.seedstack.business.domain;
 
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * This class is the inheritance base for ValueObject implementations. It offers specific {@code equals()} and
- * {@code hashCode()} methods which are computed by reflection on all non-transient field values. If performance is critical,
- * consider overriding those methods with optimized versions. Be sure to respect the equality semantics for value objects
- * when doing so.
+ * {@code hashCode()} methods which are computed on all non-transient field values. The fields of each value object class
+ * are resolved once and read through method handles afterwards. If the value object class is annotated with
+ * {@link Immutable}, its hash code is also computed only once per instance.
+ * <p>
+ * If performance is still critical, consider overriding those methods with optimized versions. Be sure to respect the
+ * equality semantics for value objects when doing so.
+ * </p>
  */
 public abstract class BaseValueObject implements ValueObject, Serializable {
+    private static final ClassValue<ValueObjectPlan> PLANS = new ClassValue<ValueObjectPlan>() {
+        @Override
+        protected ValueObjectPlan computeValue(Class<?> type) {
+            return new ValueObjectPlan(type);
+        }
+    };
+    private transient int cachedHashCode;
+
     /**
-     * Computes the hash code by reflection on all non-transient fields. This method can is quite costly and may be
-     * overridden by an optimized version if performance is critical. Be sure to respect the equality semantics for value objects
-     * when doing so.
+     * Computes the hash code on all non-transient fields. The hash code of {@link Immutable} value objects is cached
+     * after the first computation.
      *
      * @return Hash code built from all non-transient fields.
      */
     @Override
     public int hashCode() {
-        return HashCodeBuilder.reflectionHashCode(this, false);
+        ValueObjectPlan plan = PLANS.get(getClass());
+        if (plan.immutable) {
+            int h = cachedHashCode;
+            if (h == 0) {
+                h = plan.hashCode(this);
+                cachedHashCode = h;
+            }
+            return h;
+        }
+        return plan.hashCode(this);
     }
 
     /**
-     * Computes the equality by reflection on all non-transient fields. This method can is quite costly and may be
-     * overridden by an optimized version if performance is critical. Be sure to respect the equality semantics for value objects
-     * when doing so.
+     * Computes the equality on all non-transient fields.
      *
      * @param other other object
      * @return true if the other object is a {@link ValueObject} and has the same value as this value object, false otherwise.
@@ -49,11 +74,102 @@ public abstract class BaseValueObject implements ValueObject, Serializable {
         if (other == null || getClass() != other.getClass()) {
             return false;
         }
-        return EqualsBuilder.reflectionEquals(this, other, false);
+        ValueObjectPlan plan = PLANS.get(getClass());
+        if (plan.immutable) {
+            int h1 = cachedHashCode;
+            int h2 = ((BaseValueObject) other).cachedHashCode;
+            if (h1 != 0 && h2 != 0 && h1 != h2) {
+                return false;
+            }
+        }
+        return plan.equals(this, other);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE, false);
+        return PLANS.get(getClass()).toString(this);
+    }
+
+    /**
+     * Holds the field accessors of a value object class, from the most specific class to its ancestors.
+     */
+    private static class ValueObjectPlan {
+        private final String[] names;
+        private final MethodHandle[] getters;
+        private final boolean immutable;
+
+        private ValueObjectPlan(Class<?> type) {
+            List<String> nameList = new ArrayList<>();
+            List<MethodHandle> getterList = new ArrayList<>();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType getterType = MethodType.methodType(Object.class, Object.class);
+            Class<?> current = type;
+            while (current != null && current != Object.class) {
+                for (Field field : current.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.getName().indexOf('$') != -1) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        getterList.add(lookup.unreflectGetter(field).asType(getterType));
+                        nameList.add(field.getName());
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Unable to access field " + field.getName() + " of value object " + type.getName(), e);
+                    }
+                }
+                current = current.getSuperclass();
+            }
+            this.names = nameList.toArray(new String[nameList.size()]);
+            this.getters = getterList.toArray(new MethodHandle[getterList.size()]);
+            this.immutable = type.isAnnotationPresent(Immutable.class);
+        }
+
+        private int hashCode(Object valueObject) {
+            int result = 17;
+            for (MethodHandle getter : getters) {
+                result = result * 37 + deepHashCode(read(getter, valueObject));
+            }
+            return result;
+        }
+
+        private boolean equals(Object valueObject, Object other) {
+            for (MethodHandle getter : getters) {
+                if (!Objects.deepEquals(read(getter, valueObject), read(getter, other))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String toString(Object valueObject) {
+            ToStringBuilder builder = new ToStringBuilder(valueObject, ToStringStyle.SHORT_PREFIX_STYLE);
+            for (int i = 0; i < getters.length; i++) {
+                builder.append(names[i], read(getters[i], valueObject));
+            }
+            return builder.toString();
+        }
+
+        private static Object read(MethodHandle getter, Object valueObject) {
+            try {
+                return (Object) getter.invokeExact(valueObject);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Unable to read value object field", t);
+            }
+        }
+
+        private static int deepHashCode(Object value) {
+            if (value == null) {
+                return 0;
+            } else if (value instanceof Object[]) {
+                return Arrays.deepHashCode((Object[]) value);
+            } else if (value.getClass().isArray()) {
+                return Arrays.deepHashCode(new Object[]{value});
+            } else {
+                return value.hashCode();
+            }
+        }
     }
 }
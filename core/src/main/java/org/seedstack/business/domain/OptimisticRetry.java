@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries operations failing with a {@link VersionConflictException}. The operation must load the aggregates it
+ * modifies, so that each attempt works on their latest version:
+ * <pre>
+ * OptimisticRetry.run(() -&gt; {
+ *     Account account = accountRepository.load(accountId);
+ *     account.credit(amount);
+ *     accountRepository.save(account);
+ * });
+ * </pre>
+ * Attempts are separated by a random delay, whose upper bound doubles after each conflict, to spread out the retries of
+ * conflicting callers. When called within a transaction, the operation is retried within the same transaction. When
+ * called within a unit of work, its buffered writes are executed at the end of each attempt.
+ */
+public final class OptimisticRetry {
+    /**
+     * The number of attempts made by {@link #run(Runnable)} and {@link #call(Supplier)}.
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 10;
+    private static final long INITIAL_MAX_DELAY = 1;
+    private static final long MAX_DELAY = 100;
+
+    private OptimisticRetry() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Runs an operation, retrying it up to {@value #DEFAULT_MAX_ATTEMPTS} attempts in case of version conflict.
+     *
+     * @param operation the operation.
+     * @throws VersionConflictException if the last attempt failed with a version conflict.
+     */
+    public static void run(Runnable operation) {
+        run(DEFAULT_MAX_ATTEMPTS, operation);
+    }
+
+    /**
+     * Runs an operation, retrying it in case of version conflict.
+     *
+     * @param maxAttempts the maximum number of attempts.
+     * @param operation   the operation.
+     * @throws VersionConflictException if the last attempt failed with a version conflict.
+     */
+    public static void run(int maxAttempts, Runnable operation) {
+        call(maxAttempts, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Calls an operation, retrying it up to {@value #DEFAULT_MAX_ATTEMPTS} attempts in case of version conflict.
+     *
+     * @param operation the operation.
+     * @param <T>       the type of the operation result.
+     * @return the result of the first successful attempt.
+     * @throws VersionConflictException if the last attempt failed with a version conflict.
+     */
+    public static <T> T call(Supplier<T> operation) {
+        return call(DEFAULT_MAX_ATTEMPTS, operation);
+    }
+
+    /**
+     * Calls an operation, retrying it in case of version conflict.
+     *
+     * @param maxAttempts the maximum number of attempts.
+     * @param operation   the operation.
+     * @param <T>         the type of the operation result.
+     * @return the result of the first successful attempt.
+     * @throws VersionConflictException if the last attempt failed with a version conflict.
+     */
+    public static <T> T call(int maxAttempts, Supplier<T> operation) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The maximum number of attempts must be positive: " + maxAttempts);
+        }
+        long maxDelay = INITIAL_MAX_DELAY;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = operation.get();
+                UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+                if (unitOfWorkContext != null) {
+                    // buffered writes are executed within the attempt, so their conflicts are retried too
+                    unitOfWorkContext.flush();
+                }
+                return result;
+            } catch (VersionConflictException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay + 1));
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                maxDelay = Math.min(maxDelay * 2, MAX_DELAY);
+            }
+        }
+    }
+}
@@ -7,9 +7,12 @@
  */
 package org.seedstack.business.domain.events;
 
+import org.seedstack.business.domain.AggregateEvent;
 import org.seedstack.business.domain.AggregateRoot;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * This event is fired each time method from a subtype of Repository annotated with {@code @Read}, or
@@ -21,7 +24,7 @@ import java.lang.reflect.Method;
  * org.seedstack.business.event.domain.watch=true
  * </pre>
  */
-public abstract class BaseAggregateEvent extends BaseDomainEvent {
+public abstract class BaseAggregateEvent extends BaseDomainEvent implements AggregateEvent {
 
     private static final long serialVersionUID = 1L;
 
@@ -50,6 +53,28 @@ public abstract class BaseAggregateEvent extends BaseDomainEvent {
         return aggregateRoot;
     }
 
+    /**
+     * Returns the identity of the aggregate concerned by the intercepted call, taken from its first argument: the
+     * identity of the aggregate root if it is one, or the argument itself otherwise.
+     *
+     * @return the aggregate identity or null if the first argument is missing, null or a collection.
+     */
+    @Override
+    public Object getAggregateId() {
+        Object[] args = context.getArgs();
+        if (args.length == 0) {
+            return null;
+        }
+        Object arg = args[0];
+        if (arg instanceof AggregateRoot) {
+            return ((AggregateRoot<?>) arg).getEntityId();
+        } else if (arg == null || arg instanceof Collection || arg instanceof Map || arg.getClass().isArray()) {
+            return null;
+        } else {
+            return arg;
+        }
+    }
+
     /**
      * @return the interception context
      */
@@ -10,23 +10,48 @@ package org.seedstack.business.internal;
 import org.seedstack.shed.exception.ErrorCode;
 
 public enum BusinessErrorCode implements ErrorCode {
+    AGGREGATE_ALREADY_EXISTS,
+    AGGREGATE_NOT_SERIALIZABLE,
+    AGGREGATE_VERSION_CONFLICT,
     AMBIGUOUS_CONSTRUCTOR_FOUND,
     AMBIGUOUS_METHOD_FOUND,
     CLASS_IS_NOT_AN_ANNOTATION,
+    CLOCK_REGRESSION_DETECTED,
     DOMAIN_OBJECT_CONSTRUCTOR_NOT_FOUND,
     ENTITY_ALREADY_HAS_AN_IDENTITY,
     EVENT_CYCLE_DETECTED,
+    EVENT_JOURNAL_CORRUPTED,
+    EVENT_JOURNAL_DIRECTORY_NOT_CONFIGURED,
+    EVENT_JOURNAL_RECORD_TOO_LARGE,
+    EVENT_NESTING_TOO_DEEP,
     EXCEPTION_OCCURRED_DURING_EVENT_HANDLER_INVOCATION,
+    IDENTITY_HANDLER_CANNOT_BE_POOLED,
     IDENTITY_TYPE_CANNOT_BE_GENERATED_BY_HANDLER,
+    ILLEGAL_EVENT_FILTER,
     ILLEGAL_FACTORY,
     ILLEGAL_IDENTITY_HANDLER,
+    ILLEGAL_PARTITION_BOUNDS,
     ILLEGAL_POLICY,
     ILLEGAL_REPOSITORY,
     ILLEGAL_SERVICE,
+    ILLEGAL_SNOWFLAKE_CONFIGURATION,
+    ILLEGAL_SORTED_INDEX,
     NO_IDENTITY_FIELD_DECLARED_FOR_ENTITY,
     NO_IDENTITY_HANDLER_QUALIFIER_FOUND_ON_ENTITY,
+    NO_PARTITION_DECLARED_FOR_AGGREGATE,
+    PARTITION_KEY_WITHOUT_STABLE_HASH,
+    SNOWFLAKE_TIMESTAMP_OVERFLOW,
+    UNABLE_TO_ACCESS_EVENT_JOURNAL,
+    UNABLE_TO_ACCESS_OFF_HEAP_STORE,
+    UNABLE_TO_DECODE_JOURNALED_EVENT,
+    UNABLE_TO_DESERIALIZE_AGGREGATE,
+    UNABLE_TO_ENCODE_EVENT,
     UNABLE_TO_FIND_ASSEMBLER,
     UNABLE_TO_FIND_ASSEMBLER_WITH_QUALIFIER,
     UNABLE_TO_INJECT_ENTITY_IDENTITY,
-    UNABLE_TO_INVOKE_CONSTRUCTOR
+    UNABLE_TO_INVOKE_CONSTRUCTOR,
+    UNABLE_TO_SERIALIZE_AGGREGATE,
+    UNIQUE_INDEX_VIOLATION,
+    UNKNOWN_AGGREGATE_FIELD,
+    VALUE_OBJECT_WITHOUT_NO_ARG_CONSTRUCTOR
 }
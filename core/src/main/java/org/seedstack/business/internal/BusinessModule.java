@@ -9,11 +9,14 @@ package org.seedstack.business.internal;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Key;
+import com.google.inject.Scopes;
 import org.seedstack.business.assembler.FluentAssembler;
 import org.seedstack.business.domain.DomainRegistry;
 import org.seedstack.business.internal.assembler.dsl.FluentAssemblerImpl;
 import org.seedstack.business.internal.assembler.dsl.InternalRegistry;
 import org.seedstack.business.internal.assembler.dsl.InternalRegistryInternal;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkModule;
+import org.seedstack.business.metrics.InterningMetrics;
 import org.seedstack.seed.core.internal.guice.BindingStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +53,9 @@ class BusinessModule extends AbstractModule {
         bind(FluentAssembler.class).to(FluentAssemblerImpl.class);
         bind(InternalRegistry.class).to(InternalRegistryInternal.class);
         bind(DomainRegistry.class).to(DomainRegistryImpl.class);
+        bind(InterningMetrics.class).in(Scopes.SINGLETON);
+        bind(ValueObjectInterners.class).in(Scopes.SINGLETON);
+        install(new UnitOfWorkModule());
 
         for (Entry<Key<?>, Class<?>> binding : bindings.entrySet()) {
             LOGGER.trace("Binding {} to {}", binding.getKey(), binding.getValue().getSimpleName());
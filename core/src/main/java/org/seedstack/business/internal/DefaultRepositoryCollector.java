@@ -14,7 +14,10 @@ import com.google.inject.name.Names;
 import com.google.inject.util.Types;
 import org.seedstack.business.domain.AggregateRoot;
 import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.InMemory;
+import org.seedstack.business.domain.OffHeap;
 import org.seedstack.business.domain.Repository;
+import org.seedstack.business.internal.repository.AggregateSerialization;
 import org.seedstack.seed.Application;
 import org.seedstack.seed.ClassConfiguration;
 import org.seedstack.seed.SeedException;
@@ -61,6 +64,9 @@ class DefaultRepositoryCollector {
 
             TypeLiteral<?> genericInterface = TypeLiteral.get(Types.newParameterizedType(Repository.class, params));
             Key<?> defaultKey = defaultRepositoryQualifier(aggregateClass, genericInterface);
+            if (defaultKey != null && (InMemory.class.equals(defaultKey.getAnnotationType()) || OffHeap.class.equals(defaultKey.getAnnotationType()))) {
+                AggregateSerialization.checkSerializable(aggregateClass, aggregateKey);
+            }
 
             generics.put(params, defaultKey);
         }
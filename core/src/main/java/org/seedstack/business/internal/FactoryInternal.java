@@ -10,6 +10,7 @@
  */
 package org.seedstack.business.internal;
 
+import com.google.common.collect.Iterators;
 import com.google.inject.assistedinject.Assisted;
 import org.seedstack.business.Producible;
 import org.seedstack.business.domain.Create;
@@ -17,6 +18,7 @@ import org.seedstack.business.domain.DomainObject;
 import org.seedstack.business.domain.Entity;
 import org.seedstack.business.domain.Factory;
 import org.seedstack.business.domain.Identity;
+import org.seedstack.business.domain.ValueObject;
 import org.seedstack.business.domain.identity.IdentityService;
 import org.seedstack.business.internal.utils.MethodMatcher;
 import org.seedstack.seed.SeedException;
@@ -24,7 +26,16 @@ import org.seedstack.seed.SeedException;
 import javax.inject.Inject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -55,9 +66,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @param <DO> the domain object type
  */
 public class FactoryInternal<DO extends DomainObject & Producible> implements Factory<DO> {
+    static final int STREAM_BATCH_SIZE = 256;
     protected Class<DO> domainObjectClass;
+    private final boolean valueObject;
+    private final boolean identityManaged;
+    private final ConcurrentMap<ArgumentShape, Constructor<?>> constructors = new ConcurrentHashMap<>();
     @Inject
     private IdentityService identityService;
+    @Inject
+    private ValueObjectInterners valueObjectInterners;
 
     /**
      * Constructor.
@@ -71,6 +88,8 @@ public class FactoryInternal<DO extends DomainObject & Producible> implements Fa
         checkNotNull(clonedClasses);
         checkArgument(clonedClasses.length == 1);
         this.domainObjectClass = (Class<DO>) clonedClasses[0];
+        this.valueObject = ValueObject.class.isAssignableFrom(this.domainObjectClass);
+        this.identityManaged = isIdentityManaged(this.domainObjectClass);
     }
 
     public Class<DO> getProducedClass() {
@@ -78,25 +97,78 @@ public class FactoryInternal<DO extends DomainObject & Producible> implements Fa
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public DO create(Object... args) {
-        Constructor<?> constructor = MethodMatcher.findMatchingConstructor(getProducedClass(), args);
-        DO domainObject;
-        if (constructor == null) {
-            throw SeedException.createNew(BusinessErrorCode.DOMAIN_OBJECT_CONSTRUCTOR_NOT_FOUND)
-                    .put("domainObject", getProducedClass()).put("parameters", Arrays.toString(args));
+        if (valueObject) {
+            return valueObjectInterners.intern(getProducedClass(), args, this::instantiate);
+        } else if (identityManaged) {
+            return populateIdentity(instantiate(args));
+        } else {
+            return instantiate(args);
+        }
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<DO> createAll(List<Object[]> argsList) {
+        List<DO> domainObjects = new ArrayList<>(argsList.size());
+        for (Object[] args : argsList) {
+            domainObjects.add(valueObject ? valueObjectInterners.intern(getProducedClass(), args, this::instantiate) : instantiate(args));
+        }
+        if (identityManaged) {
+            identityService.identifyAllOrDefer((List) domainObjects);
         }
+        return domainObjects;
+    }
+
+    /**
+     * Lazily creates the domain objects of a stream by chunks of {@value #STREAM_BATCH_SIZE} arguments, each chunk being
+     * created with {@link #createAll(List)} so that constructors are resolved and identities generated per chunk. The
+     * returned stream is sequential and closing it closes the stream of arguments.
+     *
+     * @param argsStream the stream of arguments of each domain object
+     * @return the stream of created domain objects
+     */
+    @Override
+    public Stream<DO> createAll(Stream<Object[]> argsStream) {
+        Iterator<List<Object[]>> chunks = Iterators.partition(argsStream.iterator(), STREAM_BATCH_SIZE);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(chunk -> createAll(chunk).stream())
+                .onClose(argsStream::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    private DO instantiate(Object... args) {
+        Constructor<?> constructor = resolveConstructor(args);
         try {
-            constructor.setAccessible(true);
-            domainObject = (DO) constructor.newInstance(args);
+            return (DO) constructor.newInstance(args);
         } catch (Exception e) {
             throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_INVOKE_CONSTRUCTOR)
                     .put("constructor", constructor)
                     .put("domainObject", getProducedClass())
                     .put("parameters", Arrays.toString(args));
         }
-        domainObject = populateIdentity(domainObject);
-        return domainObject;
+    }
+
+    /**
+     * Resolves the constructor matching the specified arguments. The constructor is only searched once for each shape
+     * of arguments, i.e. each sequence of argument classes and null arguments.
+     *
+     * @param args the constructor arguments.
+     * @return the matching constructor.
+     */
+    private Constructor<?> resolveConstructor(Object[] args) {
+        ArgumentShape argumentShape = new ArgumentShape(args);
+        Constructor<?> constructor = constructors.get(argumentShape);
+        if (constructor == null) {
+            constructor = MethodMatcher.findMatchingConstructor(getProducedClass(), args);
+            if (constructor == null) {
+                throw SeedException.createNew(BusinessErrorCode.DOMAIN_OBJECT_CONSTRUCTOR_NOT_FOUND)
+                        .put("domainObject", getProducedClass()).put("parameters", Arrays.toString(args));
+            }
+            constructor.setAccessible(true);
+            constructors.putIfAbsent(argumentShape, constructor);
+        }
+        return constructor;
     }
 
     /**
@@ -112,16 +184,42 @@ public class FactoryInternal<DO extends DomainObject & Producible> implements Fa
      * @param domainObject the domain object to populate
      * @return the domain object
      */
+    @SuppressWarnings("unchecked")
     private DO populateIdentity(DO domainObject) {
-        if (Entity.class.isAssignableFrom(domainObject.getClass())) {
-            Entity<?> entity = (Entity<?>) domainObject;
-            for (Field field : entity.getClass().getDeclaredFields()) {
+        return (DO) identityService.identifyOrDefer((Entity<?>) domainObject);
+    }
+
+    private static boolean isIdentityManaged(Class<?> domainObjectClass) {
+        if (Entity.class.isAssignableFrom(domainObjectClass)) {
+            for (Field field : domainObjectClass.getDeclaredFields()) {
                 if (field.isAnnotationPresent(Identity.class)) {
-                    domainObject = (DO) identityService.identify(entity);
+                    return true;
                 }
             }
         }
-        return domainObject;
+        return false;
     }
 
+    private static class ArgumentShape {
+        private final Class<?>[] argumentClasses;
+        private final int hashCode;
+
+        private ArgumentShape(Object[] args) {
+            this.argumentClasses = new Class<?>[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argumentClasses[i] = args[i] == null ? null : args[i].getClass();
+            }
+            this.hashCode = Arrays.hashCode(argumentClasses);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ArgumentShape && Arrays.equals(argumentClasses, ((ArgumentShape) o).argumentClasses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
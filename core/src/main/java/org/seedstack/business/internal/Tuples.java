@@ -25,8 +25,6 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Static utility methods to easily create tuples.
@@ -42,14 +40,8 @@ public final class Tuples {
      * @param <TUPLE> the tuple type.
      * @return the constructed tuple.
      */
-    @SuppressWarnings("unchecked")
     public static <TUPLE extends Tuple> TUPLE create(Collection<?> objects) {
-        Class<? extends Tuple> tupleClass = classOfTuple(objects.size());
-        try {
-            return (TUPLE) tupleClass.getMethod("fromCollection", Collection.class).invoke(null, objects);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to create tuple", e);
-        }
+        return create(objects.toArray());
     }
 
     /**
@@ -61,11 +53,33 @@ public final class Tuples {
      */
     @SuppressWarnings("unchecked")
     public static <TUPLE extends Tuple> TUPLE create(Object... objects) {
-        Class<? extends Tuple> tupleClass = classOfTuple(objects.length);
-        try {
-            return (TUPLE) tupleClass.getMethod("fromArray", Object[].class).invoke(null, new Object[]{objects});
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to create tuple", e);
+        switch (objects.length) {
+            case 1:
+                return (TUPLE) new Unit<>(objects[0]);
+            case 2:
+                return (TUPLE) new Pair<>(objects[0], objects[1]);
+            case 3:
+                return (TUPLE) new Triplet<>(objects[0], objects[1], objects[2]);
+            case 4:
+                return (TUPLE) new Quartet<>(objects[0], objects[1], objects[2], objects[3]);
+            case 5:
+                return (TUPLE) new Quintet<>(objects[0], objects[1], objects[2], objects[3], objects[4]);
+            case 6:
+                return (TUPLE) new Sextet<>(objects[0], objects[1], objects[2], objects[3], objects[4], objects[5]);
+            case 7:
+                return (TUPLE) new Septet<>(objects[0], objects[1], objects[2], objects[3], objects[4], objects[5],
+                        objects[6]);
+            case 8:
+                return (TUPLE) new Octet<>(objects[0], objects[1], objects[2], objects[3], objects[4], objects[5],
+                        objects[6], objects[7]);
+            case 9:
+                return (TUPLE) new Ennead<>(objects[0], objects[1], objects[2], objects[3], objects[4], objects[5],
+                        objects[6], objects[7], objects[8]);
+            case 10:
+                return (TUPLE) new Decade<>(objects[0], objects[1], objects[2], objects[3], objects[4], objects[5],
+                        objects[6], objects[7], objects[8], objects[9]);
+            default:
+                throw new IllegalArgumentException("Cannot create a tuple with " + objects.length + " element(s)");
         }
     }
 
@@ -77,7 +91,6 @@ public final class Tuples {
      * @param <TUPLE> the tuple type.
      * @return the constructed tuple.
      */
-    @SuppressWarnings("unchecked")
     public static <TUPLE extends Tuple> TUPLE create(Iterable<?> objects, int limit) {
         List<Object> list = new ArrayList<>();
         int index = 0;
@@ -87,7 +100,7 @@ public final class Tuples {
             }
             list.add(object);
         }
-        return create(list);
+        return create(list.toArray());
     }
 
     /**
@@ -186,6 +199,12 @@ public final class Tuples {
      * @return the list of classes.
      */
     public static List<Class<?>> toListOfClasses(Tuple tuple) {
-        return Stream.of(tuple).map(Tuple::getClass).collect(Collectors.toList());
+        int size = tuple.getSize();
+        List<Class<?>> classes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Object value = tuple.getValue(i);
+            classes.add(value == null ? null : value.getClass());
+        }
+        return classes;
     }
 }
\ No newline at end of file
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.seedstack.business.domain.Interned;
+import org.seedstack.business.domain.ValueObject;
+import org.seedstack.business.metrics.ClassInterningMetrics;
+import org.seedstack.business.metrics.InterningMetrics;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Holds the canonical instances of interned value object classes, keyed by their constructor arguments. Interning is
+ * enabled per class with the {@link Interned} annotation or the {@code interned} class configuration property.
+ */
+class ValueObjectInterners {
+    private static final String INTERNED_KEY = "interned";
+    private static final String INTERN_MAX_SIZE_KEY = "internMaxSize";
+    private final ConcurrentMap<Class<?>, Optional<Interner>> interners = new ConcurrentHashMap<>();
+    private final Application application;
+    private final InterningMetrics interningMetrics;
+
+    @Inject
+    ValueObjectInterners(Application application, InterningMetrics interningMetrics) {
+        this.application = application;
+        this.interningMetrics = interningMetrics;
+    }
+
+    /**
+     * Returns the instance of a value object class equal to the one built from the specified arguments.
+     *
+     * @param valueObjectClass the value object class.
+     * @param args             the constructor arguments.
+     * @param creator          the function building a new instance from the arguments.
+     * @param <T>              the type of the value object.
+     * @return the interned instance or a new instance if the class is not interned.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T intern(Class<T> valueObjectClass, Object[] args, Function<Object[], T> creator) {
+        Optional<Interner> interner = interners.get(valueObjectClass);
+        if (interner == null) {
+            interner = interners.computeIfAbsent(valueObjectClass, this::createInterner);
+        }
+        if (interner.isPresent()) {
+            return (T) interner.get().intern(args, (Function<Object[], Object>) creator);
+        } else {
+            return creator.apply(args);
+        }
+    }
+
+    private Optional<Interner> createInterner(Class<?> valueObjectClass) {
+        if (!ValueObject.class.isAssignableFrom(valueObjectClass)) {
+            return Optional.empty();
+        }
+        Interned interned = valueObjectClass.getAnnotation(Interned.class);
+        ClassConfiguration<?> classConfiguration = application.getConfiguration(valueObjectClass);
+        String internedValue = classConfiguration.get(INTERNED_KEY);
+        if (internedValue != null ? !Boolean.parseBoolean(internedValue) : interned == null) {
+            return Optional.empty();
+        }
+        String maxSizeValue = classConfiguration.get(INTERN_MAX_SIZE_KEY);
+        int maxSize = maxSizeValue != null ? Integer.parseInt(maxSizeValue) : interned != null ? interned.maxSize() : 0;
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        if (maxSize > 0) {
+            cacheBuilder.maximumSize(maxSize);
+        } else {
+            cacheBuilder.weakValues();
+        }
+        Cache<ArgumentsKey, Object> instances = cacheBuilder.build();
+        return Optional.of(new Interner(instances, interningMetrics.register(valueObjectClass, instances::size)));
+    }
+
+    private static class Interner {
+        private final Cache<ArgumentsKey, Object> instances;
+        private final ClassInterningMetrics metrics;
+
+        private Interner(Cache<ArgumentsKey, Object> instances, ClassInterningMetrics metrics) {
+            this.instances = instances;
+            this.metrics = metrics;
+        }
+
+        private Object intern(Object[] args, Function<Object[], Object> creator) {
+            ArgumentsKey key = new ArgumentsKey(args);
+            Object instance = instances.getIfPresent(key);
+            if (instance != null) {
+                metrics.recordHit();
+                return instance;
+            }
+            metrics.recordMiss();
+            Object created = creator.apply(args);
+            Object existing = instances.asMap().putIfAbsent(key, created);
+            return existing == null ? created : existing;
+        }
+    }
+
+    private static class ArgumentsKey {
+        private final Object[] args;
+        private final int hashCode;
+
+        private ArgumentsKey(Object[] args) {
+            this.args = args.clone();
+            this.hashCode = Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ArgumentsKey && hashCode == ((ArgumentsKey) o).hashCode && Arrays.deepEquals(args, ((ArgumentsKey) o).args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
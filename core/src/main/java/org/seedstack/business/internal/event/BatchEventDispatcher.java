@@ -0,0 +1,341 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.inject.Injector;
+import org.seedstack.business.BatchEventHandler;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.BusinessConfig.EventConfig.BatchConfig.BatchMode;
+import org.seedstack.business.Event;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkListener;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.business.spi.EventMetricsSink;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers the events fired for {@link BatchEventHandler}s and delivers them in batches, grouped by handler and by event
+ * class. In synchronous mode, batches are attached to the current unit of work. In asynchronous mode, they are shared
+ * and delivered on a single background thread, which preserves the order of events for each handler.
+ */
+class BatchEventDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchEventDispatcher.class);
+    private static final String BATCH_MODE_KEY = "batchMode";
+    private static final String MAX_BATCH_SIZE_KEY = "maxBatchSize";
+    private static final String MAX_BATCH_LINGER_KEY = "maxBatchLinger";
+    private static final Object SYNC_BATCHES_KEY = new Object();
+    private final ImmutableListMultimap<Class<? extends Event>, Class<? extends BatchEventHandler>> batchEventHandlersByEvent;
+    private final BusinessConfig.EventConfig.BatchConfig batchConfig;
+    private final EventHandlerFilters eventHandlerFilters;
+    private final ConcurrentMap<Class<? extends BatchEventHandler>, BatchSettings> settings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<BatchKey, AsyncBatch> asyncBatches = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile boolean stopped;
+    @Inject
+    private Injector injector;
+    @Inject
+    private Application application;
+    @Inject
+    private EventMetricsSink eventMetricsSink;
+    @Inject
+    private EventDeliveryMetrics eventDeliveryMetrics;
+
+    BatchEventDispatcher(ImmutableListMultimap<Class<? extends Event>, Class<? extends BatchEventHandler>> batchEventHandlersByEvent, BusinessConfig.EventConfig.BatchConfig batchConfig, EventHandlerFilters eventHandlerFilters) {
+        this.batchEventHandlersByEvent = batchEventHandlersByEvent;
+        this.batchConfig = batchConfig;
+        this.eventHandlerFilters = eventHandlerFilters;
+    }
+
+    Set<Class<? extends Event>> getEventClasses() {
+        return batchEventHandlersByEvent.keySet();
+    }
+
+    /**
+     * Buffers an event for all the batch handlers registered for the specified event class, skipping those whose filters
+     * reject it.
+     *
+     * @param eventClass the event class the handlers are registered for.
+     * @param event      the event.
+     */
+    void dispatch(Class<? extends Event> eventClass, Event event) {
+        for (Class<? extends BatchEventHandler> batchEventHandlerClass : batchEventHandlersByEvent.get(eventClass)) {
+            if (!eventHandlerFilters.accepts(batchEventHandlerClass, event)) {
+                eventDeliveryMetrics.recordSkip(eventClass, batchEventHandlerClass);
+                eventMetricsSink.handlerSkipped(eventClass, batchEventHandlerClass);
+                continue;
+            }
+            eventDeliveryMetrics.recordDelivery(eventClass, batchEventHandlerClass);
+            BatchSettings batchSettings = settingsOf(batchEventHandlerClass);
+            BatchKey batchKey = new BatchKey(batchEventHandlerClass, eventClass);
+            if (batchSettings.mode == BatchMode.ASYNC) {
+                dispatchAsync(batchKey, batchSettings, event);
+            } else {
+                dispatchSync(batchKey, batchSettings, event);
+            }
+        }
+    }
+
+    /**
+     * Delivers all pending asynchronous batches and stops the background thread.
+     */
+    void stop() {
+        stopped = true;
+        for (Map.Entry<BatchKey, AsyncBatch> entry : asyncBatches.entrySet()) {
+            List<Event> events = entry.getValue().drain();
+            if (!events.isEmpty()) {
+                deliverQuietly(entry.getKey(), events);
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                    LOGGER.warn("Pending batch event deliveries did not complete in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void dispatchSync(BatchKey batchKey, BatchSettings batchSettings, Event event) {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        if (unitOfWorkContext == null) {
+            deliver(batchKey, Collections.singletonList(event));
+        } else {
+            SyncBatches syncBatches = unitOfWorkContext.getResource(SYNC_BATCHES_KEY, SyncBatches::new);
+            List<Event> events = syncBatches.add(batchKey, batchSettings, event);
+            if (events != null) {
+                deliver(batchKey, events);
+            }
+        }
+    }
+
+    private void dispatchAsync(BatchKey batchKey, BatchSettings batchSettings, Event event) {
+        if (stopped) {
+            deliver(batchKey, Collections.singletonList(event));
+            return;
+        }
+        AsyncBatch asyncBatch = asyncBatches.get(batchKey);
+        if (asyncBatch == null) {
+            asyncBatch = asyncBatches.computeIfAbsent(batchKey, k -> new AsyncBatch());
+        }
+        asyncBatch.add(batchKey, batchSettings, event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(BatchKey batchKey, List<Event> events) {
+        LOGGER.debug("Delivering {} event(s) of class {} to batch event handler {}", events.size(), batchKey.eventClass.getName(), batchKey.batchEventHandlerClass.getName());
+        BatchEventHandler batchEventHandler = injector.getInstance(batchKey.batchEventHandlerClass);
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try {
+            batchEventHandler.handle(events);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            eventMetricsSink.handlerInvoked(batchKey.eventClass, batchKey.batchEventHandlerClass, 1, System.nanoTime() - start, failure);
+        }
+    }
+
+    private void deliverQuietly(BatchKey batchKey, List<Event> events) {
+        try {
+            deliver(batchKey, events);
+        } catch (Exception e) {
+            LOGGER.error("Batch event handler {} failed to handle {} event(s) of class {}", batchKey.batchEventHandlerClass.getName(), events.size(), batchKey.eventClass.getName(), e);
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService result = scheduler;
+        if (result == null) {
+            synchronized (this) {
+                result = scheduler;
+                if (result == null) {
+                    scheduler = result = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "business-batch-events");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return result;
+    }
+
+    private BatchSettings settingsOf(Class<? extends BatchEventHandler> batchEventHandlerClass) {
+        BatchSettings batchSettings = settings.get(batchEventHandlerClass);
+        if (batchSettings == null) {
+            batchSettings = settings.computeIfAbsent(batchEventHandlerClass, this::resolveSettings);
+        }
+        return batchSettings;
+    }
+
+    private BatchSettings resolveSettings(Class<? extends BatchEventHandler> batchEventHandlerClass) {
+        ClassConfiguration<?> classConfiguration = application.getConfiguration(batchEventHandlerClass);
+        String mode = classConfiguration.get(BATCH_MODE_KEY);
+        String maxSize = classConfiguration.get(MAX_BATCH_SIZE_KEY);
+        String maxLinger = classConfiguration.get(MAX_BATCH_LINGER_KEY);
+        return new BatchSettings(
+                mode == null ? batchConfig.getMode() : BatchMode.valueOf(mode),
+                maxSize == null ? batchConfig.getMaxSize() : Integer.parseInt(maxSize),
+                TimeUnit.MILLISECONDS.toNanos(maxLinger == null ? batchConfig.getMaxLinger() : Long.parseLong(maxLinger))
+        );
+    }
+
+    private static class BatchSettings {
+        private final BatchMode mode;
+        private final int maxSize;
+        private final long maxLinger;
+
+        private BatchSettings(BatchMode mode, int maxSize, long maxLinger) {
+            this.mode = mode;
+            this.maxSize = Math.max(1, maxSize);
+            this.maxLinger = maxLinger;
+        }
+    }
+
+    private static class BatchKey {
+        private final Class<? extends BatchEventHandler> batchEventHandlerClass;
+        private final Class<? extends Event> eventClass;
+
+        private BatchKey(Class<? extends BatchEventHandler> batchEventHandlerClass, Class<? extends Event> eventClass) {
+            this.batchEventHandlerClass = batchEventHandlerClass;
+            this.eventClass = eventClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BatchKey batchKey = (BatchKey) o;
+            return batchEventHandlerClass == batchKey.batchEventHandlerClass && eventClass == batchKey.eventClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * batchEventHandlerClass.hashCode() + eventClass.hashCode();
+        }
+    }
+
+    private static class PendingBatch {
+        private final List<Event> events = new ArrayList<>();
+        private final long start = System.nanoTime();
+    }
+
+    /**
+     * The synchronous batches of a unit of work, delivered when the unit of work is flushed.
+     */
+    private class SyncBatches implements UnitOfWorkListener {
+        private final Map<BatchKey, PendingBatch> pendingBatches = new LinkedHashMap<>();
+
+        private synchronized List<Event> add(BatchKey batchKey, BatchSettings batchSettings, Event event) {
+            PendingBatch pendingBatch = pendingBatches.get(batchKey);
+            if (pendingBatch == null) {
+                pendingBatch = new PendingBatch();
+                pendingBatches.put(batchKey, pendingBatch);
+            }
+            pendingBatch.events.add(event);
+            if (pendingBatch.events.size() >= batchSettings.maxSize || System.nanoTime() - pendingBatch.start >= batchSettings.maxLinger) {
+                pendingBatches.remove(batchKey);
+                return pendingBatch.events;
+            }
+            return null;
+        }
+
+        private synchronized Map.Entry<BatchKey, PendingBatch> poll() {
+            Iterator<Map.Entry<BatchKey, PendingBatch>> iterator = pendingBatches.entrySet().iterator();
+            if (iterator.hasNext()) {
+                Map.Entry<BatchKey, PendingBatch> entry = iterator.next();
+                iterator.remove();
+                return entry;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean flush() {
+            // handlers can fire events themselves during delivery, so batches are polled until none is left
+            boolean worked = false;
+            Map.Entry<BatchKey, PendingBatch> entry;
+            while ((entry = poll()) != null) {
+                deliver(entry.getKey(), entry.getValue().events);
+                worked = true;
+            }
+            return worked;
+        }
+
+        @Override
+        public synchronized void completed(boolean success) {
+            pendingBatches.clear();
+        }
+    }
+
+    /**
+     * An asynchronous batch, delivered on the background thread.
+     */
+    private class AsyncBatch {
+        private List<Event> events = new ArrayList<>();
+        private ScheduledFuture<?> lingerTask;
+
+        private void add(BatchKey batchKey, BatchSettings batchSettings, Event event) {
+            List<Event> full = null;
+            synchronized (this) {
+                events.add(event);
+                if (events.size() >= batchSettings.maxSize) {
+                    full = drain();
+                } else if (lingerTask == null) {
+                    lingerTask = scheduler().schedule(() -> {
+                        List<Event> lingered = drain();
+                        if (!lingered.isEmpty()) {
+                            deliverQuietly(batchKey, lingered);
+                        }
+                    }, batchSettings.maxLinger, TimeUnit.NANOSECONDS);
+                }
+            }
+            if (full != null) {
+                List<Event> slice = full;
+                scheduler().execute(() -> deliverQuietly(batchKey, slice));
+            }
+        }
+
+        private synchronized List<Event> drain() {
+            List<Event> drained = events;
+            events = new ArrayList<>();
+            if (lingerTask != null) {
+                lingerTask.cancel(false);
+                lingerTask = null;
+            }
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.codec.ValueObjectCodec;
+import org.seedstack.business.domain.BaseValueObject;
+import org.seedstack.business.domain.DomainEvent;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.spi.EventCodec;
+import org.seedstack.seed.SeedException;
+
+/**
+ * Default event codec, encoding events extending {@link BaseValueObject} with the {@link ValueObjectCodec} and other
+ * events with Java serialization. The first byte of the encoded event identifies the format used.
+ */
+class BinaryEventCodec implements EventCodec {
+    private static final byte VALUE_OBJECT_FORMAT = 1;
+    private static final byte SERIALIZATION_FORMAT = 2;
+    private final ValueObjectCodec valueObjectCodec = new ValueObjectCodec();
+    private final SerializationEventCodec serializationEventCodec = new SerializationEventCodec();
+
+    @Override
+    public byte[] encode(DomainEvent event) {
+        if (event instanceof BaseValueObject) {
+            byte[] bytes;
+            try {
+                bytes = valueObjectCodec.encode((BaseValueObject) event);
+            } catch (RuntimeException e) {
+                throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ENCODE_EVENT).put("event", event.getClass().getName());
+            }
+            return withFormat(VALUE_OBJECT_FORMAT, bytes);
+        } else {
+            return withFormat(SERIALIZATION_FORMAT, serializationEventCodec.encode(event));
+        }
+    }
+
+    @Override
+    public <E extends DomainEvent> E decode(Class<E> eventClass, byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Empty encoded event " + eventClass.getName());
+        }
+        byte[] payload = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, payload, 0, payload.length);
+        switch (bytes[0]) {
+            case VALUE_OBJECT_FORMAT:
+                return eventClass.cast(valueObjectCodec.decode(eventClass.asSubclass(BaseValueObject.class), payload));
+            case SERIALIZATION_FORMAT:
+                return serializationEventCodec.decode(eventClass, payload);
+            default:
+                throw new IllegalArgumentException("Unknown event format " + bytes[0]);
+        }
+    }
+
+    private static byte[] withFormat(byte format, byte[] bytes) {
+        byte[] result = new byte[bytes.length + 1];
+        result[0] = format;
+        System.arraycopy(bytes, 0, result, 1, bytes.length);
+        return result;
+    }
+}
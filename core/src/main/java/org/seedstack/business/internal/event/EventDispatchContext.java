@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.Event;
+
+import java.util.Arrays;
+
+/**
+ * Events dispatched on a thread. It records every event fired since the top-level dispatch started, so that an event
+ * fired again, even by a sibling handler, is detected as a cycle, and the depth of the events currently being
+ * dispatched. It is bound to the thread for the duration of a top-level dispatch only, so idle threads do not retain
+ * it, and nested events only append and clear references. When the business context is propagated to another thread,
+ * it is copied so cycles are still detected across threads. It also tells if the events are dispatched as part of a journal replay.
+ */
+class EventDispatchContext {
+    private static final int INITIAL_CAPACITY = 8;
+    private Class<?>[] eventClasses = new Class<?>[INITIAL_CAPACITY];
+    private Event[] events = new Event[INITIAL_CAPACITY];
+    private int fired;
+    private int depth;
+    private boolean replaying;
+
+    /**
+     * Checks if an event has already been fired for the specified event class since the top-level dispatch started.
+     *
+     * @param eventClass the event class the event is dispatched for.
+     * @param event      the event.
+     * @param byIdentity true to compare events by identity, false to compare them with {@code equals()}.
+     * @return true if the event has already been fired, false otherwise.
+     */
+    boolean contains(Class<? extends Event> eventClass, Event event, boolean byIdentity) {
+        for (int i = fired - 1; i >= 0; i--) {
+            if (eventClasses[i] == eventClass && (events[i] == event || !byIdentity && event.equals(events[i]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records an event whose dispatch begins.
+     *
+     * @param eventClass the event class the event is dispatched for.
+     * @param event      the event.
+     * @return the depth of the events being dispatched including the pushed event.
+     */
+    int push(Class<? extends Event> eventClass, Event event) {
+        if (fired == events.length) {
+            eventClasses = Arrays.copyOf(eventClasses, fired * 2);
+            events = Arrays.copyOf(events, fired * 2);
+        }
+        eventClasses[fired] = eventClass;
+        events[fired] = event;
+        fired++;
+        return ++depth;
+    }
+
+    /**
+     * Ends the dispatch of the last pushed event. The recorded events are cleared when the top-level dispatch ends.
+     */
+    void pop() {
+        if (--depth == 0) {
+            Arrays.fill(eventClasses, 0, fired, null);
+            Arrays.fill(events, 0, fired, null);
+            fired = 0;
+        }
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    boolean isReplaying() {
+        return replaying;
+    }
+
+    void setReplaying(boolean replaying) {
+        this.replaying = replaying;
+    }
+
+    /**
+     * @return an independent copy of this context.
+     */
+    EventDispatchContext copy() {
+        EventDispatchContext copy = new EventDispatchContext();
+        if (fired > INITIAL_CAPACITY) {
+            copy.eventClasses = new Class<?>[eventClasses.length];
+            copy.events = new Event[events.length];
+        }
+        System.arraycopy(eventClasses, 0, copy.eventClasses, 0, fired);
+        System.arraycopy(events, 0, copy.events, 0, fired);
+        copy.fired = fired;
+        copy.depth = depth;
+        copy.replaying = replaying;
+        return copy;
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import net.jodah.typetools.TypeResolver;
+import org.seedstack.business.Event;
+import org.seedstack.business.EventFilter;
+import org.seedstack.business.EventHandler;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Holds the {@link EventFilter}s of event handlers, resolved once at startup. Filters are evaluated before the handler
+ * is resolved from the injector.
+ */
+class EventHandlerFilters {
+    private static final MethodType FILTER_METHOD_TYPE = MethodType.methodType(boolean.class, Object.class);
+    private final ImmutableMap<Class<? extends EventHandler>, Predicate<Event>> filters;
+
+    private EventHandlerFilters(ImmutableMap<Class<? extends EventHandler>, Predicate<Event>> filters) {
+        this.filters = filters;
+    }
+
+    static EventHandlerFilters none() {
+        return new EventHandlerFilters(ImmutableMap.of());
+    }
+
+    /**
+     * Resolves the filters of event handlers.
+     *
+     * @param eventClassByHandler the event class handled by each event handler.
+     * @return the filters.
+     */
+    static EventHandlerFilters resolve(Map<Class<? extends EventHandler>, Class<? extends Event>> eventClassByHandler) {
+        ImmutableMap.Builder<Class<? extends EventHandler>, Predicate<Event>> builder = ImmutableMap.builder();
+        for (Map.Entry<Class<? extends EventHandler>, Class<? extends Event>> entry : eventClassByHandler.entrySet()) {
+            List<Predicate<Event>> predicates = resolvePredicates(entry.getKey(), entry.getValue());
+            if (predicates.size() == 1) {
+                builder.put(entry.getKey(), predicates.get(0));
+            } else if (predicates.size() > 1) {
+                builder.put(entry.getKey(), new AllPredicates(ImmutableList.copyOf(predicates)));
+            }
+        }
+        return new EventHandlerFilters(builder.build());
+    }
+
+    /**
+     * Tells if an event can be delivered to an event handler.
+     *
+     * @param eventHandlerClass the event handler class.
+     * @param event             the event.
+     * @return true if the handler has no filter or if all its filters accept the event, false otherwise.
+     */
+    boolean accepts(Class<? extends EventHandler> eventHandlerClass, Event event) {
+        Predicate<Event> filter = filters.get(eventHandlerClass);
+        return filter == null || filter.test(event);
+    }
+
+    /**
+     * @return the predicate instances referenced by the event handler classes, which need to be injected.
+     */
+    List<Predicate<?>> getPredicateInstances() {
+        List<Predicate<?>> predicates = new ArrayList<>();
+        for (Predicate<Event> filter : filters.values()) {
+            if (filter instanceof AllPredicates) {
+                for (Predicate<Event> predicate : ((AllPredicates) filter).predicates) {
+                    addPredicateInstance(predicates, predicate);
+                }
+            } else {
+                addPredicateInstance(predicates, filter);
+            }
+        }
+        return predicates;
+    }
+
+    private static void addPredicateInstance(List<Predicate<?>> predicates, Predicate<Event> predicate) {
+        if (!(predicate instanceof MethodPredicate)) {
+            predicates.add(predicate);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Predicate<Event>> resolvePredicates(Class<? extends EventHandler> eventHandlerClass, Class<? extends Event> eventClass) {
+        List<Predicate<Event>> predicates = new ArrayList<>();
+        EventFilter classFilter = eventHandlerClass.getAnnotation(EventFilter.class);
+        if (classFilter != null && classFilter.value() != Predicate.class) {
+            Class<? extends Predicate> predicateClass = classFilter.value();
+            Class<?> predicateEventClass = TypeResolver.resolveRawArgument(Predicate.class, predicateClass);
+            if (predicateEventClass != TypeResolver.Unknown.class && !predicateEventClass.isAssignableFrom(eventClass)) {
+                throw illegalFilter(eventHandlerClass, eventClass, predicateClass.getName());
+            }
+            try {
+                predicates.add(predicateClass.newInstance());
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw SeedException.wrap(e, BusinessErrorCode.ILLEGAL_EVENT_FILTER)
+                        .put("filter", predicateClass.getName())
+                        .put("handlerClass", eventHandlerClass.getName())
+                        .put("eventClass", eventClass.getName());
+            }
+        }
+        for (Class<?> current = eventHandlerClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Method method : current.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(EventFilter.class)) {
+                    predicates.add(new MethodPredicate(resolveFilterMethod(eventHandlerClass, eventClass, method)));
+                }
+            }
+        }
+        return predicates;
+    }
+
+    private static MethodHandle resolveFilterMethod(Class<? extends EventHandler> eventHandlerClass, Class<? extends Event> eventClass, Method method) {
+        if (!Modifier.isStatic(method.getModifiers())
+                || method.getReturnType() != boolean.class
+                || method.getParameterCount() != 1
+                || !method.getParameterTypes()[0].isAssignableFrom(eventClass)) {
+            throw illegalFilter(eventHandlerClass, eventClass, method.toString());
+        }
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(FILTER_METHOD_TYPE);
+        } catch (IllegalAccessException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.ILLEGAL_EVENT_FILTER)
+                    .put("filter", method.toString())
+                    .put("handlerClass", eventHandlerClass.getName())
+                    .put("eventClass", eventClass.getName());
+        }
+    }
+
+    private static SeedException illegalFilter(Class<? extends EventHandler> eventHandlerClass, Class<? extends Event> eventClass, String filter) {
+        return SeedException.createNew(BusinessErrorCode.ILLEGAL_EVENT_FILTER)
+                .put("filter", filter)
+                .put("handlerClass", eventHandlerClass.getName())
+                .put("eventClass", eventClass.getName());
+    }
+
+    private static class MethodPredicate implements Predicate<Event> {
+        private final MethodHandle methodHandle;
+
+        private MethodPredicate(MethodHandle methodHandle) {
+            this.methodHandle = methodHandle;
+        }
+
+        @Override
+        public boolean test(Event event) {
+            try {
+                return (boolean) methodHandle.invokeExact((Object) event);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Unable to invoke event filter", t);
+            }
+        }
+    }
+
+    private static class AllPredicates implements Predicate<Event> {
+        private final ImmutableList<Predicate<Event>> predicates;
+
+        private AllPredicates(ImmutableList<Predicate<Event>> predicates) {
+            this.predicates = predicates;
+        }
+
+        @Override
+        public boolean test(Event event) {
+            for (Predicate<Event> predicate : predicates) {
+                if (!predicate.test(event)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.Event;
+import org.seedstack.business.EventJournal;
+import org.seedstack.business.domain.DomainEvent;
+import org.seedstack.business.domain.events.BaseAggregateEvent;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.spi.EventCodec;
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.ClassLoaders;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records domain events in a {@link MappedEventJournal} and replays them through the event service. A disabled
+ * instance does nothing.
+ */
+class EventJournalInternal implements EventJournal {
+    private final MappedEventJournal mappedEventJournal;
+    private final ConcurrentMap<String, Class<? extends DomainEvent>> eventClasses = new ConcurrentHashMap<>();
+    @Inject
+    private Provider<EventServiceInternal> eventServiceProvider;
+    @Inject
+    private EventCodec eventCodec;
+
+    EventJournalInternal(MappedEventJournal mappedEventJournal) {
+        this.mappedEventJournal = mappedEventJournal;
+    }
+
+    boolean isEnabled() {
+        return mappedEventJournal != null;
+    }
+
+    /**
+     * Checks if an event is recorded by the journal. Only domain events are recorded, repository events are not since
+     * they refer to the intercepted call.
+     *
+     * @param event the event.
+     * @return true if the event is recorded, false otherwise.
+     */
+    boolean isJournaled(Event event) {
+        return event instanceof DomainEvent && !(event instanceof BaseAggregateEvent);
+    }
+
+    /**
+     * Appends an event to the journal if it is recorded by the journal.
+     *
+     * @param event the event.
+     */
+    void record(Event event) {
+        if (isJournaled(event)) {
+            mappedEventJournal.append(event.getClass().getName(), System.currentTimeMillis(), eventCodec.encode((DomainEvent) event));
+        }
+    }
+
+    @Override
+    public long getLastSequence() {
+        return isEnabled() ? mappedEventJournal.getLastSequence() : 0;
+    }
+
+    @Override
+    public long replay(long fromSequence, long toSequence) {
+        return replay(fromSequence, toSequence, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public long replayPeriod(long fromTimestamp, long toTimestamp) {
+        return replay(Long.MIN_VALUE, Long.MAX_VALUE, fromTimestamp, toTimestamp);
+    }
+
+    void stop() {
+        if (isEnabled()) {
+            mappedEventJournal.close();
+        }
+    }
+
+    private long replay(long fromSequence, long toSequence, long fromTimestamp, long toTimestamp) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        EventServiceInternal eventService = eventServiceProvider.get();
+        return mappedEventJournal.read(fromSequence, toSequence, fromTimestamp, toTimestamp, (sequence, timestamp, type, payload) -> {
+            DomainEvent event;
+            try {
+                event = eventCodec.decode(eventClassOf(type), payload);
+            } catch (Exception e) {
+                throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_DECODE_JOURNALED_EVENT)
+                        .put("event", type)
+                        .put("sequence", sequence);
+            }
+            eventService.replay(event);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends DomainEvent> eventClassOf(String type) {
+        Class<? extends DomainEvent> eventClass = eventClasses.get(type);
+        if (eventClass == null) {
+            try {
+                eventClass = (Class<? extends DomainEvent>) Class.forName(type, true, ClassLoaders.findMostCompleteClassLoader(EventJournalInternal.class));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unknown event class " + type, e);
+            }
+            eventClasses.put(type, eventClass);
+        }
+        return eventClass;
+    }
+}
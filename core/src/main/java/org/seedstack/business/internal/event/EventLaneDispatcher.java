@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.context.ContextSnapshot;
+import org.seedstack.business.metrics.EventLaneMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Dispatches tasks on a fixed number of worker lanes, each one being a single thread consuming a bounded queue. Tasks
+ * submitted with equal partition keys always go to the same lane and are executed in submission order. The propagated
+ * business context of the submitting thread, which does not include its unit of work, is bound on the lane for the
+ * execution of each task. Lane threads never submit
+ * to a lane themselves: {@link #isLaneThread()} lets callers run nested tasks inline instead, so a task cannot block
+ * on a full queue that only its own lane would drain.
+ */
+class EventLaneDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLaneDispatcher.class);
+    private static final long STOP_TIMEOUT = 5000;
+    private final ThreadLocal<Lane> currentLane = new ThreadLocal<>();
+    private final Lane[] lanes;
+    private final EventLaneMetrics eventLaneMetrics;
+
+    EventLaneDispatcher(BusinessConfig.EventConfig.LaneConfig laneConfig) {
+        int count = Math.max(0, laneConfig.getCount());
+        int queueCapacity = Math.max(1, laneConfig.getQueueCapacity());
+        this.lanes = new Lane[count];
+        IntSupplier[] queueDepths = new IntSupplier[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+            queueDepths[i] = lanes[i].queue::size;
+        }
+        this.eventLaneMetrics = new EventLaneMetrics(queueDepths);
+    }
+
+    boolean isEnabled() {
+        return lanes.length > 0;
+    }
+
+    EventLaneMetrics getMetrics() {
+        return eventLaneMetrics;
+    }
+
+    /**
+     * Returns true if the calling thread is one of the lane threads of this dispatcher.
+     *
+     * @return true if called from a lane, false otherwise.
+     */
+    boolean isLaneThread() {
+        return currentLane.get() != null;
+    }
+
+    /**
+     * Returns the lane on which the tasks of the specified partition key are executed.
+     *
+     * @param partitionKey the partition key.
+     * @return the lane index.
+     */
+    int laneOf(Object partitionKey) {
+        int h = partitionKey.hashCode();
+        h ^= (h >>> 16);
+        return (h & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    /**
+     * Submits a task on the lane of the specified partition key. Blocks while the lane queue is full.
+     *
+     * @param partitionKey the partition key.
+     * @param task         the task.
+     */
+    void submit(Object partitionKey, Runnable task) {
+        lanes[laneOf(partitionKey)].submit(new LaneTask(BusinessContext.capture(), task, System.nanoTime()));
+    }
+
+    void stop() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+        for (Lane lane : lanes) {
+            lane.await();
+        }
+    }
+
+    private static class LaneTask {
+        private static final LaneTask STOP = new LaneTask(null, null, 0);
+        private final ContextSnapshot snapshot;
+        private final Runnable task;
+        private final long submitted;
+
+        private LaneTask(ContextSnapshot snapshot, Runnable task, long submitted) {
+            this.snapshot = snapshot;
+            this.task = task;
+            this.submitted = submitted;
+        }
+    }
+
+    private class Lane implements Runnable {
+        private final int index;
+        private final BlockingQueue<LaneTask> queue;
+        private Thread thread;
+        private boolean stopped;
+
+        private Lane(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        private void submit(LaneTask laneTask) {
+            start();
+            try {
+                queue.put(laneTask);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for event lane " + index, e);
+            }
+        }
+
+        private synchronized void start() {
+            if (stopped) {
+                throw new IllegalStateException("Event lane " + index + " is stopped");
+            }
+            if (thread == null) {
+                thread = new Thread(this, "business-event-lane-" + index);
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+
+        private synchronized void stop() {
+            stopped = true;
+            if (thread != null && !queue.offer(LaneTask.STOP)) {
+                thread.interrupt();
+            }
+        }
+
+        private void await() {
+            Thread laneThread;
+            synchronized (this) {
+                laneThread = thread;
+            }
+            if (laneThread != null) {
+                try {
+                    laneThread.join(STOP_TIMEOUT);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (laneThread.isAlive()) {
+                    LOGGER.warn("Event lane {} did not stop within {} ms, {} events discarded", index, STOP_TIMEOUT, queue.size());
+                    laneThread.interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            currentLane.set(this);
+            while (true) {
+                LaneTask laneTask;
+                try {
+                    laneTask = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (laneTask == LaneTask.STOP) {
+                    return;
+                }
+                long lag = System.nanoTime() - laneTask.submitted;
+                boolean failed = false;
+                try {
+                    laneTask.snapshot.run(laneTask.task);
+                } catch (Exception e) {
+                    failed = true;
+                    LOGGER.error("Unable to handle event on lane " + index, e);
+                } finally {
+                    eventLaneMetrics.record(index, lag, failed);
+                }
+            }
+        }
+    }
+}
@@ -11,18 +11,23 @@ import com.google.common.collect.Multimap;
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
-import com.google.inject.matcher.Matcher;
 import com.google.inject.matcher.Matchers;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.Event;
 import org.seedstack.business.EventHandler;
+import org.seedstack.business.EventJournal;
 import org.seedstack.business.EventService;
 import org.seedstack.business.domain.Repository;
-import org.seedstack.seed.core.internal.utils.MethodMatcherBuilder;
+import org.seedstack.business.internal.repository.RepositoryOperations;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.business.metrics.EventLaneMetrics;
+import org.seedstack.business.spi.EventCodec;
+import org.seedstack.business.spi.EventMetricsSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Method;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Event module. Bind EventHandlers, EventService and optionally add an interceptor on repositories.
@@ -34,12 +39,20 @@ class EventModule extends AbstractModule {
     };
     private final Multimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlersByEvent;
     private final List<Class<? extends EventHandler>> eventHandlerClasses;
-    private final boolean watchRepo;
+    private final BusinessConfig.EventConfig eventConfig;
+    private final EventHandlerFilters eventHandlerFilters;
+    private final BatchEventDispatcher batchEventDispatcher;
+    private final EventLaneDispatcher eventLaneDispatcher;
+    private final EventJournalInternal eventJournal;
 
-    EventModule(Multimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlersByEvent, List<Class<? extends EventHandler>> eventHandlerClasses, boolean watchRepo) {
+    EventModule(Multimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlersByEvent, List<Class<? extends EventHandler>> eventHandlerClasses, BusinessConfig.EventConfig eventConfig, EventHandlerFilters eventHandlerFilters, BatchEventDispatcher batchEventDispatcher, EventLaneDispatcher eventLaneDispatcher, EventJournalInternal eventJournal) {
         this.eventHandlersByEvent = eventHandlersByEvent;
         this.eventHandlerClasses = eventHandlerClasses;
-        this.watchRepo = watchRepo;
+        this.eventConfig = eventConfig;
+        this.eventHandlerFilters = eventHandlerFilters;
+        this.batchEventDispatcher = batchEventDispatcher;
+        this.eventLaneDispatcher = eventLaneDispatcher;
+        this.eventJournal = eventJournal;
     }
 
     @Override
@@ -49,18 +62,47 @@ class EventModule extends AbstractModule {
             LOGGER.debug("Binding event handler {}", eventHandlerClass);
         }
         bind(EVENT_HANDLER_MAP_TYPE_LITERAL).toInstance(eventHandlersByEvent);
-        bind(EventService.class).to(EventServiceInternal.class).in(Scopes.SINGLETON);
-        if (watchRepo) {
+        bind(BusinessConfig.EventConfig.class).toInstance(eventConfig);
+        bindMetricsSink(eventConfig.getMetricsSink());
+        bind(EventHandlerFilters.class).toInstance(eventHandlerFilters);
+        bind(EventDeliveryMetrics.class).in(Scopes.SINGLETON);
+        for (Predicate<?> predicate : eventHandlerFilters.getPredicateInstances()) {
+            requestInjection(predicate);
+        }
+        bind(BatchEventDispatcher.class).toInstance(batchEventDispatcher);
+        bind(EventLaneDispatcher.class).toInstance(eventLaneDispatcher);
+        bind(EventLaneMetrics.class).toInstance(eventLaneDispatcher.getMetrics());
+        bindEventCodec(eventConfig.journal().getCodec());
+        bind(EventJournalInternal.class).toInstance(eventJournal);
+        if (eventJournal.isEnabled()) {
+            bind(EventJournal.class).toInstance(eventJournal);
+        }
+        bind(EventServiceInternal.class).in(Scopes.SINGLETON);
+        bind(EventService.class).to(EventServiceInternal.class);
+        if (eventConfig.isPublishRepositoryEvents()) {
             RepositoryMethodInterceptor interceptor = new RepositoryMethodInterceptor();
             requestInjection(interceptor);
-            bindInterceptor(Matchers.subclassesOf(Repository.class), handlerMethod(), interceptor);
+            bindInterceptor(Matchers.subclassesOf(Repository.class), RepositoryOperations.repositoryMethod(), interceptor);
+        }
+    }
+
+    private <T extends EventCodec> void bindEventCodec(Class<T> eventCodecClass) {
+        if (eventCodecClass != null) {
+            LOGGER.debug("Binding event codec {}", eventCodecClass.getName());
+            bind(eventCodecClass).in(Scopes.SINGLETON);
+            bind(EventCodec.class).to(eventCodecClass);
+        } else {
+            bind(EventCodec.class).to(BinaryEventCodec.class).in(Scopes.SINGLETON);
         }
     }
 
-    private Matcher<Method> handlerMethod() {
-        return new MethodMatcherBuilder(ReadResolver.INSTANCE
-                .or(DeleteResolver.INSTANCE)
-                .or(PersistResolver.INSTANCE)
-        ).build();
+    private <T extends EventMetricsSink> void bindMetricsSink(Class<T> metricsSinkClass) {
+        if (metricsSinkClass != null) {
+            LOGGER.debug("Binding event metrics sink {}", metricsSinkClass.getName());
+            bind(metricsSinkClass).in(Scopes.SINGLETON);
+            bind(EventMetricsSink.class).to(metricsSinkClass);
+        } else {
+            bind(EventMetricsSink.class).toInstance(NoOpEventMetricsSink.INSTANCE);
+        }
     }
 }
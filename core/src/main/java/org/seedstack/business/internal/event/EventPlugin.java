@@ -16,26 +16,38 @@ import io.nuun.kernel.api.plugin.context.InitContext;
 import io.nuun.kernel.api.plugin.request.ClasspathScanRequest;
 import net.jodah.typetools.TypeResolver;
 import org.kametic.specifications.Specification;
+import org.seedstack.business.BatchEventHandler;
 import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.Event;
 import org.seedstack.business.EventHandler;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
 import org.seedstack.seed.core.internal.AbstractSeedPlugin;
 import org.seedstack.seed.core.internal.utils.SpecificationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.seedstack.shed.reflect.ClassPredicates.classIsAssignableFrom;
 import static org.seedstack.shed.reflect.ClassPredicates.classIsInterface;
 import static org.seedstack.shed.reflect.ClassPredicates.classModifierIs;
 
 /**
- * This plugin scans all EventHandler, then passes them to the EventModule.
+ * This plugin scans all EventHandler, then passes them to the EventModule. BatchEventHandlers are passed to the
+ * BatchEventDispatcher. The BatchEventDispatcher, the EventLaneDispatcher and the event journal are stopped with the
+ * plugin.
  * It also determines the strategy to adopt for event: will they be sync or async ?
  */
 public class EventPlugin extends AbstractSeedPlugin {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventPlugin.class);
+    private static final String JOURNAL_STORAGE_LOCATION = "business-events-journal";
     private static final Specification<Class<?>> eventHandlerSpecification = new SpecificationBuilder<>(
             classIsInterface().negate()
                     .and(classModifierIs(Modifier.ABSTRACT).negate())
@@ -45,8 +57,14 @@ public class EventPlugin extends AbstractSeedPlugin {
             classIsAssignableFrom(Event.class))
             .build();
     private final Multimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlersByEvent = ArrayListMultimap.create();
+    private final Multimap<Class<? extends Event>, Class<? extends BatchEventHandler>> batchEventHandlersByEvent = ArrayListMultimap.create();
     private final List<Class<? extends EventHandler>> eventHandlerClasses = new ArrayList<>();
-    private boolean watchRepo;
+    private final Map<Class<? extends EventHandler>, Class<? extends Event>> eventClassByHandler = new HashMap<>();
+    private EventHandlerFilters eventHandlerFilters;
+    private BatchEventDispatcher batchEventDispatcher;
+    private EventLaneDispatcher eventLaneDispatcher;
+    private EventJournalInternal eventJournal;
+    private BusinessConfig.EventConfig eventConfig;
 
     @Override
     public String name() {
@@ -61,25 +79,61 @@ public class EventPlugin extends AbstractSeedPlugin {
     @SuppressWarnings("unchecked")
     @Override
     public InitState initialize(InitContext initContext) {
-        BusinessConfig.EventConfig eventConfiguration = getConfiguration(BusinessConfig.EventConfig.class);
-
-        watchRepo = eventConfiguration.isPublishRepositoryEvents();
+        eventConfig = getConfiguration(BusinessConfig.EventConfig.class);
         Collection<Class<?>> scannedEventHandlerClasses = initContext.scannedTypesBySpecification().get(eventHandlerSpecification);
 
         for (Class<?> scannedEventHandlerClass : scannedEventHandlerClasses) {
             if (EventHandler.class.isAssignableFrom(scannedEventHandlerClass)) {
                 eventHandlerClasses.add((Class<EventHandler>) scannedEventHandlerClass);
                 Class<Event> typeParameterClass = (Class<Event>) TypeResolver.resolveRawArguments(EventHandler.class, (Class<EventHandler>) scannedEventHandlerClass)[0];
-                eventHandlersByEvent.put(typeParameterClass, (Class<EventHandler>) scannedEventHandlerClass);
+                eventClassByHandler.put((Class<EventHandler>) scannedEventHandlerClass, typeParameterClass);
+                if (BatchEventHandler.class.isAssignableFrom(scannedEventHandlerClass)) {
+                    batchEventHandlersByEvent.put(typeParameterClass, (Class<BatchEventHandler>) scannedEventHandlerClass);
+                } else {
+                    eventHandlersByEvent.put(typeParameterClass, (Class<EventHandler>) scannedEventHandlerClass);
+                }
             }
         }
+        eventHandlerFilters = EventHandlerFilters.resolve(eventClassByHandler);
+        batchEventDispatcher = new BatchEventDispatcher(ImmutableListMultimap.copyOf(batchEventHandlersByEvent), getConfiguration(BusinessConfig.EventConfig.BatchConfig.class), eventHandlerFilters);
+        eventLaneDispatcher = new EventLaneDispatcher(getConfiguration(BusinessConfig.EventConfig.LaneConfig.class));
+        eventJournal = new EventJournalInternal(openJournal(getConfiguration(BusinessConfig.EventConfig.JournalConfig.class)));
 
         return InitState.INITIALIZED;
     }
 
+    @Override
+    public void stop() {
+        if (batchEventDispatcher != null) {
+            batchEventDispatcher.stop();
+        }
+        if (eventLaneDispatcher != null) {
+            eventLaneDispatcher.stop();
+        }
+        if (eventJournal != null) {
+            eventJournal.stop();
+        }
+    }
+
+    private MappedEventJournal openJournal(BusinessConfig.EventConfig.JournalConfig journalConfig) {
+        if (!journalConfig.isEnabled()) {
+            return null;
+        }
+        File directory;
+        if (journalConfig.getDirectory() != null) {
+            directory = new File(journalConfig.getDirectory());
+        } else if (getApplication().isStorageEnabled()) {
+            directory = getApplication().getStorageLocation(JOURNAL_STORAGE_LOCATION);
+        } else {
+            throw SeedException.createNew(BusinessErrorCode.EVENT_JOURNAL_DIRECTORY_NOT_CONFIGURED);
+        }
+        LOGGER.info("Recording domain events in journal {}", directory.getAbsolutePath());
+        return new MappedEventJournal(directory.toPath(), journalConfig.getSegmentSize());
+    }
+
     @Override
     public Object nativeUnitModule() {
-        return new EventModule(ImmutableListMultimap.copyOf(eventHandlersByEvent), ImmutableList.copyOf(eventHandlerClasses), watchRepo);
+        return new EventModule(ImmutableListMultimap.copyOf(eventHandlersByEvent), ImmutableList.copyOf(eventHandlerClasses), eventConfig, eventHandlerFilters, batchEventDispatcher, eventLaneDispatcher, eventJournal);
     }
 
 }
@@ -7,70 +7,216 @@
  */
 package org.seedstack.business.internal.event;
 
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.inject.Injector;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.Event;
 import org.seedstack.business.EventHandler;
 import org.seedstack.business.EventService;
+import org.seedstack.business.OnLane;
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.domain.AggregateEvent;
 import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.business.spi.ContextSlot;
+import org.seedstack.business.spi.EventMetricsSink;
 import org.seedstack.seed.SeedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 class EventServiceInternal implements EventService {
     private static final Logger LOGGER = LoggerFactory.getLogger(EventServiceInternal.class);
-    private static final ThreadLocal<Multimap<Class<? extends Event>, Event>> context = ThreadLocal.withInitial(ArrayListMultimap::create);
+    private static final ContextSlot<EventDispatchContext> context = BusinessContext.newSlot(EventDispatchContext::copy);
     private final ImmutableListMultimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlerClassesByEvent;
+    private final ImmutableSet<Class<? extends Event>> eventClasses;
+    private final ImmutableSet<Class<? extends EventHandler>> laneHandlerClasses;
+    private final EventHandlerFilters eventHandlerFilters;
+    private final BatchEventDispatcher batchEventDispatcher;
+    private final EventLaneDispatcher eventLaneDispatcher;
+    private final EventJournalInternal eventJournal;
     private final Injector injector;
+    private final EventMetricsSink eventMetricsSink;
+    private final EventDeliveryMetrics eventDeliveryMetrics;
+    private final long slowHandlerThreshold;
+    private final boolean instrumented;
+    private final int maxNestingDepth;
+    private final boolean cycleDetectionByIdentity;
 
     @Inject
-    EventServiceInternal(Injector injector, Multimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlerClassesByEvent) {
+    EventServiceInternal(Injector injector, Multimap<Class<? extends Event>, Class<? extends EventHandler>> eventHandlerClassesByEvent, BusinessConfig.EventConfig eventConfig, EventMetricsSink eventMetricsSink, EventDeliveryMetrics eventDeliveryMetrics, EventHandlerFilters eventHandlerFilters, BatchEventDispatcher batchEventDispatcher, EventLaneDispatcher eventLaneDispatcher, EventJournalInternal eventJournal) {
         this.injector = injector;
         this.eventHandlerClassesByEvent = ImmutableListMultimap.copyOf(eventHandlerClassesByEvent);
+        this.eventClasses = ImmutableSet.<Class<? extends Event>>builder()
+                .addAll(eventHandlerClassesByEvent.keySet())
+                .addAll(batchEventDispatcher.getEventClasses())
+                .build();
+        this.laneHandlerClasses = eventLaneDispatcher.isEnabled() ? laneHandlerClasses(eventHandlerClassesByEvent.values()) : ImmutableSet.of();
+        this.eventHandlerFilters = eventHandlerFilters;
+        this.batchEventDispatcher = batchEventDispatcher;
+        this.eventLaneDispatcher = eventLaneDispatcher;
+        this.eventJournal = eventJournal;
+        this.eventMetricsSink = eventMetricsSink;
+        this.eventDeliveryMetrics = eventDeliveryMetrics;
+        this.slowHandlerThreshold = eventConfig.getSlowHandlerThreshold() > 0 ? TimeUnit.MILLISECONDS.toNanos(eventConfig.getSlowHandlerThreshold()) : 0;
+        this.instrumented = slowHandlerThreshold > 0 || !(eventMetricsSink instanceof NoOpEventMetricsSink);
+        this.maxNestingDepth = eventConfig.getMaxNestingDepth();
+        this.cycleDetectionByIdentity = eventConfig.getCycleDetection() == BusinessConfig.EventConfig.CycleDetection.IDENTITY;
     }
 
     @Override
     public <E extends Event> void fire(E event) {
-        LOGGER.debug("Firing event {} synchronously", event.getClass().getName());
-        for (Class<? extends Event> eventClass : eventHandlerClassesByEvent.keys().elementSet()) {
-            if (eventClass.isAssignableFrom(event.getClass())) {
-                checkCyclicCall(eventClass, event);
-                Multimap<Class<? extends Event>, Event> currentEventClasses = context.get();
-                boolean isFirstCall = currentEventClasses.isEmpty();
-                context.get().put(eventClass, event);
+        EventDispatchContext dispatchContext = context.get();
+        if (dispatchContext == null) {
+            // the dispatch context is only bound for the top-level dispatch, so idle threads hold no dispatch state
+            context.run(new EventDispatchContext(), () -> fire(event));
+            return;
+        }
+        if (eventJournal.isEnabled() && eventJournal.isJournaled(event)) {
+            if (dispatchContext.isReplaying()) {
+                // the event was recorded when first fired and is replayed from the journal on its own
+                LOGGER.debug("Ignoring event {} fired during a replay", event.getClass().getName());
+                return;
+            }
+            eventJournal.record(event);
+        }
+        LOGGER.debug("Firing event {}", event.getClass().getName());
+        dispatch(event);
+    }
+
+    /**
+     * Delivers a journaled event to the event handlers on the calling thread, without recording it again. The journaled
+     * events fired by the handlers during the replay are ignored, since they are in the journal too.
+     *
+     * @param event the event.
+     */
+    void replay(Event event) {
+        EventDispatchContext dispatchContext = context.get();
+        if (dispatchContext == null) {
+            context.run(new EventDispatchContext(), () -> replay(event));
+            return;
+        }
+        LOGGER.debug("Replaying event {}", event.getClass().getName());
+        boolean replaying = dispatchContext.isReplaying();
+        dispatchContext.setReplaying(true);
+        try {
+            dispatch(event);
+        } finally {
+            dispatchContext.setReplaying(replaying);
+        }
+    }
 
+    private <E extends Event> void dispatch(E event) {
+        for (Class<? extends Event> eventClass : eventClasses) {
+            if (eventClass.isAssignableFrom(event.getClass())) {
+                EventDispatchContext dispatchContext = context.get();
+                checkCyclicCall(dispatchContext, eventClass, event);
+                int depth = dispatchContext.push(eventClass, event);
                 try {
-                    notifyHandlers(eventClass, event);
+                    notifyHandlers(eventClass, event, depth, dispatchContext.isReplaying());
+                    batchEventDispatcher.dispatch(eventClass, event);
                 } catch (Exception e) {
                     throw SeedException.wrap(e, BusinessErrorCode.EXCEPTION_OCCURRED_DURING_EVENT_HANDLER_INVOCATION)
                             .put("event", eventClass.getName());
                 } finally {
-                    if (isFirstCall) {
-                        context.remove();
-                    }
+                    dispatchContext.pop();
                 }
             }
         }
     }
 
-    private void checkCyclicCall(Class<? extends Event> eventClass, Event event) {
-        if (context.get().get(eventClass).contains(event)) {
+    private void checkCyclicCall(EventDispatchContext dispatchContext, Class<? extends Event> eventClass, Event event) {
+        if (dispatchContext.contains(eventClass, event, cycleDetectionByIdentity)) {
             throw SeedException.createNew(BusinessErrorCode.EVENT_CYCLE_DETECTED).put("event", eventClass);
         }
+        if (dispatchContext.depth() >= maxNestingDepth) {
+            throw SeedException.createNew(BusinessErrorCode.EVENT_NESTING_TOO_DEEP)
+                    .put("event", eventClass)
+                    .put("maxNestingDepth", maxNestingDepth);
+        }
     }
 
-    @SuppressWarnings("unchecked")
-    private <E extends Event> void notifyHandlers(Class<? extends E> eventClass, E event) {
+    private <E extends Event> void notifyHandlers(Class<? extends E> eventClass, E event, int depth, boolean replaying) {
         Collection<Class<? extends EventHandler>> eventHandlers = eventHandlerClassesByEvent.get(eventClass);
         for (Class<? extends EventHandler> eventHandlerClass : eventHandlers) {
-            LOGGER.debug("Notifying event handler {}", eventHandlerClass.getName());
-            EventHandler eventHandler = injector.getInstance(eventHandlerClass);
+            if (!eventHandlerFilters.accepts(eventHandlerClass, event)) {
+                LOGGER.debug("Event handler {} filtered out event {}", eventHandlerClass.getName(), eventClass.getName());
+                eventDeliveryMetrics.recordSkip(eventClass, eventHandlerClass);
+                eventMetricsSink.handlerSkipped(eventClass, eventHandlerClass);
+                continue;
+            }
+            eventDeliveryMetrics.recordDelivery(eventClass, eventHandlerClass);
+            Object aggregateId = laneHandlerClasses.contains(eventHandlerClass) && !replaying ? laneKeyOf(event) : null;
+            if (aggregateId != null) {
+                LOGGER.debug("Notifying event handler {} on the lane of aggregate {}", eventHandlerClass.getName(), aggregateId);
+                eventLaneDispatcher.submit(aggregateId, () -> notifyHandlerOnLane(eventClass, eventHandlerClass, event, depth));
+            } else {
+                LOGGER.debug("Notifying event handler {}", eventHandlerClass.getName());
+                notifyHandler(eventClass, eventHandlerClass, event, depth);
+            }
+        }
+    }
+
+    /**
+     * Returns the lane partition key of an event, which is the aggregate identity of aggregate events fired outside of
+     * a lane. Events fired from a lane are handled inline, so a lane never waits on its own queue.
+     */
+    private Object laneKeyOf(Event event) {
+        if (event instanceof AggregateEvent && !eventLaneDispatcher.isLaneThread()) {
+            return ((AggregateEvent) event).getAggregateId();
+        }
+        return null;
+    }
+
+    private <E extends Event> void notifyHandlerOnLane(Class<? extends E> eventClass, Class<? extends EventHandler> eventHandlerClass, E event, int depth) {
+        try {
+            notifyHandler(eventClass, eventHandlerClass, event, depth);
+        } catch (Exception e) {
+            throw SeedException.wrap(e, BusinessErrorCode.EXCEPTION_OCCURRED_DURING_EVENT_HANDLER_INVOCATION)
+                    .put("event", eventClass.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Event> void notifyHandler(Class<? extends E> eventClass, Class<? extends EventHandler> eventHandlerClass, E event, int depth) {
+        EventHandler eventHandler = injector.getInstance(eventHandlerClass);
+        if (instrumented) {
+            notifyInstrumentedHandler(eventHandler, eventClass, eventHandlerClass, event, depth);
+        } else {
             eventHandler.handle(event);
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Event> void notifyInstrumentedHandler(EventHandler eventHandler, Class<? extends E> eventClass, Class<? extends EventHandler> eventHandlerClass, E event, int depth) {
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try {
+            eventHandler.handle(event);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            eventMetricsSink.handlerInvoked(eventClass, eventHandlerClass, depth, duration, failure);
+            if (slowHandlerThreshold > 0 && duration >= slowHandlerThreshold) {
+                LOGGER.warn("Event handler {} took {} ms to handle event {}", eventHandlerClass.getName(), TimeUnit.NANOSECONDS.toMillis(duration), eventClass.getName());
+            }
+        }
+    }
+
+    private static ImmutableSet<Class<? extends EventHandler>> laneHandlerClasses(Collection<Class<? extends EventHandler>> eventHandlerClasses) {
+        ImmutableSet.Builder<Class<? extends EventHandler>> builder = ImmutableSet.builder();
+        for (Class<? extends EventHandler> eventHandlerClass : eventHandlerClasses) {
+            if (eventHandlerClass.isAnnotationPresent(OnLane.class)) {
+                builder.add(eventHandlerClass);
+            }
+        }
+        return builder.build();
+    }
 }
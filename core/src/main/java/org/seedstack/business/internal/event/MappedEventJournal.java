@@ -0,0 +1,347 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of binary records stored in a directory of memory-mapped segment files of fixed size. Each
+ * segment file is named after the sequence number of its first record and starts with a header, followed by records:
+ * <pre>
+ * int   length of the record body
+ * int   CRC32 of the record body
+ * body: long  sequence number
+ *       long  timestamp
+ *       short length of the type
+ *       byte* type (UTF-8)
+ *       byte* payload
+ * </pre>
+ * A zero length marks the end of the records of a segment. When opening the journal, the records of the last segment
+ * are checked and the journal resumes after the last valid record, discarding a record which was not fully written.
+ * Records of other segments are checked when they are read.
+ */
+class MappedEventJournal {
+    private static final int MAGIC = 0x424A4E4C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int BODY_HEADER_SIZE = 18;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private final CRC32 writeCrc = new CRC32();
+    private Segment activeSegment;
+    private MappedByteBuffer activeBuffer;
+    private FileChannel activeChannel;
+    private long lastSequence;
+    private long lastTimestamp;
+    private boolean closed;
+
+    /**
+     * Visits the records read from the journal.
+     */
+    interface RecordVisitor {
+        void visit(long sequence, long timestamp, String type, byte[] payload);
+    }
+
+    MappedEventJournal(Path directory, int segmentSize) {
+        if (segmentSize <= SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE + BODY_HEADER_SIZE) {
+            throw new IllegalArgumentException("Journal segment size is too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path path : paths) {
+                    String fileName = path.getFileName().toString();
+                    segments.add(new Segment(path, Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()))));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_EVENT_JOURNAL).put("path", directory);
+        }
+        Collections.sort(segments, (s1, s2) -> Long.compare(s1.firstSequence, s2.firstSequence));
+        if (segments.isEmpty()) {
+            openActiveSegment(createSegment(1));
+            lastSequence = 0;
+        } else {
+            openActiveSegment(segments.get(segments.size() - 1));
+            recover();
+        }
+    }
+
+    /**
+     * Appends a record to the journal. The timestamp of a record is never lower than the timestamp of the previous one.
+     *
+     * @param type      the type of the record.
+     * @param timestamp the timestamp of the record.
+     * @param payload   the payload of the record.
+     * @return the sequence number of the record.
+     */
+    synchronized long append(String type, long timestamp, byte[] payload) {
+        if (closed) {
+            throw new IllegalStateException("Event journal is closed");
+        }
+        byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+        int bodySize = BODY_HEADER_SIZE + typeBytes.length + payload.length;
+        int recordSize = RECORD_HEADER_SIZE + bodySize;
+        if (recordSize > segmentSize - SEGMENT_HEADER_SIZE || typeBytes.length > Short.MAX_VALUE) {
+            throw SeedException.createNew(BusinessErrorCode.EVENT_JOURNAL_RECORD_TOO_LARGE)
+                    .put("type", type)
+                    .put("size", recordSize)
+                    .put("segmentSize", segmentSize);
+        }
+        long sequence = lastSequence + 1;
+        if (activeBuffer.position() + recordSize > segmentSize) {
+            roll(sequence);
+        }
+        long recordTimestamp = Math.max(timestamp, lastTimestamp);
+        int position = activeBuffer.position();
+        activeBuffer.position(position + RECORD_HEADER_SIZE);
+        activeBuffer.putLong(sequence);
+        activeBuffer.putLong(recordTimestamp);
+        activeBuffer.putShort((short) typeBytes.length);
+        activeBuffer.put(typeBytes);
+        activeBuffer.put(payload);
+        int end = activeBuffer.position();
+        writeCrc.reset();
+        writeCrc.update(slice(activeBuffer, position + RECORD_HEADER_SIZE, bodySize));
+        activeBuffer.putInt(position + 4, (int) writeCrc.getValue());
+        activeBuffer.putInt(position, bodySize);
+        activeBuffer.position(end);
+        lastSequence = sequence;
+        lastTimestamp = recordTimestamp;
+        return sequence;
+    }
+
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Reads the records within the specified sequence and timestamp ranges, in sequence order. Records appended after
+     * the beginning of the read are ignored.
+     *
+     * @param fromSequence  the first sequence number, inclusive.
+     * @param toSequence    the last sequence number, inclusive.
+     * @param fromTimestamp the first timestamp, inclusive.
+     * @param toTimestamp   the last timestamp, inclusive.
+     * @param visitor       the visitor receiving the records.
+     * @return the number of records visited.
+     */
+    long read(long fromSequence, long toSequence, long fromTimestamp, long toTimestamp, RecordVisitor visitor) {
+        List<Segment> readSegments;
+        ByteBuffer activeView;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Event journal is closed");
+            }
+            readSegments = new ArrayList<>(segments);
+            activeView = activeBuffer.duplicate();
+            activeView.flip();
+        }
+        long count = 0;
+        for (int i = 0; i < readSegments.size(); i++) {
+            Segment segment = readSegments.get(i);
+            Segment next = i + 1 < readSegments.size() ? readSegments.get(i + 1) : null;
+            if (next != null && (next.firstSequence <= fromSequence || fromTimestamp != Long.MIN_VALUE && next.firstTimestamp() < fromTimestamp)) {
+                continue;
+            }
+            if (segment.firstSequence > toSequence) {
+                break;
+            }
+            ByteBuffer buffer = next == null ? activeView : segment.map();
+            buffer.position(SEGMENT_HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+                int position = buffer.position();
+                int bodySize = buffer.getInt();
+                if (bodySize == 0) {
+                    break;
+                }
+                int expectedCrc = buffer.getInt();
+                if (bodySize < BODY_HEADER_SIZE || bodySize > buffer.remaining() || !checkCrc(crc, buffer, bodySize, expectedCrc)) {
+                    throw SeedException.createNew(BusinessErrorCode.EVENT_JOURNAL_CORRUPTED)
+                            .put("path", segment.path)
+                            .put("position", position);
+                }
+                long sequence = buffer.getLong();
+                long timestamp = buffer.getLong();
+                if (sequence > toSequence || timestamp > toTimestamp) {
+                    return count;
+                }
+                if (sequence < fromSequence || timestamp < fromTimestamp) {
+                    buffer.position(position + RECORD_HEADER_SIZE + bodySize);
+                    continue;
+                }
+                byte[] typeBytes = new byte[buffer.getShort()];
+                buffer.get(typeBytes);
+                byte[] payload = new byte[bodySize - BODY_HEADER_SIZE - typeBytes.length];
+                buffer.get(payload);
+                visitor.visit(sequence, timestamp, new String(typeBytes, StandardCharsets.UTF_8), payload);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forces the records written to the current segment to the storage device.
+     */
+    synchronized void flush() {
+        if (!closed) {
+            activeBuffer.force();
+        }
+    }
+
+    synchronized void close() {
+        if (!closed) {
+            closed = true;
+            activeBuffer.force();
+            closeActiveChannel();
+        }
+    }
+
+    private void recover() {
+        ByteBuffer buffer = activeBuffer.duplicate();
+        buffer.position(SEGMENT_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        long sequence = activeSegment.firstSequence - 1;
+        long timestamp = 0;
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int position = buffer.position();
+            int bodySize = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            if (bodySize < BODY_HEADER_SIZE || bodySize > buffer.remaining() || !checkCrc(crc, buffer, bodySize, expectedCrc)) {
+                buffer.position(position);
+                break;
+            }
+            sequence = buffer.getLong();
+            timestamp = buffer.getLong();
+            buffer.position(position + RECORD_HEADER_SIZE + bodySize);
+        }
+        int end = buffer.position();
+        activeBuffer.position(end);
+        if (activeBuffer.remaining() >= RECORD_HEADER_SIZE && activeBuffer.getInt(end) != 0) {
+            // discards the partially written record and whatever follows it
+            byte[] zeros = new byte[Math.min(8192, activeBuffer.remaining())];
+            while (activeBuffer.hasRemaining()) {
+                activeBuffer.put(zeros, 0, Math.min(zeros.length, activeBuffer.remaining()));
+            }
+            activeBuffer.position(end);
+        }
+        lastSequence = sequence;
+        lastTimestamp = timestamp;
+    }
+
+    private void roll(long firstSequence) {
+        activeBuffer.force();
+        closeActiveChannel();
+        openActiveSegment(createSegment(firstSequence));
+    }
+
+    private Segment createSegment(long firstSequence) {
+        Segment segment = new Segment(directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX)), firstSequence);
+        synchronized (this) {
+            segments.add(segment);
+        }
+        return segment;
+    }
+
+    private void openActiveSegment(Segment segment) {
+        try {
+            activeChannel = FileChannel.open(segment.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_EVENT_JOURNAL).put("path", segment.path);
+        }
+        int magic = activeBuffer.getInt(0);
+        if (magic == 0) {
+            activeBuffer.putInt(0, MAGIC);
+            activeBuffer.putInt(4, VERSION);
+        } else if (magic != MAGIC || activeBuffer.getInt(4) != VERSION) {
+            throw SeedException.createNew(BusinessErrorCode.EVENT_JOURNAL_CORRUPTED).put("path", segment.path).put("position", 0);
+        }
+        activeBuffer.position(SEGMENT_HEADER_SIZE);
+        activeSegment = segment;
+    }
+
+    private void closeActiveChannel() {
+        try {
+            activeChannel.close();
+        } catch (IOException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_EVENT_JOURNAL).put("path", activeSegment.path);
+        }
+    }
+
+    private static boolean checkCrc(CRC32 crc, ByteBuffer buffer, int bodySize, int expectedCrc) {
+        crc.reset();
+        crc.update(slice(buffer, buffer.position(), bodySize));
+        return (int) crc.getValue() == expectedCrc;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(position + length);
+        slice.position(position);
+        return slice;
+    }
+
+    private class Segment {
+        private final Path path;
+        private final long firstSequence;
+        private volatile long firstTimestamp = Long.MIN_VALUE;
+
+        private Segment(Path path, long firstSequence) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+        }
+
+        /**
+         * Returns the timestamp of the first record of the segment or Long.MAX_VALUE if it is still empty.
+         */
+        private long firstTimestamp() {
+            long timestamp = firstTimestamp;
+            if (timestamp == Long.MIN_VALUE) {
+                ByteBuffer buffer = map();
+                if (buffer.getInt(SEGMENT_HEADER_SIZE) > 0) {
+                    timestamp = buffer.getLong(SEGMENT_HEADER_SIZE + RECORD_HEADER_SIZE + 8);
+                    firstTimestamp = timestamp;
+                } else {
+                    timestamp = Long.MAX_VALUE;
+                }
+            }
+            return timestamp;
+        }
+
+        private ByteBuffer map() {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_EVENT_JOURNAL).put("path", path);
+            }
+        }
+    }
+}
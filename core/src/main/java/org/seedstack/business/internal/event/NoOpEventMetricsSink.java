@@ -0,0 +1,27 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.Event;
+import org.seedstack.business.EventHandler;
+import org.seedstack.business.spi.EventMetricsSink;
+
+/**
+ * Default metrics sink used when none is configured. It discards all measures.
+ */
+class NoOpEventMetricsSink implements EventMetricsSink {
+    static final NoOpEventMetricsSink INSTANCE = new NoOpEventMetricsSink();
+
+    private NoOpEventMetricsSink() {
+    }
+
+    @Override
+    public void handlerInvoked(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass, int depth, long duration, Throwable failure) {
+        // nothing to do
+    }
+}
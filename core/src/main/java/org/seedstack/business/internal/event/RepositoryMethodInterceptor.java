@@ -15,6 +15,9 @@ import org.seedstack.business.domain.Repository;
 import org.seedstack.business.domain.events.AggregateDeletedEvent;
 import org.seedstack.business.domain.events.AggregatePersistedEvent;
 import org.seedstack.business.domain.events.AggregateReadEvent;
+import org.seedstack.business.internal.repository.RepositoryOperations;
+import org.seedstack.business.internal.repository.WriteBehind;
+import org.seedstack.business.metrics.RepositoryOperation;
 
 import javax.inject.Inject;
 
@@ -27,13 +30,19 @@ class RepositoryMethodInterceptor implements MethodInterceptor {
 
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
-        Object obj = invocation.proceed();
+        WriteBehind.Outcome outcome = WriteBehind.proceed(invocation);
+        Object obj = outcome.getResult();
+        if (outcome.isBuffered()) {
+            // the event is fired when the buffered write is flushed
+            return obj;
+        }
         Class<? extends AggregateRoot<?>> aggregateRoot = ((Repository<?, ?>) invocation.getThis()).getAggregateRootClass();
-        if (ReadResolver.INSTANCE.test(invocation.getMethod())) {
+        RepositoryOperation operation = RepositoryOperations.of(invocation.getMethod());
+        if (operation == RepositoryOperation.READ) {
             eventService.fire(new AggregateReadEvent(invocation.getMethod(), invocation.getArguments(), aggregateRoot));
-        } else if (PersistResolver.INSTANCE.test(invocation.getMethod())) {
+        } else if (operation == RepositoryOperation.PERSIST) {
             eventService.fire(new AggregatePersistedEvent(invocation.getMethod(), invocation.getArguments(), aggregateRoot));
-        } else if (DeleteResolver.INSTANCE.test(invocation.getMethod())) {
+        } else if (operation == RepositoryOperation.DELETE) {
             eventService.fire(new AggregateDeletedEvent(invocation.getMethod(), invocation.getArguments(), aggregateRoot));
         }
         return obj;
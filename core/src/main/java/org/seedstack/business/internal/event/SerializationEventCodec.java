@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.seedstack.business.domain.DomainEvent;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.spi.EventCodec;
+import org.seedstack.seed.SeedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Default event codec, relying on Java serialization.
+ */
+class SerializationEventCodec implements EventCodec {
+    @Override
+    public byte[] encode(DomainEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        } catch (IOException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ENCODE_EVENT).put("event", event.getClass().getName());
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public <E extends DomainEvent> E decode(Class<E> eventClass, byte[] bytes) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return eventClass.cast(in.readObject());
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to deserialize event " + eventClass.getName(), e);
+        }
+    }
+}
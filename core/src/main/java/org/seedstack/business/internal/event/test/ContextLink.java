@@ -9,36 +9,44 @@ package org.seedstack.business.internal.event.test;
 
 import org.seedstack.business.Event;
 import org.seedstack.business.EventHandler;
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.spi.ContextSlot;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is a shared context between the fixtures and the interceptor.
- * It registers the handlers called with their corresponding event.
+ * It registers the handlers called with their corresponding event while a fixture records a task. The context is
+ * shared with the tasks propagating the business context, so handlers called on other threads are registered too.
  */
 class ContextLink {
 
-    static final ThreadLocal<Map<Class<? extends EventHandler>, Event>> context = ThreadLocal.withInitial(HashMap::new);
+    static final ContextSlot<Map<Class<? extends EventHandler>, Event>> context = BusinessContext.newSlot(map -> map);
 
     /**
-     * Adds an handler call to the context, ie. store the handler called and the given event.
+     * Adds an handler call to the context, ie. store the handler called and the given event. Calls made while no task
+     * is recorded are ignored.
      *
      * @param handlerClass the handler called
      * @param event        the event fired
      */
     public void put(Class<? extends EventHandler> handlerClass, Event event) {
-        context.get().put(handlerClass, event);
+        Map<Class<? extends EventHandler>, Event> classEventMap = context.get();
+        if (classEventMap != null) {
+            classEventMap.put(handlerClass, event);
+        }
     }
 
     /**
-     * Gets the context map and clean it.
+     * Runs a task and records the handlers called during its execution.
      *
+     * @param task the task
      * @return map of handler called with their event
      */
-    public Map<Class<? extends EventHandler>, Event> peek() {
-        Map<Class<? extends EventHandler>, Event> classEventMap = context.get();
-        context.remove();
+    public Map<Class<? extends EventHandler>, Event> record(Runnable task) {
+        Map<Class<? extends EventHandler>, Event> classEventMap = new ConcurrentHashMap<>();
+        context.run(classEventMap, task);
         return classEventMap;
     }
 }
@@ -54,19 +54,21 @@ class EventFixtureInternal implements EventFixture {
 
         private final Event event;
 
+        private Map<Class<? extends EventHandler>, Event> calls = new HashMap<>();
+
         EventProviderInternal(Event event) {
             this.event = event;
         }
 
         @Override
         public EventServiceProvider whenFired() {
-            eventService.fire(this.event);
+            calls = contextLink.record(() -> eventService.fire(this.event));
             return this;
         }
 
         @Override
         public void wasHandledBy(Class<? extends EventHandler>... handlers) {
-            Set<Class<? extends EventHandler>> calledHandlers = contextLink.peek().keySet();
+            Set<Class<? extends EventHandler>> calledHandlers = calls.keySet();
 
             for (Class<? extends EventHandler> handler : handlers) {
                 if (!calledHandlers.contains(handler)) {
@@ -78,7 +80,7 @@ class EventFixtureInternal implements EventFixture {
 
         @Override
         public void wasHandledExactlyBy(Class<? extends EventHandler>... handlers) {
-            Set<Class<? extends EventHandler>> calledHandlers = contextLink.peek().keySet();
+            Set<Class<? extends EventHandler>> calledHandlers = calls.keySet();
 
             for (Class<? extends EventHandler> handler : handlers) {
                 if (!calledHandlers.contains(handler)) {
@@ -94,7 +96,7 @@ class EventFixtureInternal implements EventFixture {
 
         @Override
         public void wasNotHandledBy(Class<? extends EventHandler>... handlers) {
-            Set<Class<? extends EventHandler>> calledHandlers = contextLink.peek().keySet();
+            Set<Class<? extends EventHandler>> calledHandlers = calls.keySet();
 
             for (Class<? extends EventHandler> handler : handlers) {
                 if (calledHandlers.contains(handler)) {
@@ -148,14 +150,15 @@ class EventFixtureInternal implements EventFixture {
         @SuppressWarnings("unchecked")
         @Override
         public void eventWasHandledBy(Map<Class<? extends EventHandler>, Event> handlerMap) {
-            try {
-                Method declaredMethod = this.underTest.getDeclaredMethod(this.method, this.argClasses.toArray(new Class[this.args.length]));
-                Object instance = injector.getInstance(underTest);
-                declaredMethod.invoke(instance, args);
-            } catch (Exception e) {
-                throw SeedException.wrap(e, EventTestErrorCode.FAILED_TO_INVOKE_METHOD);
-            }
-            Map<Class<? extends EventHandler>, Event> callMap = contextLink.peek();
+            Map<Class<? extends EventHandler>, Event> callMap = contextLink.record(() -> {
+                try {
+                    Method declaredMethod = this.underTest.getDeclaredMethod(this.method, this.argClasses.toArray(new Class[this.args.length]));
+                    Object instance = injector.getInstance(underTest);
+                    declaredMethod.invoke(instance, args);
+                } catch (Exception e) {
+                    throw SeedException.wrap(e, EventTestErrorCode.FAILED_TO_INVOKE_METHOD);
+                }
+            });
             for (Map.Entry<Class<? extends EventHandler>, Event> entry : handlerMap.entrySet()) {
                 Event event = callMap.get(entry.getKey());
                 if (event == null) {
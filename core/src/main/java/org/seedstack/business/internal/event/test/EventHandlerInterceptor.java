@@ -13,6 +13,7 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 import javax.inject.Inject;
+import java.util.List;
 
 /**
  * This class intercepts the handle method of each EventHandlers and store the calls in a context.
@@ -25,7 +26,15 @@ class EventHandlerInterceptor implements MethodInterceptor {
     @SuppressWarnings("unchecked")
     @Override
     public Object invoke(MethodInvocation invocation) throws Throwable {
-        contextLink.put((Class<? extends EventHandler>) invocation.getMethod().getDeclaringClass(), (Event) invocation.getArguments()[0]);
+        Class<? extends EventHandler> eventHandlerClass = (Class<? extends EventHandler>) invocation.getMethod().getDeclaringClass();
+        Object argument = invocation.getArguments()[0];
+        if (argument instanceof List) {
+            for (Object event : (List<?>) argument) {
+                contextLink.put(eventHandlerClass, (Event) event);
+            }
+        } else {
+            contextLink.put(eventHandlerClass, (Event) argument);
+        }
         return invocation.proceed();
     }
 }
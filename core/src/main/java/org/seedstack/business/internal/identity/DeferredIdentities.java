@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.seedstack.business.domain.Entity;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds the entities of a unit of work whose identification has been deferred, in creation order. Entities are
+ * tracked by reference since the equality of entities depends on their identity.
+ */
+class DeferredIdentities implements UnitOfWorkListener {
+    private final List<Entity<?>> pending = new ArrayList<>();
+    private final Set<Entity<?>> pendingSet = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    synchronized void add(Entity<?> entity) {
+        if (pendingSet.add(entity)) {
+            pending.add(entity);
+        }
+    }
+
+    synchronized List<Entity<?>> drain() {
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Entity<?>> entities = new ArrayList<>(pending);
+        pending.clear();
+        pendingSet.clear();
+        return entities;
+    }
+
+    @Override
+    public synchronized void completed(boolean success) {
+        // entities never persisted nor flushed are left unidentified
+        pending.clear();
+        pendingSet.clear();
+    }
+}
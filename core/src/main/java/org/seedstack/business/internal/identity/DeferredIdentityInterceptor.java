@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.business.domain.identity.IdentityService;
+import org.seedstack.business.internal.repository.RepositoryOperations;
+import org.seedstack.business.metrics.RepositoryOperation;
+
+import javax.inject.Inject;
+
+/**
+ * Interceptor identifying the entities whose identification has been deferred in the current unit of work before a
+ * repository persist operation.
+ */
+class DeferredIdentityInterceptor implements MethodInterceptor {
+    @Inject
+    private IdentityService identityService;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (RepositoryOperations.of(invocation.getMethod()) == RepositoryOperation.PERSIST) {
+            identityService.flush();
+        }
+        return invocation.proceed();
+    }
+}
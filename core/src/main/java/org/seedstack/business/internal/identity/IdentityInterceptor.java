@@ -34,7 +34,7 @@ class IdentityInterceptor implements MethodInterceptor {
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.trace("Invoking identity service to identify an entity of class {}", object.getClass());
             }
-            return identityService.identify(((Entity<?>) object));
+            return identityService.identifyOrDefer(((Entity<?>) object));
         } else {
             return object;
         }
@@ -8,13 +8,18 @@
 package org.seedstack.business.internal.identity;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
 import com.google.inject.matcher.Matcher;
 import com.google.inject.matcher.Matchers;
 import com.google.inject.name.Names;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.domain.GenericFactory;
+import org.seedstack.business.domain.Repository;
 import org.seedstack.business.domain.identity.IdentityHandler;
 import org.seedstack.business.domain.identity.IdentityService;
 import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.internal.repository.RepositoryOperations;
+import org.seedstack.business.metrics.IdentityPoolMetrics;
 import org.seedstack.seed.SeedException;
 import org.seedstack.seed.core.internal.utils.MethodMatcherBuilder;
 import org.seedstack.shed.reflect.ClassPredicates;
@@ -28,18 +33,33 @@ import java.util.Optional;
 
 class IdentityModule extends AbstractModule {
     private final Collection<Class<? extends IdentityHandler>> identityHandlerClasses;
+    private final BusinessConfig.IdentityConfig identityConfig;
+    private final IdentityPools identityPools;
+    private final boolean deferredIdentification;
 
-    IdentityModule(Collection<Class<? extends IdentityHandler>> identityHandlerClasses) {
+    IdentityModule(Collection<Class<? extends IdentityHandler>> identityHandlerClasses, BusinessConfig.IdentityConfig identityConfig, IdentityPools identityPools, boolean deferredIdentification) {
         this.identityHandlerClasses = identityHandlerClasses;
+        this.identityConfig = identityConfig;
+        this.identityPools = identityPools;
+        this.deferredIdentification = deferredIdentification;
     }
 
     @Override
     protected void configure() {
         bindIdentityHandler();
+        bind(BusinessConfig.IdentityConfig.class).toInstance(identityConfig);
+        bind(IdentityPools.class).toInstance(identityPools);
+        bind(IdentityPoolMetrics.class).toInstance(identityPools.getMetrics());
+        bind(IdentityServiceInternal.class).in(Scopes.SINGLETON);
         bind(IdentityService.class).to(IdentityServiceInternal.class);
         IdentityInterceptor identityInterceptor = new IdentityInterceptor();
         requestInjection(identityInterceptor);
         bindInterceptor(Matchers.subclassesOf(GenericFactory.class), factoryMethods(), identityInterceptor);
+        if (deferredIdentification) {
+            DeferredIdentityInterceptor deferredIdentityInterceptor = new DeferredIdentityInterceptor();
+            requestInjection(deferredIdentityInterceptor);
+            bindInterceptor(Matchers.subclassesOf(Repository.class), RepositoryOperations.repositoryMethod(), deferredIdentityInterceptor);
+        }
     }
 
     private void bindIdentityHandler() {
@@ -13,10 +13,11 @@ package org.seedstack.business.internal.identity;
 import io.nuun.kernel.api.plugin.InitState;
 import io.nuun.kernel.api.plugin.context.InitContext;
 import io.nuun.kernel.api.plugin.request.ClasspathScanRequest;
-import io.nuun.kernel.core.AbstractPlugin;
 import org.kametic.specifications.Specification;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.internal.BusinessSpecifications;
 import org.seedstack.business.domain.identity.IdentityHandler;
+import org.seedstack.seed.core.internal.AbstractSeedPlugin;
 
 import java.util.Collection;
 import java.util.Map;
@@ -26,8 +27,12 @@ import static org.seedstack.business.internal.utils.BusinessUtils.convertClassCo
 /**
  * Plugin used for identity management, scan all classes that implements IdentityHandler
  */
-public class IdentityPlugin extends AbstractPlugin {
+public class IdentityPlugin extends AbstractSeedPlugin {
+    private static final String DEFER_IDENTITY_KEY = "deferIdentity";
     private Collection<Class<? extends IdentityHandler>> identityHandlerClasses;
+    private BusinessConfig.IdentityConfig identityConfig;
+    private IdentityPools identityPools;
+    private boolean deferredIdentification;
 
     @Override
     public String name() {
@@ -38,19 +43,44 @@ public class IdentityPlugin extends AbstractPlugin {
     public Collection<ClasspathScanRequest> classpathScanRequests() {
         return classpathScanRequestBuilder()
                 .specification(BusinessSpecifications.IDENTITY_HANDLER)
+                .specification(BusinessSpecifications.AGGREGATE_ROOT)
+                .specification(BusinessSpecifications.ENTITY)
                 .build();
     }
 
     @Override
     @SuppressWarnings("rawtypes")
-    public InitState init(InitContext initContext) {
+    public InitState initialize(InitContext initContext) {
         Map<Specification, Collection<Class<?>>> spec = initContext.scannedTypesBySpecification();
         identityHandlerClasses = convertClassCollection(IdentityHandler.class, spec.get(BusinessSpecifications.IDENTITY_HANDLER));
+        identityConfig = getConfiguration(BusinessConfig.IdentityConfig.class);
+        identityPools = new IdentityPools(identityConfig.pool());
+        deferredIdentification = identityConfig.isDeferred()
+                || usesDeferredIdentification(spec.get(BusinessSpecifications.AGGREGATE_ROOT))
+                || usesDeferredIdentification(spec.get(BusinessSpecifications.ENTITY));
         return InitState.INITIALIZED;
     }
 
     @Override
     public Object nativeUnitModule() {
-        return new IdentityModule(identityHandlerClasses);
+        return new IdentityModule(identityHandlerClasses, identityConfig, identityPools, deferredIdentification);
+    }
+
+    private boolean usesDeferredIdentification(Collection<Class<?>> entityClasses) {
+        if (entityClasses != null) {
+            for (Class<?> entityClass : entityClasses) {
+                if (Boolean.parseBoolean(getApplication().getConfiguration(entityClass).get(DEFER_IDENTITY_KEY))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void stop() {
+        if (identityPools != null) {
+            identityPools.stop();
+        }
     }
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.seedstack.business.domain.Entity;
+import org.seedstack.business.domain.identity.IdentityHandler;
+import org.seedstack.business.metrics.IdentityPoolMetrics;
+import org.seedstack.business.metrics.PoolMetrics;
+import org.seedstack.seed.ClassConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds identities generated in advance for an entity class. The pool is refilled in the background when the number of
+ * remaining identities falls to the low-water mark. When it is empty, identities are generated synchronously. The
+ * identity handler must be {@link org.seedstack.business.domain.identity.EntityIndependent} since identities are
+ * generated in advance without entity.
+ */
+class IdentityPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdentityPool.class);
+    private final Class<?> entityClass;
+    private final IdentityHandler<Entity<Object>, Object> identityHandler;
+    private final ClassConfiguration<Entity<Object>> entityConfiguration;
+    private final int size;
+    private final int lowWaterMark;
+    private final Executor executor;
+    private final Queue<Object> identities = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final PoolMetrics metrics;
+
+    @SuppressWarnings("unchecked")
+    IdentityPool(Class<?> entityClass, IdentityHandler<?, ?> identityHandler, ClassConfiguration<?> entityConfiguration, int size, int lowWaterMark, Executor executor, IdentityPoolMetrics identityPoolMetrics) {
+        this.entityClass = entityClass;
+        this.identityHandler = (IdentityHandler<Entity<Object>, Object>) identityHandler;
+        this.entityConfiguration = (ClassConfiguration<Entity<Object>>) entityConfiguration;
+        this.size = size;
+        this.lowWaterMark = lowWaterMark;
+        this.executor = executor;
+        this.metrics = identityPoolMetrics.register(entityClass, this::getDepth);
+    }
+
+    int getDepth() {
+        return Math.max(0, depth.get());
+    }
+
+    /**
+     * Takes an identity from the pool or generates one synchronously if the pool is empty.
+     *
+     * @param entity the entity to identify.
+     * @return the identity.
+     */
+    @SuppressWarnings("unchecked")
+    Object take(Entity<?> entity) {
+        Object identity = identities.poll();
+        if (identity != null) {
+            metrics.recordHit();
+            if (depth.decrementAndGet() <= lowWaterMark) {
+                scheduleRefill();
+            }
+            return identity;
+        }
+        metrics.recordMiss();
+        scheduleRefill();
+        return identityHandler.handle((Entity<Object>) entity, entityConfiguration);
+    }
+
+    void scheduleRefill() {
+        if (refilling.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::refill);
+            } catch (RejectedExecutionException e) {
+                refilling.set(false);
+            }
+        }
+    }
+
+    private void refill() {
+        boolean failed = false;
+        long start = System.nanoTime();
+        try {
+            while (depth.get() < size) {
+                identities.offer(identityHandler.handle(null, entityConfiguration));
+                depth.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+            LOGGER.warn("Unable to refill the identity pool of entity {}", entityClass.getName(), e);
+        } finally {
+            metrics.recordRefill(System.nanoTime() - start, failed);
+            refilling.set(false);
+        }
+    }
+}
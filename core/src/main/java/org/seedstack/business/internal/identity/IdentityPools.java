@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.identity.EntityIndependent;
+import org.seedstack.business.domain.identity.IdentityHandler;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.metrics.IdentityPoolMetrics;
+import org.seedstack.seed.ClassConfiguration;
+import org.seedstack.seed.SeedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Manages the identity pools of entity classes and the background threads refilling them. A pool is created the first
+ * time an entity class with a positive pool size is identified. Since pools are refilled without entity, only identity
+ * handlers annotated with {@link EntityIndependent} are pooled: other handlers are rejected when the pool size is set
+ * on the entity class and not pooled when it comes from the default pool size.
+ */
+class IdentityPools {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdentityPools.class);
+    private static final String IDENTITY_POOL_SIZE_KEY = "identityPoolSize";
+    private static final String IDENTITY_POOL_LOW_WATER_MARK_KEY = "identityPoolLowWaterMark";
+    private final BusinessConfig.IdentityConfig.PoolConfig poolConfig;
+    private final IdentityPoolMetrics metrics = new IdentityPoolMetrics();
+    private final ConcurrentMap<Class<?>, Optional<IdentityPool>> pools = new ConcurrentHashMap<>();
+    private volatile ExecutorService executor;
+    private volatile boolean stopped;
+
+    IdentityPools(BusinessConfig.IdentityConfig.PoolConfig poolConfig) {
+        this.poolConfig = poolConfig;
+    }
+
+    IdentityPoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the identity pool of an entity class.
+     *
+     * @param entityClass         the entity class.
+     * @param identityHandler     the identity handler of the entity class.
+     * @param entityConfiguration the class configuration of the entity class.
+     * @return the pool or null if identities of this entity class are not pooled.
+     */
+    IdentityPool poolOf(Class<?> entityClass, IdentityHandler<?, ?> identityHandler, ClassConfiguration<?> entityConfiguration) {
+        Optional<IdentityPool> pool = pools.get(entityClass);
+        if (pool == null) {
+            pool = pools.computeIfAbsent(entityClass, key -> createPool(key, identityHandler, entityConfiguration));
+        }
+        return pool.orElse(null);
+    }
+
+    /**
+     * Stops the background refill threads. Identities are generated synchronously afterwards.
+     */
+    void stop() {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Optional<IdentityPool> createPool(Class<?> entityClass, IdentityHandler<?, ?> identityHandler, ClassConfiguration<?> entityConfiguration) {
+        String sizeValue = entityConfiguration.get(IDENTITY_POOL_SIZE_KEY);
+        int size = sizeValue == null ? poolConfig.getSize() : Integer.parseInt(sizeValue);
+        if (size <= 0 || stopped) {
+            return Optional.empty();
+        }
+        if (!identityHandler.getClass().isAnnotationPresent(EntityIndependent.class)) {
+            if (sizeValue != null) {
+                throw SeedException.createNew(BusinessErrorCode.IDENTITY_HANDLER_CANNOT_BE_POOLED)
+                        .put("entityClass", entityClass.getName())
+                        .put("handlerClass", identityHandler.getClass().getName());
+            }
+            LOGGER.debug("Not pooling identities of entity {}: identity handler {} is not entity-independent", entityClass.getName(), identityHandler.getClass().getName());
+            return Optional.empty();
+        }
+        String lowWaterMarkValue = entityConfiguration.get(IDENTITY_POOL_LOW_WATER_MARK_KEY);
+        int lowWaterMark = lowWaterMarkValue == null ? poolConfig.getLowWaterMark() : Integer.parseInt(lowWaterMarkValue);
+        if (lowWaterMark <= 0 || lowWaterMark >= size) {
+            lowWaterMark = size / 4;
+        }
+        LOGGER.debug("Pooling {} identities of entity {} generated by {}", size, entityClass.getName(), identityHandler.getClass().getName());
+        IdentityPool pool = new IdentityPool(entityClass, identityHandler, entityConfiguration, size, lowWaterMark, executor(), metrics);
+        pool.scheduleRefill();
+        return Optional.of(pool);
+    }
+
+    private ExecutorService executor() {
+        ExecutorService result = executor;
+        if (result == null) {
+            synchronized (this) {
+                result = executor;
+                if (result == null) {
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    executor = result = Executors.newFixedThreadPool(Math.max(1, poolConfig.getRefillThreads()), runnable -> {
+                        Thread thread = new Thread(runnable, "business-identity-pool-" + threadIndex.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -13,11 +13,14 @@ import com.google.inject.Key;
 import com.google.inject.name.Names;
 import net.jodah.typetools.TypeResolver;
 import org.apache.commons.lang.StringUtils;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.domain.Entity;
 import org.seedstack.business.domain.Identity;
+import org.seedstack.business.domain.ImmutableIdentity;
 import org.seedstack.business.domain.identity.IdentityHandler;
 import org.seedstack.business.domain.identity.IdentityService;
 import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
 import org.seedstack.seed.Application;
 import org.seedstack.seed.ClassConfiguration;
 import org.seedstack.seed.SeedException;
@@ -25,23 +28,37 @@ import org.seedstack.shed.reflect.Classes;
 
 import javax.inject.Inject;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.seedstack.shed.reflect.AnnotationPredicates.elementAnnotatedWith;
 
 /**
  * IdentityServiceInternal identify the handler and the configuration used to
- * generate a unique appropriate ID for the current entity
+ * generate a unique appropriate ID for the current entity. When deferred identification is enabled, entities created
+ * within a unit of work are collected and identified all at once, grouped by class.
  */
 class IdentityServiceInternal implements IdentityService {
     private static final String ENTITY_CLASS = "entityClass";
     private static final String HANDLER_CLASS = "handlerClass";
     private static final String IDENTITY_HANDLER_KEY = "identityHandler";
+    private static final String DEFER_IDENTITY_KEY = "deferIdentity";
+    private static final Object DEFERRED_IDENTITIES_KEY = new Object();
+    private final ConcurrentMap<Class<?>, Boolean> deferredEntityClasses = new ConcurrentHashMap<>();
 
     @Inject
     private Injector injector;
     @Inject
     private Application application;
+    @Inject
+    private IdentityPools identityPools;
+    @Inject
+    private BusinessConfig.IdentityConfig identityConfig;
 
     @Override
     @SuppressWarnings({"unchecked", "rawtypes"})
@@ -52,20 +69,120 @@ class IdentityServiceInternal implements IdentityService {
         IdentityHandler identityHandler = getIdentityHandler(identity, entityConfiguration, entity.getClass());
         compareIDType(identityHandler, entity);
         entityIdField.setAccessible(true);
-        try {
-            Object id = entityIdField.get(entity);
-            if (id == null) {
-                entityIdField.set(entity, identityHandler.handle(entity, entityConfiguration));
+        if (readIdentity(entityIdField, entity) == null) {
+            assignIdentity(entityIdField, entity, identityHandler, entityConfiguration);
+        } else {
+            throw SeedException.createNew(BusinessErrorCode.ENTITY_ALREADY_HAS_AN_IDENTITY).put(ENTITY_CLASS,
+                    entity.getClass().getName());
+        }
+
+        return entity;
+    }
+
+    @Override
+    public <E extends Entity<ID>, ID> E identifyOrDefer(E entity) {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        if (unitOfWorkContext != null && isDeferred(entity.getClass())) {
+            unitOfWorkContext.getResource(DEFERRED_IDENTITIES_KEY, DeferredIdentities::new).add(entity);
+            return entity;
+        } else {
+            return identify(entity);
+        }
+    }
+
+    @Override
+    public <E extends Entity<ID>, ID> List<E> identifyAllOrDefer(List<E> entities) {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        List<Entity<?>> toIdentify = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            if (unitOfWorkContext != null && isDeferred(entity.getClass())) {
+                unitOfWorkContext.getResource(DEFERRED_IDENTITIES_KEY, DeferredIdentities::new).add(entity);
             } else {
-                throw SeedException.createNew(BusinessErrorCode.ENTITY_ALREADY_HAS_AN_IDENTITY).put(ENTITY_CLASS,
-                        entity.getClass().getName());
+                toIdentify.add(entity);
+            }
+        }
+        identifyByClass(toIdentify, true);
+        return entities;
+    }
+
+    @Override
+    public void flush() {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        if (unitOfWorkContext == null) {
+            return;
+        }
+        DeferredIdentities deferredIdentities = unitOfWorkContext.peekResource(DEFERRED_IDENTITIES_KEY);
+        if (deferredIdentities != null) {
+            identifyByClass(deferredIdentities.drain(), false);
+        }
+    }
+
+    /**
+     * Identifies the given entities, resolving the identity field, handler and configuration once per entity class.
+     *
+     * @param entities         the entities to identify.
+     * @param failIfIdentified  if true an entity that already has an identity is an error, otherwise it is skipped.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void identifyByClass(List<Entity<?>> entities, boolean failIfIdentified) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        Map<Class<?>, List<Entity<?>>> entitiesByClass = new LinkedHashMap<>();
+        for (Entity<?> entity : entities) {
+            entitiesByClass.computeIfAbsent(entity.getClass(), key -> new ArrayList<>()).add(entity);
+        }
+        for (List<Entity<?>> sameClassEntities : entitiesByClass.values()) {
+            Entity<?> first = sameClassEntities.get(0);
+            Field entityIdField = getEntityIdField(first);
+            ClassConfiguration entityConfiguration = application.getConfiguration(first.getClass());
+            IdentityHandler identityHandler = getIdentityHandler(entityIdField.getAnnotation(Identity.class), entityConfiguration, first.getClass());
+            compareIDType(identityHandler, first);
+            entityIdField.setAccessible(true);
+            for (Entity<?> entity : sameClassEntities) {
+                // the identity of a deferred entity may have been set manually since the entity was created
+                if (readIdentity(entityIdField, entity) == null) {
+                    assignIdentity(entityIdField, entity, identityHandler, entityConfiguration);
+                } else if (failIfIdentified) {
+                    throw SeedException.createNew(BusinessErrorCode.ENTITY_ALREADY_HAS_AN_IDENTITY).put(ENTITY_CLASS,
+                            entity.getClass().getName());
+                }
             }
+        }
+    }
+
+    private boolean isDeferred(Class<?> entityClass) {
+        Boolean deferred = deferredEntityClasses.get(entityClass);
+        if (deferred == null) {
+            String value = application.getConfiguration(entityClass).get(DEFER_IDENTITY_KEY);
+            deferred = value == null ? identityConfig.isDeferred() : Boolean.parseBoolean(value);
+            deferredEntityClasses.putIfAbsent(entityClass, deferred);
+        }
+        return deferred;
+    }
+
+    private Object readIdentity(Field entityIdField, Entity<?> entity) {
+        try {
+            return entityIdField.get(entity);
         } catch (IllegalArgumentException | IllegalAccessException e) {
             throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_INJECT_ENTITY_IDENTITY)
                     .put(ENTITY_CLASS, entity.getClass().getName());
         }
+    }
 
-        return entity;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void assignIdentity(Field entityIdField, Entity<?> entity, IdentityHandler identityHandler, ClassConfiguration entityConfiguration) {
+        IdentityPool identityPool = identityPools.poolOf(entity.getClass(), identityHandler, entityConfiguration);
+        try {
+            entityIdField.set(entity, identityPool == null ? identityHandler.handle(entity, entityConfiguration) : identityPool.take(entity));
+        } catch (IllegalArgumentException | IllegalAccessException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_INJECT_ENTITY_IDENTITY)
+                    .put(ENTITY_CLASS, entity.getClass().getName());
+        }
+        if (entity.getClass().isAnnotationPresent(ImmutableIdentity.class)) {
+            // compute the identity hash once while the entity is still confined to the current thread
+            entity.hashCode();
+        }
     }
 
     /**
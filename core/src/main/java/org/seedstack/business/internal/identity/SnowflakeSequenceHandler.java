@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.Entity;
+import org.seedstack.business.domain.identity.EntityIndependent;
+import org.seedstack.business.domain.identity.SequenceHandler;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+import org.seedstack.seed.SeedException;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-sortable 64-bit identities without coordination between nodes. Each identity packs, from the most
+ * significant bits to the least significant ones, the number of milliseconds elapsed since the configured epoch, the
+ * configured node identifier and a per-millisecond counter. The last timestamp and counter are held in a single atomic
+ * long so concurrent generation never locks.
+ * <p>
+ * When the counter is exhausted, generation waits for the next millisecond. When the clock moves backwards by no more
+ * than the configured tolerance, identities keep being generated from the last timestamp, otherwise generation fails.
+ * </p>
+ */
+@EntityIndependent
+@Named("snowflake")
+@Singleton
+class SnowflakeSequenceHandler implements SequenceHandler<Entity<Long>, Long> {
+    private static final int MIN_TIMESTAMP_BITS = 32;
+    private final AtomicLong state = new AtomicLong();
+    private final LongSupplier clock;
+    private final long epoch;
+    private final long maxClockRegression;
+    private final int sequenceBits;
+    private final int timestampShift;
+    private final long sequenceMask;
+    private final long maxTimestamp;
+    private final long nodePart;
+
+    @Inject
+    SnowflakeSequenceHandler(Application application) {
+        this(application.getConfiguration().get(BusinessConfig.IdentityConfig.SnowflakeConfig.class), System::currentTimeMillis);
+    }
+
+    SnowflakeSequenceHandler(BusinessConfig.IdentityConfig.SnowflakeConfig snowflakeConfig, LongSupplier clock) {
+        int nodeIdBits = snowflakeConfig.getNodeIdBits();
+        int nodeId = snowflakeConfig.getNodeId();
+        this.sequenceBits = snowflakeConfig.getSequenceBits();
+        if (nodeIdBits < 0 || sequenceBits < 1 || nodeIdBits + sequenceBits > 63 - MIN_TIMESTAMP_BITS
+                || nodeId < 0 || nodeId >= 1L << nodeIdBits) {
+            throw SeedException.createNew(BusinessErrorCode.ILLEGAL_SNOWFLAKE_CONFIGURATION)
+                    .put("nodeId", nodeId)
+                    .put("nodeIdBits", nodeIdBits)
+                    .put("sequenceBits", sequenceBits);
+        }
+        this.clock = clock;
+        this.epoch = snowflakeConfig.getEpoch();
+        this.maxClockRegression = Math.max(0, snowflakeConfig.getMaxClockRegression());
+        this.timestampShift = nodeIdBits + sequenceBits;
+        this.sequenceMask = (1L << sequenceBits) - 1;
+        this.maxTimestamp = (1L << (63 - timestampShift)) - 1;
+        this.nodePart = (long) nodeId << sequenceBits;
+    }
+
+    @Override
+    public Long handle(Entity<Long> entity, ClassConfiguration<Entity<Long>> entityConfiguration) {
+        return nextId();
+    }
+
+    long nextId() {
+        while (true) {
+            long current = state.get();
+            long lastTimestamp = current >>> sequenceBits;
+            long now = clock.getAsLong() - epoch;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << sequenceBits;
+            } else if (lastTimestamp - now > maxClockRegression) {
+                throw SeedException.createNew(BusinessErrorCode.CLOCK_REGRESSION_DETECTED)
+                        .put("regression", lastTimestamp - now);
+            } else if ((current & sequenceMask) < sequenceMask) {
+                next = current + 1;
+            } else if (lastTimestamp + 1 - now <= maxClockRegression) {
+                // borrow the next millisecond, as a tolerated clock regression would do
+                next = (lastTimestamp + 1) << sequenceBits;
+            } else {
+                Thread.yield();
+                continue;
+            }
+            long timestamp = next >>> sequenceBits;
+            if (timestamp > maxTimestamp) {
+                throw SeedException.createNew(BusinessErrorCode.SNOWFLAKE_TIMESTAMP_OVERFLOW)
+                        .put("timestampBits", 63 - timestampShift);
+            }
+            if (state.compareAndSet(current, next)) {
+                return timestamp << timestampShift | nodePart | next & sequenceMask;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.seedstack.business.metrics.AggregateCacheMetrics;
+import org.seedstack.business.metrics.RepositoryCacheMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the loaded aggregates of an aggregate root class by their identifier. Aggregates are cached as
+ * {@link AggregateSerialization serialized} snapshots taken when they are loaded, and each hit returns a new copy, so
+ * that callers never share an instance nor see the unsaved changes of other callers. Each invalidation increments a
+ * stamp so that an aggregate loaded concurrently with a write is not cached afterwards.
+ */
+class AggregateCache {
+    private final Class<?> aggregateRootClass;
+    private final Cache<Object, byte[]> aggregates;
+    private final AggregateCacheMetrics metrics;
+    private final AtomicLong stamp = new AtomicLong();
+
+    AggregateCache(Class<?> aggregateRootClass, long maxSize, long expireAfterWrite, RepositoryCacheMetrics repositoryCacheMetrics) {
+        this.aggregateRootClass = aggregateRootClass;
+        this.metrics = repositoryCacheMetrics.register(aggregateRootClass, this::size);
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        if (maxSize > 0) {
+            cacheBuilder.maximumSize(maxSize);
+        }
+        if (expireAfterWrite > 0) {
+            cacheBuilder.expireAfterWrite(expireAfterWrite, TimeUnit.MILLISECONDS);
+        }
+        this.aggregates = cacheBuilder.<Object, byte[]>removalListener(notification -> {
+            if (notification.wasEvicted()) {
+                metrics.recordEviction();
+            }
+        }).build();
+    }
+
+    /**
+     * @return the current stamp, to be passed to {@link #put(Object, Object, long)} after loading an aggregate.
+     */
+    long stamp() {
+        return stamp.get();
+    }
+
+    /**
+     * Returns a copy of the cached aggregate with the specified identifier and records a hit or a miss.
+     *
+     * @param id the aggregate identifier.
+     * @return the copy of the cached aggregate or null.
+     */
+    Object get(Object id) {
+        byte[] snapshot = aggregates.getIfPresent(id);
+        if (snapshot != null) {
+            metrics.recordHit();
+            return AggregateSerialization.deserialize(aggregateRootClass, snapshot);
+        } else {
+            metrics.recordMiss();
+            return null;
+        }
+    }
+
+    /**
+     * Caches a snapshot of a loaded aggregate unless the cache has been invalidated since its loading started.
+     *
+     * @param id        the aggregate identifier.
+     * @param aggregate the loaded aggregate.
+     * @param loadStamp the stamp obtained before loading the aggregate.
+     */
+    void put(Object id, Object aggregate, long loadStamp) {
+        aggregates.put(id, AggregateSerialization.serialize(aggregateRootClass, aggregate));
+        if (stamp.get() != loadStamp) {
+            // a write raced with the load: the aggregate may be stale
+            aggregates.invalidate(id);
+        }
+    }
+
+    void invalidate(Object id) {
+        stamp.incrementAndGet();
+        aggregates.invalidate(id);
+        metrics.recordInvalidation();
+    }
+
+    void invalidateAll() {
+        stamp.incrementAndGet();
+        aggregates.invalidateAll();
+        metrics.recordInvalidation();
+    }
+
+    long size() {
+        return aggregates.size();
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.Cached;
+import org.seedstack.business.metrics.RepositoryCacheMetrics;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+import org.seedstack.seed.SeedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the caches of the aggregate root classes loaded by repositories. Caching is enabled per class with the
+ * {@link Cached} annotation or the {@code cached} class configuration property, or for all classes with the
+ * {@code business.repositories.cache.enabled} configuration property. Since aggregates are cached as serialized
+ * snapshots, a class explicitly cached must be serializable, while the classes which are not are left out when caching
+ * is enabled for all classes.
+ */
+class AggregateCaches {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregateCaches.class);
+    private static final String CACHED_KEY = "cached";
+    private static final String CACHE_MAX_SIZE_KEY = "cacheMaxSize";
+    private static final String CACHE_EXPIRE_AFTER_WRITE_KEY = "cacheExpireAfterWrite";
+    private final ConcurrentMap<Class<?>, Optional<AggregateCache>> caches = new ConcurrentHashMap<>();
+    private final Application application;
+    private final BusinessConfig.RepositoryConfig.CacheConfig cacheConfig;
+    private final RepositoryCacheMetrics repositoryCacheMetrics;
+
+    @Inject
+    AggregateCaches(Application application, BusinessConfig.RepositoryConfig.CacheConfig cacheConfig, RepositoryCacheMetrics repositoryCacheMetrics) {
+        this.application = application;
+        this.cacheConfig = cacheConfig;
+        this.repositoryCacheMetrics = repositoryCacheMetrics;
+    }
+
+    /**
+     * Returns the cache of the specified aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param keyClass           the aggregate key class.
+     * @return the cache or null if the class is not cached.
+     */
+    AggregateCache cacheOf(Class<?> aggregateRootClass, Class<?> keyClass) {
+        Optional<AggregateCache> cache = caches.get(aggregateRootClass);
+        if (cache == null) {
+            cache = caches.computeIfAbsent(aggregateRootClass, key -> createCache(aggregateRootClass, keyClass));
+        }
+        return cache.orElse(null);
+    }
+
+    private Optional<AggregateCache> createCache(Class<?> aggregateRootClass, Class<?> keyClass) {
+        Cached cached = aggregateRootClass.getAnnotation(Cached.class);
+        ClassConfiguration<?> classConfiguration = application.getConfiguration(aggregateRootClass);
+        String cachedValue = classConfiguration.get(CACHED_KEY);
+        if (cachedValue != null ? !Boolean.parseBoolean(cachedValue) : cached == null && !cacheConfig.isEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            AggregateSerialization.checkSerializable(aggregateRootClass, keyClass);
+        } catch (SeedException e) {
+            if (cachedValue != null || cached != null) {
+                throw e;
+            }
+            LOGGER.warn("Aggregate root class {} is not cached since it is not serializable", aggregateRootClass.getName());
+            return Optional.empty();
+        }
+        long maxSize = longValue(classConfiguration.get(CACHE_MAX_SIZE_KEY), cached != null ? cached.maxSize() : 0, cacheConfig.getMaxSize());
+        long expireAfterWrite = longValue(classConfiguration.get(CACHE_EXPIRE_AFTER_WRITE_KEY), cached != null ? cached.expireAfterWrite() : 0, cacheConfig.getExpireAfterWrite());
+        return Optional.of(new AggregateCache(aggregateRootClass, maxSize, expireAfterWrite, repositoryCacheMetrics));
+    }
+
+    private long longValue(String configuredValue, long annotationValue, long defaultValue) {
+        if (configuredValue != null) {
+            return Long.parseLong(configuredValue);
+        } else if (annotationValue > 0) {
+            return annotationValue;
+        } else {
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Serializes aggregates with Java serialization for the repositories keeping them in serialized form, either as
+ * immutable snapshots or outside of the Java heap. Classes of deserialized aggregates are resolved with the class loader
+ * of their aggregate root class first.
+ */
+public final class AggregateSerialization {
+    private AggregateSerialization() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Checks that the aggregates of a class can be serialized, so that a misconfigured repository fails when the
+     * application starts rather than on the first write. The aggregate root and key classes must be serializable, as
+     * well as the classes declared by the non-transient fields of the aggregate and of the serializable application
+     * classes it refers to. Fields declared with an interface, an abstract class or {@link Object} cannot be checked
+     * before their values are known and are accepted.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param keyClass           the aggregate key class.
+     * @throws SeedException if aggregates of this class cannot be serialized.
+     */
+    public static void checkSerializable(Class<?> aggregateRootClass, Class<?> keyClass) {
+        requireSerializable(aggregateRootClass, keyClass);
+        requireSerializable(aggregateRootClass, aggregateRootClass);
+        checkFields(aggregateRootClass, aggregateRootClass, new HashSet<>());
+    }
+
+    static byte[] serialize(Class<?> aggregateRootClass, Object object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        } catch (IOException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_SERIALIZE_AGGREGATE)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("class", object.getClass().getName());
+        }
+        return bytes.toByteArray();
+    }
+
+    static Object deserialize(Class<?> aggregateRootClass, byte[] bytes) {
+        try (ObjectInputStream in = new AggregateInputStream(new ByteArrayInputStream(bytes), aggregateRootClass.getClassLoader())) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_DESERIALIZE_AGGREGATE)
+                    .put("aggregateRootClass", aggregateRootClass.getName());
+        }
+    }
+
+    private static void checkFields(Class<?> aggregateRootClass, Class<?> someClass, Set<Class<?>> checkedClasses) {
+        if (!checkedClasses.add(someClass) || someClass.getName().startsWith("java.") || Externalizable.class.isAssignableFrom(someClass)) {
+            return;
+        }
+        for (Class<?> current = someClass; current != null && current != Object.class; current = current.getSuperclass()) {
+            if (declaresMethod(current, "writeObject", ObjectOutputStream.class) || declaresMethod(current, "writeReplace")) {
+                // the class controls its serialized form
+                return;
+            }
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                    checkType(aggregateRootClass, field.getGenericType(), checkedClasses);
+                }
+            }
+        }
+    }
+
+    private static boolean declaresMethod(Class<?> someClass, String name, Class<?>... parameterTypes) {
+        try {
+            someClass.getDeclaredMethod(name, parameterTypes);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static void checkType(Class<?> aggregateRootClass, Type type, Set<Class<?>> checkedClasses) {
+        if (type instanceof ParameterizedType) {
+            checkType(aggregateRootClass, ((ParameterizedType) type).getRawType(), checkedClasses);
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()) {
+                checkType(aggregateRootClass, argument, checkedClasses);
+            }
+        } else if (type instanceof Class) {
+            Class<?> typeClass = (Class<?>) type;
+            while (typeClass.isArray()) {
+                typeClass = typeClass.getComponentType();
+            }
+            if (!typeClass.isPrimitive() && !typeClass.isInterface() && !Modifier.isAbstract(typeClass.getModifiers()) && typeClass != Object.class) {
+                requireSerializable(aggregateRootClass, typeClass);
+                checkFields(aggregateRootClass, typeClass, checkedClasses);
+            }
+        }
+    }
+
+    private static void requireSerializable(Class<?> aggregateRootClass, Class<?> someClass) {
+        if (!someClass.isPrimitive() && !Serializable.class.isAssignableFrom(someClass)) {
+            throw SeedException.createNew(BusinessErrorCode.AGGREGATE_NOT_SERIALIZABLE)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("class", someClass.getName());
+        }
+    }
+
+    /**
+     * Resolves the classes of deserialized aggregates with the class loader of their aggregate root class first.
+     */
+    private static class AggregateInputStream extends ObjectInputStream {
+        private final ClassLoader classLoader;
+
+        private AggregateInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+            super(in);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.VersionConflictException;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.lang.reflect.Field;
+
+/**
+ * Reads and sets the version of aggregates for versioning repositories. The version can only be set on aggregates
+ * extending {@link BaseAggregateRoot}, other aggregates being stored without check.
+ */
+final class AggregateVersions {
+    private static final Field VERSION_FIELD;
+
+    static {
+        try {
+            VERSION_FIELD = BaseAggregateRoot.class.getDeclaredField("aggregateVersion");
+            VERSION_FIELD.setAccessible(true);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Unable to access the version field of aggregates", e);
+        }
+    }
+
+    private AggregateVersions() {
+        // no instantiation allowed
+    }
+
+    static long versionOf(Object aggregate) {
+        return aggregate instanceof AggregateRoot ? ((AggregateRoot<?>) aggregate).getAggregateVersion() : 0;
+    }
+
+    static void setVersion(Object aggregate, long version) {
+        if (aggregate instanceof BaseAggregateRoot) {
+            try {
+                VERSION_FIELD.setLong(aggregate, version);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to set the version of aggregate " + aggregate.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Checks that the version of an aggregate being saved matches the stored version. Aggregates of version 0 are not
+     * checked.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param id                 the aggregate identifier.
+     * @param expectedVersion    the version of the aggregate being saved.
+     * @param storedVersion      the version of the stored aggregate, 0 if there is none.
+     * @throws VersionConflictException if the versions differ.
+     */
+    static void checkVersion(Class<?> aggregateRootClass, Object id, long expectedVersion, long storedVersion) {
+        if (expectedVersion != 0 && expectedVersion != storedVersion) {
+            throw SeedException.createNew(VersionConflictException.class, BusinessErrorCode.AGGREGATE_VERSION_CONFLICT)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("id", id)
+                    .put("expectedVersion", expectedVersion)
+                    .put("storedVersion", storedVersion);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.internal.unitofwork.UnitOfWorkListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records the aggregates written during a unit of work or a transaction. Until it is over, those aggregates bypass the
+ * cache since their state is not committed yet. They are invalidated again at its end, once the transaction has been
+ * committed or rolled back, as concurrent loads may have cached their previous state in the meantime.
+ */
+class CacheInvalidations implements UnitOfWorkListener {
+    private final Map<AggregateCache, Set<Object>> writtenIds = new HashMap<>();
+    private final Set<AggregateCache> fullyWritten = new HashSet<>();
+
+    synchronized void add(AggregateCache cache, Object id) {
+        writtenIds.computeIfAbsent(cache, key -> new HashSet<>()).add(id);
+    }
+
+    synchronized void addAll(AggregateCache cache) {
+        fullyWritten.add(cache);
+    }
+
+    synchronized boolean isWritten(AggregateCache cache, Object id) {
+        if (fullyWritten.contains(cache)) {
+            return true;
+        }
+        Set<Object> ids = writtenIds.get(cache);
+        return ids != null && ids.contains(id);
+    }
+
+    @Override
+    public synchronized void completed(boolean success) {
+        for (AggregateCache cache : fullyWritten) {
+            cache.invalidateAll();
+        }
+        for (Map.Entry<AggregateCache, Set<Object>> entry : writtenIds.entrySet()) {
+            if (!fullyWritten.contains(entry.getKey())) {
+                for (Object id : entry.getValue()) {
+                    entry.getKey().invalidate(id);
+                }
+            }
+        }
+        fullyWritten.clear();
+        writtenIds.clear();
+    }
+}
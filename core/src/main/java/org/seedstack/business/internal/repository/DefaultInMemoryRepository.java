@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.inject.assistedinject.Assisted;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.BaseRepository;
+import org.seedstack.business.domain.InMemory;
+import org.seedstack.business.domain.IndexedRepository;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.spi.GenericImplementation;
+import org.seedstack.seed.SeedException;
+
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Default repository keeping aggregates in memory. Aggregates are stored in a {@link java.util.concurrent.ConcurrentHashMap}
+ * per aggregate root class, whose lock-free reads let concurrent callers proceed without contention. Writes of the same
+ * aggregate are serialized by a striped lock to keep the {@link org.seedstack.business.domain.Indexed} secondary indexes
+ * consistent. Operations on several aggregates iterate the maps with weak consistency and never block writers.
+ * Aggregates are stored as serialized snapshots and returned as deep copies, so that each caller gets its own instance
+ * carrying the version it was loaded at. Deleting a loaded aggregate fails if it has been saved since it was loaded.
+ *
+ * @param <A> the aggregate root type.
+ * @param <K> the aggregate key type.
+ */
+@InMemory
+@GenericImplementation
+public class DefaultInMemoryRepository<A extends AggregateRoot<K>, K> extends BaseRepository<A, K> implements IndexedRepository<A, K> {
+    private final InMemoryStore<K, A> store;
+
+    @Inject
+    @SuppressWarnings("unchecked")
+    DefaultInMemoryRepository(@Assisted Object[] genericClasses, InMemoryStores inMemoryStores) {
+        super((Class<A>) genericClasses[0], (Class<K>) genericClasses[1]);
+        this.store = inMemoryStores.storeOf(aggregateRootClass, keyClass);
+    }
+
+    @Override
+    public A load(K id) {
+        return store.get(checkNotNull(id, "Aggregate identifier cannot be null"));
+    }
+
+    @Override
+    public boolean exists(K id) {
+        return store.contains(checkNotNull(id, "Aggregate identifier cannot be null"));
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public void delete(K id) {
+        store.remove(checkNotNull(id, "Aggregate identifier cannot be null"), 0);
+    }
+
+    @Override
+    public void delete(A aggregate) {
+        store.remove(idOf(aggregate), AggregateVersions.versionOf(aggregate));
+    }
+
+    @Override
+    public void persist(A aggregate) {
+        if (!store.put(idOf(aggregate), aggregate, true)) {
+            throw SeedException.createNew(BusinessErrorCode.AGGREGATE_ALREADY_EXISTS)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("id", aggregate.getEntityId());
+        }
+    }
+
+    @Override
+    public A save(A aggregate) {
+        store.put(idOf(aggregate), aggregate, false);
+        return aggregate;
+    }
+
+    @Override
+    public List<A> find(String field, Object value) {
+        return store.find(checkNotNull(field, "Field cannot be null"), value);
+    }
+
+    @Override
+    public List<A> find(Map<String, ?> criteria) {
+        return store.find(checkNotNull(criteria, "Criteria cannot be null"));
+    }
+
+    @Override
+    public List<A> findRange(String field, Comparable<?> from, Comparable<?> to) {
+        return store.findRange(checkNotNull(field, "Field cannot be null"), from, to);
+    }
+
+    /**
+     * @return copies of the aggregates of the repository at the time of the call, unaffected by later writes.
+     */
+    public List<A> snapshot() {
+        return Collections.unmodifiableList(store.values());
+    }
+
+    private K idOf(A aggregate) {
+        return checkNotNull(checkNotNull(aggregate, "Aggregate cannot be null").getEntityId(), "Aggregate identifier cannot be null");
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.inject.assistedinject.Assisted;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.BaseRepository;
+import org.seedstack.business.domain.OffHeap;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.spi.GenericImplementation;
+import org.seedstack.seed.SeedException;
+
+import javax.inject.Inject;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Default repository keeping serialized aggregates in memory-mapped files outside of the Java heap, shared by all its
+ * instances, one store per aggregate root class. Aggregates are located by an off-heap hash index of their serialized
+ * identifier and deserialized only when loaded, so that large data sets put no pressure on the garbage collector.
+ * Files holding too many replaced or deleted aggregates are compacted automatically or on demand with
+ * {@link #compact()}.
+ *
+ * @param <A> the aggregate root type.
+ * @param <K> the aggregate key type.
+ */
+@OffHeap
+@GenericImplementation
+public class DefaultOffHeapRepository<A extends AggregateRoot<K>, K> extends BaseRepository<A, K> {
+    private final OffHeapStore<K, A> store;
+
+    @Inject
+    @SuppressWarnings("unchecked")
+    DefaultOffHeapRepository(@Assisted Object[] genericClasses, OffHeapStores offHeapStores) {
+        super((Class<A>) genericClasses[0], (Class<K>) genericClasses[1]);
+        this.store = offHeapStores.storeOf(aggregateRootClass, keyClass);
+    }
+
+    @Override
+    public A load(K id) {
+        return store.get(checkNotNull(id, "Aggregate identifier cannot be null"));
+    }
+
+    @Override
+    public boolean exists(K id) {
+        return store.contains(checkNotNull(id, "Aggregate identifier cannot be null"));
+    }
+
+    @Override
+    public long count() {
+        return store.size();
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+    @Override
+    public void delete(K id) {
+        store.remove(checkNotNull(id, "Aggregate identifier cannot be null"), 0);
+    }
+
+    @Override
+    public void delete(A aggregate) {
+        store.remove(idOf(aggregate), AggregateVersions.versionOf(aggregate));
+    }
+
+    @Override
+    public void persist(A aggregate) {
+        if (!store.put(idOf(aggregate), aggregate, true)) {
+            throw SeedException.createNew(BusinessErrorCode.AGGREGATE_ALREADY_EXISTS)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("id", aggregate.getEntityId());
+        }
+    }
+
+    @Override
+    public A save(A aggregate) {
+        store.put(idOf(aggregate), aggregate, false);
+        return aggregate;
+    }
+
+    /**
+     * Copies the aggregates still stored in files holding replaced or deleted aggregates and deletes those files.
+     */
+    public void compact() {
+        store.compact();
+    }
+
+    private K idOf(A aggregate) {
+        return checkNotNull(checkNotNull(aggregate, "Aggregate cannot be null").getEntityId(), "Aggregate identifier cannot be null");
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.assistedinject.Assisted;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.BaseRepository;
+import org.seedstack.business.domain.Partitioned;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.spi.GenericImplementation;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Default repository routing operations to the partitions of an aggregate root class, which are other repositories
+ * declared in its class configuration. Operations on a single aggregate go to the partition of its key. The count and
+ * clear operations are sent to all partitions, whose results are gathered. Bulk operations group their keys by
+ * partition and process the partitions in parallel.
+ *
+ * @param <A> the aggregate root type.
+ * @param <K> the aggregate key type.
+ * @see Partitioned
+ */
+@Partitioned
+@GenericImplementation
+public class DefaultPartitionedRepository<A extends AggregateRoot<K>, K> extends BaseRepository<A, K> {
+    private final RepositoryPartitions repositoryPartitions;
+    private final PartitionRouter router;
+    private final List<Repository<A, K>> partitions;
+
+    @Inject
+    @SuppressWarnings("unchecked")
+    DefaultPartitionedRepository(@Assisted Object[] genericClasses, Injector injector, RepositoryPartitions repositoryPartitions) {
+        super((Class<A>) genericClasses[0], (Class<K>) genericClasses[1]);
+        this.repositoryPartitions = repositoryPartitions;
+        RepositoryPartitions.Partitions resolvedPartitions = repositoryPartitions.partitionsOf(aggregateRootClass, keyClass);
+        this.router = resolvedPartitions.getRouter();
+        this.partitions = new ArrayList<>();
+        for (Key<?> key : resolvedPartitions.getKeys()) {
+            partitions.add((Repository<A, K>) injector.getInstance(key));
+        }
+    }
+
+    @Override
+    public A load(K id) {
+        return partitionOf(id).load(id);
+    }
+
+    @Override
+    public boolean exists(K id) {
+        return partitionOf(id).exists(id);
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (Long partitionCount : scatter(Repository::count)) {
+            count += partitionCount;
+        }
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        scatter(partition -> {
+            partition.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(K id) {
+        partitionOf(id).delete(id);
+    }
+
+    @Override
+    public void delete(A aggregate) {
+        partitionOf(idOf(aggregate)).delete(aggregate);
+    }
+
+    @Override
+    public void persist(A aggregate) {
+        partitionOf(idOf(aggregate)).persist(aggregate);
+    }
+
+    @Override
+    public A save(A aggregate) {
+        return partitionOf(idOf(aggregate)).save(aggregate);
+    }
+
+    @Override
+    public Map<K, A> loadAll(Collection<K> ids) {
+        Map<K, A> loaded = new LinkedHashMap<>();
+        for (Map<K, A> partitionAggregates : gather(group(ids, id -> id), Repository::loadAll)) {
+            loaded.putAll(partitionAggregates);
+        }
+        Map<K, A> aggregates = new LinkedHashMap<>();
+        for (K id : ids) {
+            A aggregate = loaded.get(id);
+            if (aggregate != null) {
+                aggregates.put(id, aggregate);
+            }
+        }
+        return aggregates;
+    }
+
+    @Override
+    public void persistAll(Collection<A> aggregates) {
+        gather(group(aggregates, this::idOf), (partition, partitionAggregates) -> {
+            partition.persistAll(partitionAggregates);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAll(Collection<K> ids) {
+        gather(group(ids, id -> id), (partition, partitionIds) -> {
+            partition.deleteAll(partitionIds);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the partition holding the aggregate of the specified key.
+     *
+     * @param id the aggregate key.
+     * @return the partition repository.
+     */
+    public Repository<A, K> partitionOf(K id) {
+        return partitions.get(router.partitionOf(checkNotNull(id, "Aggregate identifier cannot be null")));
+    }
+
+    private <T> List<T> scatter(Function<Repository<A, K>, T> operation) {
+        List<Callable<T>> tasks = new ArrayList<>(partitions.size());
+        for (Repository<A, K> partition : partitions) {
+            tasks.add(() -> operation.apply(partition));
+        }
+        return repositoryPartitions.invokeAll(tasks);
+    }
+
+    private <E, T> List<T> gather(Map<Integer, List<E>> groups, PartitionOperation<A, K, E, T> operation) {
+        List<Callable<T>> tasks = new ArrayList<>(groups.size());
+        for (Map.Entry<Integer, List<E>> group : groups.entrySet()) {
+            Repository<A, K> partition = partitions.get(group.getKey());
+            tasks.add(() -> operation.apply(partition, group.getValue()));
+        }
+        return repositoryPartitions.invokeAll(tasks);
+    }
+
+    private <E> Map<Integer, List<E>> group(Collection<E> elements, Function<E, K> idFunction) {
+        Map<Integer, List<E>> groups = new LinkedHashMap<>();
+        for (E element : elements) {
+            K id = checkNotNull(idFunction.apply(element), "Aggregate identifier cannot be null");
+            groups.computeIfAbsent(router.partitionOf(id), partition -> new ArrayList<>()).add(element);
+        }
+        return groups;
+    }
+
+    private K idOf(A aggregate) {
+        return checkNotNull(checkNotNull(aggregate, "Aggregate cannot be null").getEntityId(), "Aggregate identifier cannot be null");
+    }
+
+    @FunctionalInterface
+    private interface PartitionOperation<A extends AggregateRoot<K>, K, E, T> {
+        T apply(Repository<A, K> partition, List<E> elements);
+    }
+}
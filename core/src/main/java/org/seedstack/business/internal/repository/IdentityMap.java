@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the aggregates loaded or written by the repositories of a unit of work, keyed by repository and aggregate
+ * identifier. All aggregates are released when the unit of work is over.
+ */
+class IdentityMap implements UnitOfWorkListener {
+    private final Map<Repository<?, ?>, Map<Object, Object>> aggregates = new HashMap<>();
+
+    synchronized Object get(Repository<?, ?> repository, Object id) {
+        Map<Object, Object> repositoryAggregates = aggregates.get(repository);
+        return repositoryAggregates == null ? null : repositoryAggregates.get(id);
+    }
+
+    /**
+     * Maps an aggregate, unless another instance is already mapped with the same identifier.
+     *
+     * @param repository the repository.
+     * @param id         the aggregate identifier.
+     * @param aggregate  the aggregate.
+     * @return the mapped instance.
+     */
+    synchronized Object putIfAbsent(Repository<?, ?> repository, Object id, Object aggregate) {
+        Object existing = aggregates.computeIfAbsent(repository, key -> new HashMap<>()).putIfAbsent(id, aggregate);
+        return existing == null ? aggregate : existing;
+    }
+
+    synchronized void put(Repository<?, ?> repository, Object id, Object aggregate) {
+        aggregates.computeIfAbsent(repository, key -> new HashMap<>()).put(id, aggregate);
+    }
+
+    synchronized void remove(Repository<?, ?> repository, Object id) {
+        Map<Object, Object> repositoryAggregates = aggregates.get(repository);
+        if (repositoryAggregates != null) {
+            repositoryAggregates.remove(id);
+        }
+    }
+
+    synchronized void removeAll(Repository<?, ?> repository) {
+        aggregates.remove(repository);
+    }
+
+    @Override
+    public synchronized void completed(boolean success) {
+        aggregates.clear();
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.domain.VersionConflictException;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
+import org.seedstack.business.metrics.RepositoryOperation;
+import org.seedstack.seed.Application;
+
+import javax.inject.Inject;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Makes the repository loads of a unit of work return the same instance for the same aggregate identifier, without
+ * reaching the persistence again. Written aggregates replace the mapped instance and deleted ones are unmapped. Write
+ * operations whose affected aggregate cannot be determined unmap all aggregates of their repository.
+ */
+class IdentityMapInterceptor implements MethodInterceptor {
+    private static final String IDENTITY_MAP_KEY = "identityMap";
+    private static final Object IDENTITY_MAP_RESOURCE_KEY = new Object();
+    private final ConcurrentMap<Class<?>, Boolean> mappedClasses = new ConcurrentHashMap<>();
+    @Inject
+    private Application application;
+    @Inject
+    private BusinessConfig.RepositoryConfig repositoryConfig;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryOperation operation = RepositoryOperations.of(invocation.getMethod());
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        if (operation == null || unitOfWorkContext == null) {
+            return invocation.proceed();
+        }
+        Repository<?, ?> repository = (Repository<?, ?>) invocation.getThis();
+        if (!isMapped(repository.getAggregateRootClass())) {
+            return invocation.proceed();
+        }
+        IdentityMap identityMap = unitOfWorkContext.getResource(IDENTITY_MAP_RESOURCE_KEY, IdentityMap::new);
+        Object[] args = invocation.getArguments();
+        if (operation == RepositoryOperation.READ) {
+            if ("load".equals(invocation.getMethod().getName()) && args.length == 1 && args[0] != null) {
+                Object aggregate = identityMap.get(repository, args[0]);
+                if (aggregate == null) {
+                    aggregate = invocation.proceed();
+                    if (aggregate != null) {
+                        aggregate = identityMap.putIfAbsent(repository, args[0], aggregate);
+                    }
+                }
+                return aggregate;
+            }
+            return invocation.proceed();
+        }
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (VersionConflictException e) {
+            // the mapped aggregate is outdated, so it is loaded again when the operation is retried
+            Object id = e.get("id");
+            if (id == null) {
+                identityMap.removeAll(repository);
+            } else {
+                identityMap.remove(repository, id);
+            }
+            throw e;
+        }
+        if (args.length == 1 && repository.getAggregateRootClass().isInstance(args[0]) && ((AggregateRoot<?>) args[0]).getEntityId() != null) {
+            Object id = ((AggregateRoot<?>) args[0]).getEntityId();
+            if (operation == RepositoryOperation.PERSIST) {
+                identityMap.put(repository, id, args[0]);
+            } else {
+                identityMap.remove(repository, id);
+            }
+        } else if (operation == RepositoryOperation.DELETE && args.length == 1 && repository.getKeyClass().isInstance(args[0])) {
+            identityMap.remove(repository, args[0]);
+        } else {
+            identityMap.removeAll(repository);
+        }
+        return result;
+    }
+
+    private boolean isMapped(Class<?> aggregateRootClass) {
+        Boolean mapped = mappedClasses.get(aggregateRootClass);
+        if (mapped == null) {
+            String value = application.getConfiguration(aggregateRootClass).get(IDENTITY_MAP_KEY);
+            mapped = value == null ? repositoryConfig.isIdentityMap() : Boolean.parseBoolean(value);
+            mappedClasses.putIfAbsent(aggregateRootClass, mapped);
+        }
+        return mapped;
+    }
+}
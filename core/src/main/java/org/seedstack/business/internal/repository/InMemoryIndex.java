@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.domain.Indexed;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A secondary index on a field of an aggregate root, mapping field values to aggregate identifiers.
+ */
+class InMemoryIndex {
+    private final String field;
+    private final MethodHandle getter;
+    private final boolean unique;
+    private final boolean sorted;
+    private final ConcurrentMap<Object, Object> uniqueEntries;
+    private final ConcurrentMap<Object, Set<Object>> entries;
+
+    InMemoryIndex(String field, MethodHandle getter, Indexed indexed) {
+        this.field = field;
+        this.getter = getter;
+        this.unique = indexed.unique();
+        this.sorted = indexed.sorted();
+        this.uniqueEntries = unique ? new ConcurrentHashMap<>() : null;
+        this.entries = sorted ? new ConcurrentSkipListMap<>() : unique ? null : new ConcurrentHashMap<>();
+    }
+
+    String getField() {
+        return field;
+    }
+
+    MethodHandle getGetter() {
+        return getter;
+    }
+
+    boolean isUnique() {
+        return unique;
+    }
+
+    boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Reserves a value of a unique index for an aggregate.
+     *
+     * @param value the value.
+     * @param id    the aggregate identifier.
+     * @return the identifier of the other aggregate holding this value, or null if the value was reserved.
+     */
+    Object claim(Object value, Object id) {
+        Object holder = uniqueEntries.putIfAbsent(value, id);
+        return holder == null || holder.equals(id) ? null : holder;
+    }
+
+    /**
+     * Releases a value of a unique index, if it is held by the specified aggregate.
+     *
+     * @param value the value.
+     * @param id    the aggregate identifier.
+     */
+    void release(Object value, Object id) {
+        uniqueEntries.remove(value, id);
+    }
+
+    void add(Object value, Object id) {
+        if (entries != null) {
+            entries.computeIfAbsent(value, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    void remove(Object value, Object id) {
+        if (entries != null) {
+            entries.computeIfPresent(value, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    void clear() {
+        if (uniqueEntries != null) {
+            uniqueEntries.clear();
+        }
+        if (entries != null) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @param value the value.
+     * @return the number of aggregates whose field is equal to the value, used to choose the most selective index.
+     */
+    int count(Object value) {
+        if (unique) {
+            return uniqueEntries.containsKey(value) ? 1 : 0;
+        }
+        Set<Object> ids = entries.get(value);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * @param value the value.
+     * @return the identifiers of the aggregates whose field is equal to the value.
+     */
+    Collection<Object> lookup(Object value) {
+        if (unique) {
+            Object id = uniqueEntries.get(value);
+            return id == null ? Collections.emptyList() : Collections.singletonList(id);
+        }
+        Set<Object> ids = entries.get(value);
+        return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+    }
+
+    /**
+     * @param from the lowest value, inclusive, or null.
+     * @param to   the highest value, exclusive, or null.
+     * @return the identifiers of the aggregates whose field is in the range, in the order of the field.
+     */
+    @SuppressWarnings("unchecked")
+    List<Object> range(Object from, Object to) {
+        NavigableMap<Object, Set<Object>> sortedEntries = (NavigableMap<Object, Set<Object>>) entries;
+        NavigableMap<Object, Set<Object>> subMap;
+        if (from != null && to != null) {
+            subMap = sortedEntries.subMap(from, true, to, false);
+        } else if (from != null) {
+            subMap = sortedEntries.tailMap(from, true);
+        } else if (to != null) {
+            subMap = sortedEntries.headMap(to, false);
+        } else {
+            subMap = sortedEntries;
+        }
+        List<Object> ids = new ArrayList<>();
+        for (Set<Object> valueIds : subMap.values()) {
+            ids.addAll(valueIds);
+        }
+        return ids;
+    }
+}
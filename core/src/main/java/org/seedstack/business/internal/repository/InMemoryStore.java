@@ -0,0 +1,400 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.common.primitives.Primitives;
+import com.google.common.util.concurrent.Striped;
+import org.seedstack.business.domain.Indexed;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Holds the aggregates of an aggregate root class for the in-memory repository, along with the secondary indexes
+ * declared with {@link Indexed}. Writes of the same aggregate are serialized by a striped lock while reads never lock.
+ * The store keeps an immutable snapshot of each aggregate, its {@link AggregateSerialization serialized} form, along with
+ * its version. Each read deserializes a deep copy from the snapshot, carrying the version it was read at, so that changes
+ * made by callers to the aggregate or to the entities and collections it holds are only visible once saved and
+ * concurrent modifications of the same aggregate are detected. Indexed values and query criteria are read from a private
+ * copy of the snapshot which is never handed out.
+ *
+ * @param <K> the aggregate key type.
+ * @param <A> the aggregate root type.
+ */
+class InMemoryStore<K, A> {
+    private static final int LOCK_STRIPES = 64;
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private final Class<A> aggregateRootClass;
+    private final ConcurrentMap<K, Stored<A>> aggregates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, Object[]> indexedValues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MethodHandle> getters = new ConcurrentHashMap<>();
+    private final Map<String, InMemoryIndex> indexesByField = new LinkedHashMap<>();
+    private final InMemoryIndex[] indexes;
+    private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+
+    InMemoryStore(Class<A> aggregateRootClass) {
+        this.aggregateRootClass = aggregateRootClass;
+        for (Field field : fieldsOf(aggregateRootClass)) {
+            Indexed indexed = field.getAnnotation(Indexed.class);
+            if (indexed != null && !indexesByField.containsKey(field.getName())) {
+                if (indexed.sorted() && !Comparable.class.isAssignableFrom(Primitives.wrap(field.getType()))) {
+                    throw SeedException.createNew(BusinessErrorCode.ILLEGAL_SORTED_INDEX)
+                            .put("aggregateRootClass", aggregateRootClass.getName())
+                            .put("field", field.getName())
+                            .put("type", field.getType().getName());
+                }
+                indexesByField.put(field.getName(), new InMemoryIndex(field.getName(), getterOf(field), indexed));
+            }
+        }
+        this.indexes = indexesByField.values().toArray(new InMemoryIndex[indexesByField.size()]);
+    }
+
+    A get(K id) {
+        Stored<A> stored = aggregates.get(id);
+        return stored == null ? null : stored.copy();
+    }
+
+    boolean contains(K id) {
+        return aggregates.containsKey(id);
+    }
+
+    long size() {
+        return aggregates.size();
+    }
+
+    List<A> values() {
+        List<A> values = new ArrayList<>(aggregates.size());
+        for (Stored<A> stored : aggregates.values()) {
+            values.add(stored.copy());
+        }
+        return values;
+    }
+
+    /**
+     * Stores an aggregate, replacing any aggregate with the same identifier. The version of the replaced aggregate must
+     * be the version of the stored aggregate, unless it is 0. A snapshot of the aggregate is stored with the incremented
+     * version, which is also set on the given aggregate so that it can be saved again.
+     *
+     * @param id        the aggregate identifier.
+     * @param aggregate the aggregate.
+     * @param onlyNew   if true, the aggregate is not stored if another one has the same identifier.
+     * @return false if the aggregate was not stored because of the onlyNew flag.
+     */
+    boolean put(K id, A aggregate, boolean onlyNew) {
+        byte[] snapshot = AggregateSerialization.serialize(aggregateRootClass, aggregate);
+        Lock lock = locks.get(id);
+        lock.lock();
+        try {
+            Stored<A> current = aggregates.get(id);
+            if (onlyNew && current != null) {
+                return false;
+            }
+            long storedVersion = current == null ? 0 : current.version;
+            if (!onlyNew) {
+                AggregateVersions.checkVersion(aggregateRootClass, id, AggregateVersions.versionOf(aggregate), storedVersion);
+            }
+            Stored<A> stored = new Stored<>(aggregateRootClass, snapshot, storedVersion + 1);
+            if (indexes.length == 0) {
+                aggregates.put(id, stored);
+                AggregateVersions.setVersion(aggregate, stored.version);
+                return true;
+            }
+            Object[] oldValues = indexedValues.get(id);
+            // indexed values are read from the private copy of the snapshot, which callers cannot modify afterwards
+            Object[] newValues = new Object[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                newValues[i] = read(indexes[i].getGetter(), stored.aggregate);
+            }
+            claimUniqueValues(id, oldValues, newValues);
+            aggregates.put(id, stored);
+            indexedValues.put(id, newValues);
+            AggregateVersions.setVersion(aggregate, stored.version);
+            for (int i = 0; i < indexes.length; i++) {
+                Object oldValue = oldValues == null ? null : oldValues[i];
+                if (!Objects.equals(oldValue, newValues[i])) {
+                    unindex(indexes[i], oldValue, id);
+                    if (newValues[i] != null) {
+                        indexes[i].add(newValues[i], id);
+                    }
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes an aggregate. When removing a loaded aggregate, its version must be the stored version, unless it is 0.
+     *
+     * @param id              the aggregate identifier.
+     * @param expectedVersion the version of the removed aggregate, 0 to remove it regardless of its version.
+     */
+    void remove(K id, long expectedVersion) {
+        Lock lock = locks.get(id);
+        lock.lock();
+        try {
+            Stored<A> current = aggregates.get(id);
+            if (current == null) {
+                return;
+            }
+            AggregateVersions.checkVersion(aggregateRootClass, id, expectedVersion, current.version);
+            aggregates.remove(id);
+            Object[] oldValues = indexedValues.remove(id);
+            if (oldValues != null) {
+                for (int i = 0; i < indexes.length; i++) {
+                    unindex(indexes[i], oldValues[i], id);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < locks.size(); i++) {
+            locks.getAt(i).lock();
+        }
+        try {
+            aggregates.clear();
+            indexedValues.clear();
+            for (InMemoryIndex index : indexes) {
+                index.clear();
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.getAt(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds the aggregates whose field is equal to a value, using an index of the field if any.
+     *
+     * @param field the field name.
+     * @param value the value.
+     * @return the matching aggregates.
+     */
+    List<A> find(String field, Object value) {
+        return find(Collections.singletonMap(field, value));
+    }
+
+    /**
+     * Finds the aggregates whose fields are all equal to the specified values. Candidates are looked up in the most
+     * selective index of the criteria fields, the one holding the fewest aggregates for its value, then filtered with the
+     * other criteria. Aggregates are scanned if no criteria field is indexed.
+     *
+     * @param criteria the values by field name.
+     * @return the matching aggregates.
+     */
+    List<A> find(Map<String, ?> criteria) {
+        MethodHandle[] criteriaGetters = new MethodHandle[criteria.size()];
+        Object[] criteriaValues = new Object[criteria.size()];
+        InMemoryIndex bestIndex = null;
+        Object bestValue = null;
+        int bestCount = Integer.MAX_VALUE;
+        int i = 0;
+        for (Map.Entry<String, ?> criterion : criteria.entrySet()) {
+            InMemoryIndex index = indexesByField.get(criterion.getKey());
+            criteriaGetters[i] = index != null ? index.getGetter() : getterOf(criterion.getKey());
+            criteriaValues[i] = criterion.getValue();
+            if (index != null && criteriaValues[i] != null) {
+                int count = index.count(criteriaValues[i]);
+                if (count < bestCount) {
+                    bestIndex = index;
+                    bestValue = criteriaValues[i];
+                    bestCount = count;
+                }
+            }
+            i++;
+        }
+        Collection<Stored<A>> candidates = bestIndex != null ? resolve(bestIndex.lookup(bestValue)) : aggregates.values();
+        List<A> results = new ArrayList<>();
+        for (Stored<A> stored : candidates) {
+            // the aggregate may have been replaced since its identifier was looked up
+            if (matches(stored.aggregate, criteriaGetters, criteriaValues)) {
+                results.add(stored.copy());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds the aggregates whose field is in a range, using a sorted index of the field if any.
+     *
+     * @param field the field name.
+     * @param from  the lowest value, inclusive, or null.
+     * @param to    the highest value, exclusive, or null.
+     * @return the matching aggregates in the order of the field.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    List<A> findRange(String field, Comparable from, Comparable to) {
+        InMemoryIndex index = indexesByField.get(field);
+        boolean sortedIndex = index != null && index.isSorted();
+        MethodHandle getter = index != null ? index.getGetter() : getterOf(field);
+        Collection<Stored<A>> candidates = sortedIndex ? resolve(index.range(from, to)) : aggregates.values();
+        List<Stored<A>> matches = new ArrayList<>();
+        for (Stored<A> stored : candidates) {
+            Object value = read(getter, stored.aggregate);
+            if (value != null && (from == null || from.compareTo(value) <= 0) && (to == null || to.compareTo(value) > 0)) {
+                matches.add(stored);
+            }
+        }
+        if (!sortedIndex) {
+            matches.sort(Comparator.comparing(stored -> (Comparable) read(getter, stored.aggregate)));
+        }
+        List<A> results = new ArrayList<>(matches.size());
+        for (Stored<A> stored : matches) {
+            results.add(stored.copy());
+        }
+        return results;
+    }
+
+    private static boolean matches(Object aggregate, MethodHandle[] criteriaGetters, Object[] criteriaValues) {
+        for (int i = 0; i < criteriaGetters.length; i++) {
+            if (!Objects.equals(read(criteriaGetters[i], aggregate), criteriaValues[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void claimUniqueValues(K id, Object[] oldValues, Object[] newValues) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i].isUnique() && newValues[i] != null) {
+                Object holder = indexes[i].claim(newValues[i], id);
+                if (holder != null) {
+                    for (int j = 0; j < i; j++) {
+                        if (indexes[j].isUnique() && newValues[j] != null && (oldValues == null || !Objects.equals(oldValues[j], newValues[j]))) {
+                            indexes[j].release(newValues[j], id);
+                        }
+                    }
+                    throw SeedException.createNew(BusinessErrorCode.UNIQUE_INDEX_VIOLATION)
+                            .put("aggregateRootClass", aggregateRootClass.getName())
+                            .put("id", id)
+                            .put("field", indexes[i].getField())
+                            .put("value", newValues[i])
+                            .put("holder", holder);
+                }
+            }
+        }
+    }
+
+    private void unindex(InMemoryIndex index, Object value, K id) {
+        if (value != null) {
+            if (index.isUnique()) {
+                index.release(value, id);
+            }
+            index.remove(value, id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Stored<A>> resolve(Collection<Object> ids) {
+        List<Stored<A>> resolved = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            Stored<A> stored = aggregates.get((K) id);
+            if (stored != null) {
+                resolved.add(stored);
+            }
+        }
+        return resolved;
+    }
+
+    private MethodHandle getterOf(String fieldName) {
+        MethodHandle getter = getters.get(fieldName);
+        if (getter == null) {
+            for (Field field : fieldsOf(aggregateRootClass)) {
+                if (field.getName().equals(fieldName)) {
+                    getter = getterOf(field);
+                    getters.putIfAbsent(fieldName, getter);
+                    return getter;
+                }
+            }
+            throw SeedException.createNew(BusinessErrorCode.UNKNOWN_AGGREGATE_FIELD)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("field", fieldName);
+        }
+        return getter;
+    }
+
+    private MethodHandle getterOf(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNKNOWN_AGGREGATE_FIELD)
+                    .put("aggregateRootClass", aggregateRootClass.getName())
+                    .put("field", field.getName());
+        }
+    }
+
+    private static List<Field> fieldsOf(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        Class<?> current = type;
+        while (current != null && current != Object.class) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    fields.add(field);
+                }
+            }
+            current = current.getSuperclass();
+        }
+        return fields;
+    }
+
+    private static Object read(MethodHandle getter, Object aggregate) {
+        try {
+            return (Object) getter.invokeExact(aggregate);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Unable to read aggregate field", t);
+        }
+    }
+
+    /**
+     * The snapshot of an aggregate kept by the store with its version, and a private copy of the snapshot, never handed
+     * out, from which field values are read.
+     */
+    private static class Stored<A> {
+        private final Class<A> aggregateRootClass;
+        private final byte[] snapshot;
+        private final A aggregate;
+        private final long version;
+
+        private Stored(Class<A> aggregateRootClass, byte[] snapshot, long version) {
+            this.aggregateRootClass = aggregateRootClass;
+            this.snapshot = snapshot;
+            this.aggregate = aggregateRootClass.cast(AggregateSerialization.deserialize(aggregateRootClass, snapshot));
+            this.version = version;
+        }
+
+        private A copy() {
+            A copy = aggregateRootClass.cast(AggregateSerialization.deserialize(aggregateRootClass, snapshot));
+            AggregateVersions.setVersion(copy, version);
+            return copy;
+        }
+    }
+}
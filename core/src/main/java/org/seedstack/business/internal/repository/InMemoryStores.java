@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the stores of the in-memory default repository, one per aggregate root class. This class is bound as a
+ * singleton so that all repository instances of an aggregate root class share the same store. The serializability of an
+ * aggregate root class is checked when its store is created.
+ */
+class InMemoryStores {
+    private final ConcurrentMap<Class<?>, InMemoryStore<?, ?>> stores = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    <K, A> InMemoryStore<K, A> storeOf(Class<A> aggregateRootClass, Class<K> keyClass) {
+        InMemoryStore<?, ?> store = stores.get(aggregateRootClass);
+        if (store == null) {
+            store = stores.computeIfAbsent(aggregateRootClass, key -> {
+                AggregateSerialization.checkSerializable(aggregateRootClass, keyClass);
+                return new InMemoryStore<>(aggregateRootClass);
+            });
+        }
+        return (InMemoryStore<K, A>) store;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An open-addressing hash table stored in a direct buffer outside of the Java heap, which maps the hash of a
+ * serialized key to the location of its record. Each slot is made of:
+ * <pre>
+ * int hash of the key, 0 if the slot was never used
+ * int segment of the record, -1 if the record was removed
+ * int offset of the record in its segment
+ * int length of the record
+ * </pre>
+ * Keys with the same hash are told apart by the {@link RecordMatcher} given to {@link #find(int, RecordMatcher)}. This
+ * class is not thread-safe.
+ */
+class OffHeapIndex {
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int REMOVED = -1;
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    private int used;
+
+    /**
+     * Tells if the record at the specified location is the one searched.
+     */
+    interface RecordMatcher {
+        boolean matches(int segment, int offset);
+    }
+
+    OffHeapIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Finds the slot of a record.
+     *
+     * @param hash    the non-zero hash of the record key.
+     * @param matcher the matcher of the searched record.
+     * @return the slot of the record or -1 if it is not indexed.
+     */
+    int find(int hash, RecordMatcher matcher) {
+        int mask = capacity - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int base = slot * SLOT_SIZE;
+            int slotHash = slots.getInt(base);
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == hash) {
+                int segment = slots.getInt(base + 4);
+                if (segment != REMOVED && matcher.matches(segment, slots.getInt(base + 8))) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexes a record whose key is not indexed yet.
+     *
+     * @param hash    the non-zero hash of the record key.
+     * @param segment the segment of the record.
+     * @param offset  the offset of the record in its segment.
+     * @param length  the length of the record.
+     */
+    void insert(int hash, int segment, int offset, int length) {
+        if ((used + 1) * 4L > capacity * 3L) {
+            resize(size + 1 > capacity / 2 ? capacity * 2 : capacity);
+        }
+        int mask = capacity - 1;
+        int slot = spread(hash) & mask;
+        while (slots.getInt(slot * SLOT_SIZE) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        write(slot, hash, segment, offset, length);
+        size++;
+        used++;
+    }
+
+    void update(int slot, int segment, int offset, int length) {
+        write(slot, slots.getInt(slot * SLOT_SIZE), segment, offset, length);
+    }
+
+    void remove(int slot) {
+        slots.putInt(slot * SLOT_SIZE + 4, REMOVED);
+        size--;
+    }
+
+    int segment(int slot) {
+        return slots.getInt(slot * SLOT_SIZE + 4);
+    }
+
+    int offset(int slot) {
+        return slots.getInt(slot * SLOT_SIZE + 8);
+    }
+
+    int length(int slot) {
+        return slots.getInt(slot * SLOT_SIZE + 12);
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void write(int slot, int hash, int segment, int offset, int length) {
+        int base = slot * SLOT_SIZE;
+        slots.putInt(base, hash);
+        slots.putInt(base + 4, segment);
+        slots.putInt(base + 8, offset);
+        slots.putInt(base + 12, length);
+    }
+
+    private void resize(int newCapacity) {
+        ByteBuffer oldSlots = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            int base = i * SLOT_SIZE;
+            int hash = oldSlots.getInt(base);
+            int segment = oldSlots.getInt(base + 4);
+            if (hash != 0 && segment != REMOVED) {
+                int slot = spread(hash) & mask;
+                while (slots.getInt(slot * SLOT_SIZE) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                write(slot, hash, segment, oldSlots.getInt(base + 8), oldSlots.getInt(base + 12));
+                size++;
+                used++;
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        if (newCapacity > Integer.MAX_VALUE / SLOT_SIZE) {
+            throw new IllegalStateException("Off-heap index cannot hold more than " + size + " keys");
+        }
+        slots = ByteBuffer.allocateDirect(newCapacity * SLOT_SIZE);
+        capacity = newCapacity;
+        size = 0;
+        used = 0;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
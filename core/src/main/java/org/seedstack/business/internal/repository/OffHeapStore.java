@@ -0,0 +1,459 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.common.hash.Hashing;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stores the serialized aggregates of an aggregate root class in memory-mapped segment files, outside of the Java heap.
+ * Records are appended to the active segment and located by an {@link OffHeapIndex} keyed by the hash of the serialized
+ * aggregate identifier:
+ * <pre>
+ * int   length of the key
+ * int   length of the value
+ * long  version of the aggregate
+ * byte* key (serialized identifier)
+ * byte* value (serialized aggregate)
+ * </pre>
+ * Saving or deleting an aggregate leaves its previous record as garbage in its segment. When the garbage of a full
+ * segment exceeds the compaction threshold, its live records are copied to the active segment and its file is deleted.
+ * Aggregates are only deserialized when loaded, their version being set from their record. Reads proceed concurrently
+ * while writes are exclusive. Segments are unmapped as soon as they are compacted or the store is closed.
+ * <p>
+ * The store is a volatile scratch area, not a persistent storage: its index is only kept in memory, so the aggregates
+ * are lost when the application stops. The segment files left in the store directory by a previous run that was not
+ * closed properly cannot be read anymore and are deleted when the store is created.
+ * </p>
+ *
+ * @param <K> the aggregate key type.
+ * @param <A> the aggregate root type.
+ */
+class OffHeapStore<K, A> {
+    private static final int RECORD_HEADER_SIZE = 16;
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private final Class<A> aggregateRootClass;
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Segment> segments = new HashMap<>();
+    private final OffHeapIndex index = new OffHeapIndex();
+    private Segment activeSegment;
+    private int nextSegmentId;
+    private boolean closed;
+
+    OffHeapStore(Class<A> aggregateRootClass, Path directory, int segmentSize, double compactionThreshold) {
+        if (segmentSize <= RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Off-heap segment size is too small: " + segmentSize);
+        }
+        this.aggregateRootClass = aggregateRootClass;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        deleteLeftoverSegments();
+    }
+
+    /**
+     * Stores an aggregate. When replacing an aggregate, the version of the aggregate must be the stored version, unless
+     * it is 0. The version of the stored aggregate is incremented.
+     *
+     * @param id        the aggregate identifier.
+     * @param aggregate the aggregate.
+     * @param onlyNew   true to store the aggregate only if no aggregate is stored with the same identifier.
+     * @return false if onlyNew is true and an aggregate is already stored with the same identifier, true otherwise.
+     */
+    boolean put(K id, A aggregate, boolean onlyNew) {
+        byte[] key = serialize(id);
+        byte[] value = serialize(aggregate);
+        int hash = hash(key);
+        long version;
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int slot = index.find(hash, matcher(key));
+            if (slot >= 0 && onlyNew) {
+                return false;
+            }
+            long storedVersion = slot >= 0 ? segments.get(index.segment(slot)).readVersion(index.offset(slot)) : 0;
+            if (!onlyNew) {
+                AggregateVersions.checkVersion(aggregateRootClass, id, AggregateVersions.versionOf(aggregate), storedVersion);
+            }
+            version = storedVersion + 1;
+            int length = RECORD_HEADER_SIZE + key.length + value.length;
+            Segment segment = reserve(length);
+            int offset = segment.append(key, value, version);
+            if (slot >= 0) {
+                // the previous record may have been moved by the compaction of its segment
+                Segment previous = segments.get(index.segment(slot));
+                int previousLength = index.length(slot);
+                index.update(slot, segment.id, offset, length);
+                discard(previous, previousLength);
+            } else {
+                index.insert(hash, segment.id, offset, length);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        AggregateVersions.setVersion(aggregate, version);
+        return true;
+    }
+
+    A get(K id) {
+        byte[] key = serialize(id);
+        byte[] value;
+        long version;
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            int slot = index.find(hash(key), matcher(key));
+            if (slot < 0) {
+                return null;
+            }
+            Segment segment = segments.get(index.segment(slot));
+            value = segment.readValue(index.offset(slot));
+            version = segment.readVersion(index.offset(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+        A aggregate = aggregateRootClass.cast(AggregateSerialization.deserialize(aggregateRootClass, value));
+        AggregateVersions.setVersion(aggregate, version);
+        return aggregate;
+    }
+
+    boolean contains(K id) {
+        byte[] key = serialize(id);
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            return index.find(hash(key), matcher(key)) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an aggregate. When removing a loaded aggregate, its version must be the stored version, unless it is 0.
+     *
+     * @param id              the aggregate identifier.
+     * @param expectedVersion the version of the removed aggregate, 0 to remove it regardless of its version.
+     * @return true if an aggregate was removed, false if none was stored with this identifier.
+     */
+    boolean remove(K id, long expectedVersion) {
+        byte[] key = serialize(id);
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            int slot = index.find(hash(key), matcher(key));
+            if (slot < 0) {
+                return false;
+            }
+            Segment segment = segments.get(index.segment(slot));
+            AggregateVersions.checkVersion(aggregateRootClass, id, expectedVersion, segment.readVersion(index.offset(slot)));
+            int length = index.length(slot);
+            index.remove(slot);
+            discard(segment, length);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            deleteSegments();
+            index.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts all the full segments holding garbage, regardless of the compaction threshold.
+     */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment != activeSegment && segment.garbage > 0) {
+                    compact(segment);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes the store and deletes its files.
+     */
+    void close() {
+        lock.writeLock().lock();
+        try {
+            if (!closed) {
+                closed = true;
+                deleteSegments();
+                delete(directory);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Segment reserve(int recordSize) {
+        while (activeSegment == null || activeSegment.remaining() < recordSize) {
+            Segment fullSegment = activeSegment;
+            activeSegment = createSegment(Math.max(segmentSize, recordSize));
+            if (fullSegment != null && fullSegment.garbage > fullSegment.position * compactionThreshold) {
+                compact(fullSegment);
+            }
+        }
+        return activeSegment;
+    }
+
+    private void discard(Segment segment, int length) {
+        segment.garbage += length;
+        if (segment != activeSegment && segment.garbage > segment.position * compactionThreshold) {
+            compact(segment);
+        }
+    }
+
+    private void compact(Segment segment) {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        int offset = 0;
+        while (offset < segment.position) {
+            int keyLength = buffer.getInt(offset);
+            int length = RECORD_HEADER_SIZE + keyLength + buffer.getInt(offset + 4);
+            int slot = index.find(hash(buffer, offset + RECORD_HEADER_SIZE, keyLength), locationMatcher(segment.id, offset));
+            if (slot >= 0) {
+                Segment target = reserve(length);
+                index.update(slot, target.id, target.copy(buffer, offset, length), length);
+            }
+            offset += length;
+        }
+        segments.remove(segment.id);
+        segment.delete();
+    }
+
+    private Segment createSegment(int capacity) {
+        Path path = directory.resolve(String.format("%010d%s", nextSegmentId, SEGMENT_SUFFIX));
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Segment segment = new Segment(nextSegmentId++, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+                segments.put(segment.id, segment);
+                return segment;
+            }
+        } catch (IOException e) {
+            throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_OFF_HEAP_STORE).put("path", path);
+        }
+    }
+
+    private void deleteSegments() {
+        for (Segment segment : segments.values()) {
+            segment.delete();
+        }
+        segments.clear();
+        activeSegment = null;
+    }
+
+    private void deleteLeftoverSegments() {
+        // the index is not persisted, so segments left by a previous run that was not closed cannot be read anymore
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                for (Path leftover : leftovers) {
+                    Files.delete(leftover);
+                }
+            } catch (IOException e) {
+                throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_OFF_HEAP_STORE).put("path", directory);
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Off-heap store of " + aggregateRootClass.getName() + " is closed");
+        }
+    }
+
+    private OffHeapIndex.RecordMatcher matcher(byte[] key) {
+        return (segment, offset) -> segments.get(segment).keyEquals(offset, key);
+    }
+
+    private OffHeapIndex.RecordMatcher locationMatcher(int segmentId, int recordOffset) {
+        return (segment, offset) -> segment == segmentId && offset == recordOffset;
+    }
+
+    private byte[] serialize(Object object) {
+        return AggregateSerialization.serialize(aggregateRootClass, object);
+    }
+
+    static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Releases the mapping of a segment right away instead of when its buffer is garbage collected, which could keep
+     * the memory and the file of many discarded segments. The buffer must not be accessed anymore, which the write lock
+     * held during compactions and closing guarantees. If the JDK does not allow it, the mapping is left to the garbage
+     * collector.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                // Java 9 and later
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // the mapping is released when the buffer is garbage collected
+        }
+    }
+
+    private static int hash(byte[] key) {
+        return nonZero(Hashing.murmur3_32().hashBytes(key).asInt());
+    }
+
+    private static int hash(ByteBuffer buffer, int offset, int length) {
+        byte[] key = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(key);
+        return hash(key);
+    }
+
+    private static int nonZero(int hash) {
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static class Segment {
+        private final int id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int garbage;
+
+        private Segment(int id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        private int append(byte[] key, byte[] value, long version) {
+            int offset = position;
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.putInt(key.length);
+            view.putInt(value.length);
+            view.putLong(version);
+            view.put(key);
+            view.put(value);
+            position = view.position();
+            return offset;
+        }
+
+        private int copy(ByteBuffer source, int sourceOffset, int length) {
+            int offset = position;
+            ByteBuffer record = source.duplicate();
+            record.limit(sourceOffset + length);
+            record.position(sourceOffset);
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.put(record);
+            position = view.position();
+            return offset;
+        }
+
+        private boolean keyEquals(int offset, byte[] key) {
+            if (buffer.getInt(offset) != key.length) {
+                return false;
+            }
+            int keyOffset = offset + RECORD_HEADER_SIZE;
+            for (int i = 0; i < key.length; i++) {
+                if (buffer.get(keyOffset + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long readVersion(int offset) {
+            return buffer.getLong(offset + 8);
+        }
+
+        private byte[] readValue(int offset) {
+            byte[] value = new byte[buffer.getInt(offset + 4)];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + RECORD_HEADER_SIZE + buffer.getInt(offset));
+            view.get(value);
+            return value;
+        }
+
+        private void delete() {
+            unmap(buffer);
+            OffHeapStore.delete(path);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the stores of the off-heap default repository, one per aggregate root class, each in its own sub-directory of
+ * the off-heap directory. If no directory is specified, a temporary directory is created when the first store is
+ * needed. The serializability of an aggregate root class is checked when its store is created. The stores and their
+ * files are deleted when closed with the repository plugin.
+ */
+class OffHeapStores {
+    private final ConcurrentMap<Class<?>, OffHeapStore<?, ?>> stores = new ConcurrentHashMap<>();
+    private final BusinessConfig.RepositoryConfig.OffHeapConfig offHeapConfig;
+    private final File configuredDirectory;
+    private volatile Path directory;
+    private volatile boolean closed;
+
+    OffHeapStores(BusinessConfig.RepositoryConfig.OffHeapConfig offHeapConfig, File directory) {
+        this.offHeapConfig = offHeapConfig;
+        this.configuredDirectory = directory;
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, A> OffHeapStore<K, A> storeOf(Class<A> aggregateRootClass, Class<K> keyClass) {
+        OffHeapStore<?, ?> store = stores.get(aggregateRootClass);
+        if (store == null) {
+            store = stores.computeIfAbsent(aggregateRootClass, key -> {
+                AggregateSerialization.checkSerializable(aggregateRootClass, keyClass);
+                return new OffHeapStore<>(
+                        aggregateRootClass,
+                        directory().resolve(aggregateRootClass.getName()),
+                        offHeapConfig.getSegmentSize(),
+                        offHeapConfig.getCompactionThreshold()
+                );
+            });
+        }
+        return (OffHeapStore<K, A>) store;
+    }
+
+    synchronized void close() {
+        if (!closed) {
+            closed = true;
+            for (OffHeapStore<?, ?> store : stores.values()) {
+                store.close();
+            }
+            stores.clear();
+            if (directory != null && configuredDirectory == null) {
+                OffHeapStore.delete(directory);
+            }
+        }
+    }
+
+    private synchronized Path directory() {
+        if (closed) {
+            throw new IllegalStateException("Off-heap stores are closed");
+        }
+        if (directory == null) {
+            try {
+                directory = configuredDirectory != null ? configuredDirectory.toPath() : Files.createTempDirectory("business-offheap-");
+            } catch (IOException e) {
+                throw SeedException.wrap(e, BusinessErrorCode.UNABLE_TO_ACCESS_OFF_HEAP_STORE).put("path", System.getProperty("java.io.tmpdir"));
+            }
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.codec.ValueObjectCodec;
+import org.seedstack.business.domain.BaseValueObject;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Routes aggregate keys to partitions, either by hash or by range of keys.
+ */
+abstract class PartitionRouter {
+    private static final ValueObjectCodec VALUE_OBJECT_CODEC = new ValueObjectCodec();
+    private final int partitionCount;
+
+    private PartitionRouter(int partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Creates a router spreading keys over partitions according to their {@linkplain #stableHash(Object) stable hash}.
+     *
+     * @param partitionCount the number of partitions.
+     * @return the router.
+     */
+    static PartitionRouter byHash(int partitionCount) {
+        return new PartitionRouter(partitionCount) {
+            @Override
+            int partitionOf(Object id) {
+                int h = stableHash(id);
+                h ^= (h >>> 16);
+                return (h & Integer.MAX_VALUE) % partitionCount;
+            }
+        };
+    }
+
+    /**
+     * Creates a router assigning ranges of keys to partitions. Each bound is the exclusive upper bound of a partition,
+     * the last partition receiving the keys greater or equal to the last bound.
+     *
+     * @param bounds the ascending bounds.
+     * @return the router.
+     */
+    @SuppressWarnings("unchecked")
+    static PartitionRouter byRange(Comparable<?>[] bounds) {
+        Comparable<Object>[] sortedBounds = (Comparable<Object>[]) bounds.clone();
+        return new PartitionRouter(bounds.length + 1) {
+            @Override
+            int partitionOf(Object id) {
+                int position = Arrays.binarySearch(sortedBounds, id);
+                return position >= 0 ? position + 1 : -position - 1;
+            }
+        };
+    }
+
+    /**
+     * Checks if the keys of a class have a {@linkplain #stableHash(Object) stable hash}.
+     *
+     * @param keyClass the key class.
+     * @return true if keys of this class can be routed by hash, false otherwise.
+     */
+    static boolean hasStableHash(Class<?> keyClass) {
+        return keyClass == String.class
+                || keyClass == Integer.class
+                || keyClass == Long.class
+                || keyClass == Short.class
+                || keyClass == Byte.class
+                || keyClass == Character.class
+                || keyClass == Boolean.class
+                || keyClass == BigInteger.class
+                || keyClass == BigDecimal.class
+                || keyClass == UUID.class
+                || keyClass.isEnum()
+                || BaseValueObject.class.isAssignableFrom(keyClass);
+    }
+
+    /**
+     * Returns a hash of a key which only depends on its value, so a key is routed to the same partition by every JVM
+     * running every version of the application. Strings and boxed integral types use their hash code, which is
+     * specified by the JDK. Big numbers and UUIDs use the hash code of their string representation, enums the hash code
+     * of their name and value objects the hash of their {@link ValueObjectCodec} encoding. Value objects used as keys
+     * must therefore keep the same fields for their keys to stay in the same partition.
+     *
+     * @param id the aggregate key, of a class accepted by {@link #hasStableHash(Class)}.
+     * @return the hash.
+     */
+    static int stableHash(Object id) {
+        if (id instanceof Enum) {
+            return ((Enum<?>) id).name().hashCode();
+        } else if (id instanceof BigInteger || id instanceof BigDecimal || id instanceof UUID) {
+            return id.toString().hashCode();
+        } else if (id instanceof BaseValueObject) {
+            return Arrays.hashCode(VALUE_OBJECT_CODEC.encode((BaseValueObject) id));
+        } else if (hasStableHash(id.getClass())) {
+            return id.hashCode();
+        } else {
+            throw new IllegalArgumentException("No stable hash for key class " + id.getClass().getName());
+        }
+    }
+
+    int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Returns the partition of a key.
+     *
+     * @param id the aggregate key.
+     * @return the partition index.
+     */
+    abstract int partitionOf(Object id);
+}
@@ -5,15 +5,15 @@
  * License, v. 2.0. If a copy of the MPL was not distributed with this
  * file, You can obtain one at http://mozilla.org/MPL/2.0/.
  */
-package org.seedstack.business.internal.event;
+package org.seedstack.business.internal.repository;
 
 import org.seedstack.business.domain.Persist;
 import org.seedstack.shed.reflect.StandardAnnotationResolver;
 
 import java.lang.reflect.Method;
 
-class PersistResolver extends StandardAnnotationResolver<Method, Persist> {
-    static PersistResolver INSTANCE = new PersistResolver();
+public class PersistResolver extends StandardAnnotationResolver<Method, Persist> {
+    public static final PersistResolver INSTANCE = new PersistResolver();
 
     private PersistResolver() {
         // no external instantiation allowed
@@ -5,15 +5,15 @@
  * License, v. 2.0. If a copy of the MPL was not distributed with this
  * file, You can obtain one at http://mozilla.org/MPL/2.0/.
  */
-package org.seedstack.business.internal.event;
+package org.seedstack.business.internal.repository;
 
 import org.seedstack.business.domain.Read;
 import org.seedstack.shed.reflect.StandardAnnotationResolver;
 
 import java.lang.reflect.Method;
 
-class ReadResolver extends StandardAnnotationResolver<Method, Read> {
-    static ReadResolver INSTANCE = new ReadResolver();
+public class ReadResolver extends StandardAnnotationResolver<Method, Read> {
+    public static final ReadResolver INSTANCE = new ReadResolver();
 
     private ReadResolver() {
         // no external instantiation allowed
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.internal.unitofwork.TransactionCompletion;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
+import org.seedstack.business.metrics.RepositoryOperation;
+
+import javax.inject.Inject;
+import java.lang.reflect.Method;
+
+/**
+ * Serves the loads of cached aggregate root classes from their cache and invalidates it on persist and delete
+ * operations. Write operations whose affected aggregate cannot be determined invalidate the whole cache. Within a
+ * transaction or a unit of work, written aggregates bypass the cache until it is over, then they are invalidated again,
+ * after the transaction has committed, since concurrent loads may have cached their previous state in the meantime.
+ */
+class RepositoryCacheInterceptor implements MethodInterceptor {
+    private static final Object CACHE_INVALIDATIONS_KEY = new Object();
+    @Inject
+    private AggregateCaches aggregateCaches;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryOperation operation = RepositoryOperations.of(invocation.getMethod());
+        if (operation == null) {
+            return invocation.proceed();
+        }
+        Repository<?, ?> repository = (Repository<?, ?>) invocation.getThis();
+        AggregateCache cache = aggregateCaches.cacheOf(repository.getAggregateRootClass(), repository.getKeyClass());
+        if (cache == null) {
+            return invocation.proceed();
+        } else if (operation == RepositoryOperation.READ) {
+            return isLoad(invocation.getMethod()) ? load(cache, invocation) : invocation.proceed();
+        } else {
+            try {
+                return invocation.proceed();
+            } finally {
+                invalidate(cache, repository, invocation.getArguments());
+            }
+        }
+    }
+
+    private Object load(AggregateCache cache, MethodInvocation invocation) throws Throwable {
+        Object id = invocation.getArguments()[0];
+        if (id == null || isWritten(cache, id)) {
+            return invocation.proceed();
+        }
+        Object aggregate = cache.get(id);
+        if (aggregate == null) {
+            long stamp = cache.stamp();
+            aggregate = invocation.proceed();
+            if (aggregate != null) {
+                cache.put(id, aggregate, stamp);
+            }
+        }
+        return aggregate;
+    }
+
+    private void invalidate(AggregateCache cache, Repository<?, ?> repository, Object[] args) {
+        Object id = null;
+        if (args.length == 1 && args[0] instanceof AggregateRoot) {
+            id = ((AggregateRoot<?>) args[0]).getEntityId();
+        } else if (args.length == 1 && repository.getKeyClass().isInstance(args[0])) {
+            id = args[0];
+        }
+        if (id == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(id);
+        }
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        if (unitOfWorkContext != null) {
+            record(unitOfWorkContext.getResource(CACHE_INVALIDATIONS_KEY, CacheInvalidations::new), cache, id);
+        }
+        TransactionCompletion transactionCompletion = TransactionCompletion.current();
+        if (transactionCompletion != null) {
+            record(transactionCompletion.getResource(CACHE_INVALIDATIONS_KEY, CacheInvalidations::new), cache, id);
+        }
+    }
+
+    private void record(CacheInvalidations cacheInvalidations, AggregateCache cache, Object id) {
+        if (id == null) {
+            cacheInvalidations.addAll(cache);
+        } else {
+            cacheInvalidations.add(cache, id);
+        }
+    }
+
+    private boolean isWritten(AggregateCache cache, Object id) {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        TransactionCompletion transactionCompletion = TransactionCompletion.current();
+        return unitOfWorkContext != null && isWritten(unitOfWorkContext.peekResource(CACHE_INVALIDATIONS_KEY), cache, id)
+                || transactionCompletion != null && isWritten(transactionCompletion.peekResource(CACHE_INVALIDATIONS_KEY), cache, id);
+    }
+
+    private boolean isWritten(CacheInvalidations cacheInvalidations, AggregateCache cache, Object id) {
+        return cacheInvalidations != null && cacheInvalidations.isWritten(cache, id);
+    }
+
+    private boolean isLoad(Method method) {
+        return "load".equals(method.getName()) && method.getParameterCount() == 1;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.metrics.RepositoryMetrics;
+import org.seedstack.business.metrics.RepositoryOperation;
+
+import javax.inject.Inject;
+
+/**
+ * Intercepts repositories and records the duration of each operation, eg. Read, Persist, Delete.
+ */
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+    @Inject
+    private RepositoryMetrics repositoryMetrics;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryOperation operation = RepositoryOperations.of(invocation.getMethod());
+        if (operation == null) {
+            return invocation.proceed();
+        }
+        boolean failed = true;
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            repositoryMetrics.record(((Repository<?, ?>) invocation.getThis()).getAggregateRootClass(), operation, System.nanoTime() - start, failed);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Scopes;
+import com.google.inject.matcher.Matchers;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.metrics.RepositoryCacheMetrics;
+import org.seedstack.business.metrics.RepositoryMetrics;
+
+/**
+ * Repository module. Binds the repository metrics and optionally adds the metrics interceptor on repositories.
+ */
+class RepositoryModule extends AbstractModule {
+    private final BusinessConfig.RepositoryConfig repositoryConfig;
+    private final OffHeapStores offHeapStores;
+    private final RepositoryPartitions repositoryPartitions;
+
+    RepositoryModule(BusinessConfig.RepositoryConfig repositoryConfig, OffHeapStores offHeapStores, RepositoryPartitions repositoryPartitions) {
+        this.repositoryConfig = repositoryConfig;
+        this.offHeapStores = offHeapStores;
+        this.repositoryPartitions = repositoryPartitions;
+    }
+
+    @Override
+    protected void configure() {
+        bind(BusinessConfig.RepositoryConfig.class).toInstance(repositoryConfig);
+        bind(RepositoryMetrics.class).in(Scopes.SINGLETON);
+        bind(RepositoryCacheMetrics.class).in(Scopes.SINGLETON);
+        bind(BusinessConfig.RepositoryConfig.CacheConfig.class).toInstance(repositoryConfig.cache());
+        bind(BusinessConfig.RepositoryConfig.WriteBehindConfig.class).toInstance(repositoryConfig.writeBehind());
+        bind(AggregateCaches.class).in(Scopes.SINGLETON);
+        bind(InMemoryStores.class).in(Scopes.SINGLETON);
+        bind(OffHeapStores.class).toInstance(offHeapStores);
+        bind(RepositoryPartitions.class).toInstance(repositoryPartitions);
+        // interceptors apply in binding order: buffered writes reach the identity map and the cache once executed
+        WriteBehindInterceptor writeBehindInterceptor = new WriteBehindInterceptor();
+        requestInjection(writeBehindInterceptor);
+        bindInterceptor(Matchers.subclassesOf(Repository.class), RepositoryOperations.repositoryMethod(), writeBehindInterceptor);
+        IdentityMapInterceptor identityMapInterceptor = new IdentityMapInterceptor();
+        requestInjection(identityMapInterceptor);
+        bindInterceptor(Matchers.subclassesOf(Repository.class), RepositoryOperations.repositoryMethod(), identityMapInterceptor);
+        RepositoryCacheInterceptor cacheInterceptor = new RepositoryCacheInterceptor();
+        requestInjection(cacheInterceptor);
+        bindInterceptor(Matchers.subclassesOf(Repository.class), RepositoryOperations.repositoryMethod(), cacheInterceptor);
+        if (repositoryConfig.isMetrics()) {
+            RepositoryMetricsInterceptor interceptor = new RepositoryMetricsInterceptor();
+            requestInjection(interceptor);
+            bindInterceptor(Matchers.subclassesOf(Repository.class), RepositoryOperations.repositoryMethod(), interceptor);
+        }
+    }
+}
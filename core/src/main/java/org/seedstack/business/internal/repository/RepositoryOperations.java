@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.common.reflect.TypeToken;
+import com.google.inject.matcher.Matcher;
+import org.seedstack.business.metrics.RepositoryOperation;
+import org.seedstack.seed.core.internal.utils.MethodMatcherBuilder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+/**
+ * Classifies repository methods according to their {@link org.seedstack.business.domain.Read},
+ * {@link org.seedstack.business.domain.Persist} or {@link org.seedstack.business.domain.Delete} annotation. The
+ * classification of each method is resolved once and cached.
+ */
+public final class RepositoryOperations {
+    private static final ConcurrentMap<Method, Optional<RepositoryOperation>> operations = new ConcurrentHashMap<>();
+
+    private RepositoryOperations() {
+        // no instantiation allowed
+    }
+
+    /**
+     * @return a matcher of the methods annotated with a repository operation annotation.
+     */
+    public static Matcher<Method> repositoryMethod() {
+        Predicate<Method> annotated = ReadResolver.INSTANCE
+                .or(DeleteResolver.INSTANCE)
+                .or(PersistResolver.INSTANCE);
+        return new MethodMatcherBuilder(annotated.or(method -> {
+            Method bridge = findBridge(method);
+            return bridge != null && annotated.test(bridge);
+        })).build();
+    }
+
+    /**
+     * Returns the operation of a repository method.
+     *
+     * @param method the repository method.
+     * @return the operation or null if the method is not annotated with a repository operation annotation.
+     */
+    public static RepositoryOperation of(Method method) {
+        Optional<RepositoryOperation> operation = operations.get(method);
+        if (operation == null) {
+            operation = Optional.ofNullable(resolve(method));
+            operations.putIfAbsent(method, operation);
+        }
+        return operation.orElse(null);
+    }
+
+    private static RepositoryOperation resolve(Method method) {
+        RepositoryOperation operation = resolveAnnotated(method);
+        if (operation == null) {
+            Method bridge = findBridge(method);
+            if (bridge != null) {
+                operation = resolveAnnotated(bridge);
+            }
+        }
+        return operation;
+    }
+
+    private static RepositoryOperation resolveAnnotated(Method method) {
+        if (ReadResolver.INSTANCE.test(method)) {
+            return RepositoryOperation.READ;
+        } else if (PersistResolver.INSTANCE.test(method)) {
+            return RepositoryOperation.PERSIST;
+        } else if (DeleteResolver.INSTANCE.test(method)) {
+            return RepositoryOperation.DELETE;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the bridge method generated by the compiler when the specified method overrides a generic repository
+     * method with concrete types, like {@code load(ProductId)} overriding {@code load(K)}. Operation annotations are
+     * resolved from the generic method, which the bridge overrides.
+     *
+     * @param method the method.
+     * @return the bridge method or null if there is none.
+     */
+    private static Method findBridge(Method method) {
+        if (method.isBridge()) {
+            return null;
+        }
+        for (Method candidate : method.getDeclaringClass().getDeclaredMethods()) {
+            if (candidate.isBridge()
+                    && candidate.getName().equals(method.getName())
+                    && candidate.getParameterCount() == method.getParameterCount()
+                    && overridesWithTypes(candidate, method)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean overridesWithTypes(Method bridge, Method method) {
+        TypeToken<?> declaringType = TypeToken.of(method.getDeclaringClass());
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (TypeToken<?> superType : declaringType.getTypes()) {
+            Method overridden;
+            try {
+                overridden = superType.getRawType().getDeclaredMethod(bridge.getName(), bridge.getParameterTypes());
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            if (overridden.isBridge()) {
+                continue;
+            }
+            Type[] genericParameterTypes = overridden.getGenericParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!declaringType.resolveType(genericParameterTypes[i]).getRawType().equals(parameterTypes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import com.google.inject.util.Types;
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.internal.unitofwork.TransactionBoundary;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.ClassLoaders;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resolves the partitions of the aggregate root classes handled by the partitioned repository from their class
+ * configuration and runs the tasks involving several partitions. By default, tasks run one after the other on the
+ * calling thread. When partition threads are configured, they run in parallel on a fixed thread pool with the business
+ * context of the calling thread. Since a transaction is bound to the thread which started it, tasks still run on the
+ * calling thread within a transaction, as well as within a unit of work whose resources are not meant to be used
+ * concurrently.
+ */
+class RepositoryPartitions {
+    private static final String PARTITIONS_KEY = "partitions";
+    private static final String PARTITION_BOUNDS_KEY = "partitionBounds";
+    private final ConcurrentMap<Class<?>, Partitions> partitions = new ConcurrentHashMap<>();
+    private final Application application;
+    private final ExecutorService executorService;
+
+    RepositoryPartitions(Application application, int threads) {
+        this.application = application;
+        if (threads > 0) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executorService = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "business-partition-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executorService = null;
+        }
+    }
+
+    /**
+     * Returns the partitions of the specified aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param keyClass           the aggregate key class.
+     * @return the partitions.
+     */
+    Partitions partitionsOf(Class<?> aggregateRootClass, Class<?> keyClass) {
+        Partitions result = partitions.get(aggregateRootClass);
+        if (result == null) {
+            result = partitions.computeIfAbsent(aggregateRootClass, key -> resolve(aggregateRootClass, keyClass));
+        }
+        return result;
+    }
+
+    /**
+     * Runs tasks and waits for their completion.
+     *
+     * @param tasks the tasks.
+     * @param <T>   the type of the task results.
+     * @return the task results, in the order of the tasks.
+     */
+    <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (executorService == null || tasks.size() < 2 || TransactionBoundary.isActive()
+                || UnitOfWorkContext.current() != null) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(executorService.submit(BusinessContext.wrap(task)));
+        }
+        RuntimeException failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for partition tasks", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = unwrap(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    void stop() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private Partitions resolve(Class<?> aggregateRootClass, Class<?> keyClass) {
+        ClassConfiguration<?> classConfiguration = application.getConfiguration(aggregateRootClass);
+        String[] qualifiers = split(classConfiguration.get(PARTITIONS_KEY));
+        if (qualifiers.length == 0) {
+            throw SeedException.createNew(BusinessErrorCode.NO_PARTITION_DECLARED_FOR_AGGREGATE)
+                    .put("aggregateRootClass", aggregateRootClass.getName());
+        }
+        TypeLiteral<?> repositoryType = TypeLiteral.get(Types.newParameterizedType(Repository.class, aggregateRootClass, keyClass));
+        List<Key<?>> keys = new ArrayList<>(qualifiers.length);
+        for (String qualifier : qualifiers) {
+            keys.add(keyOf(repositoryType, qualifier));
+        }
+        String boundsValue = classConfiguration.get(PARTITION_BOUNDS_KEY);
+        if (boundsValue == null) {
+            if (!PartitionRouter.hasStableHash(keyClass)) {
+                throw SeedException.createNew(BusinessErrorCode.PARTITION_KEY_WITHOUT_STABLE_HASH)
+                        .put("aggregateRootClass", aggregateRootClass.getName())
+                        .put("keyClass", keyClass.getName());
+            }
+            return new Partitions(keys, PartitionRouter.byHash(keys.size()));
+        }
+        String[] bounds = split(boundsValue);
+        if (bounds.length != keys.size() - 1 || !Comparable.class.isAssignableFrom(keyClass)) {
+            throw illegalBounds(aggregateRootClass, keyClass, boundsValue, keys.size() - 1);
+        }
+        Comparable<?>[] convertedBounds = new Comparable<?>[bounds.length];
+        for (int i = 0; i < bounds.length; i++) {
+            convertedBounds[i] = convert(bounds[i], keyClass);
+            if (convertedBounds[i] == null || i > 0 && compare(convertedBounds[i - 1], convertedBounds[i]) >= 0) {
+                throw illegalBounds(aggregateRootClass, keyClass, boundsValue, keys.size() - 1);
+            }
+        }
+        return new Partitions(keys, PartitionRouter.byRange(convertedBounds));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Key<?> keyOf(TypeLiteral<?> repositoryType, String qualifier) {
+        try {
+            Class<?> qualifierClass = ClassLoaders.findMostCompleteClassLoader(RepositoryPartitions.class).loadClass(qualifier);
+            if (Annotation.class.isAssignableFrom(qualifierClass)) {
+                return Key.get(repositoryType, (Class<? extends Annotation>) qualifierClass);
+            }
+        } catch (ClassNotFoundException e) {
+            // not a class name, the qualifier is a name
+        }
+        return Key.get(repositoryType, Names.named(qualifier));
+    }
+
+    private Comparable<?> convert(String value, Class<?> keyClass) {
+        if (keyClass == String.class) {
+            return value;
+        }
+        try {
+            Method valueOf = keyClass.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && keyClass.isAssignableFrom(valueOf.getReturnType())) {
+                return (Comparable<?>) valueOf.invoke(null, value);
+            }
+        } catch (NoSuchMethodException e) {
+            // try with a constructor below
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = keyClass.getConstructor(String.class);
+            return (Comparable<?>) constructor.newInstance(value);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private SeedException illegalBounds(Class<?> aggregateRootClass, Class<?> keyClass, String bounds, int expectedCount) {
+        return SeedException.createNew(BusinessErrorCode.ILLEGAL_PARTITION_BOUNDS)
+                .put("aggregateRootClass", aggregateRootClass.getName())
+                .put("keyClass", keyClass.getName())
+                .put("bounds", bounds)
+                .put("count", expectedCount);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Comparable<?> first, Comparable<?> second) {
+        return ((Comparable<Object>) first).compareTo(second);
+    }
+
+    private static String[] split(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).toArray(String[]::new);
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else {
+            return new IllegalStateException("Partition task failed", throwable);
+        }
+    }
+
+    /**
+     * The repository keys of the partitions of an aggregate root class and the router of its aggregate keys.
+     */
+    static class Partitions {
+        private final List<Key<?>> keys;
+        private final PartitionRouter router;
+
+        private Partitions(List<Key<?>> keys, PartitionRouter router) {
+            this.keys = keys;
+            this.router = router;
+        }
+
+        List<Key<?>> getKeys() {
+            return keys;
+        }
+
+        PartitionRouter getRouter() {
+            return router;
+        }
+    }
+}
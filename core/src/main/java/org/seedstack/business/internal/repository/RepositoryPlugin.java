@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import io.nuun.kernel.api.plugin.InitState;
+import io.nuun.kernel.api.plugin.context.InitContext;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.seed.core.internal.AbstractSeedPlugin;
+
+import java.io.File;
+
+/**
+ * This plugin reads the repository configuration and passes it to the RepositoryModule. The stores of the off-heap
+ * repository and the threads of the partitioned repository are closed with the plugin.
+ */
+public class RepositoryPlugin extends AbstractSeedPlugin {
+    private static final String OFF_HEAP_STORAGE_LOCATION = "business-offheap-repositories";
+    private BusinessConfig.RepositoryConfig repositoryConfig;
+    private OffHeapStores offHeapStores;
+    private RepositoryPartitions repositoryPartitions;
+
+    @Override
+    public String name() {
+        return "business-repositories";
+    }
+
+    @Override
+    public InitState initialize(InitContext initContext) {
+        repositoryConfig = getConfiguration(BusinessConfig.RepositoryConfig.class);
+        offHeapStores = new OffHeapStores(repositoryConfig.offHeap(), offHeapDirectory(repositoryConfig.offHeap()));
+        repositoryPartitions = new RepositoryPartitions(getApplication(), repositoryConfig.getPartitionThreads());
+        return InitState.INITIALIZED;
+    }
+
+    @Override
+    public void stop() {
+        if (offHeapStores != null) {
+            offHeapStores.close();
+        }
+        if (repositoryPartitions != null) {
+            repositoryPartitions.stop();
+        }
+    }
+
+    @Override
+    public Object nativeUnitModule() {
+        return new RepositoryModule(repositoryConfig, offHeapStores, repositoryPartitions);
+    }
+
+    private File offHeapDirectory(BusinessConfig.RepositoryConfig.OffHeapConfig offHeapConfig) {
+        if (offHeapConfig.getDirectory() != null) {
+            return new File(offHeapConfig.getDirectory());
+        } else if (getApplication().isStorageEnabled()) {
+            return getApplication().getStorageLocation(OFF_HEAP_STORAGE_LOCATION);
+        } else {
+            return null;
+        }
+    }
+}
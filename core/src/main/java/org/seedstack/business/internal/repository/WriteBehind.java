@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.spi.ContextSlot;
+
+/**
+ * Tells the repository interceptors bound outside of the write-behind interceptor whether the operation they proceed
+ * with is buffered instead of executed. A buffered operation goes through them again when the buffer is flushed, so
+ * they can handle it only once, when it is actually executed.
+ */
+public final class WriteBehind {
+    private static final ContextSlot<Outcome> current = BusinessContext.newSlot();
+
+    private WriteBehind() {
+        // no instantiation allowed
+    }
+
+    /**
+     * Proceeds with a repository operation and tells whether it has been buffered. The operations executed while
+     * proceeding, like buffered writes being flushed, have their own outcome.
+     *
+     * @param invocation the repository operation.
+     * @return the outcome of the operation.
+     * @throws Throwable if the operation throws an exception.
+     */
+    public static Outcome proceed(MethodInvocation invocation) throws Throwable {
+        Outcome outcome = new Outcome();
+        current.run(outcome, () -> {
+            try {
+                outcome.result = invocation.proceed();
+            } catch (Throwable t) {
+                outcome.failure = t;
+            }
+        });
+        if (outcome.failure != null) {
+            throw outcome.failure;
+        }
+        return outcome;
+    }
+
+    static void markBuffered() {
+        Outcome outcome = current.get();
+        if (outcome != null) {
+            outcome.buffered = true;
+        }
+    }
+
+    /**
+     * The outcome of a repository operation.
+     */
+    public static final class Outcome {
+        private Object result;
+        private Throwable failure;
+        private boolean buffered;
+
+        private Outcome() {
+        }
+
+        /**
+         * @return the result of the operation.
+         */
+        public Object getResult() {
+            return result;
+        }
+
+        /**
+         * @return true if the operation has been buffered instead of executed.
+         */
+        public boolean isBuffered() {
+            return buffered;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers the writes of the repositories of a unit of work, keyed by repository and aggregate identifier. Successive
+ * writes of the same aggregate are collapsed into one when the result is the same as executing both, like a save after
+ * a persist. Buffered writes are executed in order when the unit of work is flushed, or earlier when the number of
+ * buffered writes reaches the batch size.
+ */
+class WriteBehindBuffer implements UnitOfWorkListener {
+    private final Map<Repository<?, ?>, Map<Object, PendingWrite>> pendingWrites = new LinkedHashMap<>();
+    private final int batchSize;
+    private int size;
+    private Thread flushingThread;
+
+    WriteBehindBuffer(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return true if buffered writes are being executed by the current thread, in which case repository operations
+     * must not be buffered.
+     */
+    synchronized boolean isFlushing() {
+        return flushingThread == Thread.currentThread();
+    }
+
+    /**
+     * Returns the buffered write of an aggregate.
+     *
+     * @param repository the repository.
+     * @param id         the aggregate identifier.
+     * @return the buffered write or null if the aggregate has not been written.
+     */
+    synchronized PendingWrite get(Repository<?, ?> repository, Object id) {
+        Map<Object, PendingWrite> repositoryWrites = pendingWrites.get(repository);
+        return repositoryWrites == null ? null : repositoryWrites.get(id);
+    }
+
+    /**
+     * Tells if a write can be buffered along with the previous write of the same aggregate. Writes which depend on the
+     * outcome of the previous one, like persisting an aggregate twice or writing it again after its deletion, cannot be
+     * collapsed without hiding the errors the repository would report.
+     *
+     * @param repository the repository.
+     * @param id         the aggregate identifier.
+     * @param kind       the kind of write.
+     * @return true if the write can be buffered.
+     */
+    synchronized boolean accepts(Repository<?, ?> repository, Object id, WriteKind kind) {
+        PendingWrite previous = get(repository, id);
+        return previous == null || previous.kind != WriteKind.DELETE && kind != WriteKind.PERSIST;
+    }
+
+    /**
+     * Buffers a write, collapsing it with the previous write of the same aggregate if any. The write must have been
+     * accepted by {@link #accepts(Repository, Object, WriteKind)}.
+     *
+     * @param repository the repository.
+     * @param id         the aggregate identifier.
+     * @param kind       the kind of write.
+     * @param argument   the aggregate or, for deletions by identifier, the identifier.
+     * @return true if the batch size is reached.
+     */
+    synchronized boolean add(Repository<?, ?> repository, Object id, WriteKind kind, Object argument) {
+        Map<Object, PendingWrite> repositoryWrites = pendingWrites.computeIfAbsent(repository, key -> new LinkedHashMap<>());
+        PendingWrite previous = repositoryWrites.get(id);
+        if (previous == null) {
+            repositoryWrites.put(id, new PendingWrite(kind, argument));
+            size++;
+        } else if (previous.kind == WriteKind.PERSIST && kind == WriteKind.DELETE) {
+            // the aggregate never reached the persistence
+            repositoryWrites.remove(id);
+            size--;
+        } else if (previous.kind == WriteKind.PERSIST) {
+            repositoryWrites.put(id, new PendingWrite(WriteKind.PERSIST, argument));
+        } else {
+            repositoryWrites.put(id, new PendingWrite(kind, argument));
+        }
+        return batchSize > 0 && size >= batchSize;
+    }
+
+    /**
+     * Discards the buffered writes of a repository, when all its aggregates are deleted.
+     *
+     * @param repository the repository.
+     */
+    synchronized void discard(Repository<?, ?> repository) {
+        Map<Object, PendingWrite> repositoryWrites = pendingWrites.remove(repository);
+        if (repositoryWrites != null) {
+            size -= repositoryWrites.size();
+        }
+    }
+
+    /**
+     * Executes the buffered writes of a repository.
+     *
+     * @param repository the repository.
+     */
+    synchronized void flush(Repository<?, ?> repository) {
+        Map<Object, PendingWrite> repositoryWrites = pendingWrites.remove(repository);
+        if (repositoryWrites != null) {
+            size -= repositoryWrites.size();
+            execute(repository, new ArrayList<>(repositoryWrites.values()));
+        }
+    }
+
+    @Override
+    public synchronized boolean flush() {
+        boolean worked = false;
+        Iterator<Map.Entry<Repository<?, ?>, Map<Object, PendingWrite>>> iterator = pendingWrites.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Repository<?, ?>, Map<Object, PendingWrite>> entry = iterator.next();
+            iterator.remove();
+            size -= entry.getValue().size();
+            execute(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+            worked = true;
+        }
+        return worked;
+    }
+
+    @Override
+    public synchronized void completed(boolean success) {
+        // writes still buffered at this point belong to an aborted unit of work
+        pendingWrites.clear();
+        size = 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void execute(Repository repository, List<PendingWrite> writes) {
+        Thread previousFlushingThread = flushingThread;
+        flushingThread = Thread.currentThread();
+        try {
+            for (PendingWrite write : writes) {
+                switch (write.kind) {
+                    case PERSIST:
+                        repository.persist((AggregateRoot) write.argument);
+                        break;
+                    case SAVE:
+                        repository.save((AggregateRoot) write.argument);
+                        break;
+                    case DELETE:
+                        if (repository.getAggregateRootClass().isInstance(write.argument)) {
+                            repository.delete((AggregateRoot) write.argument);
+                        } else {
+                            repository.delete(write.argument);
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unsupported write " + write.kind);
+                }
+            }
+        } finally {
+            flushingThread = previousFlushingThread;
+        }
+    }
+
+    enum WriteKind {
+        PERSIST,
+        SAVE,
+        DELETE
+    }
+
+    static class PendingWrite {
+        private final WriteKind kind;
+        private final Object argument;
+
+        private PendingWrite(WriteKind kind, Object argument) {
+            this.kind = kind;
+            this.argument = argument;
+        }
+
+        boolean isDeletion() {
+            return kind == WriteKind.DELETE;
+        }
+
+        /**
+         * @return the written aggregate, or null for a deletion.
+         */
+        Object getAggregate() {
+            return kind == WriteKind.DELETE ? null : argument;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.internal.unitofwork.UnitOfWorkContext;
+import org.seedstack.business.metrics.RepositoryOperation;
+import org.seedstack.seed.Application;
+
+import javax.inject.Inject;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Buffers the persist, save and delete operations of repositories in the current unit of work when write-behind is
+ * enabled for their aggregate root class. Loads and existence checks of buffered aggregates are answered from the
+ * buffer. Other operations execute the buffered writes of their repository first, so they observe them. Buffered
+ * writes are executed at the latest when the outermost transactional method returns, before its transaction commits,
+ * or when the unit of work ends for the writes made outside of transactions.
+ */
+class WriteBehindInterceptor implements MethodInterceptor {
+    private static final String WRITE_BEHIND_KEY = "writeBehind";
+    private static final Object WRITE_BEHIND_BUFFER_KEY = new Object();
+    private final ConcurrentMap<Class<?>, Boolean> writeBehindClasses = new ConcurrentHashMap<>();
+    @Inject
+    private Application application;
+    @Inject
+    private BusinessConfig.RepositoryConfig.WriteBehindConfig writeBehindConfig;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryOperation operation = RepositoryOperations.of(invocation.getMethod());
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+        if (operation == null || unitOfWorkContext == null) {
+            return invocation.proceed();
+        }
+        Repository<?, ?> repository = (Repository<?, ?>) invocation.getThis();
+        if (!isWriteBehind(repository.getAggregateRootClass())) {
+            return invocation.proceed();
+        }
+        WriteBehindBuffer buffer = unitOfWorkContext.peekResource(WRITE_BEHIND_BUFFER_KEY);
+        if (buffer != null && buffer.isFlushing()) {
+            return invocation.proceed();
+        }
+        Method method = invocation.getMethod();
+        Object[] args = invocation.getArguments();
+        if (operation == RepositoryOperation.READ) {
+            return read(buffer, repository, invocation);
+        }
+        WriteBehindBuffer.WriteKind writeKind = writeKindOf(method);
+        Object id = writeKind == null ? null : idOf(repository, args[0]);
+        if (id == null) {
+            if (buffer != null) {
+                if ("clear".equals(method.getName()) && args.length == 0) {
+                    buffer.discard(repository);
+                } else {
+                    buffer.flush(repository);
+                }
+            }
+            return invocation.proceed();
+        }
+        if (buffer != null && !buffer.accepts(repository, id, writeKind)) {
+            // both writes are executed so the repository reports the errors of the second one
+            buffer.flush(repository);
+            return invocation.proceed();
+        }
+        if (buffer == null) {
+            buffer = unitOfWorkContext.getResource(WRITE_BEHIND_BUFFER_KEY, () -> new WriteBehindBuffer(writeBehindConfig.getBatchSize()));
+        }
+        if (buffer.add(repository, id, writeKind, args[0])) {
+            buffer.flush();
+        }
+        WriteBehind.markBuffered();
+        return writeKind == WriteBehindBuffer.WriteKind.SAVE ? args[0] : null;
+    }
+
+    private Object read(WriteBehindBuffer buffer, Repository<?, ?> repository, MethodInvocation invocation) throws Throwable {
+        if (buffer == null) {
+            return invocation.proceed();
+        }
+        Method method = invocation.getMethod();
+        Object[] args = invocation.getArguments();
+        boolean load = "load".equals(method.getName()) && args.length == 1;
+        boolean exists = "exists".equals(method.getName()) && args.length == 1;
+        if (load || exists) {
+            WriteBehindBuffer.PendingWrite pendingWrite = buffer.get(repository, args[0]);
+            if (pendingWrite != null) {
+                return load ? pendingWrite.getAggregate() : !pendingWrite.isDeletion();
+            }
+        } else {
+            buffer.flush(repository);
+        }
+        return invocation.proceed();
+    }
+
+    private WriteBehindBuffer.WriteKind writeKindOf(Method method) {
+        if (method.getParameterCount() != 1) {
+            return null;
+        }
+        switch (method.getName()) {
+            case "persist":
+                return WriteBehindBuffer.WriteKind.PERSIST;
+            case "save":
+                return WriteBehindBuffer.WriteKind.SAVE;
+            case "delete":
+                return WriteBehindBuffer.WriteKind.DELETE;
+            default:
+                return null;
+        }
+    }
+
+    private Object idOf(Repository<?, ?> repository, Object argument) {
+        if (repository.getAggregateRootClass().isInstance(argument)) {
+            // aggregates without identity yet cannot be buffered
+            return ((AggregateRoot<?>) argument).getEntityId();
+        } else if (repository.getKeyClass().isInstance(argument)) {
+            return argument;
+        } else {
+            return null;
+        }
+    }
+
+    private boolean isWriteBehind(Class<?> aggregateRootClass) {
+        Boolean writeBehind = writeBehindClasses.get(aggregateRootClass);
+        if (writeBehind == null) {
+            String value = application.getConfiguration(aggregateRootClass).get(WRITE_BEHIND_KEY);
+            writeBehind = value == null ? writeBehindConfig.isEnabled() : Boolean.parseBoolean(value);
+            writeBehindClasses.putIfAbsent(aggregateRootClass, writeBehind);
+        }
+        return writeBehind;
+    }
+}
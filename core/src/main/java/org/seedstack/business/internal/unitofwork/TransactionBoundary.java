@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Tells whether the current thread is executing a method annotated with
+ * {@link org.seedstack.seed.transaction.Transactional}. The boundary is bound by the outermost transactional method,
+ * inside its transaction, and nested transactional methods join it.
+ */
+public final class TransactionBoundary {
+    private static final ContextSlot<TransactionBoundary> current = BusinessContext.newSlot();
+
+    private TransactionBoundary() {
+    }
+
+    /**
+     * @return true if a transactional method is being executed on the current thread.
+     */
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    /**
+     * Calls a task within a new transaction boundary.
+     *
+     * @param task the task.
+     * @param <V>  the type of the task result.
+     * @return the task result.
+     * @throws Exception if the task throws an exception.
+     */
+    static <V> V call(Callable<V> task) throws Exception {
+        return current.call(new TransactionBoundary(), task);
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import io.nuun.kernel.spi.Concern;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Nuun concern installing the transaction boundary after the transaction module, so its interceptor runs inside the
+ * transaction.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Concern(name = "seed-business-transaction-boundary-concern", priority = Concern.Priority.NORMAL, order = -100)
+public @interface TransactionBoundaryConcern {
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Intercepts methods annotated with {@link org.seedstack.seed.transaction.Transactional}, inside the transaction
+ * interceptor. When the outermost transactional method returns normally, the current unit of work is flushed before
+ * the transaction commits, so the buffered work is part of the transaction and its failures roll it back.
+ */
+class TransactionBoundaryInterceptor implements MethodInterceptor {
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionBoundary.isActive()) {
+            return invocation.proceed();
+        }
+        return TransactionBoundary.call(() -> {
+            Object result = UnitOfWorkInterceptor.proceed(invocation);
+            UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.current();
+            if (unitOfWorkContext != null) {
+                unitOfWorkContext.flush();
+            }
+            return result;
+        });
+    }
+}
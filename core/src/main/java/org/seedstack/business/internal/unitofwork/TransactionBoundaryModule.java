@@ -0,0 +1,24 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+import org.seedstack.seed.core.internal.utils.MethodMatcherBuilder;
+
+/**
+ * Transaction boundary module. Adds the transaction boundary interceptor on methods annotated with
+ * {@link org.seedstack.seed.transaction.Transactional}, inside the transaction interceptor.
+ */
+@TransactionBoundaryConcern
+class TransactionBoundaryModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bindInterceptor(Matchers.any(), new MethodMatcherBuilder(TransactionalResolver.INSTANCE).build(), new TransactionBoundaryInterceptor());
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds the resources attached to the transaction of the current thread, which are notified once the outermost method
+ * annotated with {@link org.seedstack.seed.transaction.Transactional} has returned, after its transaction has been
+ * committed or rolled back. Unlike the {@link TransactionBoundary}, it is bound outside of the transaction interceptor.
+ */
+public final class TransactionCompletion {
+    private static final ContextSlot<TransactionCompletion> current = BusinessContext.newSlot();
+    private final ConcurrentMap<Object, UnitOfWorkListener> resources = new ConcurrentHashMap<>();
+
+    private TransactionCompletion() {
+    }
+
+    /**
+     * @return the completion of the current transaction or null if there is none.
+     */
+    public static TransactionCompletion current() {
+        return current.get();
+    }
+
+    /**
+     * Calls a task within a new transaction completion, whose resources are completed when the task returns.
+     *
+     * @param task the task.
+     * @param <V>  the type of the task result.
+     * @return the task result.
+     * @throws Exception if the task throws an exception.
+     */
+    static <V> V call(Callable<V> task) throws Exception {
+        TransactionCompletion transactionCompletion = new TransactionCompletion();
+        boolean success = false;
+        try {
+            V result = current.call(transactionCompletion, task);
+            success = true;
+            return result;
+        } finally {
+            for (UnitOfWorkListener resource : transactionCompletion.resources.values()) {
+                resource.completed(success);
+            }
+        }
+    }
+
+    /**
+     * Returns the resource attached to the transaction with the specified key, creating and attaching it if needed.
+     *
+     * @param key     the resource key.
+     * @param factory the resource factory.
+     * @param <T>     the type of the resource.
+     * @return the resource.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends UnitOfWorkListener> T getResource(Object key, Supplier<T> factory) {
+        UnitOfWorkListener resource = resources.get(key);
+        if (resource == null) {
+            resource = resources.computeIfAbsent(key, k -> factory.get());
+        }
+        return (T) resource;
+    }
+
+    /**
+     * Returns the resource attached to the transaction with the specified key, without creating it.
+     *
+     * @param key the resource key.
+     * @param <T> the type of the resource.
+     * @return the resource or null if no resource is attached with this key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends UnitOfWorkListener> T peekResource(Object key) {
+        return (T) resources.get(key);
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Intercepts methods annotated with {@link org.seedstack.seed.transaction.Transactional}, outside of the transaction
+ * interceptor. The outermost transactional method binds a {@link TransactionCompletion} whose resources are completed
+ * once its transaction is over.
+ */
+class TransactionCompletionInterceptor implements MethodInterceptor {
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionCompletion.current() != null) {
+            return invocation.proceed();
+        }
+        return TransactionCompletion.call(() -> UnitOfWorkInterceptor.proceed(invocation));
+    }
+}
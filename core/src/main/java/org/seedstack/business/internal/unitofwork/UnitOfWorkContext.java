@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Holds the state of the current unit of work: resources attached to it by the framework and listeners notified when
+ * it is flushed and completed. The current unit of work is not propagated to tasks wrapped with
+ * {@link BusinessContext#wrap(Runnable)}, since they may still run after it has ended and their work would be lost.
+ * Attaching resources or listeners to an ended unit of work fails for the same reason.
+ */
+public final class UnitOfWorkContext {
+    private static final ContextSlot<UnitOfWorkContext> current = BusinessContext.newSlot();
+    private final ConcurrentMap<Object, Object> resources = new ConcurrentHashMap<>();
+    private final List<UnitOfWorkListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean ended;
+
+    private UnitOfWorkContext() {
+    }
+
+    /**
+     * @return the current unit of work or null if there is none.
+     */
+    public static UnitOfWorkContext current() {
+        return current.get();
+    }
+
+    /**
+     * Calls a task in a new unit of work, which is current for the duration of the task. The unit of work is flushed,
+     * while still current, if the task completes normally and is ended in all cases.
+     *
+     * @param task the task.
+     * @param <V>  the type of the task result.
+     * @return the task result.
+     * @throws Exception if the task or the flush throws an exception.
+     */
+    static <V> V call(Callable<V> task) throws Exception {
+        UnitOfWorkContext unitOfWorkContext = new UnitOfWorkContext();
+        boolean flushed = false;
+        try {
+            V result = current.call(unitOfWorkContext, () -> {
+                V taskResult = task.call();
+                unitOfWorkContext.flush();
+                return taskResult;
+            });
+            flushed = true;
+            return result;
+        } finally {
+            unitOfWorkContext.completed(flushed);
+        }
+    }
+
+    /**
+     * Returns the resource attached to the unit of work with the specified key, creating and attaching it if needed.
+     * If the created resource is a {@link UnitOfWorkListener}, it is registered too.
+     *
+     * @param key     the resource key.
+     * @param factory the resource factory.
+     * @param <T>     the type of the resource.
+     * @return the resource.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getResource(Object key, Supplier<T> factory) {
+        checkNotEnded();
+        Object resource = resources.get(key);
+        if (resource == null) {
+            resource = resources.computeIfAbsent(key, k -> {
+                T created = factory.get();
+                if (created instanceof UnitOfWorkListener) {
+                    listeners.add((UnitOfWorkListener) created);
+                }
+                return created;
+            });
+        }
+        return (T) resource;
+    }
+
+    /**
+     * Returns the resource attached to the unit of work with the specified key, without creating it.
+     *
+     * @param key the resource key.
+     * @param <T> the type of the resource.
+     * @return the resource or null if no resource is attached with this key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T peekResource(Object key) {
+        return (T) resources.get(key);
+    }
+
+    private void checkNotEnded() {
+        if (ended) {
+            throw new IllegalStateException("The unit of work has already ended");
+        }
+    }
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener the listener.
+     */
+    public void register(UnitOfWorkListener listener) {
+        checkNotEnded();
+        listeners.add(listener);
+    }
+
+    /**
+     * Flushes all registered listeners, in registration order. Listeners are flushed again until a whole pass executes
+     * no work, so the work created by a flush, including listeners registered during the flush, is flushed too.
+     */
+    public void flush() {
+        boolean worked;
+        do {
+            worked = false;
+            for (UnitOfWorkListener listener : listeners) {
+                worked |= listener.flush();
+            }
+        } while (worked);
+    }
+
+    private void completed(boolean flushed) {
+        ended = true;
+        for (UnitOfWorkListener listener : listeners) {
+            listener.completed(flushed);
+        }
+    }
+}
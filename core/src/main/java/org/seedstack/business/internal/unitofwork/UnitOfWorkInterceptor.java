@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Intercepts methods annotated with {@link org.seedstack.business.UnitOfWork} and starts a unit of work if none is
+ * active. Nested calls join the current unit of work.
+ */
+class UnitOfWorkInterceptor implements MethodInterceptor {
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (UnitOfWorkContext.current() != null) {
+            return invocation.proceed();
+        }
+        return UnitOfWorkContext.call(() -> proceed(invocation));
+    }
+
+    /**
+     * Proceeds with an invocation from a {@link java.util.concurrent.Callable}.
+     *
+     * @param invocation the invocation.
+     * @return the invocation result.
+     * @throws Exception if the invocation throws an exception, throwables which are neither exceptions nor errors
+     *                   being wrapped.
+     */
+    static Object proceed(MethodInvocation invocation) throws Exception {
+        try {
+            return invocation.proceed();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+/**
+ * Receives the notifications of a unit of work it is registered in.
+ */
+public interface UnitOfWorkListener {
+    /**
+     * Called when the unit of work is flushed, either explicitly or before its successful completion. Deferred work
+     * must be executed at this time. Since executing the work of a listener can give more work to other listeners,
+     * listeners are flushed again until none of them reports any work.
+     *
+     * @return true if some work was executed, false if there was nothing to do.
+     */
+    default boolean flush() {
+        return false;
+    }
+
+    /**
+     * Called when the unit of work is over.
+     *
+     * @param success true if the unit of work completed normally, false if it was aborted by an exception.
+     */
+    default void completed(boolean success) {
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.matcher.Matchers;
+import org.seedstack.seed.core.internal.utils.MethodMatcherBuilder;
+
+/**
+ * Unit of work module. Adds the unit of work interceptor on methods annotated with
+ * {@link org.seedstack.business.UnitOfWork} and the transaction completion interceptor on methods annotated with
+ * {@link org.seedstack.seed.transaction.Transactional}. This module is installed before the transaction module, so both
+ * interceptors run outside of the transaction.
+ */
+public class UnitOfWorkModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bindInterceptor(Matchers.any(), new MethodMatcherBuilder(UnitOfWorkResolver.INSTANCE).build(), new UnitOfWorkInterceptor());
+        bindInterceptor(Matchers.any(), new MethodMatcherBuilder(TransactionalResolver.INSTANCE).build(), new TransactionCompletionInterceptor());
+    }
+}
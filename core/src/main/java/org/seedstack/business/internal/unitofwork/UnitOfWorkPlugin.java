@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.seedstack.seed.core.internal.AbstractSeedPlugin;
+
+/**
+ * Plugin installing the transaction boundary of units of work. Its module is ordered by
+ * {@link TransactionBoundaryConcern} so that units of work are flushed inside transactions.
+ */
+public class UnitOfWorkPlugin extends AbstractSeedPlugin {
+    @Override
+    public String name() {
+        return "business-unit-of-work";
+    }
+
+    @Override
+    public Object nativeUnitModule() {
+        return new TransactionBoundaryModule();
+    }
+}
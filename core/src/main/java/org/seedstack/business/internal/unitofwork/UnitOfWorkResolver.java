@@ -0,0 +1,21 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.seedstack.business.UnitOfWork;
+import org.seedstack.shed.reflect.StandardAnnotationResolver;
+
+import java.lang.reflect.Method;
+
+class UnitOfWorkResolver extends StandardAnnotationResolver<Method, UnitOfWork> {
+    static final UnitOfWorkResolver INSTANCE = new UnitOfWorkResolver();
+
+    private UnitOfWorkResolver() {
+        // no external instantiation allowed
+    }
+}
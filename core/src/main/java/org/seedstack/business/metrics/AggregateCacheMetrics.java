@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the repository cache metrics of an aggregate root class.
+ */
+public class AggregateCacheMetrics {
+    private final Class<?> aggregateRootClass;
+    private final LongSupplier size;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    AggregateCacheMetrics(Class<?> aggregateRootClass, LongSupplier size) {
+        this.aggregateRootClass = aggregateRootClass;
+        this.size = size;
+    }
+
+    /**
+     * Records a load which returned a cached aggregate.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Records a load which reached the persistence.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records the eviction of a cached aggregate because of the size or expiration limits.
+     */
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /**
+     * Records the invalidation of the cache by a persist or delete operation.
+     */
+    public void recordInvalidation() {
+        invalidations.increment();
+    }
+
+    public Class<?> getAggregateRootClass() {
+        return aggregateRootClass;
+    }
+
+    /**
+     * @return the approximate number of aggregates currently cached.
+     */
+    public long getSize() {
+        return size.getAsLong();
+    }
+
+    /**
+     * @return the number of loads which returned a cached aggregate.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of loads which reached the persistence.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of cached aggregates evicted because of the size or expiration limits.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of invalidations caused by persist or delete operations.
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return the ratio of loads which returned a cached aggregate, or 0 if no load was recorded.
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    void reset() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: size=%d, hits=%d, misses=%d, evictions=%d, invalidations=%d, hitRate=%.3f", aggregateRootClass.getName(), getSize(), getHitCount(), getMissCount(), getEvictionCount(), getInvalidationCount(), getHitRate());
+    }
+}
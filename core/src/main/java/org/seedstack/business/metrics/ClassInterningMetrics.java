@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the interning metrics of a value object class.
+ */
+public class ClassInterningMetrics {
+    private final Class<?> valueObjectClass;
+    private final LongSupplier size;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ClassInterningMetrics(Class<?> valueObjectClass, LongSupplier size) {
+        this.valueObjectClass = valueObjectClass;
+        this.size = size;
+    }
+
+    /**
+     * Records a creation which returned an already interned instance.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Records a creation which had to build a new instance.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public Class<?> getValueObjectClass() {
+        return valueObjectClass;
+    }
+
+    /**
+     * @return the approximate number of instances currently interned.
+     */
+    public long getSize() {
+        return size.getAsLong();
+    }
+
+    /**
+     * @return the number of creations which returned an already interned instance.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of creations which had to build a new instance.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the ratio of creations which returned an already interned instance, or 0 if no creation was recorded.
+     */
+    public double getHitRate() {
+        long hitCount = getHitCount();
+        long total = hitCount + getMissCount();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    void reset() {
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: size=%d, hits=%d, misses=%d, hitRate=%.3f", valueObjectClass.getName(), getSize(), getHitCount(), getMissCount(), getHitRate());
+    }
+}
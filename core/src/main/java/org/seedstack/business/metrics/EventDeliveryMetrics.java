@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.seedstack.business.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts the events delivered to each event handler and batch event handler, and those skipped because of the handler
+ * filters, per event class. Unlike the metrics sent to the configured {@link org.seedstack.business.spi.EventMetricsSink},
+ * these counters are always recorded. This class is bound as a singleton and can be injected to query them.
+ */
+public class EventDeliveryMetrics {
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<? extends Event>, HandlerDeliveryMetrics>> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Records the delivery of an event to a handler.
+     *
+     * @param eventClass   the event class the handler is registered for.
+     * @param handlerClass the event handler or batch event handler class.
+     */
+    public void recordDelivery(Class<? extends Event> eventClass, Class<?> handlerClass) {
+        metricsOf(eventClass, handlerClass).recordDelivery();
+    }
+
+    /**
+     * Records an event which was not delivered to a handler because it was rejected by its filters.
+     *
+     * @param eventClass   the event class the handler is registered for.
+     * @param handlerClass the event handler or batch event handler class.
+     */
+    public void recordSkip(Class<? extends Event> eventClass, Class<?> handlerClass) {
+        metricsOf(eventClass, handlerClass).recordSkip();
+    }
+
+    /**
+     * Returns the delivery metrics of a handler for the specified event class.
+     *
+     * @param eventClass   the event class.
+     * @param handlerClass the event handler or batch event handler class.
+     * @return the metrics or null if no event of this class has been delivered to or skipped by the handler.
+     */
+    public HandlerDeliveryMetrics getMetrics(Class<? extends Event> eventClass, Class<?> handlerClass) {
+        ConcurrentMap<Class<? extends Event>, HandlerDeliveryMetrics> handlerMetrics = metrics.get(handlerClass);
+        return handlerMetrics == null ? null : handlerMetrics.get(eventClass);
+    }
+
+    /**
+     * @return the delivery metrics of all handlers for which an event has been delivered or skipped.
+     */
+    public List<HandlerDeliveryMetrics> getAllMetrics() {
+        List<HandlerDeliveryMetrics> result = new ArrayList<>();
+        for (ConcurrentMap<Class<? extends Event>, HandlerDeliveryMetrics> handlerMetrics : metrics.values()) {
+            result.addAll(handlerMetrics.values());
+        }
+        return result;
+    }
+
+    /**
+     * Resets all collected metrics.
+     */
+    public void reset() {
+        for (ConcurrentMap<Class<? extends Event>, HandlerDeliveryMetrics> handlerMetrics : metrics.values()) {
+            for (HandlerDeliveryMetrics handlerMetric : handlerMetrics.values()) {
+                handlerMetric.reset();
+            }
+        }
+    }
+
+    private HandlerDeliveryMetrics metricsOf(Class<? extends Event> eventClass, Class<?> handlerClass) {
+        ConcurrentMap<Class<? extends Event>, HandlerDeliveryMetrics> handlerMetrics = metrics.get(handlerClass);
+        if (handlerMetrics == null) {
+            handlerMetrics = metrics.computeIfAbsent(handlerClass, key -> new ConcurrentHashMap<>());
+        }
+        HandlerDeliveryMetrics handlerMetric = handlerMetrics.get(eventClass);
+        if (handlerMetric == null) {
+            handlerMetric = handlerMetrics.computeIfAbsent(eventClass, key -> new HandlerDeliveryMetrics(key, handlerClass));
+        }
+        return handlerMetric;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.seedstack.business.Event;
+import org.seedstack.business.EventHandler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the metrics of an event handler for a specific event class.
+ */
+public class EventHandlerMetrics {
+    private final Class<? extends Event> eventClass;
+    private final Class<? extends EventHandler> eventHandlerClass;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skips = new LongAdder();
+    private final Histogram latency = new Histogram();
+    private final Histogram depth = new Histogram();
+
+    EventHandlerMetrics(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass) {
+        this.eventClass = eventClass;
+        this.eventHandlerClass = eventHandlerClass;
+    }
+
+    void record(int depth, long duration, boolean failed) {
+        invocations.increment();
+        if (failed) {
+            failures.increment();
+        }
+        this.latency.record(duration);
+        this.depth.record(depth);
+    }
+
+    void recordSkip() {
+        skips.increment();
+    }
+
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    public Class<? extends EventHandler> getEventHandlerClass() {
+        return eventHandlerClass;
+    }
+
+    /**
+     * @return the number of invocations of the handler, including failed ones.
+     */
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+
+    /**
+     * @return the number of invocations of the handler which threw an exception.
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the number of events which were not delivered to the handler because they were rejected by its filters.
+     */
+    public long getSkipCount() {
+        return skips.sum();
+    }
+
+    /**
+     * @return the histogram of invocation durations in nanoseconds.
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the histogram of event nesting depths at invocation time.
+     */
+    public Histogram getDepth() {
+        return depth;
+    }
+
+    void reset() {
+        invocations.reset();
+        failures.reset();
+        skips.reset();
+        latency.reset();
+        depth.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]: invocations=%d, failures=%d, skips=%d, latency(ns)={%s}, maxDepth=%d", eventHandlerClass.getSimpleName(), eventClass.getSimpleName(), getInvocationCount(), getFailureCount(), getSkipCount(), latency, depth.getMax());
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps in memory the metrics of the event lanes configured with the `business.events.lanes.count` configuration
+ * property. This class is bound as a singleton and can be injected to query the collected metrics.
+ */
+public class EventLaneMetrics {
+    private final LaneMetrics[] lanes;
+
+    /**
+     * Creates the metrics of a set of lanes.
+     *
+     * @param queueDepths the suppliers of the current queue depth of each lane.
+     */
+    public EventLaneMetrics(IntSupplier... queueDepths) {
+        this.lanes = new LaneMetrics[queueDepths.length];
+        for (int i = 0; i < queueDepths.length; i++) {
+            lanes[i] = new LaneMetrics(i, queueDepths[i]);
+        }
+    }
+
+    /**
+     * Records the handling of an event by a lane.
+     *
+     * @param lane   the lane index.
+     * @param lag    the time in nanoseconds elapsed between the firing of the event and the start of its handling.
+     * @param failed true if a handler threw an exception, false otherwise.
+     */
+    public void record(int lane, long lag, boolean failed) {
+        lanes[lane].record(lag, failed);
+    }
+
+    /**
+     * @return the number of lanes.
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Returns the metrics of the specified lane.
+     *
+     * @param lane the lane index.
+     * @return the lane metrics.
+     */
+    public LaneMetrics getMetrics(int lane) {
+        return lanes[lane];
+    }
+
+    /**
+     * @return the metrics of all lanes.
+     */
+    public List<LaneMetrics> getAllMetrics() {
+        return Collections.unmodifiableList(Arrays.asList(lanes));
+    }
+
+    /**
+     * @return the number of events currently waiting in all lanes.
+     */
+    public int getTotalQueueDepth() {
+        int total = 0;
+        for (LaneMetrics lane : lanes) {
+            total += lane.getQueueDepth();
+        }
+        return total;
+    }
+
+    /**
+     * Resets all collected metrics. Queue depths are not affected.
+     */
+    public void reset() {
+        for (LaneMetrics lane : lanes) {
+            lane.reset();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.seedstack.business.Event;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the delivery counters of an event handler or batch event handler for a specific event class.
+ */
+public class HandlerDeliveryMetrics {
+    private final Class<? extends Event> eventClass;
+    private final Class<?> handlerClass;
+    private final LongAdder deliveries = new LongAdder();
+    private final LongAdder skips = new LongAdder();
+
+    HandlerDeliveryMetrics(Class<? extends Event> eventClass, Class<?> handlerClass) {
+        this.eventClass = eventClass;
+        this.handlerClass = handlerClass;
+    }
+
+    void recordDelivery() {
+        deliveries.increment();
+    }
+
+    void recordSkip() {
+        skips.increment();
+    }
+
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+
+    public Class<?> getHandlerClass() {
+        return handlerClass;
+    }
+
+    /**
+     * @return the number of events delivered to the handler. Events delivered to a batch event handler are counted when
+     * they are accepted in a batch.
+     */
+    public long getDeliveryCount() {
+        return deliveries.sum();
+    }
+
+    /**
+     * @return the number of events which were not delivered to the handler because they were rejected by its filters.
+     */
+    public long getSkipCount() {
+        return skips.sum();
+    }
+
+    void reset() {
+        deliveries.reset();
+        skips.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]: deliveries=%d, skips=%d", handlerClass.getSimpleName(), eventClass.getSimpleName(), getDeliveryCount(), getSkipCount());
+    }
+}
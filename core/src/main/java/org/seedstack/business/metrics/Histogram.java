@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values using power-of-two buckets. Recording a value only updates striped
+ * counters, so it can be called concurrently on hot paths. Percentiles are approximated by the upper bound of the
+ * bucket they fall in.
+ */
+public class Histogram {
+    private static final int BUCKET_COUNT = 64;
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record.
+     */
+    public void record(long value) {
+        long v = value < 0 ? 0 : value;
+        buckets[bucketOf(v)].increment();
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of recorded values.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the greatest recorded value.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of recorded values or 0 if no value has been recorded.
+     */
+    public double getMean() {
+        long c = count.sum();
+        return c == 0 ? 0 : (double) sum.sum() / c;
+    }
+
+    /**
+     * Returns an approximation of the specified percentile, which is never lower than the exact value.
+     *
+     * @param percentile the percentile between 0 and 100.
+     * @return the upper bound of the bucket containing the percentile or 0 if no value has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(100d, Math.max(0d, percentile)) / 100d * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Resets all recorded values. Values recorded concurrently with the reset may be partially lost.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1f, p50=%d, p99=%d, max=%d", getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+    }
+
+    private static int bucketOf(long value) {
+        return value == 0 ? 0 : Math.min(BUCKET_COUNT - 1, BUCKET_COUNT - Long.numberOfLeadingZeros(value));
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket == 0 ? 0 : bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps in memory the metrics of identity pools, per entity class. Identity pools are enabled per entity class with the
+ * `identityPoolSize` class configuration property. This class is bound as a singleton and can be injected to query
+ * the collected metrics.
+ */
+public class IdentityPoolMetrics {
+    private final ConcurrentMap<Class<?>, PoolMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the pool of an entity class.
+     *
+     * @param entityClass the entity class.
+     * @param poolDepth   the supplier of the current number of identities available in the pool.
+     * @return the metrics of the pool.
+     */
+    public PoolMetrics register(Class<?> entityClass, IntSupplier poolDepth) {
+        return metrics.computeIfAbsent(entityClass, key -> new PoolMetrics(key, poolDepth));
+    }
+
+    /**
+     * Returns the metrics of the identity pool of the specified entity class.
+     *
+     * @param entityClass the entity class.
+     * @return the metrics or null if the entity class has no identity pool.
+     */
+    public PoolMetrics getMetrics(Class<?> entityClass) {
+        return metrics.get(entityClass);
+    }
+
+    /**
+     * @return the metrics of all identity pools.
+     */
+    public List<PoolMetrics> getAllMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    /**
+     * Resets all collected metrics. Pool depths are not affected.
+     */
+    public void reset() {
+        for (PoolMetrics poolMetrics : metrics.values()) {
+            poolMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.seedstack.business.Event;
+import org.seedstack.business.EventHandler;
+import org.seedstack.business.spi.EventMetricsSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An {@link EventMetricsSink} which keeps the metrics of each event handler in memory. When it is specified as the
+ * metrics sink in the `business.events.metricsSink` configuration property, it is bound as a singleton and can be
+ * injected to query the collected metrics.
+ */
+public class InMemoryEventMetrics implements EventMetricsSink {
+    private final ConcurrentMap<Class<? extends Event>, ConcurrentMap<Class<? extends EventHandler>, EventHandlerMetrics>> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public void handlerInvoked(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass, int depth, long duration, Throwable failure) {
+        metricsOf(eventClass, eventHandlerClass).record(depth, duration, failure != null);
+    }
+
+    @Override
+    public void handlerSkipped(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass) {
+        metricsOf(eventClass, eventHandlerClass).recordSkip();
+    }
+
+    /**
+     * Returns the metrics of an event handler for the specified event class.
+     *
+     * @param eventClass        the event class the handler is registered for.
+     * @param eventHandlerClass the event handler class.
+     * @return the metrics or null if the handler has never been invoked nor skipped for this event class.
+     */
+    public EventHandlerMetrics getMetrics(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass) {
+        Map<Class<? extends EventHandler>, EventHandlerMetrics> metricsByHandler = metrics.get(eventClass);
+        return metricsByHandler == null ? null : metricsByHandler.get(eventHandlerClass);
+    }
+
+    /**
+     * Returns the metrics of all the handlers invoked for the specified event class.
+     *
+     * @param eventClass the event class.
+     * @return the list of metrics, empty if no handler has been invoked for this event class.
+     */
+    public List<EventHandlerMetrics> getMetrics(Class<? extends Event> eventClass) {
+        Map<Class<? extends EventHandler>, EventHandlerMetrics> metricsByHandler = metrics.get(eventClass);
+        return metricsByHandler == null ? new ArrayList<>() : new ArrayList<>(metricsByHandler.values());
+    }
+
+    /**
+     * @return the metrics of all invoked handlers.
+     */
+    public List<EventHandlerMetrics> getAllMetrics() {
+        List<EventHandlerMetrics> result = new ArrayList<>();
+        for (Map<Class<? extends EventHandler>, EventHandlerMetrics> metricsByHandler : metrics.values()) {
+            result.addAll(metricsByHandler.values());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total number of handler invocations for the specified event class.
+     *
+     * @param eventClass the event class.
+     * @return the number of invocations.
+     */
+    public long getInvocationCount(Class<? extends Event> eventClass) {
+        long count = 0;
+        for (EventHandlerMetrics eventHandlerMetrics : getMetrics(eventClass)) {
+            count += eventHandlerMetrics.getInvocationCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total number of events skipped by the filters of handlers for the specified event class.
+     *
+     * @param eventClass the event class.
+     * @return the number of skipped events.
+     */
+    public long getSkipCount(Class<? extends Event> eventClass) {
+        long count = 0;
+        for (EventHandlerMetrics eventHandlerMetrics : getMetrics(eventClass)) {
+            count += eventHandlerMetrics.getSkipCount();
+        }
+        return count;
+    }
+
+    /**
+     * Resets all collected metrics.
+     */
+    public void reset() {
+        for (Map<Class<? extends EventHandler>, EventHandlerMetrics> metricsByHandler : metrics.values()) {
+            metricsByHandler.values().forEach(EventHandlerMetrics::reset);
+        }
+    }
+
+    private EventHandlerMetrics metricsOf(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass) {
+        ConcurrentMap<Class<? extends EventHandler>, EventHandlerMetrics> metricsByHandler = metrics.get(eventClass);
+        if (metricsByHandler == null) {
+            metricsByHandler = metrics.computeIfAbsent(eventClass, k -> new ConcurrentHashMap<>());
+        }
+        EventHandlerMetrics eventHandlerMetrics = metricsByHandler.get(eventHandlerClass);
+        if (eventHandlerMetrics == null) {
+            eventHandlerMetrics = metricsByHandler.computeIfAbsent(eventHandlerClass, k -> new EventHandlerMetrics(eventClass, eventHandlerClass));
+        }
+        return eventHandlerMetrics;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps in memory the metrics of value object interning, per value object class. This class is bound as a singleton
+ * and can be injected to query the collected metrics.
+ */
+public class InterningMetrics {
+    private final ConcurrentMap<Class<?>, ClassInterningMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Registers an interned value object class.
+     *
+     * @param valueObjectClass the value object class.
+     * @param size             the supplier of the current number of interned instances.
+     * @return the metrics of the class.
+     */
+    public ClassInterningMetrics register(Class<?> valueObjectClass, LongSupplier size) {
+        return metrics.computeIfAbsent(valueObjectClass, key -> new ClassInterningMetrics(key, size));
+    }
+
+    /**
+     * Returns the interning metrics of the specified value object class.
+     *
+     * @param valueObjectClass the value object class.
+     * @return the metrics or null if the class is not interned.
+     */
+    public ClassInterningMetrics getMetrics(Class<?> valueObjectClass) {
+        return metrics.get(valueObjectClass);
+    }
+
+    /**
+     * @return the metrics of all interned value object classes.
+     */
+    public List<ClassInterningMetrics> getAllMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    /**
+     * Resets all collected metrics. Interned instances are not affected.
+     */
+    public void reset() {
+        for (ClassInterningMetrics classMetrics : metrics.values()) {
+            classMetrics.reset();
+        }
+    }
+}
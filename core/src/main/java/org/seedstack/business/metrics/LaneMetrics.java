@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Holds the metrics of an event lane.
+ */
+public class LaneMetrics {
+    private final int lane;
+    private final IntSupplier queueDepth;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Histogram lag = new Histogram();
+
+    LaneMetrics(int lane, IntSupplier queueDepth) {
+        this.lane = lane;
+        this.queueDepth = queueDepth;
+    }
+
+    void record(long lag, boolean failed) {
+        processed.increment();
+        if (failed) {
+            failures.increment();
+        }
+        this.lag.record(lag);
+    }
+
+    public int getLane() {
+        return lane;
+    }
+
+    /**
+     * @return the number of events currently waiting in the lane.
+     */
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    /**
+     * @return the number of events handled by the lane, including failed ones.
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    /**
+     * @return the number of events for which a handler threw an exception.
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the histogram of the times in nanoseconds elapsed between the firing of events and the start of their
+     * handling.
+     */
+    public Histogram getLag() {
+        return lag;
+    }
+
+    void reset() {
+        processed.reset();
+        failures.reset();
+        lag.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("lane %d: depth=%d, processed=%d, failures=%d, lag(ns)={%s}", lane, getQueueDepth(), getProcessedCount(), getFailureCount(), lag);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Holds the metrics of the identity pool of an entity class.
+ */
+public class PoolMetrics {
+    private final Class<?> entityClass;
+    private final IntSupplier depth;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder refillFailures = new LongAdder();
+    private final Histogram refillLatency = new Histogram();
+
+    PoolMetrics(Class<?> entityClass, IntSupplier depth) {
+        this.entityClass = entityClass;
+        this.depth = depth;
+    }
+
+    /**
+     * Records an identity taken from the pool.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Records an identity generated synchronously because the pool was empty.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Records a refill of the pool.
+     *
+     * @param duration the duration of the refill in nanoseconds.
+     * @param failed   true if the identity handler threw an exception during the refill, false otherwise.
+     */
+    public void recordRefill(long duration, boolean failed) {
+        refills.increment();
+        if (failed) {
+            refillFailures.increment();
+        }
+        refillLatency.record(duration);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return the number of identities currently available in the pool.
+     */
+    public int getDepth() {
+        return depth.getAsInt();
+    }
+
+    /**
+     * @return the number of identities taken from the pool.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of identities generated synchronously because the pool was empty.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of background refills of the pool, including failed ones.
+     */
+    public long getRefillCount() {
+        return refills.sum();
+    }
+
+    /**
+     * @return the number of background refills during which the identity handler threw an exception.
+     */
+    public long getRefillFailureCount() {
+        return refillFailures.sum();
+    }
+
+    /**
+     * @return the histogram of the durations in nanoseconds of background refills.
+     */
+    public Histogram getRefillLatency() {
+        return refillLatency;
+    }
+
+    void reset() {
+        hits.reset();
+        misses.reset();
+        refills.reset();
+        refillFailures.reset();
+        refillLatency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: depth=%d, hits=%d, misses=%d, refills=%d, refillFailures=%d, refillLatency(ns)={%s}", entityClass.getName(), getDepth(), getHitCount(), getMissCount(), getRefillCount(), getRefillFailureCount(), refillLatency);
+    }
+}
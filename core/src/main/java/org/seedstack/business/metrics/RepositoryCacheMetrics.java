@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps in memory the metrics of the repository caches, per aggregate root class. This class is bound as a singleton
+ * and can be injected to query the collected metrics.
+ */
+public class RepositoryCacheMetrics {
+    private final ConcurrentMap<Class<?>, AggregateCacheMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a cached aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param size               the supplier of the current number of cached aggregates.
+     * @return the metrics of the class.
+     */
+    public AggregateCacheMetrics register(Class<?> aggregateRootClass, LongSupplier size) {
+        return metrics.computeIfAbsent(aggregateRootClass, key -> new AggregateCacheMetrics(key, size));
+    }
+
+    /**
+     * Returns the cache metrics of the specified aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @return the metrics or null if the class is not cached.
+     */
+    public AggregateCacheMetrics getMetrics(Class<?> aggregateRootClass) {
+        return metrics.get(aggregateRootClass);
+    }
+
+    /**
+     * @return the metrics of all cached aggregate root classes.
+     */
+    public List<AggregateCacheMetrics> getAllMetrics() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    /**
+     * Resets all collected metrics. Cached aggregates are not affected.
+     */
+    public void reset() {
+        for (AggregateCacheMetrics aggregateMetrics : metrics.values()) {
+            aggregateMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.seedstack.business.domain.AggregateRoot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps in memory the metrics of repository operations, per aggregate root class and per operation. Metrics are only
+ * recorded when the `business.repositories.metrics` configuration property is true. This class is bound as a
+ * singleton and can be injected to query the collected metrics.
+ */
+public class RepositoryMetrics {
+    private static final RepositoryOperation[] OPERATIONS = RepositoryOperation.values();
+    private final ConcurrentMap<Class<? extends AggregateRoot<?>>, RepositoryOperationMetrics[]> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Records a repository call.
+     *
+     * @param aggregateRootClass the aggregate root class managed by the repository.
+     * @param operation          the operation.
+     * @param duration           the duration of the call in nanoseconds.
+     * @param failed             true if the call threw an exception, false otherwise.
+     */
+    public void record(Class<? extends AggregateRoot<?>> aggregateRootClass, RepositoryOperation operation, long duration, boolean failed) {
+        RepositoryOperationMetrics[] operationMetrics = metrics.get(aggregateRootClass);
+        if (operationMetrics == null) {
+            operationMetrics = metrics.computeIfAbsent(aggregateRootClass, RepositoryMetrics::createOperationMetrics);
+        }
+        operationMetrics[operation.ordinal()].record(duration, failed);
+    }
+
+    /**
+     * Returns the metrics of an operation for the specified aggregate root class.
+     *
+     * @param aggregateRootClass the aggregate root class.
+     * @param operation          the operation.
+     * @return the metrics or null if no repository call has been recorded for this aggregate root class.
+     */
+    public RepositoryOperationMetrics getMetrics(Class<? extends AggregateRoot<?>> aggregateRootClass, RepositoryOperation operation) {
+        RepositoryOperationMetrics[] operationMetrics = metrics.get(aggregateRootClass);
+        return operationMetrics == null ? null : operationMetrics[operation.ordinal()];
+    }
+
+    /**
+     * @return the metrics of all operations of all aggregate root classes for which a call has been recorded.
+     */
+    public List<RepositoryOperationMetrics> getAllMetrics() {
+        List<RepositoryOperationMetrics> result = new ArrayList<>();
+        for (RepositoryOperationMetrics[] operationMetrics : metrics.values()) {
+            for (RepositoryOperationMetrics operationMetric : operationMetrics) {
+                result.add(operationMetric);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resets all collected metrics.
+     */
+    public void reset() {
+        for (RepositoryOperationMetrics[] operationMetrics : metrics.values()) {
+            for (RepositoryOperationMetrics operationMetric : operationMetrics) {
+                operationMetric.reset();
+            }
+        }
+    }
+
+    private static RepositoryOperationMetrics[] createOperationMetrics(Class<? extends AggregateRoot<?>> aggregateRootClass) {
+        RepositoryOperationMetrics[] operationMetrics = new RepositoryOperationMetrics[OPERATIONS.length];
+        for (RepositoryOperation operation : OPERATIONS) {
+            operationMetrics[operation.ordinal()] = new RepositoryOperationMetrics(aggregateRootClass, operation);
+        }
+        return operationMetrics;
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+/**
+ * The kinds of repository operation, as classified by the {@link org.seedstack.business.domain.Read},
+ * {@link org.seedstack.business.domain.Persist} and {@link org.seedstack.business.domain.Delete} annotations.
+ */
+public enum RepositoryOperation {
+    READ,
+    PERSIST,
+    DELETE
+}
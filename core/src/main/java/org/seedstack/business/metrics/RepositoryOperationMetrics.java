@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.seedstack.business.domain.AggregateRoot;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the metrics of a repository operation for a specific aggregate root class.
+ */
+public class RepositoryOperationMetrics {
+    private final Class<? extends AggregateRoot<?>> aggregateRootClass;
+    private final RepositoryOperation operation;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Histogram latency = new Histogram();
+
+    RepositoryOperationMetrics(Class<? extends AggregateRoot<?>> aggregateRootClass, RepositoryOperation operation) {
+        this.aggregateRootClass = aggregateRootClass;
+        this.operation = operation;
+    }
+
+    void record(long duration, boolean failed) {
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        latency.record(duration);
+    }
+
+    public Class<? extends AggregateRoot<?>> getAggregateRootClass() {
+        return aggregateRootClass;
+    }
+
+    public RepositoryOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the number of calls, including failed ones.
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * @return the number of calls which threw an exception.
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the histogram of call durations in nanoseconds.
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    void reset() {
+        calls.reset();
+        failures.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]: calls=%d, failures=%d, latency(ns)={%s}", aggregateRootClass.getSimpleName(), operation, getCallCount(), getFailureCount(), latency);
+    }
+}
@@ -9,6 +9,7 @@
 package org.seedstack.business.test.identity;
 
 import org.seedstack.business.domain.Entity;
+import org.seedstack.business.domain.identity.EntityIndependent;
 import org.seedstack.business.domain.identity.SequenceHandler;
 import org.seedstack.seed.ClassConfiguration;
 
@@ -16,6 +17,7 @@ import javax.inject.Named;
 import java.util.concurrent.atomic.AtomicLong;
 
 
+@EntityIndependent
 @Named("inMemorySequence")
 public class InMemorySequenceHandler implements SequenceHandler<Entity<Long>, Long> {
     private static final AtomicLong sequence = new AtomicLong(1L);
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary value object codec with Java serialization on a domain event holding a nested value object. The
+ * sizes of both forms are reported as auxiliary counters. Run it with the {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValueObjectCodecBenchmark {
+    private final ValueObjectCodec valueObjectCodec = new ValueObjectCodec();
+    private final ValueObjectCodecTest.OrderPlaced event = new ValueObjectCodecTest.OrderPlaced("order-1", new ValueObjectCodecTest.Address("1 Main Street", "Paris"), 3);
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        encoded = valueObjectCodec.encode(event);
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public byte[] encode(Sizes sizes) {
+        sizes.encodedBytes = encoded.length;
+        sizes.serializedBytes = serialized.length;
+        return valueObjectCodec.encode(event);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return valueObjectCodec.decode(ValueObjectCodecTest.OrderPlaced.class, encoded);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(event);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sizes {
+        public long encodedBytes;
+        public long serializedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+            serializedBytes = 0;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ValueObjectCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
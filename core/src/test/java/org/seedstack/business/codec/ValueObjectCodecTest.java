@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.codec;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.seedstack.business.domain.BaseValueObject;
+import org.seedstack.business.domain.events.BaseDomainEvent;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ValueObjectCodecTest {
+    private final ValueObjectCodec underTest = new ValueObjectCodec();
+
+    @Test
+    public void primitives_and_strings_are_encoded() {
+        Primitives primitives = new Primitives(true, (byte) -3, (short) 300, 'é', -42, Long.MAX_VALUE, 1.5f, -2.25, "hello", null);
+
+        Primitives decoded = roundTrip(primitives);
+
+        assertThat(decoded).isEqualTo(primitives);
+        assertThat(decoded.hashCode()).isEqualTo(primitives.hashCode());
+    }
+
+    @Test
+    public void nested_value_objects_and_collections_are_encoded() {
+        Address home = new Address("1 Main Street", "Paris");
+        Address work = new Address("2 Side Street", "Lyon");
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("vip", true);
+        attributes.put("score", 12L);
+        attributes.put("previous", work);
+        Customer customer = new Customer("John", home, Arrays.asList(home, work), new HashSet<>(Arrays.asList("a", "b")), attributes, Status.ACTIVE, ImmutableList.of(1, 2, 3), new TreeSet<>(Arrays.asList(3, 1, 2)));
+
+        Customer decoded = roundTrip(customer);
+
+        assertThat(decoded).isEqualTo(customer);
+        assertThat(decoded.addresses).isInstanceOf(ArrayList.class);
+        assertThat(decoded.immutableValues).isInstanceOf(ImmutableList.class);
+        assertThat(decoded.sortedValues).isInstanceOf(TreeSet.class);
+    }
+
+    @Test
+    public void common_value_types_are_encoded() {
+        Values values = new Values(new BigDecimal("-12345.678"), new BigInteger("123456789012345678901234567890"), new Date(123456789L), UUID.randomUUID(),
+                Instant.ofEpochSecond(1500000000L, 123), LocalDate.of(2017, 3, 1), LocalDateTime.of(2017, 3, 1, 12, 30, 15, 999), new byte[]{1, 2, 3}, new int[]{4, 5});
+
+        Values decoded = roundTrip(values);
+
+        assertThat(decoded).isEqualTo(values);
+    }
+
+    @Test
+    public void domain_events_are_encoded() {
+        OrderPlaced event = new OrderPlaced("order-1", new Address("1 Main Street", "Paris"), 3);
+
+        assertThat(roundTrip(event)).isEqualTo(event);
+    }
+
+    @Test
+    public void encoded_values_are_smaller_than_serialized_values() throws Exception {
+        OrderPlaced event = new OrderPlaced("order-1", new Address("1 Main Street", "Paris"), 3);
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(event);
+        }
+
+        assertThat(underTest.encode(event).length * 2).isLessThan(serialized.size());
+    }
+
+    @Test
+    public void repeated_classes_are_described_once() {
+        Address address = new Address("street", "city");
+        int single = underTest.encode(new Customer("John", address, Arrays.asList(address), null, null, null, null, null)).length;
+        int triple = underTest.encode(new Customer("John", address, Arrays.asList(address, address, address), null, null, null, null, null)).length;
+
+        assertThat(triple - single).isLessThan(2 * (underTest.encode(address).length));
+    }
+
+    @Test
+    public void previous_versions_are_decoded_by_field_name() {
+        // encodes an Address with an obsolete field, a field which changed of kind and without the city field
+        BinaryOutput out = new BinaryOutput(64);
+        out.writeByte(1);
+        out.writeVarInt(0);
+        out.writeString(Address.class.getName());
+        out.writeFixedLong(42L);
+        out.writeVarInt(3);
+        out.writeString("zipCode");
+        out.writeByte(Tags.INT);
+        out.writeString("street");
+        out.writeByte(Tags.STRING);
+        out.writeString("city");
+        out.writeByte(Tags.INT);
+        out.writeSignedVarLong(75000);
+        out.writeNullableString("1 Main Street");
+        out.writeSignedVarLong(5);
+
+        Address decoded = underTest.decode(Address.class, out.toByteArray());
+
+        assertThat(decoded).isEqualTo(new Address("1 Main Street", null));
+    }
+
+    @Test
+    public void unexpected_class_is_rejected() {
+        byte[] bytes = underTest.encode(new Address("street", "city"));
+        try {
+            underTest.decode(Primitives.class, bytes);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e).hasMessageContaining(Primitives.class.getName());
+        }
+    }
+
+    @Test
+    public void truncated_input_is_rejected() {
+        byte[] bytes = underTest.encode(new Address("street", "city"));
+        try {
+            underTest.decode(Address.class, Arrays.copyOf(bytes, bytes.length - 2));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e).hasMessageContaining("Truncated");
+        }
+    }
+
+    @Test
+    public void value_object_without_no_arg_constructor_is_rejected() {
+        try {
+            underTest.encode(new Amount(10));
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.VALUE_OBJECT_WITHOUT_NO_ARG_CONSTRUCTOR);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends BaseValueObject> T roundTrip(T valueObject) {
+        return underTest.decode((Class<T>) valueObject.getClass(), underTest.encode(valueObject));
+    }
+
+    enum Status {
+        ACTIVE, INACTIVE
+    }
+
+    static class Primitives extends BaseValueObject {
+        private final boolean booleanValue;
+        private final byte byteValue;
+        private final short shortValue;
+        private final char charValue;
+        private final int intValue;
+        private final long longValue;
+        private final float floatValue;
+        private final double doubleValue;
+        private final String stringValue;
+        private final String nullValue;
+
+        private Primitives() {
+            this(false, (byte) 0, (short) 0, '\0', 0, 0L, 0f, 0d, null, null);
+        }
+
+        Primitives(boolean booleanValue, byte byteValue, short shortValue, char charValue, int intValue, long longValue, float floatValue, double doubleValue, String stringValue, String nullValue) {
+            this.booleanValue = booleanValue;
+            this.byteValue = byteValue;
+            this.shortValue = shortValue;
+            this.charValue = charValue;
+            this.intValue = intValue;
+            this.longValue = longValue;
+            this.floatValue = floatValue;
+            this.doubleValue = doubleValue;
+            this.stringValue = stringValue;
+            this.nullValue = nullValue;
+        }
+    }
+
+    static class Address extends BaseValueObject {
+        private final String street;
+        private final String city;
+
+        private Address() {
+            this(null, null);
+        }
+
+        Address(String street, String city) {
+            this.street = street;
+            this.city = city;
+        }
+    }
+
+    static class Customer extends BaseValueObject {
+        private final String name;
+        private final Address address;
+        private final List<Address> addresses;
+        private final Set<String> tags;
+        private final Map<String, Object> attributes;
+        private final Status status;
+        private final ImmutableList<Integer> immutableValues;
+        private final TreeSet<Integer> sortedValues;
+
+        private Customer() {
+            this(null, null, null, null, null, null, null, null);
+        }
+
+        Customer(String name, Address address, List<Address> addresses, Set<String> tags, Map<String, Object> attributes, Status status, ImmutableList<Integer> immutableValues, TreeSet<Integer> sortedValues) {
+            this.name = name;
+            this.address = address;
+            this.addresses = addresses;
+            this.tags = tags;
+            this.attributes = attributes;
+            this.status = status;
+            this.immutableValues = immutableValues;
+            this.sortedValues = sortedValues;
+        }
+    }
+
+    static class Values extends BaseValueObject {
+        private final BigDecimal bigDecimal;
+        private final BigInteger bigInteger;
+        private final Date date;
+        private final UUID uuid;
+        private final Instant instant;
+        private final LocalDate localDate;
+        private final LocalDateTime localDateTime;
+        private final byte[] bytes;
+        private final int[] ints;
+
+        private Values() {
+            this(null, null, null, null, null, null, null, null, null);
+        }
+
+        Values(BigDecimal bigDecimal, BigInteger bigInteger, Date date, UUID uuid, Instant instant, LocalDate localDate, LocalDateTime localDateTime, byte[] bytes, int[] ints) {
+            this.bigDecimal = bigDecimal;
+            this.bigInteger = bigInteger;
+            this.date = date;
+            this.uuid = uuid;
+            this.instant = instant;
+            this.localDate = localDate;
+            this.localDateTime = localDateTime;
+            this.bytes = bytes;
+            this.ints = ints;
+        }
+    }
+
+    static class Amount extends BaseValueObject {
+        private final long value;
+
+        Amount(long value) {
+            this.value = value;
+        }
+    }
+
+    static class OrderPlaced extends BaseDomainEvent {
+        private final String orderId;
+        private final Address shippingAddress;
+        private final int itemCount;
+
+        private OrderPlaced() {
+            this(null, null, 0);
+        }
+
+        OrderPlaced(String orderId, Address shippingAddress, int itemCount) {
+            this.orderId = orderId;
+            this.shippingAddress = shippingAddress;
+            this.itemCount = itemCount;
+        }
+    }
+}
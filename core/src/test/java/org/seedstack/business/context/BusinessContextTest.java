@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.context;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BusinessContextTest {
+    private static final ContextSlot<List<String>> propagated = BusinessContext.newSlot(ArrayList::new);
+    private static final ContextSlot<List<String>> local = BusinessContext.newSlot();
+
+    @Test
+    public void slot_is_only_bound_for_the_duration_of_the_task() {
+        List<String> value = new ArrayList<>();
+        AtomicReference<List<String>> seen = new AtomicReference<>();
+        assertThat(local.get()).isNull();
+
+        BusinessContext.where(local, value).run(() -> seen.set(local.get()));
+
+        assertThat(seen.get()).isSameAs(value);
+        assertThat(local.get()).isNull();
+    }
+
+    @Test
+    public void previous_value_is_bound_again_after_nested_binding() throws Exception {
+        List<String> outer = new ArrayList<>();
+        List<String> inner = new ArrayList<>();
+        List<List<String>> seen = BusinessContext.where(local, outer).where(propagated, inner).call(() -> {
+            List<List<String>> values = new ArrayList<>();
+            local.run(inner, () -> values.add(local.get()));
+            values.add(local.get());
+            values.add(propagated.get());
+            return values;
+        });
+
+        assertThat(seen).containsExactly(inner, outer, inner);
+        assertThat(local.get()).isNull();
+        assertThat(propagated.get()).isNull();
+    }
+
+    @Test
+    public void propagated_slots_follow_wrapped_tasks() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            List<Future<List<String>>> futures = BusinessContext.where(propagated, Lists.newArrayList("value"))
+                    .where(local, Lists.newArrayList("value"))
+                    .call(() -> Lists.newArrayList(
+                            executorService.submit(BusinessContext.wrap(() -> propagated.get())),
+                            executorService.submit(BusinessContext.wrap(() -> local.get()))
+                    ));
+
+            assertThat(futures.get(0).get(5, TimeUnit.SECONDS)).containsExactly("value");
+            assertThat(futures.get(1).get(5, TimeUnit.SECONDS)).isNull();
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void propagated_values_are_copied_and_restored() throws Exception {
+        ContextSnapshot snapshot = BusinessContext.where(propagated, Lists.newArrayList("caller")).call(BusinessContext::capture);
+
+        AtomicReference<List<String>> seen = new AtomicReference<>();
+        List<String> previous = Lists.newArrayList("previous");
+        propagated.run(previous, () -> snapshot.run(() -> {
+            propagated.get().add("task");
+            seen.set(propagated.get());
+        }));
+
+        assertThat(seen.get()).containsExactly("caller", "task");
+        assertThat(previous).containsExactly("previous");
+        snapshot.run(() -> assertThat(propagated.get()).containsExactly("caller"));
+    }
+
+    @Test
+    public void wrapped_executor_propagates_context() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        AtomicReference<List<String>> seen = new AtomicReference<>();
+        propagated.run(Lists.newArrayList("value"), () -> BusinessContext.wrap(executorService).execute(() -> seen.set(propagated.get())));
+        executorService.shutdown();
+        executorService.awaitTermination(5, TimeUnit.SECONDS);
+
+        assertThat(seen.get()).containsExactly("value");
+    }
+}
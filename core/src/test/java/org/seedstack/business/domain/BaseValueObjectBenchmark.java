@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the equals/hashCode implementation of {@link BaseValueObject} with the reflective one it replaced. Run it
+ * with the {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BaseValueObjectBenchmark {
+    static class Money extends BaseValueObject {
+        private final String currency;
+        private final long amount;
+        private final int scale;
+
+        Money(String currency, long amount, int scale) {
+            this.currency = currency;
+            this.amount = amount;
+            this.scale = scale;
+        }
+    }
+
+    @Immutable
+    static class ImmutableMoney extends Money {
+        ImmutableMoney(String currency, long amount, int scale) {
+            super(currency, amount, scale);
+        }
+    }
+
+    private final Money money1 = new Money("EUR", 12345L, 2);
+    private final Money money2 = new Money("EUR", 12345L, 2);
+    private final ImmutableMoney immutableMoney = new ImmutableMoney("EUR", 12345L, 2);
+
+    @Benchmark
+    public int reflectiveHashCode() {
+        return HashCodeBuilder.reflectionHashCode(money1, false);
+    }
+
+    @Benchmark
+    public int planHashCode() {
+        return money1.hashCode();
+    }
+
+    @Benchmark
+    public int cachedHashCode() {
+        return immutableMoney.hashCode();
+    }
+
+    @Benchmark
+    public boolean reflectiveEquals() {
+        return EqualsBuilder.reflectionEquals(money1, money2, false);
+    }
+
+    @Benchmark
+    public boolean planEquals() {
+        return money1.equals(money2);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BaseValueObjectBenchmark.class.getSimpleName()).build()).run();
+    }
+}
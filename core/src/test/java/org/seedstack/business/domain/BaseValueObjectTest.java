@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BaseValueObjectTest {
+    static class Parent extends BaseValueObject {
+        private final String name;
+
+        Parent(String name) {
+            this.name = name;
+        }
+    }
+
+    static class Child extends Parent {
+        private final int[] values;
+        private transient String ignored;
+
+        Child(String name, String ignored, int... values) {
+            super(name);
+            this.values = values;
+            this.ignored = ignored;
+        }
+    }
+
+    @Immutable
+    static class ImmutableChild extends Parent {
+        private final Long value;
+
+        ImmutableChild(String name, Long value) {
+            super(name);
+            this.value = value;
+        }
+    }
+
+    @Test
+    public void equal_values_are_equal_and_have_same_hashcode() {
+        Child child1 = new Child("name", "a", 1, 2);
+        Child child2 = new Child("name", "b", 1, 2);
+
+        assertThat(child1).isEqualTo(child2);
+        assertThat(child1.hashCode()).isEqualTo(child2.hashCode());
+    }
+
+    @Test
+    public void inherited_and_array_fields_are_compared() {
+        assertThat(new Child("name", null, 1, 2)).isNotEqualTo(new Child("other", null, 1, 2));
+        assertThat(new Child("name", null, 1, 2)).isNotEqualTo(new Child("name", null, 2, 1));
+        assertThat(new Child("name", null, 1, 2)).isNotEqualTo(new Parent("name"));
+    }
+
+    @Test
+    public void null_fields_are_supported() {
+        assertThat(new Child(null, null, (int[]) null)).isEqualTo(new Child(null, null, (int[]) null));
+        assertThat(new Child(null, null, (int[]) null).hashCode()).isEqualTo(new Child(null, null, (int[]) null).hashCode());
+    }
+
+    @Test
+    public void immutable_value_objects_are_equal() {
+        ImmutableChild child1 = new ImmutableChild("name", 1L);
+        ImmutableChild child2 = new ImmutableChild("name", 1L);
+
+        assertThat(child1.hashCode()).isEqualTo(child1.hashCode());
+        assertThat(child1.hashCode()).isEqualTo(child2.hashCode());
+        assertThat(child1).isEqualTo(child2);
+        assertThat(child1).isNotEqualTo(new ImmutableChild("name", 2L));
+    }
+
+    @Test
+    public void to_string_contains_non_transient_fields() {
+        assertThat(new Child("name", "hidden", 1).toString()).isEqualTo("BaseValueObjectTest.Child[values={1},name=name]");
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImmutableIdentityEntityTest {
+    @ImmutableIdentity
+    static class ImmutableChild extends BaseEntity<Long> {
+        private Long entityId;
+
+        public ImmutableChild() {
+            entityId = null;
+        }
+
+        public ImmutableChild(Long entityId) {
+            this.entityId = entityId;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return entityId;
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void hashcode_requires_an_identity() {
+        new ImmutableChild().hashCode();
+    }
+
+    @Test
+    public void hashcode_is_cached_once_identity_is_assigned() {
+        ImmutableChild child = new ImmutableChild();
+        child.entityId = 12L;
+        assertThat(child.hashCode()).isEqualTo(Long.valueOf(12L).hashCode());
+        child.entityId = 13L;
+        assertThat(child.hashCode()).isEqualTo(Long.valueOf(12L).hashCode());
+    }
+
+    @Test
+    public void equality_is_based_on_identity() {
+        ImmutableChild child1 = new ImmutableChild(12L);
+        ImmutableChild child2 = new ImmutableChild(12L);
+        child1.hashCode();
+
+        assertThat(child1).isEqualTo(child2);
+        child2.hashCode();
+        assertThat(child1).isEqualTo(child2);
+        ImmutableChild child3 = new ImmutableChild(13L);
+        child3.hashCode();
+        assertThat(child1).isNotEqualTo(child3);
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.junit.Test;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class OptimisticRetryTest {
+    @Test
+    public void operations_are_retried_until_they_succeed() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = OptimisticRetry.call(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void last_conflict_is_thrown_when_attempts_are_exhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            OptimisticRetry.run(4, () -> {
+                attempts.incrementAndGet();
+                throw conflict();
+            });
+            fail("should have failed");
+        } catch (VersionConflictException e) {
+            assertThat(attempts.get()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void other_exceptions_are_not_retried() {
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            OptimisticRetry.run(() -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("failure");
+            });
+            fail("should have failed");
+        } catch (IllegalStateException e) {
+            assertThat(attempts.get()).isEqualTo(1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void at_least_one_attempt_is_required() {
+        OptimisticRetry.run(0, () -> {
+        });
+    }
+
+    private VersionConflictException conflict() {
+        return SeedException.createNew(VersionConflictException.class, BusinessErrorCode.AGGREGATE_VERSION_CONFLICT)
+                .put("id", 1L);
+    }
+}
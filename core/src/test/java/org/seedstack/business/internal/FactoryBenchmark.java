@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.Factory;
+import org.seedstack.business.internal.utils.MethodMatcher;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the creation of a million aggregates, one by one with a constructor lookup per call, one by one with the
+ * factory and in bulk with the factory. Run it with the {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FactoryBenchmark {
+    private static final int ROWS = 1_000_000;
+    private final Factory<Order> factory = new FactoryInternal<>(new Class<?>[]{Order.class});
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{(long) i, "customer" + (i % 100), i * 1.5d});
+        }
+    }
+
+    @Benchmark
+    public List<Order> matchConstructorForEachRow() throws Exception {
+        List<Order> orders = new ArrayList<>(ROWS);
+        for (Object[] row : rows) {
+            Constructor<?> constructor = MethodMatcher.findMatchingConstructor(Order.class, row);
+            constructor.setAccessible(true);
+            orders.add((Order) constructor.newInstance(row));
+        }
+        return orders;
+    }
+
+    @Benchmark
+    public List<Order> createForEachRow() {
+        List<Order> orders = new ArrayList<>(ROWS);
+        for (Object[] row : rows) {
+            orders.add(factory.create(row));
+        }
+        return orders;
+    }
+
+    @Benchmark
+    public List<Order> createAll() {
+        return factory.createAll(rows);
+    }
+
+    @Benchmark
+    public List<Order> createAllFromStream() {
+        return factory.createAll(rows.stream()).collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FactoryBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    static class Order extends BaseAggregateRoot<Long> {
+        private final Long id;
+        private final String customer;
+        private final Double amount;
+
+        Order(Long id, String customer, Double amount) {
+            this.id = id;
+            this.customer = customer;
+            this.amount = amount;
+        }
+
+        Order(Long id, String customer) {
+            this(id, customer, 0d);
+        }
+
+        Order(Long id) {
+            this(id, null, 0d);
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+}
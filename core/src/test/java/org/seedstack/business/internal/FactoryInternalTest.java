@@ -15,6 +15,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.seedstack.seed.SeedException;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 /**
  * FactoryInternalTest
  */
@@ -86,6 +93,43 @@ public class FactoryInternalTest {
         Assertions.assertThat(myAggregateTest.getName()).isEqualTo(NOM);
     }
 
+    @Test
+    public void create_all_aggregates_with_different_argument_shapes() {
+        List<MyAggregateTest> aggregates = myFactory.createAll(Arrays.asList(
+                new Object[]{NOM, ID},
+                new Object[]{ID},
+                new Object[]{NOM, null},
+                new Object[]{"other", 3}
+        ));
+        Assertions.assertThat(aggregates).extracting("id").containsExactly(ID, ID, null, 3);
+        Assertions.assertThat(aggregates).extracting("name").containsExactly(NOM, null, NOM, "other");
+    }
+
+    @Test(expected = SeedException.class)
+    public void create_all_aggregates_fails_on_conflicted_constructor() {
+        myFactory.createAll(Arrays.asList(new Object[]{NOM, ID}, new Object[]{ID, NOM}));
+    }
+
+    @Test
+    public void create_all_aggregates_from_stream() {
+        List<MyAggregateTest> aggregates = myFactory.createAll(IntStream.range(0, 10).mapToObj(i -> new Object[]{NOM, i}))
+                .collect(Collectors.toList());
+        Assertions.assertThat(aggregates).hasSize(10);
+        Assertions.assertThat(aggregates.get(9).getEntityId()).isEqualTo(9);
+    }
+
+    @Test
+    public void create_all_aggregates_from_stream_by_chunks() {
+        AtomicInteger consumed = new AtomicInteger();
+        Stream<MyAggregateTest> aggregates = myFactory.createAll(IntStream.range(0, FactoryInternal.STREAM_BATCH_SIZE * 3)
+                .mapToObj(i -> new Object[]{NOM, i})
+                .peek(args -> consumed.incrementAndGet()));
+        Assertions.assertThat(consumed.get()).isEqualTo(0);
+
+        Assertions.assertThat(aggregates.findFirst().get().getEntityId()).isEqualTo(0);
+        Assertions.assertThat(consumed.get()).isEqualTo(FactoryInternal.STREAM_BATCH_SIZE);
+    }
+
     static class MyAggregateTest implements AggregateRoot<Integer> {
         Integer id;
 
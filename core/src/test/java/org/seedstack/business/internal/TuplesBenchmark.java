@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal;
+
+import com.google.common.collect.Lists;
+import org.javatuples.Triplet;
+import org.javatuples.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the tuple creation paths used when assembling DTOs from tuples of aggregates. Run it with the
+ * {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TuplesBenchmark {
+    private final Object[] array = new Object[]{"customer", 1L, 2.0f};
+    private final List<Object> list = Lists.newArrayList(array);
+    private final Tuple tuple = Triplet.fromArray(array);
+
+    @Benchmark
+    public Tuple reflectiveCreateFromCollection() throws Exception {
+        return (Tuple) Triplet.class.getMethod("fromCollection", Collection.class).invoke(null, list);
+    }
+
+    @Benchmark
+    public Tuple createFromCollection() {
+        return Tuples.create(list);
+    }
+
+    @Benchmark
+    public Tuple createFromArray() {
+        return Tuples.create(array);
+    }
+
+    @Benchmark
+    public List<Class<?>> toListOfClasses() {
+        return Tuples.toListOfClasses(tuple);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TuplesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
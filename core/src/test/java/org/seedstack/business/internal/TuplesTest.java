@@ -96,4 +96,28 @@ public class TuplesTest {
         Type type = Tuples.typeOfTuple(String.class, Long.class);
         Assertions.assertThat(type).isEqualTo(Types.newParameterizedType(Pair.class, String.class, Long.class));
     }
+
+    @Test
+    public void testCreateTupleOfEachArity() {
+        for (int i = 1; i <= 10; i++) {
+            Object[] values = new Object[i];
+            for (int j = 0; j < i; j++) {
+                values[j] = j;
+            }
+            Tuple tuple = Tuples.create(values);
+            Assertions.assertThat((Iterable<?>) tuple).isInstanceOf(Tuples.classOfTuple(i));
+            Assertions.assertThat(tuple.toArray()).isEqualTo(values);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateTupleWithTooManyElements() {
+        Tuples.create(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+    }
+
+    @Test
+    public void testToListOfClasses() {
+        List<Class<?>> classes = Tuples.toListOfClasses(Tuples.create("foo", 10L, 1.0f));
+        Assertions.assertThat(classes).containsExactly(String.class, Long.class, Float.class);
+    }
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal;
+
+import org.fest.reflect.core.Reflection;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.business.domain.BaseValueObject;
+import org.seedstack.business.domain.Factory;
+import org.seedstack.business.domain.Immutable;
+import org.seedstack.business.domain.Interned;
+import org.seedstack.business.metrics.ClassInterningMetrics;
+import org.seedstack.business.metrics.InterningMetrics;
+import org.seedstack.seed.Application;
+import org.seedstack.seed.ClassConfiguration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ValueObjectInternersTest {
+    @Mock
+    private Application application;
+    private final InterningMetrics interningMetrics = new InterningMetrics();
+    private ValueObjectInterners underTest;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(application.getConfiguration(any(Class.class))).thenAnswer(invocation -> ClassConfiguration.empty((Class<Object>) invocation.getArguments()[0]));
+        underTest = new ValueObjectInterners(application, interningMetrics);
+    }
+
+    @Test
+    public void interned_value_objects_are_shared() {
+        Factory<Currency> factory = factoryOf(Currency.class);
+
+        Currency eur = factory.create("EUR", 2);
+        assertThat(factory.create("EUR", 2)).isSameAs(eur);
+        assertThat(factory.create("USD", 2)).isNotSameAs(eur).isNotEqualTo(eur);
+
+        ClassInterningMetrics metrics = interningMetrics.getMetrics(Currency.class);
+        assertThat(metrics.getHitCount()).isEqualTo(1);
+        assertThat(metrics.getMissCount()).isEqualTo(2);
+        assertThat(metrics.getHitRate()).isEqualTo(1.0 / 3);
+        assertThat(metrics.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void value_objects_are_not_interned_by_default() {
+        Factory<Unit> factory = factoryOf(Unit.class);
+
+        assertThat(factory.create("kg")).isNotSameAs(factory.create("kg")).isEqualTo(factory.create("kg"));
+        assertThat(interningMetrics.getMetrics(Unit.class)).isNull();
+    }
+
+    @Test
+    public void interning_can_be_enabled_by_configuration() {
+        when(application.getConfiguration(Unit.class)).thenReturn(ClassConfiguration.of(Unit.class, "interned", "true"));
+        Factory<Unit> factory = factoryOf(Unit.class);
+
+        assertThat(factory.create("kg")).isSameAs(factory.create("kg"));
+    }
+
+    @Test
+    public void interning_can_be_disabled_by_configuration() {
+        when(application.getConfiguration(Currency.class)).thenReturn(ClassConfiguration.of(Currency.class, "interned", "false"));
+        Factory<Currency> factory = factoryOf(Currency.class);
+
+        assertThat(factory.create("EUR", 2)).isNotSameAs(factory.create("EUR", 2));
+    }
+
+    @Test
+    public void bounded_interning_evicts_instances() {
+        Factory<CountryCode> factory = factoryOf(CountryCode.class);
+        for (int i = 0; i < 100; i++) {
+            factory.create("C" + i);
+        }
+
+        assertThat(interningMetrics.getMetrics(CountryCode.class).getSize()).isLessThanOrEqualTo(10);
+    }
+
+    private <T extends BaseValueObject> Factory<T> factoryOf(Class<T> valueObjectClass) {
+        FactoryInternal<T> factory = new FactoryInternal<>(new Class<?>[]{valueObjectClass});
+        Reflection.field("valueObjectInterners").ofType(ValueObjectInterners.class).in(factory).set(underTest);
+        return factory;
+    }
+
+    @Immutable
+    @Interned
+    static class Currency extends BaseValueObject {
+        private final String code;
+        private final int decimals;
+
+        Currency(String code, int decimals) {
+            this.code = code;
+            this.decimals = decimals;
+        }
+    }
+
+    @Immutable
+    static class Unit extends BaseValueObject {
+        private final String symbol;
+
+        Unit(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    @Immutable
+    @Interned(maxSize = 10)
+    static class CountryCode extends BaseValueObject {
+        private final String code;
+
+        CountryCode(String code) {
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.junit.Test;
+import org.seedstack.business.fixtures.event.MyEvent;
+import org.seedstack.business.fixtures.event.MyEvent2;
+import org.seedstack.business.fixtures.event.SomeEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventDispatchContextTest {
+    @Test
+    public void events_are_found_by_identity() {
+        EventDispatchContext context = new EventDispatchContext();
+        SomeEvent event = new SomeEvent("info");
+        context.push(SomeEvent.class, event);
+
+        assertThat(context.contains(SomeEvent.class, event, true)).isTrue();
+        assertThat(context.contains(SomeEvent.class, new SomeEvent("info"), true)).isFalse();
+        assertThat(context.contains(MyEvent.class, event, true)).isFalse();
+    }
+
+    @Test
+    public void events_are_found_by_equality() {
+        EventDispatchContext context = new EventDispatchContext();
+        context.push(SomeEvent.class, new SomeEvent("info"));
+
+        assertThat(context.contains(SomeEvent.class, new SomeEvent("info"), false)).isTrue();
+        assertThat(context.contains(SomeEvent.class, new SomeEvent("other"), false)).isFalse();
+    }
+
+    @Test
+    public void events_are_recorded_until_the_top_level_dispatch_ends() {
+        EventDispatchContext context = new EventDispatchContext();
+        MyEvent2 event = new MyEvent2();
+        for (int i = 1; i <= 20; i++) {
+            assertThat(context.push(MyEvent2.class, i == 20 ? event : new MyEvent2())).isEqualTo(i);
+        }
+        assertThat(context.contains(MyEvent2.class, event, true)).isTrue();
+        context.pop();
+        assertThat(context.depth()).isEqualTo(19);
+        assertThat(context.contains(MyEvent2.class, event, true)).isTrue();
+        for (int i = 19; i > 0; i--) {
+            context.pop();
+        }
+        assertThat(context.depth()).isEqualTo(0);
+        assertThat(context.contains(MyEvent2.class, event, true)).isFalse();
+    }
+}
@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.Event;
+import org.seedstack.business.EventFilter;
+import org.seedstack.business.EventHandler;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.business.metrics.HandlerDeliveryMetrics;
+import org.seedstack.business.metrics.InMemoryEventMetrics;
+import org.seedstack.seed.SeedException;
+
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the resolution and evaluation of event handler filters.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventHandlerFiltersTest {
+    @Mock
+    private Injector injector;
+    @Mock
+    private MethodFilteredHandler methodFilteredHandler;
+
+    @Test
+    public void handler_without_filter_accepts_all_events() {
+        EventHandlerFilters underTest = EventHandlerFilters.resolve(ImmutableMap.of(UnfilteredHandler.class, FilteredEvent.class));
+
+        assertThat(underTest.accepts(UnfilteredHandler.class, new FilteredEvent("anything"))).isTrue();
+        assertThat(underTest.getPredicateInstances()).isEmpty();
+    }
+
+    @Test
+    public void predicate_class_filter() {
+        EventHandlerFilters underTest = EventHandlerFilters.resolve(ImmutableMap.of(PredicateFilteredHandler.class, FilteredEvent.class));
+
+        assertThat(underTest.accepts(PredicateFilteredHandler.class, new FilteredEvent("interesting"))).isTrue();
+        assertThat(underTest.accepts(PredicateFilteredHandler.class, new FilteredEvent("boring"))).isFalse();
+        assertThat(underTest.getPredicateInstances()).hasSize(1);
+    }
+
+    @Test
+    public void static_method_filter() {
+        EventHandlerFilters underTest = EventHandlerFilters.resolve(ImmutableMap.of(MethodFilteredHandler.class, FilteredEvent.class));
+
+        assertThat(underTest.accepts(MethodFilteredHandler.class, new FilteredEvent("urgent"))).isTrue();
+        assertThat(underTest.accepts(MethodFilteredHandler.class, new FilteredEvent("later"))).isFalse();
+    }
+
+    @Test
+    public void all_filters_must_accept() {
+        EventHandlerFilters underTest = EventHandlerFilters.resolve(ImmutableMap.of(DoublyFilteredHandler.class, FilteredEvent.class));
+
+        assertThat(underTest.accepts(DoublyFilteredHandler.class, new FilteredEvent("interesting"))).isTrue();
+        assertThat(underTest.accepts(DoublyFilteredHandler.class, new FilteredEvent("interesting but long"))).isFalse();
+        assertThat(underTest.accepts(DoublyFilteredHandler.class, new FilteredEvent("boring"))).isFalse();
+    }
+
+    @Test
+    public void illegal_filter_method_is_rejected() {
+        assertIllegalFilter(NonStaticMethodFilteredHandler.class);
+    }
+
+    @Test
+    public void predicate_of_unrelated_event_is_rejected() {
+        assertIllegalFilter(UnrelatedPredicateFilteredHandler.class);
+    }
+
+    @Test
+    public void filtered_out_handler_is_never_instantiated() {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(FilteredEvent.class, MethodFilteredHandler.class);
+        Mockito.when(injector.getInstance(MethodFilteredHandler.class)).thenReturn(methodFilteredHandler);
+        InMemoryEventMetrics metrics = new InMemoryEventMetrics();
+        EventHandlerFilters filters = EventHandlerFilters.resolve(ImmutableMap.of(MethodFilteredHandler.class, FilteredEvent.class));
+        EventServiceInternal eventService = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), metrics, new EventDeliveryMetrics(), filters,
+                new BatchEventDispatcher(ImmutableListMultimap.of(), new BusinessConfig.EventConfig.BatchConfig(), filters),
+                new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig()),
+                new EventJournalInternal(null));
+
+        eventService.fire(new FilteredEvent("later"));
+        eventService.fire(new FilteredEvent("later"));
+        verify(injector, never()).getInstance(MethodFilteredHandler.class);
+
+        eventService.fire(new FilteredEvent("urgent"));
+        verify(methodFilteredHandler).handle(new FilteredEvent("urgent"));
+        assertThat(metrics.getSkipCount(FilteredEvent.class)).isEqualTo(2);
+        assertThat(metrics.getInvocationCount(FilteredEvent.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void deliveries_and_skips_are_counted_without_metrics_sink() {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(FilteredEvent.class, MethodFilteredHandler.class);
+        Mockito.when(injector.getInstance(MethodFilteredHandler.class)).thenReturn(methodFilteredHandler);
+        EventDeliveryMetrics deliveryMetrics = new EventDeliveryMetrics();
+        EventHandlerFilters filters = EventHandlerFilters.resolve(ImmutableMap.of(MethodFilteredHandler.class, FilteredEvent.class));
+        EventServiceInternal eventService = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, deliveryMetrics, filters,
+                new BatchEventDispatcher(ImmutableListMultimap.of(), new BusinessConfig.EventConfig.BatchConfig(), filters),
+                new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig()),
+                new EventJournalInternal(null));
+
+        eventService.fire(new FilteredEvent("later"));
+        eventService.fire(new FilteredEvent("urgent"));
+        eventService.fire(new FilteredEvent("urgent"));
+
+        HandlerDeliveryMetrics handlerMetrics = deliveryMetrics.getMetrics(FilteredEvent.class, MethodFilteredHandler.class);
+        assertThat(handlerMetrics.getSkipCount()).isEqualTo(1);
+        assertThat(handlerMetrics.getDeliveryCount()).isEqualTo(2);
+    }
+
+    private void assertIllegalFilter(Class<? extends EventHandler> eventHandlerClass) {
+        try {
+            EventHandlerFilters.resolve(ImmutableMap.of(eventHandlerClass, FilteredEvent.class));
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.ILLEGAL_EVENT_FILTER);
+        }
+    }
+
+    public static class InterestingEvents implements Predicate<FilteredEvent> {
+        @Override
+        public boolean test(FilteredEvent filteredEvent) {
+            return filteredEvent.getBusinessInfo().startsWith("interesting");
+        }
+    }
+
+    public static class OtherEvents implements Predicate<OtherEvent> {
+        @Override
+        public boolean test(OtherEvent otherEvent) {
+            return true;
+        }
+    }
+
+    public static class OtherEvent implements Event {
+    }
+
+    public static class FilteredEvent implements Event {
+        private final String businessInfo;
+
+        FilteredEvent(String businessInfo) {
+            this.businessInfo = businessInfo;
+        }
+
+        String getBusinessInfo() {
+            return businessInfo;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof FilteredEvent && businessInfo.equals(((FilteredEvent) o).businessInfo);
+        }
+
+        @Override
+        public int hashCode() {
+            return businessInfo.hashCode();
+        }
+    }
+
+    public static class UnfilteredHandler implements EventHandler<FilteredEvent> {
+        @Override
+        public void handle(FilteredEvent event) {
+        }
+    }
+
+    @EventFilter(InterestingEvents.class)
+    public static class PredicateFilteredHandler implements EventHandler<FilteredEvent> {
+        @Override
+        public void handle(FilteredEvent event) {
+        }
+    }
+
+    public static class MethodFilteredHandler implements EventHandler<FilteredEvent> {
+        @EventFilter
+        static boolean isUrgent(Event event) {
+            return "urgent".equals(((FilteredEvent) event).getBusinessInfo());
+        }
+
+        @Override
+        public void handle(FilteredEvent event) {
+        }
+    }
+
+    @EventFilter(InterestingEvents.class)
+    public static class DoublyFilteredHandler implements EventHandler<FilteredEvent> {
+        @EventFilter
+        private static boolean isShort(FilteredEvent event) {
+            return event.getBusinessInfo().length() < 15;
+        }
+
+        @Override
+        public void handle(FilteredEvent event) {
+        }
+    }
+
+    // illegal handlers are abstract to keep them out of the classpath scan of integration tests
+    public abstract static class NonStaticMethodFilteredHandler implements EventHandler<FilteredEvent> {
+        @EventFilter
+        boolean isUrgent(FilteredEvent event) {
+            return true;
+        }
+
+        @Override
+        public void handle(FilteredEvent event) {
+        }
+    }
+
+    @EventFilter(OtherEvents.class)
+    public abstract static class UnrelatedPredicateFilteredHandler implements EventHandler<FilteredEvent> {
+        @Override
+        public void handle(FilteredEvent event) {
+        }
+    }
+}
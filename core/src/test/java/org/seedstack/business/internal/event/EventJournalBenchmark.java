@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.seedstack.business.spi.EventCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the replay throughput of the event journal, with and without decoding the recorded events, and its append
+ * throughput. Run it with the {@link #main(String[])} method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EventJournalBenchmark {
+    private static final int EVENT_COUNT = 100_000;
+    private final EventCodec eventCodec = new BinaryEventCodec();
+    private Path directory;
+    private MappedEventJournal journal;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("event-journal-benchmark");
+        journal = new MappedEventJournal(directory, 16 * 1024 * 1024);
+        payload = eventCodec.encode(new EventJournalInternalTest.JournaledEvent(42));
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            journal.append(EventJournalInternalTest.JournaledEvent.class.getName(), System.currentTimeMillis(), payload);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> paths = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENT_COUNT)
+    public long replayRecords(Blackhole blackhole) {
+        return journal.read(1, EVENT_COUNT, Long.MIN_VALUE, Long.MAX_VALUE, (sequence, timestamp, type, bytes) -> blackhole.consume(bytes));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENT_COUNT)
+    public long replayEvents(Blackhole blackhole) {
+        return journal.read(1, EVENT_COUNT, Long.MIN_VALUE, Long.MAX_VALUE, (sequence, timestamp, type, bytes) -> blackhole.consume(eventCodec.decode(EventJournalInternalTest.JournaledEvent.class, bytes)));
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(EventJournalInternalTest.JournaledEvent.class.getName(), System.currentTimeMillis(), payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventJournalBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.inject.Injector;
+import org.fest.reflect.core.Reflection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.Event;
+import org.seedstack.business.EventHandler;
+import org.seedstack.business.domain.events.AggregatePersistedEvent;
+import org.seedstack.business.domain.events.BaseDomainEvent;
+import org.seedstack.business.fixtures.event.MyEvent;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.business.spi.EventCodec;
+
+import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventJournalInternalTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    @Mock
+    private Injector injector;
+    @Mock
+    private JournaledEventHandler journaledEventHandler;
+    private final List<Integer> handled = new ArrayList<>();
+    private EventJournalInternal underTest;
+    private EventServiceInternal eventService;
+
+    @Before
+    public void setUp() throws Exception {
+        underTest = new EventJournalInternal(new MappedEventJournal(temporaryFolder.getRoot().toPath(), 4096));
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(JournaledEvent.class, JournaledEventHandler.class);
+        Mockito.when(injector.getInstance(JournaledEventHandler.class)).thenReturn(journaledEventHandler);
+        doAnswer(invocation -> handled.add(((JournaledEvent) invocation.getArguments()[0]).value)).when(journaledEventHandler).handle(any(JournaledEvent.class));
+        eventService = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(),
+                new BatchEventDispatcher(ImmutableListMultimap.of(), new BusinessConfig.EventConfig.BatchConfig(), EventHandlerFilters.none()),
+                new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig()),
+                underTest);
+        Provider<EventServiceInternal> eventServiceProvider = () -> eventService;
+        Reflection.field("eventServiceProvider").ofType(Provider.class).in(underTest).set(eventServiceProvider);
+        Reflection.field("eventCodec").ofType(EventCodec.class).in(underTest).set(new BinaryEventCodec());
+    }
+
+    @After
+    public void tearDown() {
+        underTest.stop();
+    }
+
+    @Test
+    public void domain_events_are_recorded_and_replayed() {
+        for (int i = 1; i <= 10; i++) {
+            eventService.fire(new JournaledEvent(i));
+        }
+        assertThat(underTest.getLastSequence()).isEqualTo(10);
+        handled.clear();
+
+        assertThat(underTest.replay(4, 6)).isEqualTo(3);
+        assertThat(handled).containsExactly(4, 5, 6);
+        assertThat(underTest.getLastSequence()).isEqualTo(10);
+    }
+
+    @Test
+    public void events_are_replayed_by_period() {
+        long from = System.currentTimeMillis();
+        for (int i = 1; i <= 3; i++) {
+            eventService.fire(new JournaledEvent(i));
+        }
+        handled.clear();
+
+        assertThat(underTest.replayPeriod(from, Long.MAX_VALUE)).isEqualTo(3);
+        assertThat(handled).containsExactly(1, 2, 3);
+        assertThat(underTest.replayPeriod(Long.MIN_VALUE, from - 1)).isEqualTo(0);
+    }
+
+    @Test
+    public void events_fired_by_replayed_handlers_are_neither_recorded_nor_handled_twice() {
+        doAnswer(invocation -> {
+            int value = ((JournaledEvent) invocation.getArguments()[0]).value;
+            handled.add(value);
+            if (value < 100) {
+                eventService.fire(new JournaledEvent(value + 100));
+            }
+            return null;
+        }).when(journaledEventHandler).handle(any(JournaledEvent.class));
+        eventService.fire(new JournaledEvent(1));
+        assertThat(handled).containsExactly(1, 101);
+        assertThat(underTest.getLastSequence()).isEqualTo(2);
+        handled.clear();
+
+        assertThat(underTest.replay(1, 2)).isEqualTo(2);
+        assertThat(handled).containsExactly(1, 101);
+        assertThat(underTest.getLastSequence()).isEqualTo(2);
+
+        eventService.fire(new JournaledEvent(2));
+        assertThat(underTest.getLastSequence()).isEqualTo(4);
+    }
+
+    @Test
+    public void other_events_are_not_recorded() throws Exception {
+        eventService.fire(new MyEvent());
+        eventService.fire(new AggregatePersistedEvent(Object.class.getMethod("toString"), new Object[0], null));
+
+        assertThat(underTest.getLastSequence()).isEqualTo(0);
+    }
+
+    @Test
+    public void disabled_journal_replays_nothing() {
+        EventJournalInternal disabled = new EventJournalInternal(null);
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.getLastSequence()).isEqualTo(0);
+        assertThat(disabled.replay(1, Long.MAX_VALUE)).isEqualTo(0);
+    }
+
+    public static class JournaledEvent extends BaseDomainEvent {
+        private final int value;
+
+        private JournaledEvent() {
+            this(0);
+        }
+
+        public JournaledEvent(int value) {
+            this.value = value;
+        }
+    }
+
+    public interface JournaledEventHandler extends EventHandler<JournaledEvent> {
+    }
+}
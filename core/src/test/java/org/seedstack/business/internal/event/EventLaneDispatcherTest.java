@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.junit.After;
+import org.junit.Test;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.context.BusinessContext;
+import org.seedstack.business.metrics.LaneMetrics;
+import org.seedstack.business.spi.ContextSlot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventLaneDispatcherTest {
+    private static final ContextSlot<String> slot = BusinessContext.newSlot(value -> value);
+    private EventLaneDispatcher underTest;
+
+    @After
+    public void tearDown() {
+        if (underTest != null) {
+            underTest.stop();
+        }
+    }
+
+    @Test
+    public void lanes_are_disabled_by_default() {
+        underTest = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig());
+
+        assertThat(underTest.isEnabled()).isFalse();
+        assertThat(underTest.getMetrics().getLaneCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void tasks_of_a_key_are_executed_in_order_on_the_same_lane() throws Exception {
+        underTest = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig().setCount(4).setQueueCapacity(16));
+        int keys = 16;
+        int tasksPerKey = 200;
+        Map<Integer, List<Integer>> executed = new ConcurrentHashMap<>();
+        Map<Integer, Set<String>> threads = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(keys * tasksPerKey);
+        for (int i = 0; i < tasksPerKey; i++) {
+            for (int key = 0; key < keys; key++) {
+                int sequence = i;
+                int partitionKey = key;
+                underTest.submit(partitionKey, () -> {
+                    executed.computeIfAbsent(partitionKey, k -> new ArrayList<>()).add(sequence);
+                    threads.computeIfAbsent(partitionKey, k -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+                    latch.countDown();
+                });
+            }
+        }
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        Set<String> allThreads = ConcurrentHashMap.newKeySet();
+        for (int key = 0; key < keys; key++) {
+            List<Integer> sequences = executed.get(key);
+            assertThat(sequences).hasSize(tasksPerKey);
+            for (int i = 0; i < tasksPerKey; i++) {
+                assertThat(sequences.get(i)).isEqualTo(i);
+            }
+            assertThat(threads.get(key)).containsOnly("business-event-lane-" + underTest.laneOf(key));
+            allThreads.addAll(threads.get(key));
+        }
+        assertThat(allThreads.size()).isGreaterThan(1);
+    }
+
+    @Test
+    public void lane_metrics_are_recorded() throws Exception {
+        underTest = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig().setCount(2));
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        underTest.submit("a", () -> {
+            await(blocker);
+            done.countDown();
+        });
+        underTest.submit("a", () -> {
+            done.countDown();
+            throw new IllegalStateException("failure");
+        });
+        underTest.submit("a", done::countDown);
+        LaneMetrics laneMetrics = underTest.getMetrics().getMetrics(underTest.laneOf("a"));
+
+        assertThat(laneMetrics.getQueueDepth()).isBetween(2, 3);
+        blocker.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        underTest.stop();
+        assertThat(laneMetrics.getQueueDepth()).isEqualTo(0);
+        assertThat(laneMetrics.getProcessedCount()).isEqualTo(3);
+        assertThat(laneMetrics.getFailureCount()).isEqualTo(1);
+        assertThat(laneMetrics.getLag().getCount()).isEqualTo(3);
+        assertThat(underTest.getMetrics().getTotalQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void business_context_is_propagated_to_lanes() throws Exception {
+        underTest = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig().setCount(1));
+        List<String> values = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        slot.run("value", () -> underTest.submit("a", () -> {
+            values.add(slot.get());
+            latch.countDown();
+        }));
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(values).containsExactly("value");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
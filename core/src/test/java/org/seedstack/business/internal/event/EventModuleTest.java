@@ -8,8 +8,10 @@
 package org.seedstack.business.internal.event;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.inject.Binder;
 import org.fest.reflect.core.Reflection;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.Event;
 import org.seedstack.business.EventHandler;
 import org.seedstack.business.fixtures.event.MyEvent2;
@@ -32,7 +34,7 @@ public class EventModuleTest {
         multimap.put(MyEvent2.class, MyEventHandlerFailed.class);
         List<Class<? extends EventHandler>> eventHandlerClasses = new ArrayList<>();
         eventHandlerClasses.add(MyEventHandlerFailed.class);
-        EventModule underTest = new EventModule(multimap, eventHandlerClasses, false);
+        EventModule underTest = new EventModule(multimap, eventHandlerClasses, new BusinessConfig.EventConfig(), EventHandlerFilters.none(), new BatchEventDispatcher(ImmutableListMultimap.of(), new BusinessConfig.EventConfig.BatchConfig(), EventHandlerFilters.none()), new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig()), new EventJournalInternal(null));
         Binder b = mock(Binder.class, Mockito.RETURNS_MOCKS);
         Reflection.field("binder").ofType(Binder.class).in(underTest).set(b);
         underTest.configure();
@@ -8,18 +8,38 @@
 package org.seedstack.business.internal.event;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.inject.Injector;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.seedstack.business.BusinessConfig;
 import org.seedstack.business.Event;
 import org.seedstack.business.EventHandler;
 import org.seedstack.business.EventService;
+import org.seedstack.business.OnLane;
+import org.seedstack.business.domain.AggregateEvent;
 import org.seedstack.business.fixtures.event.MyEvent;
 import org.seedstack.business.fixtures.event.MyEventHandler;
+import org.seedstack.business.fixtures.event.MyHandler;
 import org.seedstack.business.fixtures.event.SomeEvent;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.metrics.EventDeliveryMetrics;
+import org.seedstack.seed.SeedException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests the event service.
@@ -32,6 +52,10 @@ public class EventServiceInternalTest {
     private Injector injector;
     @Mock
     private MyEventHandler myEventHandler;
+    @Mock
+    private MyLaneEventHandler myLaneEventHandler;
+    @Mock
+    private MyHandler myHandler;
 
     @Test
     public void fire_event() {
@@ -41,7 +65,7 @@ public class EventServiceInternalTest {
         // provide an handler of MyEvent
         Mockito.when(injector.getInstance(MyEventHandler.class)).thenReturn(myEventHandler);
 
-        underTest = new EventServiceInternal(injector, multiMap);
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), noEventLanes(), noEventJournal());
         underTest.fire(new MyEvent());
     }
 
@@ -49,7 +73,211 @@ public class EventServiceInternalTest {
     public void fire_event_not_received() {
         ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
         // no handler provided
-        underTest = new EventServiceInternal(injector, multiMap);
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), noEventLanes(), noEventJournal());
+        underTest.fire(new MyEvent());
+    }
+
+    @Test
+    public void fire_same_event_instance_from_handler_is_a_cycle() {
+        MyEvent event = new MyEvent();
+        prepareReentrantHandler(new BusinessConfig.EventConfig(), () -> event);
+
+        assertRootErrorCode(event, BusinessErrorCode.EVENT_CYCLE_DETECTED);
+        verify(myEventHandler, times(1)).handle(any(MyEvent.class));
+    }
+
+    @Test
+    public void fire_equal_events_is_a_cycle_by_default() {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(SomeEvent.class, MyHandler.class);
+        Mockito.when(injector.getInstance(MyHandler.class)).thenReturn(myHandler);
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), noEventLanes(), noEventJournal());
+        doAnswer(invocation -> {
+            underTest.fire(new SomeEvent("info"));
+            return null;
+        }).when(myHandler).handle(any(SomeEvent.class));
+
+        assertRootErrorCode(new SomeEvent("info"), BusinessErrorCode.EVENT_CYCLE_DETECTED);
+        verify(myHandler, times(1)).handle(any(SomeEvent.class));
+    }
+
+    @Test
+    public void fire_equal_event_twice_from_handler_is_a_cycle() {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(MyEvent.class, MyEventHandler.class);
+        multiMap.put(SomeEvent.class, MyHandler.class);
+        Mockito.when(injector.getInstance(MyEventHandler.class)).thenReturn(myEventHandler);
+        Mockito.when(injector.getInstance(MyHandler.class)).thenReturn(myHandler);
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), noEventLanes(), noEventJournal());
+        doAnswer(invocation -> {
+            underTest.fire(new SomeEvent("info"));
+            underTest.fire(new SomeEvent("info"));
+            return null;
+        }).when(myEventHandler).handle(any(MyEvent.class));
+
+        assertRootErrorCode(new MyEvent(), BusinessErrorCode.EVENT_CYCLE_DETECTED);
+        verify(myHandler, times(1)).handle(any(SomeEvent.class));
+    }
+
+    @Test
+    public void fire_equal_events_is_not_a_cycle_with_identity_detection() {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(MyEvent.class, MyEventHandler.class);
+        multiMap.put(SomeEvent.class, MyHandler.class);
+        Mockito.when(injector.getInstance(MyEventHandler.class)).thenReturn(myEventHandler);
+        Mockito.when(injector.getInstance(MyHandler.class)).thenReturn(myHandler);
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig().setCycleDetection(BusinessConfig.EventConfig.CycleDetection.IDENTITY), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), noEventLanes(), noEventJournal());
+        doAnswer(invocation -> {
+            underTest.fire(new SomeEvent("info"));
+            underTest.fire(new SomeEvent("info"));
+            return null;
+        }).when(myEventHandler).handle(any(MyEvent.class));
+
         underTest.fire(new MyEvent());
+
+        verify(myHandler, times(2)).handle(any(SomeEvent.class));
+    }
+
+    @Test
+    public void fire_new_events_is_bounded_by_max_nesting_depth() {
+        MyEvent event = new MyEvent();
+        prepareReentrantHandler(new BusinessConfig.EventConfig().setCycleDetection(BusinessConfig.EventConfig.CycleDetection.IDENTITY).setMaxNestingDepth(3), MyEvent::new);
+
+        assertRootErrorCode(event, BusinessErrorCode.EVENT_NESTING_TOO_DEEP);
+        verify(myEventHandler, times(3)).handle(any(MyEvent.class));
+    }
+
+    @Test
+    public void fire_aggregate_event_on_its_lane() throws Exception {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(MyEvent.class, MyLaneEventHandler.class);
+        Mockito.when(injector.getInstance(MyLaneEventHandler.class)).thenReturn(myLaneEventHandler);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            latch.countDown();
+            return null;
+        }).when(myLaneEventHandler).handle(any(MyEvent.class));
+        EventLaneDispatcher eventLaneDispatcher = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig().setCount(2));
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), eventLaneDispatcher, noEventJournal());
+        try {
+            underTest.fire(new MyAggregateEvent(1));
+            underTest.fire(new MyAggregateEvent(null));
+
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(threads).containsOnly(Thread.currentThread().getName(), "business-event-lane-" + eventLaneDispatcher.laneOf(1));
+            // lane metrics are recorded after the handler returns, stopping the lanes waits for them
+            eventLaneDispatcher.stop();
+            assertThat(eventLaneDispatcher.getMetrics().getMetrics(eventLaneDispatcher.laneOf(1)).getProcessedCount()).isEqualTo(1);
+        } finally {
+            eventLaneDispatcher.stop();
+        }
+    }
+
+    @Test
+    public void fire_aggregate_event_synchronously_to_handlers_not_on_lanes() throws Exception {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(MyEvent.class, MyEventHandler.class);
+        Mockito.when(injector.getInstance(MyEventHandler.class)).thenReturn(myEventHandler);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            throw new IllegalStateException("failure");
+        }).when(myEventHandler).handle(any(MyEvent.class));
+        EventLaneDispatcher eventLaneDispatcher = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig().setCount(2));
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), eventLaneDispatcher, noEventJournal());
+        try {
+            underTest.fire(new MyAggregateEvent(1));
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.EXCEPTION_OCCURRED_DURING_EVENT_HANDLER_INVOCATION);
+            assertThat(threads).containsExactly(Thread.currentThread().getName());
+        } finally {
+            eventLaneDispatcher.stop();
+        }
+    }
+
+    @Test
+    public void fire_aggregate_events_from_a_lane_handler_inline() throws Exception {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(MyEvent.class, MyLaneEventHandler.class);
+        Mockito.when(injector.getInstance(MyLaneEventHandler.class)).thenReturn(myLaneEventHandler);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(4);
+        EventLaneDispatcher eventLaneDispatcher = new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig().setCount(1).setQueueCapacity(1));
+        underTest = new EventServiceInternal(injector, multiMap, new BusinessConfig.EventConfig(), NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), eventLaneDispatcher, noEventJournal());
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            if (threads.size() == 1) {
+                // more events than the lane queue can hold, for the same aggregate
+                for (int i = 0; i < 3; i++) {
+                    underTest.fire(new MyAggregateEvent(1));
+                }
+            }
+            latch.countDown();
+            return null;
+        }).when(myLaneEventHandler).handle(any(MyEvent.class));
+        try {
+            underTest.fire(new MyAggregateEvent(1));
+
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(threads).hasSize(4).containsOnly("business-event-lane-0");
+        } finally {
+            eventLaneDispatcher.stop();
+        }
+    }
+
+    private void prepareReentrantHandler(BusinessConfig.EventConfig eventConfig, java.util.function.Supplier<MyEvent> nextEvent) {
+        ArrayListMultimap<Class<? extends Event>, Class<? extends EventHandler>> multiMap = ArrayListMultimap.create();
+        multiMap.put(MyEvent.class, MyEventHandler.class);
+        Mockito.when(injector.getInstance(MyEventHandler.class)).thenReturn(myEventHandler);
+        underTest = new EventServiceInternal(injector, multiMap, eventConfig, NoOpEventMetricsSink.INSTANCE, new EventDeliveryMetrics(), EventHandlerFilters.none(), noBatchEventDispatcher(), noEventLanes(), noEventJournal());
+        doAnswer(invocation -> {
+            underTest.fire(nextEvent.get());
+            return null;
+        }).when(myEventHandler).handle(any(MyEvent.class));
+    }
+
+    private void assertRootErrorCode(Event event, BusinessErrorCode errorCode) {
+        try {
+            underTest.fire(event);
+            fail();
+        } catch (SeedException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            assertThat(((SeedException) cause).getErrorCode()).isEqualTo(errorCode);
+        }
+    }
+
+    private BatchEventDispatcher noBatchEventDispatcher() {
+        return new BatchEventDispatcher(ImmutableListMultimap.of(), new BusinessConfig.EventConfig.BatchConfig(), EventHandlerFilters.none());
+    }
+
+    private EventLaneDispatcher noEventLanes() {
+        return new EventLaneDispatcher(new BusinessConfig.EventConfig.LaneConfig());
+    }
+
+    private EventJournalInternal noEventJournal() {
+        return new EventJournalInternal(null);
+    }
+
+    @OnLane
+    abstract static class MyLaneEventHandler implements EventHandler<MyEvent> {
+    }
+
+    private static class MyAggregateEvent extends MyEvent implements AggregateEvent {
+        private final Object aggregateId;
+
+        private MyAggregateEvent(Object aggregateId) {
+            this.aggregateId = aggregateId;
+        }
+
+        @Override
+        public Object getAggregateId() {
+            return aggregateId;
+        }
     }
 }
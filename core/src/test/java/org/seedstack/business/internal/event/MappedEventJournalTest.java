@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.event;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MappedEventJournalTest {
+    private static final int SEGMENT_SIZE = 256;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private MappedEventJournal underTest;
+
+    @After
+    public void tearDown() {
+        if (underTest != null) {
+            underTest.close();
+        }
+    }
+
+    @Test
+    public void records_are_read_in_sequence_order() throws Exception {
+        underTest = open();
+        for (int i = 1; i <= 5; i++) {
+            assertThat(underTest.append("type" + i, 1000 + i, payload(i))).isEqualTo(i);
+        }
+
+        List<String> records = readAll();
+        assertThat(records).containsExactly("1@1001:type1=1", "2@1002:type2=2", "3@1003:type3=3", "4@1004:type4=4", "5@1005:type5=5");
+        assertThat(underTest.getLastSequence()).isEqualTo(5);
+    }
+
+    @Test
+    public void segments_are_rolled_when_full() throws Exception {
+        underTest = open();
+        for (int i = 1; i <= 50; i++) {
+            underTest.append("type", i, payload(i));
+        }
+
+        assertThat(segmentFiles().length).isGreaterThan(1);
+        assertThat(readAll()).hasSize(50);
+        assertThat(read(20, 22, Long.MIN_VALUE, Long.MAX_VALUE)).containsExactly("20@20:type=20", "21@21:type=21", "22@22:type=22");
+        assertThat(read(Long.MIN_VALUE, Long.MAX_VALUE, 48, 100)).containsExactly("48@48:type=48", "49@49:type=49", "50@50:type=50");
+    }
+
+    @Test
+    public void timestamps_never_decrease() throws Exception {
+        underTest = open();
+        underTest.append("type", 100, payload(1));
+        underTest.append("type", 50, payload(2));
+
+        assertThat(readAll()).containsExactly("1@100:type=1", "2@100:type=2");
+    }
+
+    @Test
+    public void journal_is_resumed_after_reopening() throws Exception {
+        underTest = open();
+        for (int i = 1; i <= 30; i++) {
+            underTest.append("type", i, payload(i));
+        }
+        underTest.close();
+
+        underTest = open();
+        assertThat(underTest.getLastSequence()).isEqualTo(30);
+        assertThat(underTest.append("type", 31, payload(31))).isEqualTo(31);
+        assertThat(readAll()).hasSize(31);
+    }
+
+    @Test
+    public void partially_written_record_is_discarded_when_reopening() throws Exception {
+        underTest = open();
+        underTest.append("type", 1, payload(1));
+        underTest.append("type", 2, payload(2));
+        underTest.close();
+        File segment = segmentFiles()[0];
+        long secondRecordPosition = 8 + 8 + 18 + 4 + 1;
+        corrupt(segment, secondRecordPosition + 8 + 20);
+
+        underTest = open();
+        assertThat(underTest.getLastSequence()).isEqualTo(1);
+        assertThat(underTest.append("type", 3, payload(3))).isEqualTo(2);
+        assertThat(readAll()).containsExactly("1@1:type=1", "2@3:type=3");
+    }
+
+    @Test
+    public void corrupted_record_is_detected_when_reading() throws Exception {
+        underTest = open();
+        for (int i = 1; i <= 50; i++) {
+            underTest.append("type", i, payload(i));
+        }
+        corrupt(segmentFiles()[0], 8 + 8 + 20);
+
+        try {
+            readAll();
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.EVENT_JOURNAL_CORRUPTED);
+        }
+    }
+
+    @Test
+    public void record_larger_than_a_segment_is_rejected() throws Exception {
+        underTest = open();
+        try {
+            underTest.append("type", 1, new byte[SEGMENT_SIZE]);
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.EVENT_JOURNAL_RECORD_TOO_LARGE);
+        }
+    }
+
+    private MappedEventJournal open() throws IOException {
+        return new MappedEventJournal(temporaryFolder.getRoot().toPath().resolve("journal"), SEGMENT_SIZE);
+    }
+
+    private File[] segmentFiles() {
+        File[] files = temporaryFolder.getRoot().toPath().resolve("journal").toFile().listFiles();
+        java.util.Arrays.sort(files);
+        return files;
+    }
+
+    private List<String> readAll() {
+        return read(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private List<String> read(long fromSequence, long toSequence, long fromTimestamp, long toTimestamp) {
+        List<String> records = new ArrayList<>();
+        long count = underTest.read(fromSequence, toSequence, fromTimestamp, toTimestamp, (sequence, timestamp, type, payload) -> records.add(sequence + "@" + timestamp + ":" + type + "=" + new String(payload, StandardCharsets.UTF_8)));
+        assertThat(count).isEqualTo(records.size());
+        return records;
+    }
+
+    private static byte[] payload(int value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void corrupt(File file, long position) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.seek(position);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(position);
+            randomAccessFile.write(value ^ 0xFF);
+        }
+    }
+}
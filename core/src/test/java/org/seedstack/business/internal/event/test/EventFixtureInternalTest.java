@@ -42,7 +42,10 @@ public class EventFixtureInternalTest {
         HashMap<Class<? extends EventHandler>, Event> value = new HashMap<>();
         value.put(MyHandler.class, event);
         value.put(MyHandler2.class, event);
-        Mockito.when(contextLink.peek()).thenReturn(value);
+        Mockito.doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return value;
+        }).when(contextLink).record(Mockito.any(Runnable.class));
     }
 
     @SuppressWarnings("unchecked")
@@ -49,7 +49,10 @@ public class ServiceFixtureTest {
         HashMap<Class<? extends EventHandler>, Event> value = new HashMap<>();
         value.put(MyHandler.class, event);
         value.put(MyHandler2.class, event);
-        Mockito.when(contextLink.peek()).thenReturn(value);
+        Mockito.doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return value;
+        }).when(contextLink).record(Mockito.any(Runnable.class));
     }
 
     @Test
@@ -83,7 +86,10 @@ public class ServiceFixtureTest {
     @Test(expected = SeedException.class)
     public void failed_event_was_not_fired() throws Exception {
         HashMap<Class<? extends EventHandler>, Event> value = new HashMap<>();
-        Mockito.when(contextLink.peek()).thenReturn(value);
+        Mockito.doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return value;
+        }).when(contextLink).record(Mockito.any(Runnable.class));
         underTest.given(SomeService.class)
                 .whenCalled("doNothing")
                 .eventWasHandledBy(event, MyHandler.class);
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.junit.After;
+import org.junit.Test;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.domain.BaseEntity;
+import org.seedstack.business.domain.Entity;
+import org.seedstack.business.domain.identity.EntityIndependent;
+import org.seedstack.business.domain.identity.IdentityHandler;
+import org.seedstack.business.domain.identity.SequenceHandler;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.business.metrics.PoolMetrics;
+import org.seedstack.seed.ClassConfiguration;
+import org.seedstack.seed.SeedException;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class IdentityPoolsTest {
+    private final SlowSequenceHandler identityHandler = new SlowSequenceHandler();
+    private final IdentityPools underTest = new IdentityPools(new BusinessConfig.IdentityConfig.PoolConfig().setSize(8));
+
+    @After
+    public void tearDown() {
+        underTest.stop();
+    }
+
+    @Test
+    public void entity_classes_without_pool_size_are_not_pooled() {
+        IdentityPools noPools = new IdentityPools(new BusinessConfig.IdentityConfig.PoolConfig());
+
+        assertThat(noPools.poolOf(PooledEntity.class, identityHandler, ClassConfiguration.empty(PooledEntity.class))).isNull();
+        assertThat(underTest.poolOf(PooledEntity.class, identityHandler, ClassConfiguration.of(PooledEntity.class, "identityPoolSize", "0"))).isNull();
+    }
+
+    @Test
+    public void entity_dependent_handlers_are_not_pooled_by_default() {
+        assertThat(underTest.poolOf(PooledEntity.class, new EntityDependentHandler(), ClassConfiguration.empty(PooledEntity.class))).isNull();
+    }
+
+    @Test
+    public void entity_dependent_handlers_cannot_be_pooled_explicitly() {
+        try {
+            underTest.poolOf(PooledEntity.class, new EntityDependentHandler(), ClassConfiguration.of(PooledEntity.class, "identityPoolSize", "4"));
+            fail("should have failed");
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.IDENTITY_HANDLER_CANNOT_BE_POOLED);
+        }
+    }
+
+    @Test
+    public void identities_are_generated_synchronously_until_the_pool_is_filled() throws Exception {
+        IdentityPool pool = underTest.poolOf(PooledEntity.class, identityHandler, ClassConfiguration.empty(PooledEntity.class));
+        PoolMetrics metrics = underTest.getMetrics().getMetrics(PooledEntity.class);
+
+        assertThat(pool.take(new PooledEntity())).isNotNull();
+        awaitDepth(metrics, 8);
+
+        assertThat(pool.take(new PooledEntity())).isNotNull();
+        assertThat(metrics.getHitCount()).isEqualTo(1);
+        assertThat(metrics.getRefillCount()).isGreaterThanOrEqualTo(1);
+        assertThat(metrics.getRefillLatency().getCount()).isEqualTo(metrics.getRefillCount());
+    }
+
+    @Test
+    public void pool_is_refilled_at_low_water_mark() throws Exception {
+        IdentityPool pool = underTest.poolOf(PooledEntity.class, identityHandler, ClassConfiguration.of(PooledEntity.class, "identityPoolSize", "4", "identityPoolLowWaterMark", "2"));
+        PoolMetrics metrics = underTest.getMetrics().getMetrics(PooledEntity.class);
+        awaitDepth(metrics, 4);
+        long refills = metrics.getRefillCount();
+
+        pool.take(new PooledEntity());
+        assertThat(metrics.getRefillCount()).isEqualTo(refills);
+        pool.take(new PooledEntity());
+        awaitDepth(metrics, 4);
+
+        assertThat(metrics.getRefillCount()).isEqualTo(refills + 1);
+        assertThat(metrics.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void pooled_identities_are_unique() throws Exception {
+        IdentityPool pool = underTest.poolOf(PooledEntity.class, identityHandler, ClassConfiguration.empty(PooledEntity.class));
+        Set<Object> identities = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            identities.add(pool.take(new PooledEntity()));
+        }
+
+        assertThat(identities).hasSize(100);
+        PoolMetrics metrics = underTest.getMetrics().getMetrics(PooledEntity.class);
+        assertThat(metrics.getHitCount() + metrics.getMissCount()).isEqualTo(100);
+    }
+
+    private void awaitDepth(PoolMetrics metrics, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (metrics.getDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // the refill flag is cleared right after the last identity is added
+        Thread.sleep(20);
+        assertThat(metrics.getDepth()).isEqualTo(depth);
+    }
+
+    static class PooledEntity extends BaseEntity<Long> {
+        @Override
+        public Long getEntityId() {
+            return null;
+        }
+    }
+
+    static class EntityDependentHandler implements IdentityHandler<Entity<Long>, Long> {
+        @Override
+        public Long handle(Entity<Long> entity, ClassConfiguration<Entity<Long>> entityConfiguration) {
+            return (long) entity.hashCode();
+        }
+    }
+
+    @EntityIndependent
+    static class SlowSequenceHandler implements SequenceHandler<Entity<Long>, Long> {
+        private final AtomicLong sequence = new AtomicLong();
+
+        @Override
+        public Long handle(Entity<Long> entity, ClassConfiguration<Entity<Long>> entityConfiguration) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return sequence.incrementAndGet();
+        }
+    }
+}
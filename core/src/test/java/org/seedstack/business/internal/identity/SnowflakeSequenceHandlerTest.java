@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.identity;
+
+import org.junit.Test;
+import org.seedstack.business.BusinessConfig;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class SnowflakeSequenceHandlerTest {
+    private static final long EPOCH = 1483228800000L;
+    private final AtomicLong clock = new AtomicLong(EPOCH + 1000);
+
+    @Test
+    public void identities_pack_timestamp_node_and_sequence() {
+        SnowflakeSequenceHandler underTest = new SnowflakeSequenceHandler(config().setNodeId(5), clock::get);
+
+        long first = underTest.nextId();
+        long second = underTest.nextId();
+
+        assertThat(first >>> 22).isEqualTo(1000);
+        assertThat((first >>> 12) & 1023).isEqualTo(5);
+        assertThat(first & 4095).isEqualTo(0);
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    public void identities_are_sorted_by_time() {
+        SnowflakeSequenceHandler underTest = new SnowflakeSequenceHandler(config().setNodeId(1023), clock::get);
+        long first = underTest.nextId();
+        clock.incrementAndGet();
+        long second = underTest.nextId();
+
+        assertThat(second).isGreaterThan(first);
+        assertThat(second & 4095).isEqualTo(0);
+    }
+
+    @Test
+    public void exhausted_sequence_waits_for_next_millisecond() throws Exception {
+        SnowflakeSequenceHandler underTest = new SnowflakeSequenceHandler(config().setSequenceBits(1), clock::get);
+        underTest.nextId();
+        underTest.nextId();
+        Thread ticker = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            clock.incrementAndGet();
+        });
+        ticker.start();
+
+        long third = underTest.nextId();
+
+        assertThat(third >>> 11).isEqualTo(1001);
+        ticker.join();
+    }
+
+    @Test
+    public void tolerated_clock_regression_keeps_last_timestamp() {
+        SnowflakeSequenceHandler underTest = new SnowflakeSequenceHandler(config().setMaxClockRegression(10), clock::get);
+        long first = underTest.nextId();
+        clock.addAndGet(-5);
+
+        long second = underTest.nextId();
+
+        assertThat(second).isEqualTo(first + 1);
+    }
+
+    @Test
+    public void clock_regression_is_detected() {
+        SnowflakeSequenceHandler underTest = new SnowflakeSequenceHandler(config(), clock::get);
+        underTest.nextId();
+        clock.addAndGet(-5);
+        try {
+            underTest.nextId();
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.CLOCK_REGRESSION_DETECTED);
+        }
+    }
+
+    @Test
+    public void node_id_must_fit_its_bits() {
+        try {
+            new SnowflakeSequenceHandler(config().setNodeId(1024), clock::get);
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.ILLEGAL_SNOWFLAKE_CONFIGURATION);
+        }
+    }
+
+    @Test
+    public void concurrent_identities_are_unique() throws Exception {
+        SnowflakeSequenceHandler underTest = new SnowflakeSequenceHandler(config(), System::currentTimeMillis);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executorService.submit(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    ids.add(underTest.nextId());
+                }
+            });
+        }
+        executorService.shutdown();
+        assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(40000);
+    }
+
+    private BusinessConfig.IdentityConfig.SnowflakeConfig config() {
+        return new BusinessConfig.IdentityConfig.SnowflakeConfig();
+    }
+}
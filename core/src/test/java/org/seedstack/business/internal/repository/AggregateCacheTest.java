@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.business.metrics.AggregateCacheMetrics;
+import org.seedstack.business.metrics.RepositoryCacheMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AggregateCacheTest {
+    private RepositoryCacheMetrics repositoryCacheMetrics;
+    private AggregateCache cache;
+
+    @Before
+    public void setUp() {
+        repositoryCacheMetrics = new RepositoryCacheMetrics();
+        cache = new AggregateCache(String.class, 2, 0, repositoryCacheMetrics);
+    }
+
+    @Test
+    public void hits_and_misses_are_recorded() {
+        assertThat(cache.get("1")).isNull();
+        cache.put("1", "aggregate", cache.stamp());
+
+        assertThat(cache.get("1")).isEqualTo("aggregate");
+        assertThat(metrics().getHitCount()).isEqualTo(1);
+        assertThat(metrics().getMissCount()).isEqualTo(1);
+        assertThat(metrics().getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void each_hit_returns_a_copy_of_the_loaded_aggregate() {
+        List<String> aggregate = new ArrayList<>();
+        aggregate.add("loaded");
+        cache.put("1", aggregate, cache.stamp());
+        aggregate.add("unsaved");
+
+        Object first = cache.get("1");
+        assertThat(first).isEqualTo(Collections.singletonList("loaded"));
+        assertThat(cache.get("1")).isEqualTo(first).isNotSameAs(first);
+    }
+
+    @Test
+    public void aggregate_loaded_before_an_invalidation_is_not_cached() {
+        long stamp = cache.stamp();
+        cache.invalidate("1");
+        cache.put("1", "stale", stamp);
+
+        assertThat(cache.get("1")).isNull();
+        assertThat(metrics().getInvalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void evictions_are_recorded() {
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, "aggregate" + i, cache.stamp());
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(metrics().getEvictionCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void invalidate_all_empties_the_cache() {
+        cache.put("1", "aggregate", cache.stamp());
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(metrics().getEvictionCount()).isEqualTo(0);
+    }
+
+    private AggregateCacheMetrics metrics() {
+        return repositoryCacheMetrics.getMetrics(String.class);
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.Test;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.BaseEntity;
+import org.seedstack.business.internal.BusinessErrorCode;
+import org.seedstack.seed.SeedException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class AggregateSerializationTest {
+    @Test
+    public void aggregates_with_serializable_fields_are_accepted() {
+        AggregateSerialization.checkSerializable(Order.class, Long.class);
+    }
+
+    @Test
+    public void aggregates_which_are_not_serializable_are_rejected() {
+        try {
+            AggregateSerialization.checkSerializable(PlainAggregate.class, Long.class);
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.AGGREGATE_NOT_SERIALIZABLE);
+            assertThat((String) e.get("class")).isEqualTo(PlainAggregate.class.getName());
+        }
+    }
+
+    @Test
+    public void non_serializable_fields_of_nested_entities_are_rejected() {
+        try {
+            AggregateSerialization.checkSerializable(OrderWithHandle.class, Long.class);
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.AGGREGATE_NOT_SERIALIZABLE);
+            assertThat((String) e.get("class")).isEqualTo(Handle.class.getName());
+        }
+    }
+
+    @Test
+    public void non_serializable_keys_are_rejected() {
+        try {
+            AggregateSerialization.checkSerializable(Order.class, Handle.class);
+            fail();
+        } catch (SeedException e) {
+            assertThat(e.getErrorCode()).isEqualTo(BusinessErrorCode.AGGREGATE_NOT_SERIALIZABLE);
+            assertThat((String) e.get("class")).isEqualTo(Handle.class.getName());
+        }
+    }
+
+    @Test
+    public void aggregates_are_copied_by_serialization() {
+        Order order = new Order(1L);
+        order.lines.add(new OrderLine("line"));
+
+        Order copy = (Order) AggregateSerialization.deserialize(Order.class, AggregateSerialization.serialize(Order.class, order));
+
+        assertThat(copy).isNotSameAs(order).isEqualTo(order);
+        assertThat(copy.lines).isNotSameAs(order.lines).hasSize(1);
+        assertThat(copy.handle).isNull();
+    }
+
+    static class Order extends BaseAggregateRoot<Long> {
+        private final Long id;
+        private final List<OrderLine> lines = new ArrayList<>();
+        private transient Handle handle = new Handle();
+
+        Order(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+
+    static class OrderLine extends BaseEntity<String> {
+        private final String id;
+
+        OrderLine(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getEntityId() {
+            return id;
+        }
+    }
+
+    static class OrderWithHandle extends BaseAggregateRoot<Long> {
+        private final List<Part> parts = new ArrayList<>();
+
+        @Override
+        public Long getEntityId() {
+            return 1L;
+        }
+    }
+
+    static class Part extends BaseEntity<String> {
+        private Handle handle;
+
+        @Override
+        public String getEntityId() {
+            return "part";
+        }
+    }
+
+    static class PlainAggregate implements AggregateRoot<Long> {
+        @Override
+        public Long getEntityId() {
+            return 1L;
+        }
+    }
+
+    static class Handle {
+    }
+}
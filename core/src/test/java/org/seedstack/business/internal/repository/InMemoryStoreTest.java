@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.Indexed;
+import org.seedstack.business.domain.VersionConflictException;
+import org.seedstack.seed.SeedException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class InMemoryStoreTest {
+    private InMemoryStore<Long, Product> store;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryStore<>(Product.class);
+        store.put(1L, new Product(1L, "A-1", "books", 12), true);
+        store.put(2L, new Product(2L, "A-2", "books", 30), true);
+        store.put(3L, new Product(3L, "B-1", "games", 20), true);
+    }
+
+    @Test
+    public void equality_queries_use_indexes() {
+        assertThat(store.find("code", "A-2")).extracting("id").containsExactly(2L);
+        assertThat(store.find("category", "books")).extracting("id").containsOnly(1L, 2L);
+        assertThat(store.find("price", 20)).extracting("id").containsExactly(3L);
+    }
+
+    @Test
+    public void composite_queries_match_all_criteria() {
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put("category", "books");
+        criteria.put("price", 30);
+
+        assertThat(store.find(criteria)).extracting("id").containsExactly(2L);
+        criteria.put("code", "A-1");
+        assertThat(store.find(criteria)).isEmpty();
+        criteria.clear();
+        criteria.put("label", "Product B-1");
+        criteria.put("category", "games");
+        assertThat(store.find(criteria)).extracting("id").containsExactly(3L);
+    }
+
+    @Test
+    public void composite_queries_filter_the_candidates_of_the_most_selective_index() {
+        for (long i = 4; i < 100; i++) {
+            store.put(i, new Product(i, "C-" + i, "books", 50), true);
+        }
+        Map<String, Object> criteria = new HashMap<>();
+        criteria.put("category", "books");
+        criteria.put("price", 12);
+
+        assertThat(store.find(criteria)).extracting("id").containsExactly(1L);
+        criteria.put("price", 50);
+        assertThat(store.find(criteria)).hasSize(96);
+    }
+
+    @Test
+    public void queries_on_fields_without_index_scan_aggregates() {
+        assertThat(store.find("label", "Product A-1")).extracting("id").containsExactly(1L);
+        assertThat(store.findRange("label", "Product A", "Product B")).extracting("id").containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void range_queries_use_sorted_indexes_in_order() {
+        assertThat(store.findRange("price", 15, null)).extracting("id").containsExactly(3L, 2L);
+        assertThat(store.findRange("price", null, 20)).extracting("id").containsExactly(1L);
+        assertThat(store.findRange("price", 12, 31)).extracting("id").containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    public void indexes_follow_saves_and_deletions() {
+        Product product = store.get(1L);
+        product.category = "games";
+        store.put(1L, product, false);
+        store.remove(3L, 0);
+
+        assertThat(store.find("category", "books")).extracting("id").containsExactly(2L);
+        assertThat(store.find("category", "games")).extracting("id").containsExactly(1L);
+        assertThat(store.find("code", "B-1")).isEmpty();
+    }
+
+    @Test
+    public void unique_values_cannot_be_shared() {
+        try {
+            store.put(4L, new Product(4L, "A-1", "books", 5), true);
+            fail("should have failed");
+        } catch (SeedException e) {
+            assertThat(store.contains(4L)).isFalse();
+            assertThat(store.find("code", "A-1")).extracting("id").containsExactly(1L);
+        }
+    }
+
+    @Test
+    public void unique_value_can_be_reused_once_released() {
+        store.put(1L, new Product(1L, "A-9", "books", 12), false);
+        store.put(4L, new Product(4L, "A-1", "books", 5), true);
+
+        assertThat(store.find("code", "A-1")).extracting("id").containsExactly(4L);
+        assertThat(store.find("code", "A-9")).extracting("id").containsExactly(1L);
+    }
+
+    @Test
+    public void indexes_are_built_from_the_stored_snapshot() {
+        Product product = new Product(4L, "D-1", "toys", 8);
+        store.put(4L, product, true);
+        product.category = "books";
+
+        assertThat(store.find("category", "toys")).extracting("id").containsExactly(4L);
+        assertThat(store.find("category", "books")).extracting("id").containsOnly(1L, 2L);
+    }
+
+    @Test
+    public void clear_empties_indexes() {
+        store.clear();
+
+        assertThat(store.size()).isEqualTo(0);
+        assertThat(store.find("category", "books")).isEmpty();
+        assertThat(store.findRange("price", null, null)).isEmpty();
+    }
+
+    @Test
+    public void stored_aggregates_are_versioned() {
+        Product product = store.get(1L);
+        assertThat(product.getAggregateVersion()).isEqualTo(1);
+
+        store.put(1L, product, false);
+
+        assertThat(product.getAggregateVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void outdated_aggregates_cannot_be_saved() {
+        Product first = new Product(1L, "A-1", "books", 15);
+        AggregateVersions.setVersion(first, 1);
+        Product second = new Product(1L, "A-1", "books", 18);
+        AggregateVersions.setVersion(second, 1);
+        store.put(1L, first, false);
+
+        try {
+            store.put(1L, second, false);
+            fail("should have failed");
+        } catch (VersionConflictException e) {
+            assertThat(store.get(1L).price).isEqualTo(15);
+            assertThat(first.getAggregateVersion()).isEqualTo(2);
+            assertThat(second.getAggregateVersion()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void unversioned_aggregates_overwrite_stored_ones() {
+        Product product = new Product(1L, "A-1", "books", 15);
+
+        store.put(1L, product, false);
+
+        assertThat(store.get(1L).price).isEqualTo(15);
+        assertThat(product.getAggregateVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void concurrently_loaded_aggregates_conflict_when_saved() {
+        Product first = store.get(1L);
+        Product second = store.get(1L);
+        assertThat(first).isNotSameAs(second);
+        first.price = 15;
+        second.price = 18;
+        store.put(1L, first, false);
+
+        try {
+            store.put(1L, second, false);
+            fail("should have failed");
+        } catch (VersionConflictException e) {
+            assertThat(store.get(1L).price).isEqualTo(15);
+            assertThat(store.get(1L).getAggregateVersion()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void unsaved_changes_are_not_visible() {
+        Product product = store.get(1L);
+        product.category = "games";
+
+        assertThat(store.get(1L).category).isEqualTo("books");
+        assertThat(store.find("category", "games")).extracting("id").containsExactly(3L);
+    }
+
+    @Test
+    public void loaded_aggregates_are_deep_copies() {
+        Product product = store.get(1L);
+        product.tags.add("sale");
+
+        assertThat(store.get(1L).tags).isEmpty();
+        store.put(1L, product, false);
+        assertThat(store.get(1L).tags).containsExactly("sale");
+    }
+
+    @Test
+    public void outdated_aggregates_cannot_be_deleted() {
+        Product first = store.get(1L);
+        Product second = store.get(1L);
+        store.put(1L, first, false);
+
+        try {
+            store.remove(1L, second.getAggregateVersion());
+            fail("should have failed");
+        } catch (VersionConflictException e) {
+            assertThat(store.contains(1L)).isTrue();
+            assertThat(store.find("code", "A-1")).extracting("id").containsExactly(1L);
+        }
+        store.remove(1L, first.getAggregateVersion());
+        assertThat(store.contains(1L)).isFalse();
+    }
+
+    @Test
+    public void aggregates_without_no_arg_constructor_can_be_stored() {
+        InMemoryStore<Long, ImmutableProduct> immutableStore = new InMemoryStore<>(ImmutableProduct.class);
+
+        immutableStore.put(1L, new ImmutableProduct(1L), true);
+
+        assertThat(immutableStore.get(1L).getEntityId()).isEqualTo(1L);
+    }
+
+    @Test(expected = SeedException.class)
+    public void non_serializable_aggregates_cannot_be_stored() {
+        new InMemoryStore<>(UnserializableProduct.class).put(1L, new UnserializableProduct(1L), true);
+    }
+
+    @Test(expected = SeedException.class)
+    public void unknown_fields_cannot_be_queried() {
+        store.find("unknown", "value");
+    }
+
+    @Test(expected = SeedException.class)
+    public void sorted_indexes_require_comparable_fields() {
+        new InMemoryStore<>(IllegalProduct.class);
+    }
+
+    static class Product extends BaseAggregateRoot<Long> {
+        private Long id;
+        @Indexed(unique = true)
+        private String code;
+        @Indexed
+        private String category;
+        @Indexed(sorted = true)
+        private int price;
+        private String label;
+        private final List<String> tags = new ArrayList<>();
+
+        Product(Long id, String code, String category, int price) {
+            this.id = id;
+            this.code = code;
+            this.category = category;
+            this.price = price;
+            this.label = "Product " + code;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+
+    static class ImmutableProduct extends BaseAggregateRoot<Long> {
+        private final Long id;
+
+        ImmutableProduct(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+
+    static class UnserializableProduct extends BaseAggregateRoot<Long> {
+        private final Long id;
+        private final Object lock = new Object();
+
+        UnserializableProduct(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+
+    static class IllegalProduct extends BaseAggregateRoot<Long> {
+        private Long id;
+        @Indexed(sorted = true)
+        private Object value;
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.seedstack.business.domain.BaseAggregateRoot;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a data set of half a million aggregates kept on-heap in a concurrent map with the same data set kept in the
+ * off-heap store: the duration of a full garbage collection with the data set loaded, and the duration and allocations
+ * of random loads. Run it with the {@link #main(String[])} method, which enables the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class OffHeapStoreBenchmark {
+    private static final int AGGREGATES = 500_000;
+    @Param({"onHeap", "offHeap"})
+    private String storage;
+    private ConcurrentHashMap<Long, Product> onHeapStore;
+    private OffHeapStore<Long, Product> offHeapStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("onHeap".equals(storage)) {
+            onHeapStore = new ConcurrentHashMap<>();
+            for (long i = 0; i < AGGREGATES; i++) {
+                onHeapStore.put(i, new Product(i));
+            }
+        } else {
+            offHeapStore = new OffHeapStore<>(Product.class, Files.createTempDirectory("offheap-benchmark"), 64 * 1024 * 1024, 0.5);
+            for (long i = 0; i < AGGREGATES; i++) {
+                offHeapStore.put(i, new Product(i), true);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (offHeapStore != null) {
+            offHeapStore.close();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 20)
+    public void fullGc() {
+        System.gc();
+    }
+
+    @Benchmark
+    public Product randomLoad() {
+        long id = ThreadLocalRandom.current().nextLong(AGGREGATES);
+        return onHeapStore != null ? onHeapStore.get(id) : offHeapStore.get(id);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OffHeapStoreBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    static class Product extends BaseAggregateRoot<Long> implements Serializable {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final double price;
+
+        Product(long id) {
+            this.id = id;
+            this.name = "product" + id;
+            this.description = "Description of the product " + id + " with enough text to make it realistic";
+            this.price = id * 0.01d;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+}
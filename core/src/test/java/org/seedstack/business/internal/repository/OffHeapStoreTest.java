@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.VersionConflictException;
+import org.seedstack.seed.SeedException;
+
+import java.io.File;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class OffHeapStoreTest {
+    private static final int SEGMENT_SIZE = 4096;
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private Path directory;
+    private OffHeapStore<Long, Item> underTest;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = temporaryFolder.getRoot().toPath().resolve("items");
+        underTest = new OffHeapStore<>(Item.class, directory, SEGMENT_SIZE, 0.5);
+    }
+
+    @After
+    public void tearDown() {
+        underTest.close();
+    }
+
+    @Test
+    public void aggregates_are_deserialized_on_each_load() {
+        Item item = new Item(1L, "first");
+        assertThat(underTest.put(1L, item, true)).isTrue();
+
+        Item loaded = underTest.get(1L);
+        assertThat(loaded).isNotSameAs(item);
+        assertThat(loaded.name).isEqualTo("first");
+        assertThat(underTest.get(2L)).isNull();
+        assertThat(underTest.contains(1L)).isTrue();
+        assertThat(underTest.contains(2L)).isFalse();
+    }
+
+    @Test
+    public void existing_aggregates_are_only_replaced_on_demand() {
+        underTest.put(1L, new Item(1L, "first"), true);
+
+        assertThat(underTest.put(1L, new Item(1L, "second"), true)).isFalse();
+        assertThat(underTest.get(1L).name).isEqualTo("first");
+        assertThat(underTest.put(1L, new Item(1L, "second"), false)).isTrue();
+        assertThat(underTest.get(1L).name).isEqualTo("second");
+        assertThat(underTest.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void loaded_aggregates_carry_the_stored_version() {
+        Item item = new Item(1L, "first");
+        underTest.put(1L, item, true);
+        assertThat(item.getAggregateVersion()).isEqualTo(1);
+
+        Item loaded = underTest.get(1L);
+        assertThat(loaded.getAggregateVersion()).isEqualTo(1);
+        underTest.put(1L, loaded, false);
+        assertThat(loaded.getAggregateVersion()).isEqualTo(2);
+        assertThat(underTest.get(1L).getAggregateVersion()).isEqualTo(2);
+    }
+
+    @Test
+    public void outdated_aggregates_cannot_be_saved() {
+        underTest.put(1L, new Item(1L, "first"), true);
+        Item first = underTest.get(1L);
+        Item second = underTest.get(1L);
+        underTest.put(1L, first, false);
+
+        try {
+            underTest.put(1L, second, false);
+            fail("should have failed");
+        } catch (VersionConflictException e) {
+            assertThat(e.<Long>get("storedVersion")).isEqualTo(2L);
+            assertThat(underTest.get(1L).getAggregateVersion()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void versions_survive_compaction() {
+        for (int round = 0; round < 50; round++) {
+            for (long i = 0; i < 10; i++) {
+                underTest.put(i, new Item(i, "item" + i + "-" + round), false);
+            }
+        }
+
+        underTest.compact();
+
+        assertThat(underTest.get(3L).getAggregateVersion()).isEqualTo(50);
+    }
+
+    @Test
+    public void removed_aggregates_are_no_longer_found() {
+        underTest.put(1L, new Item(1L, "first"), true);
+        underTest.put(2L, new Item(2L, "second"), true);
+
+        assertThat(underTest.remove(1L, 0)).isTrue();
+        assertThat(underTest.remove(1L, 0)).isFalse();
+        assertThat(underTest.get(1L)).isNull();
+        assertThat(underTest.get(2L).name).isEqualTo("second");
+        assertThat(underTest.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void outdated_aggregates_cannot_be_removed() {
+        underTest.put(1L, new Item(1L, "first"), true);
+        Item first = underTest.get(1L);
+        Item second = underTest.get(1L);
+        underTest.put(1L, first, false);
+
+        try {
+            underTest.remove(1L, second.getAggregateVersion());
+            fail();
+        } catch (VersionConflictException e) {
+            assertThat(underTest.contains(1L)).isTrue();
+        }
+        assertThat(underTest.remove(1L, first.getAggregateVersion())).isTrue();
+    }
+
+    @Test
+    public void index_grows_with_the_number_of_aggregates() {
+        for (long i = 0; i < 10000; i++) {
+            underTest.put(i, new Item(i, "item" + i), true);
+        }
+
+        assertThat(underTest.size()).isEqualTo(10000);
+        for (long i = 0; i < 10000; i++) {
+            assertThat(underTest.get(i).name).isEqualTo("item" + i);
+        }
+        assertThat(underTest.segmentCount()).isGreaterThan(1);
+    }
+
+    @Test
+    public void segments_full_of_replaced_aggregates_are_compacted() {
+        for (int round = 0; round < 100; round++) {
+            for (long i = 0; i < 10; i++) {
+                underTest.put(i, new Item(i, "item" + i + "-" + round), false);
+            }
+        }
+
+        assertThat(underTest.segmentCount()).isLessThanOrEqualTo(3);
+        assertThat(segmentFiles()).hasSize(underTest.segmentCount());
+        for (long i = 0; i < 10; i++) {
+            assertThat(underTest.get(i).name).isEqualTo("item" + i + "-99");
+        }
+    }
+
+    @Test
+    public void compaction_keeps_live_aggregates() {
+        for (long i = 0; i < 200; i++) {
+            underTest.put(i, new Item(i, "item" + i), true);
+        }
+        for (long i = 0; i < 200; i += 3) {
+            underTest.remove(i, 0);
+        }
+        int segmentCount = underTest.segmentCount();
+
+        underTest.compact();
+
+        assertThat(underTest.segmentCount()).isLessThan(segmentCount);
+        assertThat(underTest.size()).isEqualTo(133);
+        for (long i = 0; i < 200; i++) {
+            if (i % 3 == 0) {
+                assertThat(underTest.get(i)).isNull();
+            } else {
+                assertThat(underTest.get(i).name).isEqualTo("item" + i);
+            }
+        }
+    }
+
+    @Test
+    public void aggregates_larger_than_a_segment_are_stored() {
+        char[] chars = new char[SEGMENT_SIZE * 2];
+        Arrays.fill(chars, 'x');
+        underTest.put(1L, new Item(1L, new String(chars)), true);
+        underTest.put(2L, new Item(2L, "second"), true);
+
+        assertThat(underTest.get(1L).name).hasSize(SEGMENT_SIZE * 2);
+        assertThat(underTest.get(2L).name).isEqualTo("second");
+    }
+
+    @Test
+    public void clear_deletes_all_segments() {
+        for (long i = 0; i < 500; i++) {
+            underTest.put(i, new Item(i, "item" + i), true);
+        }
+
+        underTest.clear();
+
+        assertThat(underTest.size()).isEqualTo(0);
+        assertThat(underTest.get(1L)).isNull();
+        assertThat(segmentFiles()).isEmpty();
+        underTest.put(1L, new Item(1L, "first"), true);
+        assertThat(underTest.get(1L).name).isEqualTo("first");
+    }
+
+    @Test
+    public void close_deletes_the_store_directory() {
+        underTest.put(1L, new Item(1L, "first"), true);
+
+        underTest.close();
+
+        assertThat(directory.toFile()).doesNotExist();
+    }
+
+    @Test
+    public void segments_left_by_a_previous_run_are_deleted() throws Exception {
+        underTest.put(1L, new Item(1L, "first"), true);
+        assertThat(segmentFiles()).hasSize(1);
+
+        // the store of a crashed run is never closed
+        OffHeapStore<Long, Item> restarted = new OffHeapStore<>(Item.class, directory, SEGMENT_SIZE, 0.5);
+        try {
+            assertThat(segmentFiles()).isEmpty();
+            assertThat(restarted.put(1L, new Item(1L, "second"), true)).isTrue();
+            assertThat(restarted.get(1L).name).isEqualTo("second");
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test(expected = SeedException.class)
+    public void non_serializable_aggregates_are_rejected() {
+        OffHeapStore<Long, Object> store = new OffHeapStore<>(Object.class, directory, SEGMENT_SIZE, 0.5);
+        try {
+            store.put(1L, new Object(), true);
+        } finally {
+            store.close();
+        }
+    }
+
+    private File[] segmentFiles() {
+        File[] files = directory.toFile().listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    static class Item extends BaseAggregateRoot<Long> implements Serializable {
+        private final Long id;
+        private final String name;
+
+        Item(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public Long getEntityId() {
+            return id;
+        }
+    }
+}
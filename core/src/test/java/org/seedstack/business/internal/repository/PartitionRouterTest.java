@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.Test;
+import org.seedstack.business.fixtures.domain.customer.CustomerId;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PartitionRouterTest {
+    @Test
+    public void hash_router_spreads_keys_over_all_partitions() {
+        PartitionRouter router = PartitionRouter.byHash(4);
+        int[] counts = new int[4];
+        for (long i = 0; i < 4000; i++) {
+            counts[router.partitionOf(i)]++;
+        }
+
+        assertThat(router.getPartitionCount()).isEqualTo(4);
+        assertThat(counts).doesNotContain(0);
+        assertThat(router.partitionOf("key")).isEqualTo(router.partitionOf("key"));
+        assertThat(router.partitionOf(-42L)).isBetween(0, 3);
+    }
+
+    @Test
+    public void stable_hash_only_depends_on_the_key_value() {
+        UUID uuid = UUID.fromString("0b6e3c2a-3d4e-4c8f-9a1b-2c3d4e5f6a7b");
+
+        assertThat(PartitionRouter.stableHash("key")).isEqualTo("key".hashCode());
+        assertThat(PartitionRouter.stableHash(42L)).isEqualTo(42);
+        assertThat(PartitionRouter.stableHash(Color.RED)).isEqualTo("RED".hashCode());
+        assertThat(PartitionRouter.stableHash(uuid)).isEqualTo(uuid.toString().hashCode());
+        assertThat(PartitionRouter.stableHash(new BigDecimal("1.50"))).isEqualTo("1.50".hashCode());
+        assertThat(PartitionRouter.stableHash(new CustomerId("c1")))
+                .isEqualTo(PartitionRouter.stableHash(new CustomerId("c1")))
+                .isNotEqualTo(PartitionRouter.stableHash(new CustomerId("c2")));
+    }
+
+    @Test
+    public void only_keys_with_a_stable_hash_are_accepted() {
+        assertThat(PartitionRouter.hasStableHash(String.class)).isTrue();
+        assertThat(PartitionRouter.hasStableHash(Color.class)).isTrue();
+        assertThat(PartitionRouter.hasStableHash(CustomerId.class)).isTrue();
+        assertThat(PartitionRouter.hasStableHash(Date.class)).isFalse();
+        assertThat(PartitionRouter.hasStableHash(Object.class)).isFalse();
+    }
+
+    @Test
+    public void range_router_uses_exclusive_upper_bounds() {
+        PartitionRouter router = PartitionRouter.byRange(new Comparable<?>[]{100L, 200L});
+
+        assertThat(router.getPartitionCount()).isEqualTo(3);
+        assertThat(router.partitionOf(Long.MIN_VALUE)).isEqualTo(0);
+        assertThat(router.partitionOf(99L)).isEqualTo(0);
+        assertThat(router.partitionOf(100L)).isEqualTo(1);
+        assertThat(router.partitionOf(199L)).isEqualTo(1);
+        assertThat(router.partitionOf(200L)).isEqualTo(2);
+        assertThat(router.partitionOf(Long.MAX_VALUE)).isEqualTo(2);
+    }
+
+    @Test
+    public void range_router_works_with_strings() {
+        PartitionRouter router = PartitionRouter.byRange(new Comparable<?>[]{"M"});
+
+        assertThat(router.partitionOf("Albert")).isEqualTo(0);
+        assertThat(router.partitionOf("M")).isEqualTo(1);
+        assertThat(router.partitionOf("Zoe")).isEqualTo(1);
+    }
+
+    enum Color {
+        RED, GREEN
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.Test;
+import org.seedstack.business.domain.AggregateRoot;
+import org.seedstack.business.domain.Repository;
+import org.seedstack.business.metrics.RepositoryOperation;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryOperationsTest {
+    @Test
+    public void repository_methods_are_classified() throws Exception {
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("load", Object.class))).isEqualTo(RepositoryOperation.READ);
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("persist", AggregateRoot.class))).isEqualTo(RepositoryOperation.PERSIST);
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("delete", Object.class))).isEqualTo(RepositoryOperation.DELETE);
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("getAggregateRootClass"))).isNull();
+    }
+
+    @Test
+    public void bulk_methods_are_not_operations_by_themselves() throws Exception {
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("loadAll", Collection.class))).isNull();
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("persistAll", Collection.class))).isNull();
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("deleteAll", Collection.class))).isNull();
+    }
+
+    @Test
+    public void concretely_typed_overrides_are_classified() throws Exception {
+        assertThat(RepositoryOperations.of(TypedRepository.class.getMethod("load", String.class))).isEqualTo(RepositoryOperation.READ);
+        assertThat(RepositoryOperations.of(TypedRepository.class.getMethod("delete", String.class))).isEqualTo(RepositoryOperation.DELETE);
+        assertThat(RepositoryOperations.of(TypedRepository.class.getMethod("load", Integer.class))).isNull();
+    }
+
+    @Test
+    public void classification_is_cached() throws Exception {
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("exists", Object.class))).isEqualTo(RepositoryOperation.READ);
+        assertThat(RepositoryOperations.of(Repository.class.getMethod("exists", Object.class))).isEqualTo(RepositoryOperation.READ);
+    }
+
+    static abstract class TypedRepository implements Repository<TypedAggregate, String> {
+        @Override
+        public TypedAggregate load(String id) {
+            return null;
+        }
+
+        public TypedAggregate load(Integer index) {
+            return null;
+        }
+
+        @Override
+        public void delete(String id) {
+        }
+    }
+
+    static abstract class TypedAggregate implements AggregateRoot<String> {
+    }
+}
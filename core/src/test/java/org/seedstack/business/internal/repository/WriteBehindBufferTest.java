@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.seedstack.business.domain.BaseAggregateRoot;
+import org.seedstack.business.domain.BaseRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteBehindBufferTest {
+    private RecordingRepository repository;
+    private WriteBehindBuffer buffer;
+
+    @Before
+    public void setUp() {
+        repository = new RecordingRepository();
+        buffer = new WriteBehindBuffer(3);
+    }
+
+    @Test
+    public void writes_are_executed_on_flush_in_order() {
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.PERSIST, new Order("1"));
+        buffer.add(repository, "2", WriteBehindBuffer.WriteKind.SAVE, new Order("2"));
+        assertThat(repository.operations).isEmpty();
+
+        buffer.flush();
+        assertThat(repository.operations).containsExactly("persist:1", "save:2");
+    }
+
+    @Test
+    public void successive_writes_of_an_aggregate_are_collapsed() {
+        Order updated = new Order("1");
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.PERSIST, new Order("1"));
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.SAVE, updated);
+        buffer.add(repository, "2", WriteBehindBuffer.WriteKind.SAVE, new Order("2"));
+        buffer.add(repository, "2", WriteBehindBuffer.WriteKind.DELETE, "2");
+
+        assertThat(buffer.get(repository, "1").getAggregate()).isSameAs(updated);
+        buffer.flush();
+        assertThat(repository.operations).containsExactly("persist:1", "delete:2");
+    }
+
+    @Test
+    public void writes_depending_on_the_previous_write_are_not_accepted() {
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.PERSIST, new Order("1"));
+        buffer.add(repository, "2", WriteBehindBuffer.WriteKind.SAVE, new Order("2"));
+        buffer.add(repository, "3", WriteBehindBuffer.WriteKind.DELETE, "3");
+
+        assertThat(buffer.accepts(repository, "1", WriteBehindBuffer.WriteKind.PERSIST)).isFalse();
+        assertThat(buffer.accepts(repository, "1", WriteBehindBuffer.WriteKind.SAVE)).isTrue();
+        assertThat(buffer.accepts(repository, "2", WriteBehindBuffer.WriteKind.PERSIST)).isFalse();
+        assertThat(buffer.accepts(repository, "2", WriteBehindBuffer.WriteKind.DELETE)).isTrue();
+        assertThat(buffer.accepts(repository, "3", WriteBehindBuffer.WriteKind.PERSIST)).isFalse();
+        assertThat(buffer.accepts(repository, "3", WriteBehindBuffer.WriteKind.SAVE)).isFalse();
+        assertThat(buffer.accepts(repository, "4", WriteBehindBuffer.WriteKind.PERSIST)).isTrue();
+    }
+
+    @Test
+    public void deletion_of_a_buffered_creation_cancels_both() {
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.PERSIST, new Order("1"));
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.DELETE, "1");
+
+        assertThat(buffer.get(repository, "1")).isNull();
+        buffer.flush();
+        assertThat(repository.operations).isEmpty();
+    }
+
+    @Test
+    public void batch_size_is_reported_when_reached() {
+        assertThat(buffer.add(repository, "1", WriteBehindBuffer.WriteKind.PERSIST, new Order("1"))).isFalse();
+        assertThat(buffer.add(repository, "1", WriteBehindBuffer.WriteKind.SAVE, new Order("1"))).isFalse();
+        assertThat(buffer.add(repository, "2", WriteBehindBuffer.WriteKind.PERSIST, new Order("2"))).isFalse();
+        assertThat(buffer.add(repository, "3", WriteBehindBuffer.WriteKind.DELETE, "3")).isTrue();
+    }
+
+    @Test
+    public void writes_of_an_aborted_unit_of_work_are_discarded() {
+        buffer.add(repository, "1", WriteBehindBuffer.WriteKind.PERSIST, new Order("1"));
+        buffer.completed(false);
+
+        buffer.flush();
+        assertThat(repository.operations).isEmpty();
+    }
+
+    static class Order extends BaseAggregateRoot<String> {
+        private final String id;
+
+        Order(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getEntityId() {
+            return id;
+        }
+    }
+
+    static class RecordingRepository extends BaseRepository<Order, String> {
+        private final List<String> operations = new ArrayList<>();
+
+        RecordingRepository() {
+            super(Order.class, String.class);
+        }
+
+        @Override
+        public Order load(String id) {
+            return null;
+        }
+
+        @Override
+        public boolean exists(String id) {
+            return false;
+        }
+
+        @Override
+        public long count() {
+            return 0;
+        }
+
+        @Override
+        public void clear() {
+            operations.add("clear");
+        }
+
+        @Override
+        public void delete(String id) {
+            operations.add("delete:" + id);
+        }
+
+        @Override
+        public void delete(Order aggregate) {
+            operations.add("delete:" + aggregate.getEntityId());
+        }
+
+        @Override
+        public void persist(Order aggregate) {
+            operations.add("persist:" + aggregate.getEntityId());
+        }
+
+        @Override
+        public Order save(Order aggregate) {
+            operations.add("save:" + aggregate.getEntityId());
+            return aggregate;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.internal.unitofwork;
+
+import org.junit.Test;
+import org.seedstack.business.context.BusinessContext;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class UnitOfWorkContextTest {
+    @Test
+    public void unit_of_work_is_current_for_the_duration_of_the_task() throws Exception {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.call(UnitOfWorkContext::current);
+
+        assertThat(unitOfWorkContext).isNotNull();
+        assertThat(UnitOfWorkContext.current()).isNull();
+    }
+
+    @Test
+    public void unit_of_work_is_not_propagated_to_wrapped_tasks() throws Exception {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<UnitOfWorkContext> future = UnitOfWorkContext.call(() -> executorService.submit(BusinessContext.wrap(UnitOfWorkContext::current)));
+
+            assertThat(future.get(5, TimeUnit.SECONDS)).isNull();
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void ended_unit_of_work_rejects_resources() throws Exception {
+        UnitOfWorkContext unitOfWorkContext = UnitOfWorkContext.call(UnitOfWorkContext::current);
+        try {
+            unitOfWorkContext.getResource("key", Object::new);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("The unit of work has already ended");
+        }
+    }
+}
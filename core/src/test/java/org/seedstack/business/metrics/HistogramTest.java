@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HistogramTest {
+    @Test
+    public void empty_histogram() {
+        Histogram histogram = new Histogram();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMean()).isEqualTo(0);
+        assertThat(histogram.getPercentile(99)).isEqualTo(0);
+    }
+
+    @Test
+    public void values_are_recorded() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getSum()).isEqualTo(5050);
+        assertThat(histogram.getMax()).isEqualTo(100);
+        assertThat(histogram.getMean()).isEqualTo(50.5);
+    }
+
+    @Test
+    public void percentiles_are_upper_bounds() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getPercentile(50)).isEqualTo(63);
+        assertThat(histogram.getPercentile(10)).isEqualTo(15);
+        assertThat(histogram.getPercentile(100)).isEqualTo(100);
+        assertThat(histogram.getPercentile(0)).isEqualTo(1);
+    }
+
+    @Test
+    public void negative_values_are_recorded_as_zero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertThat(histogram.getMax()).isEqualTo(0);
+        assertThat(histogram.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void reset_clears_values() {
+        Histogram histogram = new Histogram();
+        histogram.record(10);
+        histogram.reset();
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMax()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Interface for event handlers receiving events in batches. Events are grouped by event class and delivered in slices
+ * bounded by a maximum size and a maximum linger time, either synchronously at the end of the unit of work or
+ * asynchronously, depending on the configuration.
+ *
+ * @param <E> the type of event to handle
+ * @see UnitOfWork
+ */
+public interface BatchEventHandler<E extends Event> extends EventHandler<E> {
+    /**
+     * Handles a batch of events of the same class, in the order they were fired.
+     *
+     * @param events the handled events
+     */
+    void handle(List<E> events);
+
+    /**
+     * Handles a single event as a batch of one event.
+     *
+     * @param event the handled event
+     */
+    @Override
+    default void handle(E event) {
+        handle(Collections.singletonList(event));
+    }
+}
@@ -7,15 +7,26 @@
  */
 package org.seedstack.business;
 
+import org.seedstack.business.spi.EventCodec;
+import org.seedstack.business.spi.EventMetricsSink;
 import org.seedstack.coffig.Config;
 
 @Config("business")
 public class BusinessConfig {
     private EventConfig events = new EventConfig();
+    private RepositoryConfig repositories = new RepositoryConfig();
+    private IdentityConfig identities = new IdentityConfig();
 
     @Config("events")
     public static class EventConfig {
         private boolean publishRepositoryEvents = false;
+        private Class<? extends EventMetricsSink> metricsSink;
+        private long slowHandlerThreshold = 0;
+        private int maxNestingDepth = 32;
+        private CycleDetection cycleDetection = CycleDetection.EQUALITY;
+        private BatchConfig batch = new BatchConfig();
+        private LaneConfig lanes = new LaneConfig();
+        private JournalConfig journal = new JournalConfig();
 
         public boolean isPublishRepositoryEvents() {
             return publishRepositoryEvents;
@@ -25,5 +36,434 @@ public class BusinessConfig {
             this.publishRepositoryEvents = publishRepositoryEvents;
             return this;
         }
+
+        public Class<? extends EventMetricsSink> getMetricsSink() {
+            return metricsSink;
+        }
+
+        public EventConfig setMetricsSink(Class<? extends EventMetricsSink> metricsSink) {
+            this.metricsSink = metricsSink;
+            return this;
+        }
+
+        public long getSlowHandlerThreshold() {
+            return slowHandlerThreshold;
+        }
+
+        public EventConfig setSlowHandlerThreshold(long slowHandlerThreshold) {
+            this.slowHandlerThreshold = slowHandlerThreshold;
+            return this;
+        }
+
+        public int getMaxNestingDepth() {
+            return maxNestingDepth;
+        }
+
+        public EventConfig setMaxNestingDepth(int maxNestingDepth) {
+            this.maxNestingDepth = maxNestingDepth;
+            return this;
+        }
+
+        public CycleDetection getCycleDetection() {
+            return cycleDetection;
+        }
+
+        public EventConfig setCycleDetection(CycleDetection cycleDetection) {
+            this.cycleDetection = cycleDetection;
+            return this;
+        }
+
+        public BatchConfig batch() {
+            return batch;
+        }
+
+        public LaneConfig lanes() {
+            return lanes;
+        }
+
+        public JournalConfig journal() {
+            return journal;
+        }
+
+        public enum CycleDetection {
+            /**
+             * An event is considered to be part of a cycle if the same instance was already fired during the current
+             * top-level dispatch.
+             */
+            IDENTITY,
+            /**
+             * An event is considered to be part of a cycle if an equal event was already fired during the current
+             * top-level dispatch. This is the default.
+             */
+            EQUALITY
+        }
+
+        @Config("batch")
+        public static class BatchConfig {
+            private BatchMode mode = BatchMode.SYNC;
+            private int maxSize = 100;
+            private long maxLinger = 100;
+
+            public BatchMode getMode() {
+                return mode;
+            }
+
+            public BatchConfig setMode(BatchMode mode) {
+                this.mode = mode;
+                return this;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public BatchConfig setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+                return this;
+            }
+
+            public long getMaxLinger() {
+                return maxLinger;
+            }
+
+            public BatchConfig setMaxLinger(long maxLinger) {
+                this.maxLinger = maxLinger;
+                return this;
+            }
+
+            public enum BatchMode {
+                /**
+                 * Events are buffered in the current unit of work and delivered on the firing thread when the batch is
+                 * full or when the unit of work is flushed. Without unit of work, events are delivered immediately.
+                 */
+                SYNC,
+                /**
+                 * Events are buffered globally and delivered on a background thread when the batch is full or when
+                 * the maximum linger time of its first event is elapsed.
+                 */
+                ASYNC
+            }
+        }
+
+        @Config("lanes")
+        public static class LaneConfig {
+            private int count = 0;
+            private int queueCapacity = 10000;
+
+            public int getCount() {
+                return count;
+            }
+
+            public LaneConfig setCount(int count) {
+                this.count = count;
+                return this;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public LaneConfig setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+                return this;
+            }
+        }
+
+        @Config("journal")
+        public static class JournalConfig {
+            private boolean enabled = false;
+            private String directory;
+            private int segmentSize = 64 * 1024 * 1024;
+            private Class<? extends EventCodec> codec;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public JournalConfig setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                return this;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public JournalConfig setDirectory(String directory) {
+                this.directory = directory;
+                return this;
+            }
+
+            public int getSegmentSize() {
+                return segmentSize;
+            }
+
+            public JournalConfig setSegmentSize(int segmentSize) {
+                this.segmentSize = segmentSize;
+                return this;
+            }
+
+            public Class<? extends EventCodec> getCodec() {
+                return codec;
+            }
+
+            public JournalConfig setCodec(Class<? extends EventCodec> codec) {
+                this.codec = codec;
+                return this;
+            }
+        }
+    }
+
+    @Config("identities")
+    public static class IdentityConfig {
+        private SnowflakeConfig snowflake = new SnowflakeConfig();
+        private PoolConfig pool = new PoolConfig();
+        private boolean deferred = false;
+
+        public boolean isDeferred() {
+            return deferred;
+        }
+
+        public IdentityConfig setDeferred(boolean deferred) {
+            this.deferred = deferred;
+            return this;
+        }
+
+        public SnowflakeConfig snowflake() {
+            return snowflake;
+        }
+
+        public PoolConfig pool() {
+            return pool;
+        }
+
+        @Config("snowflake")
+        public static class SnowflakeConfig {
+            private int nodeId = 0;
+            private int nodeIdBits = 10;
+            private int sequenceBits = 12;
+            private long epoch = 1483228800000L;
+            private long maxClockRegression = 0;
+
+            public int getNodeId() {
+                return nodeId;
+            }
+
+            public SnowflakeConfig setNodeId(int nodeId) {
+                this.nodeId = nodeId;
+                return this;
+            }
+
+            public int getNodeIdBits() {
+                return nodeIdBits;
+            }
+
+            public SnowflakeConfig setNodeIdBits(int nodeIdBits) {
+                this.nodeIdBits = nodeIdBits;
+                return this;
+            }
+
+            public int getSequenceBits() {
+                return sequenceBits;
+            }
+
+            public SnowflakeConfig setSequenceBits(int sequenceBits) {
+                this.sequenceBits = sequenceBits;
+                return this;
+            }
+
+            public long getEpoch() {
+                return epoch;
+            }
+
+            public SnowflakeConfig setEpoch(long epoch) {
+                this.epoch = epoch;
+                return this;
+            }
+
+            public long getMaxClockRegression() {
+                return maxClockRegression;
+            }
+
+            public SnowflakeConfig setMaxClockRegression(long maxClockRegression) {
+                this.maxClockRegression = maxClockRegression;
+                return this;
+            }
+        }
+
+        @Config("pool")
+        public static class PoolConfig {
+            private int size = 0;
+            private int lowWaterMark = 0;
+            private int refillThreads = 1;
+
+            public int getSize() {
+                return size;
+            }
+
+            public PoolConfig setSize(int size) {
+                this.size = size;
+                return this;
+            }
+
+            public int getLowWaterMark() {
+                return lowWaterMark;
+            }
+
+            public PoolConfig setLowWaterMark(int lowWaterMark) {
+                this.lowWaterMark = lowWaterMark;
+                return this;
+            }
+
+            public int getRefillThreads() {
+                return refillThreads;
+            }
+
+            public PoolConfig setRefillThreads(int refillThreads) {
+                this.refillThreads = refillThreads;
+                return this;
+            }
+        }
+    }
+
+    @Config("repositories")
+    public static class RepositoryConfig {
+        private boolean metrics = false;
+        private boolean identityMap = false;
+        private int partitionThreads = 0;
+        private CacheConfig cache = new CacheConfig();
+        private WriteBehindConfig writeBehind = new WriteBehindConfig();
+        private OffHeapConfig offHeap = new OffHeapConfig();
+
+        public boolean isMetrics() {
+            return metrics;
+        }
+
+        public RepositoryConfig setMetrics(boolean metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public boolean isIdentityMap() {
+            return identityMap;
+        }
+
+        public RepositoryConfig setIdentityMap(boolean identityMap) {
+            this.identityMap = identityMap;
+            return this;
+        }
+
+        public int getPartitionThreads() {
+            return partitionThreads;
+        }
+
+        public RepositoryConfig setPartitionThreads(int partitionThreads) {
+            this.partitionThreads = partitionThreads;
+            return this;
+        }
+
+        public CacheConfig cache() {
+            return cache;
+        }
+
+        public WriteBehindConfig writeBehind() {
+            return writeBehind;
+        }
+
+        public OffHeapConfig offHeap() {
+            return offHeap;
+        }
+
+        @Config("cache")
+        public static class CacheConfig {
+            private boolean enabled = false;
+            private long maxSize = 10000;
+            private long expireAfterWrite = 0;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public CacheConfig setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                return this;
+            }
+
+            public long getMaxSize() {
+                return maxSize;
+            }
+
+            public CacheConfig setMaxSize(long maxSize) {
+                this.maxSize = maxSize;
+                return this;
+            }
+
+            public long getExpireAfterWrite() {
+                return expireAfterWrite;
+            }
+
+            public CacheConfig setExpireAfterWrite(long expireAfterWrite) {
+                this.expireAfterWrite = expireAfterWrite;
+                return this;
+            }
+        }
+
+        @Config("writeBehind")
+        public static class WriteBehindConfig {
+            private boolean enabled = false;
+            private int batchSize = 1000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public WriteBehindConfig setEnabled(boolean enabled) {
+                this.enabled = enabled;
+                return this;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public WriteBehindConfig setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+                return this;
+            }
+        }
+
+        @Config("offHeap")
+        public static class OffHeapConfig {
+            private String directory;
+            private int segmentSize = 64 * 1024 * 1024;
+            private double compactionThreshold = 0.5;
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public OffHeapConfig setDirectory(String directory) {
+                this.directory = directory;
+                return this;
+            }
+
+            public int getSegmentSize() {
+                return segmentSize;
+            }
+
+            public OffHeapConfig setSegmentSize(int segmentSize) {
+                this.segmentSize = segmentSize;
+                return this;
+            }
+
+            public double getCompactionThreshold() {
+                return compactionThreshold;
+            }
+
+            public OffHeapConfig setCompactionThreshold(double compactionThreshold) {
+                this.compactionThreshold = compactionThreshold;
+                return this;
+            }
+        }
     }
 }
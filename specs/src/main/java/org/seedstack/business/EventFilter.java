@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.function.Predicate;
+
+/**
+ * Restricts the events delivered to an event handler. Filters are evaluated before the handler is resolved or
+ * instantiated, so events which are not accepted cost no handler lookup nor invocation. A filter can be declared:
+ * <ul>
+ * <li>on the event handler class, referencing a {@link Predicate} of the handled event class. The predicate is created
+ * once with its public no-arg constructor and its members are injected.</li>
+ * <li>on a static method of the event handler class, returning a boolean and taking the handled event as single
+ * parameter.</li>
+ * </ul>
+ * For instance:
+ * <pre>
+ * public class LargeOrderHandler implements EventHandler&lt;OrderPlaced&gt; {
+ *     {@literal @}EventFilter
+ *     static boolean accepts(OrderPlaced event) {
+ *         return event.getAmount() &gt; 1000;
+ *     }
+ *
+ *     public void handle(OrderPlaced event) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * When several filters are declared, an event is delivered only if all of them accept it.
+ *
+ * @see EventHandler
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface EventFilter {
+    /**
+     * @return the predicate class when the annotation is placed on an event handler class. Ignored on methods.
+     */
+    Class<? extends Predicate> value() default Predicate.class;
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+/**
+ * EventJournal gives access to the domain events recorded when the journal is enabled with the
+ * `business.events.journal.enabled` configuration property. Each fired domain event is appended to the journal with a
+ * sequence number and a timestamp, so a range of events can be replayed later, for instance to rebuild read models.
+ * <p>
+ * Replayed events are delivered synchronously to the registered event handlers, on the calling thread. They are not
+ * recorded again, nor delivered to batch event handlers or event lanes. The domain events fired by handlers during a
+ * replay are ignored, since they were recorded when first fired and are replayed from the journal themselves.
+ * </p>
+ *
+ * @see EventService
+ */
+public interface EventJournal {
+
+    /**
+     * @return the sequence number of the last recorded event or 0 if the journal is empty.
+     */
+    long getLastSequence();
+
+    /**
+     * Replays the recorded events whose sequence number is within the specified range.
+     *
+     * @param fromSequence the first sequence number to replay, inclusive.
+     * @param toSequence   the last sequence number to replay, inclusive.
+     * @return the number of replayed events.
+     */
+    long replay(long fromSequence, long toSequence);
+
+    /**
+     * Replays the recorded events whose timestamp is within the specified range.
+     *
+     * @param fromTimestamp the first timestamp to replay in milliseconds since the epoch, inclusive.
+     * @param toTimestamp   the last timestamp to replay in milliseconds since the epoch, inclusive.
+     * @return the number of replayed events.
+     */
+    long replayPeriod(long fromTimestamp, long toTimestamp);
+
+}
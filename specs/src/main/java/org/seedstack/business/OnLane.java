@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business;
+
+import org.seedstack.business.domain.AggregateEvent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts an event handler in asynchronous delivery on the worker lanes enabled with the {@code business.events.lanes}
+ * configuration. The {@link AggregateEvent}s delivered to the annotated handler are queued on the lane of their
+ * aggregate and handled there, in firing order per aggregate, while the firing thread continues. Other events, events
+ * without aggregate identity and events fired from a lane are still handled synchronously. Handlers without this
+ * annotation always handle events synchronously on the firing thread, within its transaction.
+ * <p>
+ * An asynchronous handler runs after the firing method may have returned, outside of its transaction and unit of work.
+ * The exceptions it throws cannot reach the firing code: they are logged, counted as lane failures and reported to the
+ * {@link org.seedstack.business.spi.EventMetricsSink}.
+ * </p>
+ *
+ * @see EventHandler
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface OnLane {
+}
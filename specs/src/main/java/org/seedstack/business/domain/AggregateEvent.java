@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.seedstack.business.Event;
+
+/**
+ * An event concerning a specific aggregate instance. When event lanes are enabled, the event handlers annotated with
+ * {@link org.seedstack.business.OnLane} handle the events of the same aggregate in the order they were fired, while the
+ * events of different aggregates can be handled in parallel. Events fired by a handler already running on a lane are
+ * handled immediately on that lane, nested in the current event. Other handlers handle these events synchronously.
+ */
+public interface AggregateEvent extends Event {
+    /**
+     * Returns the identity of the aggregate concerned by this event.
+     *
+     * @return the aggregate identity or null if the event cannot be related to a single aggregate.
+     */
+    Object getAggregateId();
+}
@@ -16,4 +16,16 @@ import org.seedstack.business.Producible;
  */
 @DomainAggregateRoot
 public interface AggregateRoot<ID> extends Entity<ID>, DomainObject, Producible {
+    /**
+     * Returns the version of the aggregate, which is managed by the framework. Versioning repositories increment it each
+     * time they store the aggregate and reject the saving of an aggregate whose version is not the stored one with a
+     * {@link VersionConflictException}. A version of 0 means that the aggregate was not loaded from a versioning
+     * repository: saving it overwrites the stored aggregate without check. This version is distinct from any version
+     * attribute handled by the persistence technology.
+     *
+     * @return the version of the aggregate or 0 if it is not versioned.
+     */
+    default long getAggregateVersion() {
+        return 0;
+    }
 }
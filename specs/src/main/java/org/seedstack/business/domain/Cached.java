@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation enables the caching of an aggregate root class by its repositories: loading an aggregate already
+ * loaded returns a copy of the cached aggregate without reaching the persistence. Caching can also be enabled with the
+ * {@code cached} class configuration property and tuned with the {@code cacheMaxSize} and
+ * {@code cacheExpireAfterWrite} ones.
+ * <p>
+ * The cache of an aggregate is invalidated by every persist or delete operation of its repositories, and again at the
+ * end of the unit of work and after the transaction of the operation, once it is committed or rolled back. Until then,
+ * loads of the written aggregate within the unit of work or the transaction bypass the cache. The cache is local to the
+ * application instance: aggregates modified by other means than its repositories must not be cached.
+ * </p>
+ * <p>
+ * Aggregates are cached as serialized snapshots taken when they are loaded and each load returns a new copy, so that
+ * callers never share an instance and the {@link AggregateRoot#getAggregateVersion() version} of each copy is the one
+ * it was loaded at. Cached aggregate root classes and their identifiers must therefore be
+ * {@link java.io.Serializable}.
+ * </p>
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+public @interface Cached {
+    /**
+     * @return the maximum number of cached aggregates, the least recently used being evicted first. If 0 (default),
+     * the {@code business.repositories.cache.maxSize} configuration property applies.
+     */
+    long maxSize() default 0;
+
+    /**
+     * @return the number of milliseconds after which a cached aggregate is evicted. If 0 (default), the
+     * {@code business.repositories.cache.expireAfterWrite} configuration property applies.
+     */
+    long expireAfterWrite() default 0;
+}
@@ -9,6 +9,10 @@ package org.seedstack.business.domain;
 
 import org.seedstack.business.Producible;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Factory allows creation of {@link DomainObject} that are {@link Producible} object.
  *
@@ -24,4 +28,29 @@ public interface Factory<DO extends DomainObject & Producible> extends GenericFa
      */
     DO create(Object... args);
 
+    /**
+     * Creates a domain object for each set of arguments. Implementations can share the work common to all the created
+     * objects, like the resolution of constructors or the identification of entities.
+     *
+     * @param argsList the list of arguments of each domain object
+     * @return the list of created domain objects, in the same order as the arguments
+     */
+    default List<DO> createAll(List<Object[]> argsList) {
+        List<DO> domainObjects = new ArrayList<>(argsList.size());
+        for (Object[] args : argsList) {
+            domainObjects.add(create(args));
+        }
+        return domainObjects;
+    }
+
+    /**
+     * Lazily creates a domain object for each set of arguments of a stream.
+     *
+     * @param argsStream the stream of arguments of each domain object
+     * @return the stream of created domain objects
+     */
+    default Stream<DO> createAll(Stream<Object[]> argsStream) {
+        return argsStream.map(this::create);
+    }
+
 }
\ No newline at end of file
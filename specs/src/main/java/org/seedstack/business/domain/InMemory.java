@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import javax.inject.Qualifier;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies the in-memory default repository. This repository keeps aggregates in concurrent maps shared by all its
+ * instances, one per aggregate root class, for the lifetime of the application. It can be injected with this qualifier
+ * or selected as the default repository of an aggregate root class with the following class configuration:
+ * <pre>
+ * defaultRepository: org.seedstack.business.domain.InMemory
+ * </pre>
+ * It is suited to caches, reference data and load tests. Aggregates are stored as immutable serialized snapshots and
+ * each load returns a deep copy: changes made to a loaded aggregate, including to the entities and collections it
+ * holds, are only visible to other readers once it is saved. Aggregates and their identifiers must therefore be
+ * {@link java.io.Serializable}. Saved and deleted aggregates are checked against concurrent modifications with the
+ * {@link AggregateRoot#getAggregateVersion() version} they were loaded at.
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+public @interface InMemory {
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a secondary index on a field of an aggregate root, maintained by the in-memory repository on each persist,
+ * save and delete operation. Indexed fields can be queried in constant time, or in logarithmic time for ranges of
+ * sorted indexes, through {@link IndexedRepository}. Aggregates whose indexed field is null are not indexed.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Indexed {
+    /**
+     * @return if true, two aggregates cannot have equal values for this field.
+     */
+    boolean unique() default false;
+
+    /**
+     * @return if true, the index keeps the values in their natural order to answer range queries. The field type must
+     * be comparable.
+     */
+    boolean sorted() default false;
+}
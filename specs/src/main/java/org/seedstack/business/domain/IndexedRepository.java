@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A repository able to find aggregates by the value of their fields. Queries use the best {@link Indexed} index of the
+ * field if any: a unique or non-unique index for equality, a sorted index for ranges. Queries on several fields use the
+ * most selective index of their fields. Fields without a suitable index are scanned.
+ *
+ * @param <A> the type of aggregate root.
+ * @param <K> the type of aggregate key.
+ */
+public interface IndexedRepository<A extends AggregateRoot<K>, K> extends Repository<A, K> {
+    /**
+     * Finds the aggregates whose field is equal to the specified value.
+     *
+     * @param field the field name.
+     * @param value the value.
+     * @return the matching aggregates.
+     */
+    @Read
+    List<A> find(String field, Object value);
+
+    /**
+     * Finds the aggregates whose fields are all equal to the specified values. The candidates are looked up in the
+     * index of the criteria fields holding the fewest aggregates for its value, then filtered with the other criteria.
+     *
+     * @param criteria the values by field name.
+     * @return the matching aggregates.
+     */
+    @Read
+    List<A> find(Map<String, ?> criteria);
+
+    /**
+     * Finds the aggregates whose field is in the specified range, in the natural order of the field.
+     *
+     * @param field the field name.
+     * @param from  the lowest value, inclusive, or null for no lower bound.
+     * @param to    the highest value, exclusive, or null for no upper bound.
+     * @return the matching aggregates.
+     */
+    @Read
+    List<A> findRange(String field, Comparable<?> from, Comparable<?> to);
+}
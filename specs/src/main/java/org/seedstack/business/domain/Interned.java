@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation enables the interning of a value object class by its default factory: creating a value object with
+ * the same constructor arguments as a live instance returns that instance. Interning can also be enabled with the
+ * {@code interned} class configuration property and bounded with the {@code internMaxSize} one.
+ * <p>
+ * Interned value objects are shared and must be {@link Immutable}. Two sets of constructor arguments which are equal
+ * must produce equal value objects.
+ * </p>
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.ANNOTATION_TYPE, ElementType.TYPE})
+public @interface Interned {
+    /**
+     * @return the maximum number of interned instances, the least recently used being evicted first. If 0 (default),
+     * interned instances are held by weak references and evicted when they are not used anymore.
+     */
+    int maxSize() default 0;
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import javax.inject.Qualifier;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies the off-heap default repository. This repository keeps serialized aggregates in memory-mapped files outside
+ * of the Java heap, so that large data sets do not lengthen garbage collection pauses. It can be injected with this
+ * qualifier or selected as the default repository of an aggregate root class with the following class configuration:
+ * <pre>
+ * defaultRepository: org.seedstack.business.domain.OffHeap
+ * </pre>
+ * Aggregates and their identifiers must be {@link java.io.Serializable}, which is checked when the application starts
+ * for the aggregates selecting this repository by configuration. Each load returns a new copy of the aggregate,
+ * deserialized from its stored form: changes must be saved to be visible. Saved and deleted aggregates are checked
+ * against concurrent modifications with their {@link AggregateRoot#getAggregateVersion() version}.
+ * <p>
+ * This repository is a volatile scratch area, not a persistent storage: its index is only kept in memory, so the
+ * stored aggregates do not survive a restart of the application and its files are deleted when it stops or starts
+ * again.
+ * </p>
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+public @interface OffHeap {
+}
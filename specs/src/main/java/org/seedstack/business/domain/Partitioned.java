@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import javax.inject.Qualifier;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies the partitioned default repository. This repository spreads the aggregates of a class over several
+ * underlying repositories, called partitions, each one usually backed by its own physical store. Operations on a
+ * single aggregate are routed to the partition of its key, {@link Repository#count()} and {@link Repository#clear()}
+ * are sent to all partitions and the bulk operations group their keys by partition. Partitions are processed one after
+ * the other on the calling thread, unless {@code business.repositories.partitionThreads} is set to process them in
+ * parallel. Since a transaction is bound to the thread which started it, partitions are always processed on the calling
+ * thread within a transaction. It is selected with the following class configuration:
+ * <pre>
+ * defaultRepository: org.seedstack.business.domain.Partitioned
+ * partitions: org.example.FirstStore, org.example.SecondStore
+ * partitionBounds: M
+ * </pre>
+ * The {@code partitions} property lists the qualifiers of the partition repositories, either as annotation class names
+ * or as {@link javax.inject.Named} values. Without {@code partitionBounds}, an aggregate goes to the partition given by
+ * a hash of its key which only depends on its value, so keys must be strings, boxed integral types, big numbers, UUIDs,
+ * enums or value objects. Otherwise {@code partitionBounds} lists the
+ * ascending exclusive upper bounds of all partitions but the last one, as values convertible to the key class, and
+ * keys must be {@link Comparable}.
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.PARAMETER, ElementType.METHOD})
+public @interface Partitioned {
+}
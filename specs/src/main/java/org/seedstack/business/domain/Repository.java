@@ -7,6 +7,10 @@
  */
 package org.seedstack.business.domain;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * This interface has to be extended in order to create a Domain Repository <em>interface</em>.
  * <p>
@@ -98,6 +102,51 @@ public interface Repository<A extends AggregateRoot<K>, K> {
     @Persist
     A save(A aggregate);
 
+    /**
+     * Loads several aggregates from the persistence by their keys. Implementations can group the keys to reduce the
+     * number of round-trips to the persistence. This method is not a repository operation by itself: the default
+     * implementation calls {@link #load(Object)} for each key, which is intercepted as a single-aggregate operation.
+     *
+     * @param ids the aggregate keys
+     * @return the loaded aggregates by key, in the iteration order of the keys, without the keys of missing aggregates
+     */
+    default Map<K, A> loadAll(Collection<K> ids) {
+        Map<K, A> aggregates = new LinkedHashMap<>();
+        for (K id : ids) {
+            A aggregate = load(id);
+            if (aggregate != null) {
+                aggregates.put(id, aggregate);
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * Creates several aggregates in the persistence. This method is not a repository operation by itself: the default
+     * implementation calls {@link #persist(AggregateRoot)} for each aggregate, which is intercepted as a single-aggregate
+     * operation.
+     *
+     * @param aggregates the aggregates to persist
+     */
+    default void persistAll(Collection<A> aggregates) {
+        for (A aggregate : aggregates) {
+            persist(aggregate);
+        }
+    }
+
+    /**
+     * Deletes several aggregates from the persistence by their keys. This method is not a repository operation by
+     * itself: the default implementation calls {@link #delete(Object)} for each key, which is intercepted as a
+     * single-aggregate operation.
+     *
+     * @param ids the aggregate keys
+     */
+    default void deleteAll(Collection<K> ids) {
+        for (K id : ids) {
+            delete(id);
+        }
+    }
+
 
     /**
      * @return the aggregate root class.
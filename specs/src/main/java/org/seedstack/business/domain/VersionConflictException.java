@@ -0,0 +1,26 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.domain;
+
+import org.seedstack.seed.SeedException;
+import org.seedstack.shed.exception.ErrorCode;
+
+/**
+ * Thrown by versioning repositories when an aggregate cannot be stored because it was modified concurrently since it
+ * was loaded, as detected by its {@link AggregateRoot#getAggregateVersion() version}. The operation can be retried
+ * after loading the aggregate again.
+ */
+public class VersionConflictException extends SeedException {
+    protected VersionConflictException(ErrorCode errorCode) {
+        super(errorCode);
+    }
+
+    protected VersionConflictException(ErrorCode errorCode, Throwable cause) {
+        super(errorCode, cause);
+    }
+}
@@ -21,7 +21,8 @@ public interface IdentityHandler<E extends Entity<ID>, ID> {
     /**
      * Generate new id for entity.
      *
-     * @param entity              Generate by the factory
+     * @param entity              Generate by the factory, or null when the handler is annotated with
+     *                            {@link EntityIndependent} and the identity is generated in advance for a pool
      * @param entityConfiguration property coming from props configuration for entity
      * @return the entity id
      */
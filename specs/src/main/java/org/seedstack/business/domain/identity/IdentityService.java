@@ -9,6 +9,8 @@ package org.seedstack.business.domain.identity;
 
 import org.seedstack.business.domain.Entity;
 
+import java.util.List;
+
 /**
  * IdentityService generate a unique appropriate ID for a given entity
  */
@@ -23,4 +25,43 @@ public interface IdentityService {
      * @return the identified entity
      */
     <E extends Entity<ID>, ID> E identify(E entity);
+
+    /**
+     * Identifies the given entity or, if deferred identification is enabled for its class and a unit of work is
+     * active, defers its identification. Deferred entities are identified all at once on the first persist operation
+     * of a repository or on the next call to {@link #flush()} in the same unit of work. The default implementation
+     * identifies the entity immediately.
+     *
+     * @param entity the entity to identify
+     * @param <E>    the entity type
+     * @param <ID>   the entity key type
+     * @return the entity, which may not be identified yet
+     */
+    default <E extends Entity<ID>, ID> E identifyOrDefer(E entity) {
+        return identify(entity);
+    }
+
+    /**
+     * Identifies the given entities or defers their identification like {@link #identifyOrDefer(Entity)}. The identity
+     * handler of each entity class is resolved once for all the entities of this class. The default implementation
+     * calls {@link #identifyOrDefer(Entity)} for each entity.
+     *
+     * @param entities the entities to identify
+     * @param <E>      the entity type
+     * @param <ID>     the entity key type
+     * @return the entities, which may not be identified yet
+     */
+    default <E extends Entity<ID>, ID> List<E> identifyAllOrDefer(List<E> entities) {
+        for (E entity : entities) {
+            identifyOrDefer(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Identifies all the entities whose identification has been deferred in the current unit of work. Does nothing
+     * outside of a unit of work. The default implementation does nothing.
+     */
+    default void flush() {
+    }
 }
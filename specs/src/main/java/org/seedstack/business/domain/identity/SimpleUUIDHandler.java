@@ -17,6 +17,7 @@ import java.util.UUID;
 /**
  * Uuid handler
  */
+@EntityIndependent
 @Named("simpleUUID")
 public class SimpleUUIDHandler implements UUIDHandler<Entity<UUID>, UUID> {
 
@@ -0,0 +1,25 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.spi;
+
+/**
+ * Creates the slots holding the contextual state of the business framework, like the events being dispatched or the
+ * current unit of work. The default carrier stores each slot in a {@link ThreadLocal} which is cleared as soon as no
+ * value is bound anymore. Another implementation can be plugged by declaring it in a
+ * {@code META-INF/services/org.seedstack.business.spi.ContextCarrier} file, in which case the first one found by the
+ * {@link java.util.ServiceLoader} is used.
+ */
+public interface ContextCarrier {
+    /**
+     * Creates a new slot.
+     *
+     * @param <T> the type of the slot value.
+     * @return the slot.
+     */
+    <T> ContextSlot<T> createSlot();
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.spi;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Holds a contextual value for the current execution context, as created by a {@link ContextCarrier}. A value is never
+ * set on its own: it is bound for the duration of a task and is no longer visible once the task returns, so a slot can
+ * be implemented with a scoped carrier like {@code ScopedValue} as well as with a {@link ThreadLocal}.
+ *
+ * @param <T> the type of the value.
+ */
+public interface ContextSlot<T> {
+    /**
+     * Returns the value bound in the current execution context.
+     *
+     * @return the current value or null if no value is bound.
+     */
+    T get();
+
+    /**
+     * Runs a task with the specified value bound to this slot. The previous value is bound again when the task returns.
+     *
+     * @param value the value.
+     * @param task  the task.
+     */
+    void run(T value, Runnable task);
+
+    /**
+     * Calls a task with the specified value bound to this slot. The previous value is bound again when the task returns.
+     *
+     * @param value the value.
+     * @param task  the task.
+     * @param <V>   the type of the task result.
+     * @return the task result.
+     * @throws Exception if the task throws an exception.
+     */
+    <V> V call(T value, Callable<V> task) throws Exception;
+}
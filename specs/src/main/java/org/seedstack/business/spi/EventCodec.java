@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.spi;
+
+import org.seedstack.business.domain.DomainEvent;
+
+/**
+ * Converts domain events to and from bytes for the event journal. The codec used is specified with the
+ * `business.events.journal.codec` configuration property. Implementations must be thread-safe.
+ */
+public interface EventCodec {
+    /**
+     * Encodes an event.
+     *
+     * @param event the event.
+     * @return the encoded event.
+     */
+    byte[] encode(DomainEvent event);
+
+    /**
+     * Decodes an event.
+     *
+     * @param eventClass the class of the encoded event.
+     * @param bytes      the encoded event.
+     * @param <E>        the type of the event.
+     * @return the decoded event.
+     */
+    <E extends DomainEvent> E decode(Class<E> eventClass, byte[] bytes);
+}
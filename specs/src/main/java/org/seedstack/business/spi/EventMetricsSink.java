@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2013-2016, The SeedStack authors <http://seedstack.org>
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package org.seedstack.business.spi;
+
+import org.seedstack.business.Event;
+import org.seedstack.business.EventHandler;
+
+/**
+ * Receives the measures taken by the event service around each event handler invocation. The sink used is specified
+ * with the `business.events.metricsSink` configuration property. Implementations are called synchronously on the
+ * thread invoking the handler, which is a lane thread for {@link org.seedstack.business.OnLane} handlers, so they must
+ * be thread-safe and fast.
+ */
+public interface EventMetricsSink {
+    /**
+     * Called after an event handler has been invoked, whether it succeeded or not.
+     *
+     * @param eventClass        the event class the handler is registered for.
+     * @param eventHandlerClass the event handler class.
+     * @param depth             the nesting depth of the event, 1 for an event fired outside of any event handler.
+     * @param duration          the duration of the invocation in nanoseconds.
+     * @param failure           the exception thrown by the handler or null if it succeeded.
+     */
+    void handlerInvoked(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass, int depth, long duration, Throwable failure);
+
+    /**
+     * Called when an event is not delivered to an event handler because one of its {@code EventFilter}s rejected it.
+     *
+     * @param eventClass        the event class the handler is registered for.
+     * @param eventHandlerClass the event handler class.
+     */
+    default void handlerSkipped(Class<? extends Event> eventClass, Class<? extends EventHandler> eventHandlerClass) {
+        // nothing to do by default
+    }
+}